@@ -0,0 +1,99 @@
+package com.sumativa.commons.http;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.stream.Collectors;
+
+/**
+ * ETags calculados con la versión (@Version) de las filas que la solicitud ya leyó.
+ *
+ * Una escritura sólo incrementa la versión de sus propias filas, dentro de su
+ * transacción: no hay contadores compartidos ni consultas extra. El controlador
+ * pone el ETag en la ResponseEntity y Spring MVC responde 304 a un If-None-Match
+ * que coincide, sin serializar el cuerpo.
+ *
+ * Las escrituras hechas fuera de JPA (SQL directo) deben incrementar la versión
+ * ellas mismas, o los clientes pueden recibir 304 con datos anteriores.
+ */
+public final class Etags {
+
+    private Etags() {
+    }
+
+    /**
+     * ETag fuerte de un recurso: la versión de su fila y, a continuación, las
+     * de las filas relacionadas que incluye la representación ("4" o "4.1").
+     * Null si falta alguna versión (entidad no persistida): la respuesta va sin ETag.
+     */
+    public static String fuerte(Long... versiones) {
+        if (Arrays.asList(versiones).contains(null)) {
+            return null;
+        }
+        return Arrays.stream(versiones)
+                .map(String::valueOf)
+                .collect(Collectors.joining(".", "\"", "\""));
+    }
+
+    /**
+     * ETag débil de una colección, a completar con {@link Coleccion#agregar}
+     */
+    public static Coleccion coleccion() {
+        return new Coleccion();
+    }
+
+    /**
+     * Resumen (MD5) de los IDs y versiones de los elementos de una colección en
+     * el orden de la respuesta: cambia si cambia, entra o sale cualquiera de ellos.
+     *
+     * Es débil: la misma representación puede viajar comprimida o no (Tomcat no
+     * comprime una respuesta con ETag fuerte).
+     */
+    public static final class Coleccion {
+
+        private final MessageDigest digest;
+        private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        private boolean completa = true;
+
+        private Coleccion() {
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("MD5 no disponible", e);
+            }
+        }
+
+        /**
+         * Agrega un elemento: su ID y versión, y los de las filas relacionadas
+         * que incluye la representación. También sirve para datos de la respuesta
+         * que no vienen de una fila, como si hay una página siguiente.
+         */
+        public Coleccion agregar(Long... valores) {
+            escribir(valores.length);
+            for (Long valor : valores) {
+                if (valor == null) {
+                    completa = false;
+                    return this;
+                }
+                escribir(valor);
+            }
+            return this;
+        }
+
+        /**
+         * El ETag (W/"..."), o null si algún elemento no tenía versión
+         */
+        public String debil() {
+            if (!completa) {
+                return null;
+            }
+            return "W/\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+        }
+
+        private void escribir(long valor) {
+            digest.update(buffer.clear().putLong(valor).flip());
+        }
+    }
+}
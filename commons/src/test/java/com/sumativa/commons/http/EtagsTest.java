@@ -0,0 +1,95 @@
+package com.sumativa.commons.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para Etags
+ */
+class EtagsTest {
+
+    private static String coleccion(long[]... filas) {
+        Etags.Coleccion etag = Etags.coleccion();
+        for (long[] fila : filas) {
+            Long[] valores = new Long[fila.length];
+            for (int i = 0; i < fila.length; i++) {
+                valores[i] = fila[i];
+            }
+            etag.agregar(valores);
+        }
+        return etag.debil();
+    }
+
+    // ==================== fuerte Tests ====================
+
+    @Test
+    void fuerte_shouldQuoteVersion() {
+        // Act & Assert
+        assertEquals("\"4\"", Etags.fuerte(4L));
+    }
+
+    @Test
+    void fuerte_shouldJoinRelatedVersions() {
+        // Act & Assert
+        assertEquals("\"4.1\"", Etags.fuerte(4L, 1L));
+    }
+
+    @Test
+    void fuerte_shouldReturnNull_whenVersionIsMissing() {
+        // Act & Assert
+        assertNull(Etags.fuerte(4L, null));
+    }
+
+    // ==================== coleccion Tests ====================
+
+    @Test
+    void coleccion_shouldBeWeakAndStable() {
+        // Act
+        String etag = coleccion(new long[]{1, 0}, new long[]{2, 3});
+
+        // Assert
+        assertTrue(etag.matches("W/\"[0-9a-f]{32}\""), etag);
+        assertEquals(etag, coleccion(new long[]{1, 0}, new long[]{2, 3}));
+    }
+
+    @Test
+    void coleccion_shouldChange_whenVersionChanges() {
+        // Act & Assert
+        assertNotEquals(coleccion(new long[]{1, 0}, new long[]{2, 3}),
+                coleccion(new long[]{1, 0}, new long[]{2, 4}));
+    }
+
+    @Test
+    void coleccion_shouldChange_whenElementIsAddedOrRemoved() {
+        // Arrange
+        String antes = coleccion(new long[]{1, 0}, new long[]{2, 0});
+
+        // Act & Assert
+        assertNotEquals(antes, coleccion(new long[]{1, 0}));
+        assertNotEquals(antes, coleccion(new long[]{1, 0}, new long[]{2, 0}, new long[]{3, 0}));
+        assertNotEquals(antes, coleccion());
+    }
+
+    @Test
+    void coleccion_shouldChange_whenOrderChanges() {
+        // Act & Assert
+        assertNotEquals(coleccion(new long[]{1, 0}, new long[]{2, 0}),
+                coleccion(new long[]{2, 0}, new long[]{1, 0}));
+    }
+
+    @Test
+    void coleccion_shouldNotConfuseElementBoundaries() {
+        // Act & Assert: los mismos valores agrupados de otra forma son otra colección
+        assertNotEquals(coleccion(new long[]{1, 2, 3, 4}), coleccion(new long[]{1, 2}, new long[]{3, 4}));
+    }
+
+    @Test
+    void coleccion_shouldReturnNull_whenVersionIsMissing() {
+        // Act
+        String etag = Etags.coleccion().agregar(1L, 0L).agregar(2L, null).agregar(3L, 0L).debil();
+
+        // Assert
+        assertNull(etag);
+    }
+}
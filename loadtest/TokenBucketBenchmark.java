@@ -0,0 +1,132 @@
+import com.sumativa.ms_gateway.security.TokenBucketStore;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Microbenchmark de TokenBucketStore.tryAcquire contra un token bucket clasico
+ * con synchronized (un mapa y un lock para todas las claves).
+ *
+ * Politica api (50/s con rafagas de 100). N hilos llaman sin pausa sobre
+ * claves al azar: 1 s de calentamiento y 3 s de medicion por caso.
+ *
+ * Uso, desde la raiz del repositorio y con ms-gateway compilado:
+ *   java -cp ms-gateway/target/classes loadtest/TokenBucketBenchmark.java [hilos...]
+ */
+public class TokenBucketBenchmark {
+
+    private static final int LIMIT = 50;
+    private static final int BURST = 100;
+    private static final Duration PERIOD = Duration.ofSeconds(1);
+    private static final Duration CALENTAMIENTO = Duration.ofSeconds(1);
+    private static final Duration MEDICION = Duration.ofSeconds(3);
+
+    /**
+     * Destino de los resultados de tryAcquire, para que el JIT no descarte las llamadas
+     */
+    private static volatile long sumidero;
+
+    interface Limitador {
+        long tryAcquire(String clave);
+    }
+
+    /**
+     * Token bucket clasico: tokens y ultima recarga por clave, bajo un lock global
+     */
+    static final class Sincronizado implements Limitador {
+
+        private static final class Balde {
+            double tokens = BURST;
+            long ultimaRecarga = System.nanoTime();
+        }
+
+        private final Map<String, Balde> baldes = new HashMap<>();
+        private final double tokensPorNano = (double) LIMIT / PERIOD.toNanos();
+
+        @Override
+        public synchronized long tryAcquire(String clave) {
+            long ahora = System.nanoTime();
+            Balde balde = baldes.computeIfAbsent(clave, k -> new Balde());
+            balde.tokens = Math.min(BURST, balde.tokens + (ahora - balde.ultimaRecarga) * tokensPorNano);
+            balde.ultimaRecarga = ahora;
+            if (balde.tokens >= 1) {
+                balde.tokens -= 1;
+                return 0;
+            }
+            return (long) ((1 - balde.tokens) / tokensPorNano);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] hilos = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 4, 16};
+        System.out.printf("CPUs disponibles: %d%n", Runtime.getRuntime().availableProcessors());
+        System.out.println("| Claves | Hilos | TokenBucketStore | synchronized |");
+        System.out.println("|--------|-------|------------------|--------------|");
+        for (int claves : new int[]{1, 10_000}) {
+            String[] nombres = new String[claves];
+            for (int i = 0; i < claves; i++) {
+                nombres[i] = "10.0." + (i / 256) + "." + (i % 256);
+            }
+            for (int n : hilos) {
+                TokenBucketStore store = new TokenBucketStore(LIMIT, PERIOD, BURST, 100_000,
+                        Duration.ofMinutes(10), System::nanoTime);
+                double gcra = medir(store::tryAcquire, nombres, n);
+                double sincronizado = medir(new Sincronizado(), nombres, n);
+                System.out.printf("| %d | %d | %.1f M ops/s | %.1f M ops/s |%n",
+                        claves, n, gcra / 1e6, sincronizado / 1e6);
+            }
+        }
+    }
+
+    /**
+     * Operaciones por segundo de n hilos sobre el limitador durante MEDICION
+     */
+    private static double medir(Limitador limitador, String[] claves, int n) throws InterruptedException {
+        LongAdder operaciones = new LongAdder();
+        CountDownLatch inicio = new CountDownLatch(1);
+        long finCalentamiento = System.nanoTime() + CALENTAMIENTO.toNanos();
+        long fin = finCalentamiento + MEDICION.toNanos();
+        Thread[] threads = new Thread[n];
+        for (int t = 0; t < n; t++) {
+            threads[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long esperas = 0;
+                long contadas = 0;
+                try {
+                    inicio.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (true) {
+                    // El reloj se consulta cada 1024 llamadas para no medir System.nanoTime
+                    for (int i = 0; i < 1024; i++) {
+                        esperas += limitador.tryAcquire(claves[random.nextInt(claves.length)]);
+                    }
+                    long ahora = System.nanoTime();
+                    if (ahora - fin >= 0) {
+                        break;
+                    }
+                    if (ahora - finCalentamiento >= 0) {
+                        contadas += 1024;
+                    }
+                }
+                operaciones.add(contadas);
+                sumidero += esperas;
+            });
+            threads[t].start();
+        }
+        inicio.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return operaciones.sum() / (MEDICION.toNanos() / 1e9);
+    }
+}
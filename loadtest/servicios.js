@@ -0,0 +1,37 @@
+// Prueba de carga de los microservicios servlet (k6: https://k6.io)
+//
+//   k6 run -e TARGET=http://localhost:8083/api/resultados/pagina?size=20 loadtest/servicios.js
+//
+// Variables:
+//   USERS_URL  URL de ms-users para obtener el token (por defecto http://localhost:8081)
+//   TARGET     URL a consultar en cada iteración
+//   VUS        clientes concurrentes en la meseta (por defecto 1000)
+//   MESETA     duración de la meseta (por defecto 2m)
+import http from 'k6/http';
+import { check } from 'k6';
+
+const USERS_URL = __ENV.USERS_URL || 'http://localhost:8081';
+const TARGET = __ENV.TARGET || 'http://localhost:8083/api/resultados/pagina?size=20';
+const VUS = parseInt(__ENV.VUS || '1000', 10);
+
+export const options = {
+    stages: [
+        { duration: '30s', target: VUS },
+        { duration: __ENV.MESETA || '2m', target: VUS },
+        { duration: '15s', target: 0 },
+    ],
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const res = http.post(`${USERS_URL}/api/users/login`,
+        JSON.stringify({ email: __ENV.EMAIL || 'admin@labcontrol.com', password: __ENV.PASSWORD || 'Admin123!' }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'login 200': (r) => r.status === 200 });
+    return { token: res.json('token') };
+}
+
+export default function (data) {
+    const res = http.get(TARGET, { headers: { Authorization: `Bearer ${data.token}` } });
+    check(res, { 'status 200': (r) => r.status === 200 });
+}
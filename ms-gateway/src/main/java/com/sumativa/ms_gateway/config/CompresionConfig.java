@@ -0,0 +1,32 @@
+package com.sumativa.ms_gateway.config;
+
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Métricas de compresión: instrumenta las conexiones del servidor (respuestas
+ * a los clientes, server.compression) y del cliente HTTP hacia los
+ * microservicios (spring.cloud.gateway.httpclient.compression).
+ */
+@Configuration
+public class CompresionConfig {
+
+    @Bean
+    public CompresionMetricas compresionMetricas() {
+        return new CompresionMetricas();
+    }
+
+    @Bean
+    public NettyServerCustomizer compresionServerCustomizer(CompresionMetricas metricas) {
+        return httpServer -> httpServer.doOnChannelInit(
+                (observer, channel, remoteAddress) -> metricas.instrumentarServidor(channel.pipeline()));
+    }
+
+    @Bean
+    public HttpClientCustomizer compresionClientCustomizer(CompresionMetricas metricas) {
+        return httpClient -> httpClient.doOnChannelInit(
+                (observer, channel, remoteAddress) -> metricas.instrumentarCliente(channel.pipeline()));
+    }
+}
@@ -0,0 +1,156 @@
+package com.sumativa.ms_gateway.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import reactor.netty.NettyPipeline;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bytes y tiempo de compresión del Gateway, medidos en el pipeline de Netty.
+ *
+ * Respuestas a los clientes: un handler a cada lado del compresor de Reactor
+ * Netty cuenta los bytes de cuerpo antes y después de comprimir, y el tiempo de
+ * escritura a través del compresor (compresión y codificación HTTP).
+ * Respuestas de los microservicios: lo mismo alrededor del descompresor del
+ * cliente HTTP, bytes recibidos comprimidos y ya descomprimidos.
+ *
+ * Expone gateway.compression.bytes (direction=response|downstream,
+ * stage=uncompressed|compressed) y gateway.compression.time.
+ */
+public class CompresionMetricas implements MeterBinder {
+
+    private final LongAdder respuestaSinComprimir = new LongAdder();
+    private final LongAdder respuestaComprimida = new LongAdder();
+    private final LongAdder escrituras = new LongAdder();
+    private final LongAdder nanosEscritura = new LongAdder();
+    private final LongAdder downstreamComprimido = new LongAdder();
+    private final LongAdder downstreamSinComprimir = new LongAdder();
+
+    private final ChannelHandler antesDeComprimir = new MedicionEscritura();
+    private final ChannelHandler despuesDeComprimir = new ContadorBytes(respuestaComprimida, false);
+    private final ChannelHandler antesDeDescomprimir = new ContadorBytes(downstreamComprimido, true);
+    private final ChannelHandler despuesDeDescomprimir = new ContadorBytes(downstreamSinComprimir, true);
+
+    /**
+     * Agrega la medición a ambos lados del lugar donde Reactor Netty pone el
+     * compresor de respuestas. El compresor se agrega con la primera respuesta
+     * comprimible de la conexión, justo después de los handlers reactor.left.*;
+     * estos handlers quedan fijos desde la apertura: uno tras el codec HTTP y
+     * otro antes del puente a Reactor, de modo que el compresor queda entre ambos.
+     */
+    void instrumentarServidor(ChannelPipeline pipeline) {
+        if (pipeline.get(NettyPipeline.HttpCodec) != null) {
+            pipeline.addAfter(NettyPipeline.HttpCodec, "gateway.compression.after", despuesDeComprimir);
+            if (pipeline.get(NettyPipeline.ReactiveBridge) != null) {
+                pipeline.addBefore(NettyPipeline.ReactiveBridge, "gateway.compression.before", antesDeComprimir);
+            } else {
+                pipeline.addLast("gateway.compression.before", antesDeComprimir);
+            }
+        }
+    }
+
+    /**
+     * Agrega la medición alrededor del descompresor del cliente HTTP, si la conexión lo tiene
+     */
+    void instrumentarCliente(ChannelPipeline pipeline) {
+        if (pipeline.get(NettyPipeline.HttpDecompressor) != null) {
+            pipeline.addBefore(NettyPipeline.HttpDecompressor, "gateway.decompression.before", antesDeDescomprimir);
+            pipeline.addAfter(NettyPipeline.HttpDecompressor, "gateway.decompression.after", despuesDeDescomprimir);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registrarBytes(registry, respuestaSinComprimir, "response", "uncompressed",
+                "Cuerpo de las respuestas a los clientes antes de comprimir");
+        registrarBytes(registry, respuestaComprimida, "response", "compressed",
+                "Cuerpo de las respuestas a los clientes después de comprimir");
+        registrarBytes(registry, downstreamComprimido, "downstream", "compressed",
+                "Cuerpo recibido de los microservicios, tal como viaja por la red");
+        registrarBytes(registry, downstreamSinComprimir, "downstream", "uncompressed",
+                "Cuerpo recibido de los microservicios, descomprimido");
+        FunctionTimer.builder("gateway.compression.time", this,
+                        m -> m.escrituras.sum(), m -> m.nanosEscritura.sum(), TimeUnit.NANOSECONDS)
+                .description("Tiempo de escritura de las respuestas a través del compresor")
+                .register(registry);
+    }
+
+    private static void registrarBytes(MeterRegistry registry, LongAdder bytes, String direction, String stage,
+                                       String description) {
+        FunctionCounter.builder("gateway.compression.bytes", bytes, LongAdder::doubleValue)
+                .tags("direction", direction, "stage", stage)
+                .baseUnit("bytes")
+                .description(description)
+                .register(registry);
+    }
+
+    private static int tamano(Object msg) {
+        if (msg instanceof ByteBuf buf) {
+            return buf.readableBytes();
+        }
+        if (msg instanceof ByteBufHolder holder) {
+            return holder.content().readableBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * Cuenta el cuerpo antes del compresor y, si la conexión lo tiene, mide la
+     * escritura a través de él. El compresor trabaja dentro de ctx.write, en el
+     * event loop de la conexión.
+     */
+    @ChannelHandler.Sharable
+    private final class MedicionEscritura extends ChannelDuplexHandler {
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            int bytes = tamano(msg);
+            respuestaSinComprimir.add(bytes);
+            if (bytes == 0 || ctx.pipeline().get(NettyPipeline.CompressionHandler) == null) {
+                ctx.write(msg, promise);
+                return;
+            }
+            long inicio = System.nanoTime();
+            ctx.write(msg, promise);
+            nanosEscritura.add(System.nanoTime() - inicio);
+            escrituras.increment();
+        }
+    }
+
+    @ChannelHandler.Sharable
+    private static final class ContadorBytes extends ChannelDuplexHandler {
+        private final LongAdder bytes;
+        private final boolean lectura;
+
+        ContadorBytes(LongAdder bytes, boolean lectura) {
+            this.bytes = bytes;
+            this.lectura = lectura;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (lectura) {
+                bytes.add(tamano(msg));
+            }
+            ctx.fireChannelRead(msg);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (!lectura) {
+                bytes.add(tamano(msg));
+            }
+            ctx.write(msg, promise);
+        }
+    }
+}
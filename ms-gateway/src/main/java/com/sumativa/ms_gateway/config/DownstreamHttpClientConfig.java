@@ -0,0 +1,36 @@
+package com.sumativa.ms_gateway.config;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+
+import java.util.List;
+
+/**
+ * Cliente HTTP del Gateway hacia los microservicios: pool por microservicio
+ * (DownstreamHttpClientFactory) y h2c opcional.
+ */
+@Configuration
+public class DownstreamHttpClientConfig {
+
+    @Bean
+    public HttpClientFactory gatewayHttpClientFactory(HttpClientProperties httpClientProperties,
+                                                      ServerProperties serverProperties,
+                                                      List<HttpClientCustomizer> customizers,
+                                                      HttpClientSslConfigurer sslConfigurer,
+                                                      GatewayProperties gatewayProperties) {
+        return new DownstreamHttpClientFactory(httpClientProperties, serverProperties, sslConfigurer, customizers,
+                gatewayProperties.getRoutes());
+    }
+
+    @Bean
+    public HttpClientCustomizer downstreamProtocolCustomizer(DownstreamHttpProperties properties) {
+        return httpClient -> properties.isH2c() ? httpClient.protocol(HttpProtocol.H2C) : httpClient;
+    }
+}
@@ -0,0 +1,104 @@
+package com.sumativa.ms_gateway.config;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HttpClient del Gateway con un pool de conexiones por microservicio.
+ *
+ * Cada ruta puede declarar en su metadata max-connections; las rutas que apuntan
+ * al mismo host:puerto comparten un pool cuyo tamaño es la suma de las suyas. Así
+ * un ms-results lento agota sólo sus conexiones y las solicitudes a los demás
+ * servicios siguen saliendo. Los hosts sin max-connections usan el pool por
+ * defecto (spring.cloud.gateway.httpclient.pool). El resto de la configuración
+ * del pool (acquire-timeout, max-idle-time, max-life-time, métricas) es la misma
+ * para todos.
+ *
+ * A diferencia del pool por defecto del Gateway, la cola de espera por una
+ * conexión no es ilimitada: queda en el valor de Reactor Netty (2 x
+ * max-connections) y cada espera se corta en acquire-timeout.
+ */
+public class DownstreamHttpClientFactory extends HttpClientFactory {
+
+    static final String MAX_CONNECTIONS = "max-connections";
+
+    private final List<RouteDefinition> routes;
+
+    public DownstreamHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                       HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                                       List<RouteDefinition> routes) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.routes = routes;
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        HttpClientProperties.Pool pool = properties.getPool();
+        if (pool.getType() != HttpClientProperties.Pool.PoolType.FIXED) {
+            return super.buildConnectionProvider(properties);
+        }
+
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(pool.getName());
+        configurar(builder, pool, pool.getMaxConnections());
+        maxConnectionsPorHost().forEach((host, maxConnections) ->
+                builder.forRemoteHost(host, spec -> configurar(spec, pool, maxConnections)));
+        return builder.build();
+    }
+
+    /**
+     * Suma el max-connections de las rutas que apuntan a cada host:puerto
+     */
+    Map<SocketAddress, Integer> maxConnectionsPorHost() {
+        Map<SocketAddress, Integer> porHost = new LinkedHashMap<>();
+        for (RouteDefinition route : routes) {
+            Object valor = route.getMetadata().get(MAX_CONNECTIONS);
+            URI uri = route.getUri();
+            if (valor == null || uri == null || uri.getHost() == null) {
+                continue;
+            }
+            int maxConnections = Integer.parseInt(valor.toString());
+            if (maxConnections <= 0) {
+                throw new IllegalArgumentException(
+                        "max-connections debe ser mayor a 0 en la ruta " + route.getId());
+            }
+            porHost.merge(InetSocketAddress.createUnresolved(uri.getHost(), puerto(uri)), maxConnections, Integer::sum);
+        }
+        return porHost;
+    }
+
+    private static int puerto(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private static void configurar(ConnectionProvider.ConnectionPoolSpec<?> spec, HttpClientProperties.Pool pool,
+                                   int maxConnections) {
+        spec.maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout()))
+                .metrics(pool.isMetrics());
+        if (pool.getMaxIdleTime() != null) {
+            spec.maxIdleTime(pool.getMaxIdleTime());
+        }
+        if (pool.getMaxLifeTime() != null) {
+            spec.maxLifeTime(pool.getMaxLifeTime());
+        }
+        if (pool.getEvictionInterval() != null) {
+            spec.evictInBackground(pool.getEvictionInterval());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.sumativa.ms_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del cliente HTTP hacia los microservicios (prefijo downstream-http en application.yml).
+ * Pool, timeouts y keep-alive se configuran en spring.cloud.gateway.httpclient y en la metadata de cada ruta.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "downstream-http")
+public class DownstreamHttpProperties {
+
+    /**
+     * HTTP/2 sin TLS (h2c, prior knowledge) hacia los microservicios: varias
+     * solicitudes comparten una conexión. Los microservicios deben tener
+     * server.http2.enabled=true.
+     */
+    private boolean h2c = false;
+}
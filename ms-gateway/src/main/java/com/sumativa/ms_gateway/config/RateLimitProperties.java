@@ -0,0 +1,69 @@
+package com.sumativa.ms_gateway.config;
+
+import com.sumativa.ms_gateway.security.RateLimitKey;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Límites de solicitudes por usuario o IP del Gateway (prefijo rate-limit en application.yml)
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Máximo de claves (usuarios o IPs) con balde en memoria por política
+     */
+    private int maxKeys = 100_000;
+
+    /**
+     * Un balde lleno y sin uso durante este tiempo se descarta
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private List<Policy> policies = new ArrayList<>();
+
+    @Data
+    public static class Policy {
+
+        /**
+         * Nombre de la política (tag de las métricas)
+         */
+        private String name;
+
+        /**
+         * Patrón de ruta (sintaxis PathPattern, por ejemplo /api/users/login)
+         */
+        private String pattern;
+
+        /**
+         * Métodos HTTP a los que aplica la política; vacío aplica a todos
+         */
+        private List<String> methods = new ArrayList<>();
+
+        /**
+         * Cómo se identifica al cliente: usuario autenticado (o IP si no lo hay) o IP
+         */
+        private RateLimitKey key = RateLimitKey.USER;
+
+        /**
+         * Solicitudes permitidas por período en régimen sostenido
+         */
+        private int limit;
+
+        private Duration period = Duration.ofSeconds(1);
+
+        /**
+         * Solicitudes seguidas permitidas con el balde lleno; 0 usa limit
+         */
+        private int burst;
+    }
+}
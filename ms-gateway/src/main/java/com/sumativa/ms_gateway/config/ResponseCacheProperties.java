@@ -0,0 +1,42 @@
+package com.sumativa.ms_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración del caché de respuestas del Gateway (prefijo response-cache en application.yml)
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Tiempo que una respuesta permanece en caché
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /**
+     * Máximo de respuestas guardadas
+     */
+    private int maxEntries = 500;
+
+    /**
+     * Respuestas más grandes no se guardan
+     */
+    private DataSize maxBodySize = DataSize.ofKilobytes(256);
+
+    /**
+     * Patrones de ruta cacheables (sintaxis PathPattern). Un POST/PUT/PATCH/DELETE
+     * que coincide con un patrón invalida todas las respuestas de ese patrón.
+     */
+    private List<String> paths = new ArrayList<>();
+}
@@ -0,0 +1,46 @@
+package com.sumativa.ms_gateway.config;
+
+import com.sumativa.ms_gateway.security.RouteAccess;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reglas de acceso por ruta del Gateway (prefijo route-auth en application.yml)
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "route-auth")
+public class RouteAuthProperties {
+
+    /**
+     * Acceso de las rutas que no coinciden con ninguna regla
+     */
+    private RouteAccess defaultAccess = RouteAccess.AUTHENTICATED;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+
+        /**
+         * Patrón de ruta (sintaxis PathPattern, por ejemplo /api/users/**)
+         */
+        private String pattern;
+
+        /**
+         * Métodos HTTP a los que aplica la regla; vacío aplica a todos
+         */
+        private List<String> methods = new ArrayList<>();
+
+        private RouteAccess access = RouteAccess.AUTHENTICATED;
+
+        /**
+         * Roles permitidos cuando access es ROLE (basta con tener uno)
+         */
+        private List<String> roles = new ArrayList<>();
+    }
+}
@@ -1,11 +1,15 @@
 package com.sumativa.ms_gateway.filter;
 
+import com.sumativa.ms_gateway.security.InternalIdentitySigner;
 import com.sumativa.ms_gateway.security.JwtTokenProvider;
+import com.sumativa.ms_gateway.security.RouteAccess;
+import com.sumativa.ms_gateway.security.RouteAuthMatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -15,27 +19,37 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Filtro global de autenticación JWT para Spring Cloud Gateway
- * Valida tokens JWT en todas las peticiones excepto en endpoints públicos
+ * Valida tokens JWT según las reglas de acceso por ruta (route-auth) y rechaza
+ * las peticiones no autorizadas antes de contactar al microservicio
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
-    private final JwtTokenProvider jwtTokenProvider;
+    /**
+     * Atributo del exchange con los roles del usuario autenticado
+     */
+    public static final String USER_ROLES_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".roles";
 
-    // Rutas que no requieren autenticación
-    private static final List<String> PUBLIC_PATHS = List.of(
-        "/api/users/login",
-        "/api/users/register",
-        "/actuator/health"
-    );
+    /**
+     * Atributo del exchange con el resultado de verificar el token del header
+     * Authorization (Optional de VerifiedToken), si RateLimitFilter ya lo verificó
+     */
+    static final String VERIFIED_TOKEN_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".verifiedToken";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final InternalIdentitySigner identitySigner;
+    private final RouteAuthMatcher routeAuthMatcher;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        // Los headers de identidad sólo los puede poner el Gateway, nunca el cliente
+        exchange = removeIdentityHeaders(exchange);
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getPath().value();
 
@@ -45,37 +59,57 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             return chain.filter(exchange);
         }
 
+        // Regla de acceso de la ruta (route-auth en application.yml)
+        RouteAuthMatcher.CompiledRule rule = routeAuthMatcher.match(request.getMethod(), request.getPath().pathWithinApplication());
+
         // Permitir acceso sin autenticación a rutas públicas
-        if (isPublicPath(path)) {
+        if (rule.access() == RouteAccess.PUBLIC) {
             log.debug("Acceso público permitido a: {}", path);
             return chain.filter(exchange);
         }
 
         // Extraer token JWT del header Authorization
-        String token = extractJwtFromRequest(request);
+        String token = bearerToken(request);
 
         if (!StringUtils.hasText(token)) {
-            log.warn("Token JWT no encontrado para ruta protegida: {}", path);
+            log.debug("Token JWT no encontrado para ruta protegida: {}", path);
             return onError(exchange, "Token de autenticación requerido", HttpStatus.UNAUTHORIZED);
         }
 
-        // Validar token
-        if (!jwtTokenProvider.validateToken(token)) {
-            log.warn("Token JWT inválido para ruta: {}", path);
+        // Validar token y extraer sus datos en un solo paso (o reusar la verificación del rate limit)
+        Optional<JwtTokenProvider.VerifiedToken> verified = exchange.getAttribute(VERIFIED_TOKEN_ATTRIBUTE);
+        if (verified == null) {
+            verified = jwtTokenProvider.verifyToken(token);
+        }
+        if (verified.isEmpty()) {
+            log.debug("Token JWT inválido para ruta: {}", path);
             return onError(exchange, "Token de autenticación inválido o expirado", HttpStatus.UNAUTHORIZED);
         }
 
         try {
-            // Extraer información del token y agregarla a los headers para los microservicios
-            String email = jwtTokenProvider.getEmailFromToken(token);
-            List<String> roles = jwtTokenProvider.getRolesFromToken(token);
+            // Agregar la información del token a los headers para los microservicios
+            String email = verified.get().email();
+            List<String> roles = verified.get().roles();
+
+            // Rechazar en el Gateway si la ruta exige un rol que el usuario no tiene
+            if (!rule.allows(roles)) {
+                log.warn("Usuario {} sin rol requerido para ruta: {}", email, path);
+                return onError(exchange, "Acceso denegado", HttpStatus.FORBIDDEN);
+            }
 
             log.debug("Usuario autenticado: {} con roles: {}", email, roles);
+            exchange.getAttributes().put(USER_ROLES_ATTRIBUTE, roles);
 
             // Agregar headers personalizados para que los microservicios puedan acceder a la información del usuario
+            String rolesHeader = String.join(",", roles);
             ServerHttpRequest modifiedRequest = request.mutate()
-                .header("X-User-Email", email)
-                .header("X-User-Roles", String.join(",", roles))
+                .header(InternalIdentitySigner.HEADER_EMAIL, email)
+                .header(InternalIdentitySigner.HEADER_ROLES, rolesHeader)
+                .headers(headers -> {
+                    if (identitySigner.isEnabled()) {
+                        identitySigner.sign(headers, email, rolesHeader);
+                    }
+                })
                 .build();
 
             ServerWebExchange modifiedExchange = exchange.mutate()
@@ -91,16 +125,23 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
     }
 
     /**
-     * Verifica si la ruta es pública (no requiere autenticación)
+     * Quita de la petición los headers de identidad enviados por el cliente
      */
-    private boolean isPublicPath(String path) {
-        return PUBLIC_PATHS.stream().anyMatch(path::startsWith);
+    private ServerWebExchange removeIdentityHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (InternalIdentitySigner.IDENTITY_HEADERS.stream().noneMatch(headers::containsKey)) {
+            return exchange;
+        }
+        ServerHttpRequest request = exchange.getRequest().mutate()
+            .headers(mutable -> InternalIdentitySigner.IDENTITY_HEADERS.forEach(mutable::remove))
+            .build();
+        return exchange.mutate().request(request).build();
     }
 
     /**
      * Extrae el token JWT del header Authorization
      */
-    private String extractJwtFromRequest(ServerHttpRequest request) {
+    static String bearerToken(ServerHttpRequest request) {
         String bearerToken = request.getHeaders().getFirst("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
@@ -118,12 +159,16 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         response.getHeaders().add("Access-Control-Allow-Origin", "*");
         response.getHeaders().add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, PATCH, OPTIONS");
         response.getHeaders().add("Access-Control-Allow-Headers", "*");
-        log.error("Error de autenticación: {} - Status: {}", message, httpStatus);
+        log.debug("Error de autenticación: {} - Status: {}", message, httpStatus);
         return response.setComplete();
     }
 
     @Override
     public int getOrder() {
-        return 1; // Ejecutarse después del filtro CORS (CorsWebFilter tiene orden -1)
+        // CorsWebFilter es un WebFilter y siempre corre antes que los filtros del Gateway.
+        // Después de RateLimitFilter (orden -5), para que los tokens inválidos también
+        // consuman el balde de su IP, y antes de ResponseCacheFilter (orden -2), que usa
+        // los roles para su clave.
+        return -4;
     }
 }
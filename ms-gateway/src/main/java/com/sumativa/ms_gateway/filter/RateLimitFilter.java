@@ -0,0 +1,224 @@
+package com.sumativa.ms_gateway.filter;
+
+import com.sumativa.ms_gateway.config.RateLimitProperties;
+import com.sumativa.ms_gateway.security.JwtTokenProvider;
+import com.sumativa.ms_gateway.security.RateLimitKey;
+import com.sumativa.ms_gateway.security.TokenBucketStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Rate limit local del Gateway: un token bucket por usuario o IP y por política.
+ *
+ * Las políticas de rate-limit.policies se compilan al iniciar y se ordenan del
+ * patrón más específico al más general; cada petición usa la primera que
+ * coincide (las que no coinciden con ninguna pasan sin límite). Con key user
+ * se cuenta por el email del token y, sin un token válido, por IP; con key ip
+ * siempre por IP.
+ *
+ * Corre antes de JwtAuthenticationFilter: una solicitud con un token inválido
+ * o sin token consume el balde de su IP antes de recibir el 401, así que una
+ * ráfaga de tokens inválidos también recibe 429. El resultado de verificar el
+ * token queda en el exchange y la autenticación no lo vuelve a verificar.
+ *
+ * Sin el balde disponible se responde 429 con Retry-After y un cuerpo fijo,
+ * sin contactar al microservicio. Los baldes viven en memoria de esta
+ * instancia (ver {@link TokenBucketStore}); con varias réplicas del Gateway el
+ * límite efectivo es la suma de los de cada una.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter implements GlobalFilter, Ordered, MeterBinder, DisposableBean {
+
+    private static final long NANOS_POR_SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final boolean enabled;
+    private final List<CompiledPolicy> policies;
+    private final Disposable limpieza;
+
+    private record CompiledPolicy(String name, PathPattern pattern, Set<HttpMethod> methods, RateLimitKey key,
+                                  TokenBucketStore store, byte[] body, LongAdder allowed, LongAdder rejected) {
+
+        boolean appliesTo(HttpMethod method) {
+            return methods.isEmpty() || methods.contains(method);
+        }
+    }
+
+    public RateLimitFilter(RateLimitProperties properties, JwtTokenProvider jwtTokenProvider) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.enabled = properties.isEnabled();
+        PathPatternParser parser = new PathPatternParser();
+        this.policies = properties.getPolicies().stream()
+            .map(policy -> compile(parser, policy, properties))
+            .sorted(Comparator.comparing(CompiledPolicy::pattern, PathPattern.SPECIFICITY_COMPARATOR)
+                .thenComparing(policy -> policy.methods().isEmpty()))
+            .toList();
+
+        // Los baldes llenos y ociosos se descartan en segundo plano, fuera de las solicitudes
+        long cada = Math.max(1, properties.getIdleTimeout().toMillis() / 2);
+        this.limpieza = enabled && !policies.isEmpty()
+            ? Schedulers.parallel().schedulePeriodically(
+                () -> policies.forEach(policy -> policy.store().evictIdle()), cada, cada, TimeUnit.MILLISECONDS)
+            : null;
+        log.info("Políticas de rate limit del Gateway: {}{}", policies.size(), enabled ? "" : " (desactivado)");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        CompiledPolicy policy = match(request.getMethod(), request.getPath().pathWithinApplication());
+        if (policy == null) {
+            return chain.filter(exchange);
+        }
+        String clave = clave(exchange, policy.key());
+        if (clave == null) {
+            return chain.filter(exchange);
+        }
+
+        long espera = policy.store().tryAcquire(clave);
+        if (espera == 0) {
+            policy.allowed().increment();
+            return chain.filter(exchange);
+        }
+        policy.rejected().increment();
+        log.debug("Rate limit {} excedido por {} en: {}", policy.name(), clave, request.getPath().value());
+        return rechazar(exchange, policy.body(), Math.max(1, (espera + NANOS_POR_SEGUNDO - 1) / NANOS_POR_SEGUNDO));
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes de JwtAuthenticationFilter (orden -4), que rechaza los tokens inválidos,
+        // y de ResponseCacheFilter (orden -2): una respuesta en caché también consume tokens
+        return -5;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CompiledPolicy policy : policies) {
+            FunctionCounter.builder("gateway.ratelimit.requests", policy.allowed(), LongAdder::doubleValue)
+                .tags("policy", policy.name(), "result", "allowed")
+                .description("Solicitudes dentro del límite")
+                .register(registry);
+            FunctionCounter.builder("gateway.ratelimit.requests", policy.rejected(), LongAdder::doubleValue)
+                .tags("policy", policy.name(), "result", "rejected")
+                .description("Solicitudes rechazadas con 429")
+                .register(registry);
+            FunctionCounter.builder("gateway.ratelimit.overflow", policy.store(), TokenBucketStore::overflows)
+                .tag("policy", policy.name())
+                .description("Claves nuevas que pasaron sin límite por llegar a max-keys")
+                .register(registry);
+            Gauge.builder("gateway.ratelimit.keys", policy.store(), TokenBucketStore::size)
+                .tag("policy", policy.name())
+                .description("Baldes en memoria")
+                .register(registry);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (limpieza != null) {
+            limpieza.dispose();
+        }
+    }
+
+    private CompiledPolicy match(HttpMethod method, PathContainer path) {
+        for (CompiledPolicy policy : policies) {
+            if (policy.appliesTo(method) && policy.pattern().matches(path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Email del token válido o IP del cliente; null si no se puede identificar
+     */
+    private String clave(ServerWebExchange exchange, RateLimitKey key) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (key == RateLimitKey.USER) {
+            // El token y no X-User-Email: aún no pasó JwtAuthenticationFilter, que quita ese header
+            String token = JwtAuthenticationFilter.bearerToken(request);
+            if (token != null) {
+                Optional<JwtTokenProvider.VerifiedToken> verified = jwtTokenProvider.verifyToken(token);
+                exchange.getAttributes().put(JwtAuthenticationFilter.VERIFIED_TOKEN_ATTRIBUTE, verified);
+                if (verified.isPresent() && StringUtils.hasText(verified.get().email())) {
+                    return verified.get().email();
+                }
+            }
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return null;
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+
+    private static CompiledPolicy compile(PathPatternParser parser, RateLimitProperties.Policy policy,
+                                          RateLimitProperties properties) {
+        if (!StringUtils.hasText(policy.getName()) || !StringUtils.hasText(policy.getPattern())) {
+            throw new IllegalStateException("rate-limit.policies: cada política requiere name y pattern");
+        }
+        if (policy.getLimit() <= 0) {
+            throw new IllegalStateException("rate-limit.policies: la política " + policy.getName()
+                + " requiere limit mayor a 0");
+        }
+        Set<HttpMethod> methods = policy.getMethods().stream()
+            .map(method -> HttpMethod.valueOf(method.toUpperCase(Locale.ROOT)))
+            .collect(Collectors.toUnmodifiableSet());
+        int burst = policy.getBurst() > 0 ? policy.getBurst() : policy.getLimit();
+        TokenBucketStore store = new TokenBucketStore(policy.getLimit(), policy.getPeriod(), burst,
+            properties.getMaxKeys(), properties.getIdleTimeout(), System::nanoTime);
+        byte[] body = ("{\"status\":429,\"error\":\"Too Many Requests\",\"policy\":\"" + policy.getName()
+            + "\",\"message\":\"Demasiadas solicitudes, intente nuevamente más tarde\"}")
+            .getBytes(StandardCharsets.UTF_8);
+        return new CompiledPolicy(policy.getName(), parser.parse(policy.getPattern()), methods, policy.getKey(),
+            store, body, new LongAdder(), new LongAdder());
+    }
+
+    private static Mono<Void> rechazar(ServerWebExchange exchange, byte[] body, long retryAfter) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
@@ -0,0 +1,184 @@
+package com.sumativa.ms_gateway.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.PrematureCloseException;
+import reactor.util.retry.Retry;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker, bulkhead y reintentos por ruta (filtro "Resiliencia").
+ *
+ * Cada ruta tiene su circuit breaker y su bulkhead de Resilience4j, con el id de
+ * la ruta como nombre (configuración en resilience4j.* de application.yml):
+ * - Circuit breaker: cuenta como fallo un error al reenviar (conexión, timeout)
+ *   o una respuesta 5xx del microservicio. Abierto, responde 503 de inmediato.
+ * - Bulkhead: limita las solicitudes en curso hacia la ruta y rechaza con 503
+ *   sin esperar, de modo que una ruta degradada no acumula solicitudes.
+ * - Reintentos: sólo GET/HEAD y sólo si la conexión falló antes de recibir
+ *   respuesta (conexión rechazada o cerrada), con backoff exponencial y jitter.
+ *
+ * La respuesta de rechazo es un cuerpo fijo precalculado, sin contactar al
+ * microservicio. Estado en /actuator/circuitbreakers y /actuator/bulkheads.
+ */
+@Component
+@Slf4j
+public class ResilienciaGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResilienciaGatewayFilterFactory.Config> {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    @Data
+    public static class Config implements HasRouteId {
+        private String routeId;
+
+        /**
+         * Reintentos de un GET/HEAD cuya conexión falló (0 desactiva)
+         */
+        private int retries = 2;
+
+        private Duration firstBackoff = Duration.ofMillis(50);
+
+        private Duration maxBackoff = Duration.ofMillis(500);
+
+        /**
+         * Fracción aleatoria aplicada a cada espera entre reintentos (0 a 1)
+         */
+        private double jitter = 0.5;
+    }
+
+    /**
+     * Respuesta 5xx del microservicio registrada como fallo del circuit breaker
+     */
+    static final class RespuestaFallidaException extends RuntimeException {
+        RespuestaFallidaException(HttpStatusCode status) {
+            super("Respuesta " + status.value() + " del microservicio", null, false, false);
+        }
+    }
+
+    public ResilienciaGatewayFilterFactory(CircuitBreakerRegistry circuitBreakerRegistry,
+                                           BulkheadRegistry bulkheadRegistry) {
+        super(Config.class);
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public String name() {
+        return "Resiliencia";
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId();
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(routeId);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(routeId);
+        if (!bulkhead.getBulkheadConfig().getMaxWaitDuration().isZero()) {
+            throw new IllegalArgumentException("El bulkhead " + routeId
+                    + " debe tener max-wait-duration 0: una espera bloquearía el event loop");
+        }
+
+        long esperaAbierto = circuitBreaker.getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState().apply(1);
+        byte[] circuitoAbierto = cuerpo(routeId, "El servicio no está disponible, intente nuevamente en unos segundos");
+        byte[] saturado = cuerpo(routeId, "El servicio está saturado, intente nuevamente en unos segundos");
+        String retryAfterAbierto = Long.toString(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(esperaAbierto)));
+        Retry reintentos = reintentos(config);
+
+        return (exchange, chain) -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                log.debug("Circuito {} abierto: 503 sin contactar al microservicio", routeId);
+                return rechazar(exchange, circuitoAbierto, retryAfterAbierto);
+            }
+            if (!bulkhead.tryAcquirePermission()) {
+                circuitBreaker.releasePermission();
+                log.debug("Bulkhead {} lleno: 503", routeId);
+                return rechazar(exchange, saturado, "1");
+            }
+
+            long inicio = circuitBreaker.getCurrentTimestamp();
+            return reenviar(exchange, chain, reintentos)
+                    .doOnSuccess(v -> {
+                        long duracion = circuitBreaker.getCurrentTimestamp() - inicio;
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        if (status != null && status.is5xxServerError()) {
+                            circuitBreaker.onError(duracion, circuitBreaker.getTimestampUnit(),
+                                    new RespuestaFallidaException(status));
+                        } else {
+                            circuitBreaker.onSuccess(duracion, circuitBreaker.getTimestampUnit());
+                        }
+                    })
+                    .doOnError(e -> circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - inicio,
+                            circuitBreaker.getTimestampUnit(), e))
+                    .doOnCancel(circuitBreaker::releasePermission)
+                    .doFinally(signal -> bulkhead.onComplete());
+        };
+    }
+
+    private static Mono<Void> reenviar(ServerWebExchange exchange, GatewayFilterChain chain, Retry reintentos) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (reintentos == null || (method != HttpMethod.GET && method != HttpMethod.HEAD)) {
+            return chain.filter(exchange);
+        }
+        return Mono.defer(() -> {
+            // Cada intento vuelve a pasar por el enrutamiento (NettyRoutingFilter)
+            ServerWebExchangeUtils.reset(exchange);
+            return chain.filter(exchange);
+        }).retryWhen(reintentos);
+    }
+
+    private static Retry reintentos(Config config) {
+        if (config.getRetries() <= 0) {
+            return null;
+        }
+        return Retry.backoff(config.getRetries(), config.getFirstBackoff())
+                .maxBackoff(config.getMaxBackoff())
+                .jitter(config.getJitter())
+                .filter(ResilienciaGatewayFilterFactory::sinRespuesta)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    /**
+     * Errores en los que el microservicio no llegó a procesar la solicitud
+     */
+    static boolean sinRespuesta(Throwable error) {
+        return error instanceof ConnectException || error instanceof PrematureCloseException;
+    }
+
+    private static byte[] cuerpo(String routeId, String mensaje) {
+        return ("{\"status\":503,\"error\":\"Service Unavailable\",\"route\":\"" + routeId
+                + "\",\"message\":\"" + mensaje + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Mono<Void> rechazar(ServerWebExchange exchange, byte[] cuerpo, String retryAfter) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+        DataBuffer buffer = response.bufferFactory().wrap(cuerpo);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
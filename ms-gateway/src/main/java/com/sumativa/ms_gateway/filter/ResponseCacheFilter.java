@@ -0,0 +1,304 @@
+package com.sumativa.ms_gateway.filter;
+
+import com.sumativa.ms_gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Caché de respuestas GET del Gateway para catálogos que cambian poco
+ * (tipos de análisis, laboratorios).
+ *
+ * La clave combina ruta, query y el conjunto de roles del usuario. Cada entrada
+ * vive como máximo response-cache.ttl y lleva un ETag fuerte: si el cliente
+ * envía If-None-Match con ese valor se responde 304 sin cuerpo. Un POST, PUT,
+ * PATCH o DELETE sobre el mismo patrón de ruta descarta sus entradas, antes de
+ * reenviar la escritura y otra vez al terminar ésta.
+ *
+ * Expone las métricas cache.gets (result=hit|miss), cache.size y
+ * cache.bytes.saved con el tag cache=gatewayResponses.
+ */
+@Component
+@Slf4j
+public class ResponseCacheFilter implements GlobalFilter, Ordered, MeterBinder {
+
+    static final String NOMBRE_CACHE = "gatewayResponses";
+
+    private static final Set<HttpMethod> WRITE_METHODS =
+        Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+    private static final String CACHE_CONTROL = "private, no-cache";
+    private static final String HEADER_CACHE = "X-Cache";
+
+    private final ResponseCacheProperties properties;
+    private final List<PathPattern> patterns;
+    private final Map<PathPattern, AtomicLong> generations;
+    private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final Clock clock = Clock.systemUTC();
+
+    private record CachedResponse(PathPattern pattern, MediaType contentType, String etag,
+                                  byte[] body, Instant expiresAt) {
+    }
+
+    public ResponseCacheFilter(ResponseCacheProperties properties) {
+        this.properties = properties;
+        PathPatternParser parser = new PathPatternParser();
+        this.patterns = properties.getPaths().stream()
+            .map(parser::parse)
+            .sorted(PathPattern.SPECIFICITY_COMPARATOR)
+            .toList();
+        this.generations = patterns.stream()
+            .collect(Collectors.toUnmodifiableMap(Function.identity(), pattern -> new AtomicLong()));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        PathPattern pattern = findPattern(request.getPath().pathWithinApplication());
+        if (pattern == null) {
+            return chain.filter(exchange);
+        }
+
+        // Una escritura invalida todo lo cacheado bajo el mismo patrón de ruta
+        if (WRITE_METHODS.contains(request.getMethod())) {
+            invalidate(pattern);
+            return chain.filter(exchange).doFinally(signal -> invalidate(pattern));
+        }
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        String key = key(exchange);
+        CachedResponse cached = entries.get(key);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(clock.instant())) {
+                hits.increment();
+                bytesSaved.add(cached.body().length);
+                return writeCached(exchange, cached);
+            }
+            entries.remove(key, cached);
+        }
+
+        misses.increment();
+        long generation = generations.get(pattern).get();
+        ServerHttpResponse response = new CachingResponse(exchange, key, pattern, generation);
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    @Override
+    public int getOrder() {
+        // Después de la autenticación y antes de NettyWriteResponseFilter (orden -1), que escribe el cuerpo
+        return -2;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::doubleValue)
+            .tags("cache", NOMBRE_CACHE, "result", "hit")
+            .description("Respuestas servidas desde el caché del Gateway")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::doubleValue)
+            .tags("cache", NOMBRE_CACHE, "result", "miss")
+            .description("Respuestas cacheables pedidas al microservicio")
+            .register(registry);
+        FunctionCounter.builder("cache.bytes.saved", bytesSaved, LongAdder::doubleValue)
+            .tag("cache", NOMBRE_CACHE)
+            .baseUnit("bytes")
+            .description("Bytes de respuesta que no se pidieron al microservicio")
+            .register(registry);
+        Gauge.builder("cache.size", entries, Map::size)
+            .tag("cache", NOMBRE_CACHE)
+            .register(registry);
+    }
+
+    private PathPattern findPattern(PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    private void invalidate(PathPattern pattern) {
+        generations.get(pattern).incrementAndGet();
+        entries.values().removeIf(cached -> cached.pattern() == pattern);
+        log.debug("Caché de respuestas invalidado para: {}", pattern);
+    }
+
+    /**
+     * Clave: ruta, query y roles ordenados (los roles los deja JwtAuthenticationFilter)
+     */
+    private String key(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        List<String> roles = exchange.getAttributeOrDefault(JwtAuthenticationFilter.USER_ROLES_ATTRIBUTE, List.of());
+        String query = request.getURI().getRawQuery();
+        return request.getURI().getRawPath()
+            + (query != null ? "?" + query : "")
+            + "|" + roles.stream().sorted().distinct().collect(Collectors.joining(","));
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.setCacheControl(CACHE_CONTROL);
+        headers.set(HEADER_CACHE, "HIT");
+
+        if (matchesIfNoneMatch(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            headers.setContentType(cached.contentType());
+        }
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean matchesIfNoneMatch(ServerHttpRequest request, String etag) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        return ifNoneMatch.contains(etag) || ifNoneMatch.contains("*");
+    }
+
+    /**
+     * Guarda una respuesta. Si el caché está lleno se descartan primero las
+     * expiradas y, si aún no hay espacio, se vacía completo.
+     */
+    private void store(String key, CachedResponse response, long generation) {
+        if (entries.size() >= properties.getMaxEntries()) {
+            Instant now = clock.instant();
+            entries.values().removeIf(cached -> !cached.expiresAt().isAfter(now));
+            if (entries.size() >= properties.getMaxEntries()) {
+                entries.clear();
+            }
+        }
+        entries.put(key, response);
+        // Si hubo una escritura mientras se pedía la respuesta, ésta puede estar obsoleta
+        if (generations.get(response.pattern()).get() != generation) {
+            entries.remove(key, response);
+        }
+    }
+
+    /**
+     * Respuesta que copia el cuerpo de un 200 para guardarlo en caché.
+     *
+     * El cuerpo se acumula sólo mientras no supere max-body-size: si lo
+     * supera (respuestas sin Content-Length), lo acumulado y el resto se
+     * transmiten tal cual, sin guardarlo ni retenerlo completo en memoria.
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerHttpRequest request;
+        private final String key;
+        private final PathPattern pattern;
+        private final long generation;
+
+        CachingResponse(ServerWebExchange exchange, String key, PathPattern pattern, long generation) {
+            super(exchange.getResponse());
+            this.request = exchange.getRequest();
+            this.key = key;
+            this.pattern = pattern;
+            this.generation = generation;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            long maxBodyBytes = properties.getMaxBodySize().toBytes();
+            // Un cuerpo con Content-Encoding (gzip reenviado tal cual por el microservicio
+            // cuando httpclient.compression está desactivado) no sirve para otros clientes
+            if (getStatusCode() != HttpStatus.OK
+                || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                || headers.getContentLength() > maxBodyBytes) {
+                return super.writeWith(body);
+            }
+
+            // bufferUntil entrega un único bloque con todo el cuerpo si éste cabe en
+            // maxBodyBytes; si no, cierra el primer bloque al superarlo
+            AtomicLong leidos = new AtomicLong();
+            return Flux.<DataBuffer>from(body)
+                .bufferUntil(buffer -> leidos.addAndGet(buffer.readableByteCount()) > maxBodyBytes)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .switchOnFirst((primero, bloques) -> leidos.get() > maxBodyBytes
+                    ? super.writeWith(bloques.concatMapIterable(Function.identity()))
+                    : bloques.next().defaultIfEmpty(List.of()).flatMap(this::guardarYEscribir))
+                .then();
+        }
+
+        private Mono<Void> guardarYEscribir(List<DataBuffer> buffers) {
+            HttpHeaders headers = getHeaders();
+            byte[] bytes = copiar(buffers);
+            String etag = headers.getETag() != null
+                ? headers.getETag()
+                : "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+            store(key, new CachedResponse(pattern, headers.getContentType(), etag, bytes,
+                clock.instant().plus(properties.getTtl())), generation);
+
+            headers.setETag(etag);
+            headers.setCacheControl(CACHE_CONTROL);
+            headers.set(HEADER_CACHE, "MISS");
+            if (matchesIfNoneMatch(request, etag)) {
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                return setComplete();
+            }
+            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+
+        private static byte[] copiar(List<DataBuffer> buffers) {
+            int total = buffers.stream().mapToInt(DataBuffer::readableByteCount).sum();
+            byte[] bytes = new byte[total];
+            int offset = 0;
+            for (DataBuffer buffer : buffers) {
+                int leidos = buffer.readableByteCount();
+                buffer.read(bytes, offset, leidos);
+                offset += leidos;
+                DataBufferUtils.release(buffer);
+            }
+            return bytes;
+        }
+    }
+}
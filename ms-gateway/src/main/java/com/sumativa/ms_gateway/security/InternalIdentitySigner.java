@@ -0,0 +1,92 @@
+package com.sumativa.ms_gateway.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Firma la identidad que el Gateway reenvía a los microservicios.
+ *
+ * Con internal-auth.enabled=true, además de X-User-Email y X-User-Roles se
+ * envían X-Auth-Expires (epoch en milisegundos) y X-Auth-Signature, un
+ * HMAC-SHA256 sobre email, roles y expiración calculado con una clave interna
+ * distinta de la clave JWT. Los microservicios que confían en el Gateway
+ * validan esa firma en lugar de volver a verificar el JWT.
+ */
+@Component
+@Slf4j
+public class InternalIdentitySigner {
+
+    public static final String HEADER_EMAIL = "X-User-Email";
+    public static final String HEADER_ROLES = "X-User-Roles";
+    public static final String HEADER_EXPIRES = "X-Auth-Expires";
+    public static final String HEADER_SIGNATURE = "X-Auth-Signature";
+
+    /**
+     * Headers de identidad que nunca se aceptan desde el cliente
+     */
+    public static final List<String> IDENTITY_HEADERS =
+        List.of(HEADER_EMAIL, HEADER_ROLES, HEADER_EXPIRES, HEADER_SIGNATURE);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final boolean enabled;
+    private final SecretKeySpec key;
+    private final long ttlMs;
+    private final Clock clock = Clock.systemUTC();
+
+    public InternalIdentitySigner(@Value("${internal-auth.enabled:false}") boolean enabled,
+                                  @Value("${internal-auth.secret:}") String secret,
+                                  @Value("${internal-auth.ttl-ms:30000}") long ttlMs) {
+        this.enabled = enabled;
+        this.ttlMs = ttlMs;
+        if (enabled) {
+            byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (secretBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException(
+                    "internal-auth.secret debe tener al menos " + MIN_SECRET_BYTES + " bytes");
+            }
+            this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+            log.info("Firma de identidad interna habilitada (ttl {} ms)", ttlMs);
+        } else {
+            this.key = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Agrega los headers de identidad firmados para el usuario autenticado
+     * @param headers Headers de la petición que se reenvía
+     * @param email Email del usuario
+     * @param roles Roles separados por coma
+     */
+    public void sign(HttpHeaders headers, String email, String roles) {
+        long expires = clock.millis() + ttlMs;
+        headers.set(HEADER_EXPIRES, Long.toString(expires));
+        headers.set(HEADER_SIGNATURE, signature(email, roles, expires));
+    }
+
+    private String signature(String email, String roles, long expires) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal((email + "\n" + roles + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo firmar la identidad interna", e);
+        }
+    }
+}
@@ -3,52 +3,123 @@ package com.sumativa.ms_gateway.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Proveedor de tokens JWT para validación en el Gateway
  * Similar a JwtTokenProvider de los microservicios pero adaptado para uso reactivo
+ *
+ * El filtro se ejecuta en el event loop, por eso cada token se parsea y se
+ * verifica una sola vez: el parser se construye al iniciar y los datos de los
+ * tokens ya verificados se guardan en un caché acotado por tamaño y por la
+ * expiración de cada token.
+ *
+ * Expone las métricas cache.gets (result=hit|miss) y cache.size con el tag
+ * cache=jwtClaims, y jwt.verification (result=valid|invalid) con el tiempo de
+ * parseo y verificación de los tokens que no estaban en el caché.
  */
 @Component
 @Slf4j
-public class JwtTokenProvider {
+public class JwtTokenProvider implements MeterBinder {
 
-    private final SecretKey secretKey;
+    static final String NOMBRE_CACHE = "jwtClaims";
 
-    public JwtTokenProvider(@Value("${jwt.secret}") String secret) {
-        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser parser;
+    private final int cacheMaxEntries;
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Clock clock = Clock.systemUTC();
+    private volatile Timer verificacionesValidas;
+    private volatile Timer verificacionesInvalidas;
+
+    /**
+     * Datos de un token cuya firma ya fue verificada
+     */
+    public record VerifiedToken(String email, List<String> roles, Instant expiresAt) {
+    }
+
+    public JwtTokenProvider(@Value("${jwt.secret}") String secret,
+                            @Value("${jwt.cache.max-entries:10000}") int cacheMaxEntries) {
+        SecretKey secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+            .verifyWith(secretKey)
+            .build();
+        this.cacheMaxEntries = cacheMaxEntries;
     }
 
     /**
-     * Valida un token JWT
-     * @param token Token JWT a validar
-     * @return true si el token es válido, false en caso contrario
+     * Verifica el token y extrae email y roles en un solo paso.
+     * Si el token ya fue verificado y no expiró, se responde desde el caché.
+     * @param token Token JWT
+     * @return Datos del token, o vacío si es inválido o expiró
      */
-    public boolean validateToken(String token) {
+    public Optional<VerifiedToken> verifyToken(String token) {
+        if (token != null) {
+            VerifiedToken cached = verifiedTokens.get(token);
+            if (cached != null) {
+                if (cached.expiresAt().isAfter(clock.instant())) {
+                    hits.increment();
+                    return Optional.of(cached);
+                }
+                verifiedTokens.remove(token);
+                hits.increment();
+                log.debug("Token JWT expirado: {}", cached.expiresAt());
+                return Optional.empty();
+            }
+        }
+
+        misses.increment();
+        long inicio = System.nanoTime();
         try {
-            Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            VerifiedToken verified = new VerifiedToken(claims.getSubject(), getRoles(claims),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+            registrarVerificacion(verificacionesValidas, inicio);
+            if (verified.expiresAt() != null) {
+                cache(token, verified);
+            }
+            return Optional.of(verified);
         } catch (SignatureException e) {
-            log.error("Firma JWT inválida: {}", e.getMessage());
+            log.warn("Firma JWT inválida: {}", e.getMessage());
         } catch (MalformedJwtException e) {
-            log.error("Token JWT malformado: {}", e.getMessage());
+            log.warn("Token JWT malformado: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            log.error("Token JWT expirado: {}", e.getMessage());
+            log.debug("Token JWT expirado: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            log.error("Token JWT no soportado: {}", e.getMessage());
+            log.warn("Token JWT no soportado: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
-            log.error("Claims JWT vacío: {}", e.getMessage());
+            log.warn("Claims JWT vacío: {}", e.getMessage());
         }
-        return false;
+        registrarVerificacion(verificacionesInvalidas, inicio);
+        return Optional.empty();
+    }
+
+    /**
+     * Valida un token JWT
+     * @param token Token JWT a validar
+     * @return true si el token es válido, false en caso contrario
+     */
+    public boolean validateToken(String token) {
+        return verifyToken(token).isPresent();
     }
 
     /**
@@ -57,13 +128,7 @@ public class JwtTokenProvider {
      * @return Email del usuario
      */
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-            .verifyWith(secretKey)
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
-
-        return claims.getSubject();
+        return parser.parseSignedClaims(token).getPayload().getSubject();
     }
 
     /**
@@ -71,14 +136,58 @@ public class JwtTokenProvider {
      * @param token Token JWT
      * @return Lista de roles
      */
-    @SuppressWarnings("unchecked")
     public List<String> getRolesFromToken(String token) {
-        Claims claims = Jwts.parser()
-            .verifyWith(secretKey)
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+        return getRoles(parser.parseSignedClaims(token).getPayload());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::doubleValue)
+            .tags("cache", NOMBRE_CACHE, "result", "hit")
+            .description("Tokens JWT resueltos desde el caché sin verificar la firma")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::doubleValue)
+            .tags("cache", NOMBRE_CACHE, "result", "miss")
+            .description("Tokens JWT parseados y verificados")
+            .register(registry);
+        Gauge.builder("cache.size", verifiedTokens, Map::size)
+            .tag("cache", NOMBRE_CACHE)
+            .register(registry);
+        verificacionesValidas = timerVerificacion(registry, "valid");
+        verificacionesInvalidas = timerVerificacion(registry, "invalid");
+    }
+
+    private static Timer timerVerificacion(MeterRegistry registry, String resultado) {
+        return Timer.builder("jwt.verification")
+            .tag("result", resultado)
+            .description("Parseo y verificación de la firma de tokens JWT que no estaban en caché")
+            .register(registry);
+    }
 
-        return claims.get("roles", List.class);
+    private static void registrarVerificacion(Timer timer, long inicio) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> getRoles(Claims claims) {
+        List<String> roles = claims.get("roles", List.class);
+        return roles != null ? List.copyOf(roles) : List.of();
+    }
+
+    /**
+     * Guarda un token verificado. Si el caché está lleno se descartan primero
+     * los expirados y, si aún no hay espacio, se vacía completo.
+     */
+    private void cache(String token, VerifiedToken verified) {
+        if (verifiedTokens.size() >= cacheMaxEntries) {
+            Instant now = clock.instant();
+            verifiedTokens.values().removeIf(cached -> !cached.expiresAt().isAfter(now));
+            if (verifiedTokens.size() >= cacheMaxEntries) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(token, verified);
     }
 }
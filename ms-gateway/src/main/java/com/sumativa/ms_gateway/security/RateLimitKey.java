@@ -0,0 +1,11 @@
+package com.sumativa.ms_gateway.security;
+
+/**
+ * Identidad con la que se cuentan las solicitudes de una política de rate limit
+ */
+public enum RateLimitKey {
+    /** Email del token JWT válido; la IP si no hay token o es inválido */
+    USER,
+    /** Dirección IP del cliente */
+    IP
+}
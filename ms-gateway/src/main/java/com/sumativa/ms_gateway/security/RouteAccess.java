@@ -0,0 +1,13 @@
+package com.sumativa.ms_gateway.security;
+
+/**
+ * Tipo de acceso de una ruta en el Gateway
+ */
+public enum RouteAccess {
+    /** Sin autenticación */
+    PUBLIC,
+    /** Requiere un token JWT válido */
+    AUTHENTICATED,
+    /** Requiere un token JWT válido con alguno de los roles de la regla */
+    ROLE
+}
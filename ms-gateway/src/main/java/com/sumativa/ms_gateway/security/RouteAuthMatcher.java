@@ -0,0 +1,89 @@
+package com.sumativa.ms_gateway.security;
+
+import com.sumativa.ms_gateway.config.RouteAuthProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tabla de reglas de acceso por ruta, compilada una sola vez al iniciar.
+ *
+ * Los patrones de route-auth.rules se parsean con {@link PathPatternParser} y
+ * se ordenan del más específico al más general, de modo que cada petición se
+ * resuelve con la primera regla que coincide, sin volver a parsear patrones.
+ * Si ninguna coincide se aplica route-auth.default-access.
+ */
+@Component
+@Slf4j
+public class RouteAuthMatcher {
+
+    private final List<CompiledRule> rules;
+    private final CompiledRule defaultRule;
+
+    public RouteAuthMatcher(RouteAuthProperties properties) {
+        PathPatternParser parser = new PathPatternParser();
+        this.rules = properties.getRules().stream()
+            .map(rule -> compile(parser, rule))
+            .sorted(Comparator.comparing(CompiledRule::pattern, PathPattern.SPECIFICITY_COMPARATOR)
+                .thenComparing(rule -> rule.methods().isEmpty()))
+            .toList();
+        this.defaultRule = new CompiledRule(null, Set.of(), properties.getDefaultAccess(), Set.of());
+        log.info("Reglas de acceso del Gateway: {} (por defecto {})", rules.size(), defaultRule.access());
+    }
+
+    /**
+     * Obtiene la regla que aplica a la petición
+     * @param method Método HTTP
+     * @param path Ruta de la petición
+     * @return Regla más específica que coincide, o la regla por defecto
+     */
+    public CompiledRule match(HttpMethod method, PathContainer path) {
+        for (CompiledRule rule : rules) {
+            if (rule.appliesTo(method) && rule.pattern().matches(path)) {
+                return rule;
+            }
+        }
+        return defaultRule;
+    }
+
+    private static CompiledRule compile(PathPatternParser parser, RouteAuthProperties.Rule rule) {
+        if (!StringUtils.hasText(rule.getPattern())) {
+            throw new IllegalStateException("route-auth.rules: cada regla requiere un pattern");
+        }
+        Set<String> roles = Set.copyOf(rule.getRoles());
+        if (rule.getAccess() == RouteAccess.ROLE && roles.isEmpty()) {
+            throw new IllegalStateException("route-auth.rules: la regla " + rule.getPattern() + " requiere roles");
+        }
+        Set<HttpMethod> methods = rule.getMethods().stream()
+            .map(method -> HttpMethod.valueOf(method.toUpperCase(Locale.ROOT)))
+            .collect(Collectors.toUnmodifiableSet());
+        return new CompiledRule(parser.parse(rule.getPattern()), methods, rule.getAccess(), roles);
+    }
+
+    /**
+     * Regla de acceso compilada
+     */
+    public record CompiledRule(PathPattern pattern, Set<HttpMethod> methods, RouteAccess access, Set<String> roles) {
+
+        boolean appliesTo(HttpMethod method) {
+            return methods.isEmpty() || methods.contains(method);
+        }
+
+        /**
+         * Indica si un usuario autenticado con estos roles puede acceder
+         */
+        public boolean allows(List<String> userRoles) {
+            return access != RouteAccess.ROLE || userRoles.stream().anyMatch(roles::contains);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.sumativa.ms_gateway.security;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Baldes de tokens por clave, en memoria y sin bloqueos.
+ *
+ * Cada balde es un único AtomicLong con el instante teórico en que volvería a
+ * estar lleno (algoritmo GCRA, equivalente a un token bucket de capacidad
+ * burst que recupera un token cada period / limit). Tomar un token es un
+ * compareAndSet sobre ese valor: sin locks ni objetos nuevos por solicitud,
+ * y claves distintas no compiten entre sí (ConcurrentHashMap reparte las
+ * claves en bins independientes).
+ *
+ * Un balde lleno equivale a uno nuevo, así que descartarlo no cambia ningún
+ * límite. Eso permite acotar la memoria: se descartan los baldes llenos y
+ * ociosos más de idle-timeout y, al llegar a max-keys, todos los llenos (a lo
+ * sumo una vez por segundo, para que una ráfaga de claves nuevas no recorra el
+ * mapa en cada solicitud). Si aun así no hay lugar, la clave nueva pasa sin
+ * límite (y se cuenta como desborde) en vez de rechazar a clientes que no han
+ * hecho nada. Un token tomado justo cuando se descarta su balde se pierde: a
+ * lo sumo una solicitud de más para una clave que estaba inactiva.
+ */
+public class TokenBucketStore {
+
+    private static final long LIMPIEZA_MINIMA = Duration.ofSeconds(1).toNanos();
+
+    private final ConcurrentHashMap<String, AtomicLong> baldes = new ConcurrentHashMap<>();
+    private final long intervalo;
+    private final long tolerancia;
+    private final int maxKeys;
+    private final long ocioso;
+    private final LongSupplier reloj;
+    private final LongAdder desbordes = new LongAdder();
+    private final AtomicLong ultimaLimpieza;
+
+    /**
+     * @param limit Tokens recuperados por período
+     * @param period Período de recuperación
+     * @param burst Capacidad del balde
+     * @param maxKeys Máximo de claves en memoria
+     * @param idleTimeout Tiempo tras el cual se descarta un balde lleno sin uso
+     * @param reloj Fuente de nanosegundos (System::nanoTime)
+     */
+    public TokenBucketStore(int limit, Duration period, int burst, int maxKeys, Duration idleTimeout,
+                            LongSupplier reloj) {
+        if (limit <= 0 || burst <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("limit, burst y period deben ser mayores a 0");
+        }
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("max-keys debe ser mayor a 0");
+        }
+        this.intervalo = Math.max(1, period.toNanos() / limit);
+        this.tolerancia = intervalo * (burst - 1);
+        this.maxKeys = maxKeys;
+        this.ocioso = idleTimeout.toNanos();
+        this.reloj = reloj;
+        this.ultimaLimpieza = new AtomicLong(reloj.getAsLong() - LIMPIEZA_MINIMA);
+    }
+
+    /**
+     * Toma un token del balde de la clave
+     * @param clave Usuario o IP
+     * @return 0 si se tomó el token; si no, los nanosegundos hasta que haya uno
+     */
+    public long tryAcquire(String clave) {
+        long ahora = reloj.getAsLong();
+        AtomicLong balde = baldes.get(clave);
+        if (balde == null) {
+            balde = registrar(clave, ahora);
+            if (balde == null) {
+                desbordes.increment();
+                return 0;
+            }
+        }
+        while (true) {
+            long lleno = balde.get();
+            // Diferencias y no comparaciones directas: nanoTime puede ser negativo
+            long base = lleno - ahora > 0 ? lleno : ahora;
+            long espera = base - ahora - tolerancia;
+            if (espera > 0) {
+                return espera;
+            }
+            if (balde.compareAndSet(lleno, base + intervalo)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Descarta los baldes llenos que llevan más de idle-timeout sin uso
+     */
+    public void evictIdle() {
+        descartarLlenos(ocioso);
+    }
+
+    public int size() {
+        return baldes.size();
+    }
+
+    /**
+     * Claves nuevas que pasaron sin límite por falta de lugar
+     */
+    public long overflows() {
+        return desbordes.sum();
+    }
+
+    private AtomicLong registrar(String clave, long ahora) {
+        if (baldes.size() >= maxKeys) {
+            long anterior = ultimaLimpieza.get();
+            if (ahora - anterior >= LIMPIEZA_MINIMA && ultimaLimpieza.compareAndSet(anterior, ahora)) {
+                descartarLlenos(0);
+            }
+            if (baldes.size() >= maxKeys) {
+                return null;
+            }
+        }
+        return baldes.computeIfAbsent(clave, k -> new AtomicLong(ahora));
+    }
+
+    private void descartarLlenos(long desde) {
+        long ahora = reloj.getAsLong();
+        baldes.values().removeIf(balde -> ahora - balde.get() >= desde);
+    }
+}
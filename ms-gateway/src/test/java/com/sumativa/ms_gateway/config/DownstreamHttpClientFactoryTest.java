@@ -0,0 +1,163 @@
+package com.sumativa.ms_gateway.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para DownstreamHttpClientFactory
+ */
+class DownstreamHttpClientFactoryTest {
+
+    private static RouteDefinition route(String id, String uri, Object maxConnections) {
+        RouteDefinition route = new RouteDefinition();
+        route.setId(id);
+        route.setUri(URI.create(uri));
+        if (maxConnections != null) {
+            route.getMetadata().put(DownstreamHttpClientFactory.MAX_CONNECTIONS, maxConnections);
+        }
+        return route;
+    }
+
+    private static DownstreamHttpClientFactory factory(HttpClientProperties properties, RouteDefinition... routes) {
+        return new DownstreamHttpClientFactory(properties, new ServerProperties(), null, List.of(), List.of(routes));
+    }
+
+    private static DownstreamHttpClientFactory factory(RouteDefinition... routes) {
+        return factory(new HttpClientProperties(), routes);
+    }
+
+    private static SocketAddress host(String host, int puerto) {
+        return InetSocketAddress.createUnresolved(host, puerto);
+    }
+
+    // ==================== maxConnectionsPorHost Tests ====================
+
+    @Test
+    void maxConnectionsPorHost_shouldSumRoutesToSameHostAndPort() {
+        // Arrange
+        DownstreamHttpClientFactory factory = factory(
+                route("ms-users", "http://localhost:8081", 50),
+                route("ms-laboratorios", "http://localhost:8082", 25),
+                route("ms-laboratorios-asignaciones", "http://localhost:8082", "25"));
+
+        // Act
+        Map<SocketAddress, Integer> result = factory.maxConnectionsPorHost();
+
+        // Assert
+        assertEquals(Map.of(host("localhost", 8081), 50, host("localhost", 8082), 50), result);
+    }
+
+    @Test
+    void maxConnectionsPorHost_shouldUseDefaultPortOfScheme() {
+        // Arrange
+        DownstreamHttpClientFactory factory = factory(
+                route("http", "http://ms-results", 10),
+                route("https", "https://ms-results", 20));
+
+        // Act
+        Map<SocketAddress, Integer> result = factory.maxConnectionsPorHost();
+
+        // Assert
+        assertEquals(Map.of(host("ms-results", 80), 10, host("ms-results", 443), 20), result);
+    }
+
+    @Test
+    void maxConnectionsPorHost_shouldSkipRoutesWithoutMaxConnections() {
+        // Arrange
+        DownstreamHttpClientFactory factory = factory(
+                route("ms-users", "http://localhost:8081", null),
+                route("ms-results", "http://localhost:8083", 30));
+
+        // Act
+        Map<SocketAddress, Integer> result = factory.maxConnectionsPorHost();
+
+        // Assert
+        assertEquals(Map.of(host("localhost", 8083), 30), result);
+    }
+
+    @Test
+    void maxConnectionsPorHost_shouldSkipRoutesWithoutHost() {
+        // Arrange
+        DownstreamHttpClientFactory factory = factory(route("forward", "forward:/fallback", 10));
+
+        // Act & Assert
+        assertTrue(factory.maxConnectionsPorHost().isEmpty());
+    }
+
+    @Test
+    void maxConnectionsPorHost_shouldThrowException_whenNotPositive() {
+        // Arrange
+        DownstreamHttpClientFactory factory = factory(route("ms-results", "http://localhost:8083", 0));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                factory::maxConnectionsPorHost);
+        assertTrue(exception.getMessage().contains("ms-results"));
+    }
+
+    @Test
+    void maxConnectionsPorHost_shouldThrowException_whenNotANumber() {
+        // Arrange
+        DownstreamHttpClientFactory factory = factory(route("ms-results", "http://localhost:8083", "muchas"));
+
+        // Act & Assert
+        assertThrows(NumberFormatException.class, factory::maxConnectionsPorHost);
+    }
+
+    // ==================== buildConnectionProvider Tests ====================
+
+    @Test
+    void buildConnectionProvider_shouldUseDefaultPoolSize_forHostsWithoutMaxConnections() {
+        // Arrange
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.getPool().setType(HttpClientProperties.Pool.PoolType.FIXED);
+        properties.getPool().setMaxConnections(100);
+        DownstreamHttpClientFactory factory = factory(properties, route("ms-results", "http://localhost:8083", 30));
+
+        // Act
+        ConnectionProvider provider = factory.buildConnectionProvider(properties);
+
+        // Assert
+        try {
+            assertEquals(100, provider.maxConnections());
+        } finally {
+            provider.dispose();
+        }
+    }
+
+    @Test
+    void buildConnectionProvider_shouldRejectInvalidRoute_whenPoolIsFixed() {
+        // Arrange
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.getPool().setType(HttpClientProperties.Pool.PoolType.FIXED);
+        DownstreamHttpClientFactory factory = factory(properties, route("ms-results", "http://localhost:8083", -1));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> factory.buildConnectionProvider(properties));
+    }
+
+    @Test
+    void buildConnectionProvider_shouldIgnoreRoutes_whenPoolIsDisabled() {
+        // Arrange
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.getPool().setType(HttpClientProperties.Pool.PoolType.DISABLED);
+        DownstreamHttpClientFactory factory = factory(properties, route("ms-results", "http://localhost:8083", -1));
+
+        // Act
+        ConnectionProvider provider = factory.buildConnectionProvider(properties);
+
+        // Assert: sin pool, una conexión nueva por solicitud
+        assertEquals(1, provider.maxConnections());
+    }
+}
@@ -0,0 +1,203 @@
+package com.sumativa.ms_gateway.filter;
+
+import com.sumativa.ms_gateway.config.RateLimitProperties;
+import com.sumativa.ms_gateway.config.RouteAuthProperties;
+import com.sumativa.ms_gateway.security.InternalIdentitySigner;
+import com.sumativa.ms_gateway.security.JwtTokenProvider;
+import com.sumativa.ms_gateway.security.RateLimitKey;
+import com.sumativa.ms_gateway.security.RouteAuthMatcher;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests unitarios para RateLimitFilter con una cadena simulada
+ */
+class RateLimitFilterTest {
+
+    private static final String SECRET = "LabControlSecretKeyForJWTTokenGeneration2025MustBeLongEnoughForHS512Algorithm";
+    private static final String IP = "10.0.0.7";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private RateLimitFilter filter;
+    private AtomicInteger llamadas;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = spy(new JwtTokenProvider(SECRET, 100));
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setPolicies(List.of(
+                policy("login", "/api/users/login", RateLimitKey.IP, 2),
+                policy("api", "/api/**", RateLimitKey.USER, 3)));
+        filter = new RateLimitFilter(properties, jwtTokenProvider);
+        llamadas = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.destroy();
+    }
+
+    private static RateLimitProperties.Policy policy(String name, String pattern, RateLimitKey key, int limit) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName(name);
+        policy.setPattern(pattern);
+        policy.setKey(key);
+        policy.setLimit(limit);
+        policy.setPeriod(Duration.ofMinutes(1));
+        return policy;
+    }
+
+    private static String token(String email) {
+        return Jwts.builder()
+                .subject(email)
+                .claim("roles", List.of("PACIENTE"))
+                .expiration(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static MockServerWebExchange get(String path, String token) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path)
+                .remoteAddress(new InetSocketAddress(IP, 50000));
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private final GatewayFilterChain responde = exchange -> {
+        llamadas.incrementAndGet();
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return Mono.empty();
+    };
+
+    private HttpStatus ejecutar(MockServerWebExchange exchange, GatewayFilterChain chain) {
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+
+    // ==================== key ip Tests ====================
+
+    @Test
+    void filter_shouldLimitByIp_whenPolicyKeyIsIp() {
+        // Act
+        for (int i = 0; i < 2; i++) {
+            assertEquals(HttpStatus.OK, ejecutar(get("/api/users/login", token("ana@lab.cl")), responde));
+        }
+        MockServerWebExchange exchange = get("/api/users/login", token("luis@lab.cl"));
+        HttpStatus status = ejecutar(exchange, responde);
+
+        // Assert: otro usuario desde la misma IP comparte el balde
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, status);
+        assertEquals("30", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(2, llamadas.get());
+    }
+
+    // ==================== key user Tests ====================
+
+    @Test
+    void filter_shouldLimitByTokenEmail_whenTokenIsValid() {
+        // Arrange
+        String ana = token("ana@lab.cl");
+        for (int i = 0; i < 3; i++) {
+            ejecutar(get("/api/resultados", ana), responde);
+        }
+
+        // Act & Assert: misma IP, baldes distintos por usuario
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ejecutar(get("/api/resultados", ana), responde));
+        assertEquals(HttpStatus.OK, ejecutar(get("/api/resultados", token("luis@lab.cl")), responde));
+    }
+
+    @Test
+    void filter_shouldLimitByIp_whenTokenIsInvalid() {
+        // Act: ráfaga de tokens inválidos distintos desde la misma IP
+        for (int i = 0; i < 3; i++) {
+            ejecutar(get("/api/resultados", "token-invalido-" + i), responde);
+        }
+        HttpStatus status = ejecutar(get("/api/resultados", "token-invalido-3"), responde);
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, status);
+        assertEquals(3, llamadas.get());
+    }
+
+    @Test
+    void filter_shouldIgnoreClientUserHeader() {
+        // Arrange: sin token, X-User-Email del cliente no elige el balde
+        for (int i = 0; i < 3; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/resultados")
+                    .remoteAddress(new InetSocketAddress(IP, 50000))
+                    .header(InternalIdentitySigner.HEADER_EMAIL, "usuario" + i + "@lab.cl"));
+            ejecutar(exchange, responde);
+        }
+
+        // Act & Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ejecutar(get("/api/resultados", null), responde));
+    }
+
+    // ==================== Autenticación Tests ====================
+
+    @Test
+    void filter_shouldRejectInvalidTokensBeforeAuthentication() {
+        // Arrange: la cadena real sigue con JwtAuthenticationFilter
+        JwtAuthenticationFilter autenticacion = new JwtAuthenticationFilter(jwtTokenProvider,
+                new InternalIdentitySigner(false, "", 30000), new RouteAuthMatcher(new RouteAuthProperties()));
+        GatewayFilterChain chain = exchange -> autenticacion.filter(exchange, responde);
+
+        // Act
+        HttpStatus[] statuses = new HttpStatus[4];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = ejecutar(get("/api/resultados", "token-invalido"), chain);
+        }
+
+        // Assert: 401 dentro del límite, 429 después, y cada token se verifica una sola vez
+        assertArrayEquals(new HttpStatus[]{HttpStatus.UNAUTHORIZED, HttpStatus.UNAUTHORIZED,
+                HttpStatus.UNAUTHORIZED, HttpStatus.TOO_MANY_REQUESTS}, statuses);
+        assertEquals(0, llamadas.get());
+        verify(jwtTokenProvider, times(4)).verifyToken(anyString());
+    }
+
+    @Test
+    void filter_shouldPassVerifiedTokenToAuthentication() {
+        // Arrange
+        JwtAuthenticationFilter autenticacion = new JwtAuthenticationFilter(jwtTokenProvider,
+                new InternalIdentitySigner(false, "", 30000), new RouteAuthMatcher(new RouteAuthProperties()));
+        MockServerWebExchange exchange = get("/api/resultados", token("ana@lab.cl"));
+        String[] email = new String[1];
+        GatewayFilterChain chain = ex -> autenticacion.filter(ex, autenticado -> {
+            email[0] = autenticado.getRequest().getHeaders().getFirst(InternalIdentitySigner.HEADER_EMAIL);
+            return responde.filter(autenticado);
+        });
+
+        // Act
+        HttpStatus status = ejecutar(exchange, chain);
+
+        // Assert
+        assertEquals(HttpStatus.OK, status);
+        assertEquals("ana@lab.cl", email[0]);
+        verify(jwtTokenProvider, times(1)).verifyToken(anyString());
+    }
+}
@@ -0,0 +1,307 @@
+package com.sumativa.ms_gateway.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.PrematureCloseException;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ResilienciaGatewayFilterFactory con una cadena simulada
+ */
+class ResilienciaGatewayFilterFactoryTest {
+
+    private static final String RUTA = "ms-results";
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private BulkheadRegistry bulkheadRegistry;
+    private AtomicInteger llamadas;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(10)
+                .minimumNumberOfCalls(10)
+                .permittedNumberOfCallsInHalfOpenState(1)
+                .waitDurationInOpenState(Duration.ofSeconds(10))
+                .build());
+        bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        llamadas = new AtomicInteger();
+    }
+
+    private GatewayFilter filtro(int reintentos) {
+        ResilienciaGatewayFilterFactory.Config config = new ResilienciaGatewayFilterFactory.Config();
+        config.setRouteId(RUTA);
+        config.setRetries(reintentos);
+        config.setFirstBackoff(Duration.ofMillis(1));
+        config.setMaxBackoff(Duration.ofMillis(5));
+        return new ResilienciaGatewayFilterFactory(circuitBreakerRegistry, bulkheadRegistry).apply(config);
+    }
+
+    /**
+     * Cadena que responde con el status dado, como el microservicio
+     */
+    private GatewayFilterChain responde(HttpStatus status) {
+        return exchange -> {
+            llamadas.incrementAndGet();
+            exchange.getResponse().setStatusCode(status);
+            return Mono.empty();
+        };
+    }
+
+    /**
+     * Cadena que falla con el error dado las primeras veces y después responde 200
+     */
+    private GatewayFilterChain fallaYResponde(Throwable error, int fallos) {
+        return exchange -> {
+            if (llamadas.incrementAndGet() <= fallos) {
+                return Mono.error(error);
+            }
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/resultados"));
+    }
+
+    private static MockServerWebExchange post() {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/api/resultados"));
+    }
+
+    private CircuitBreaker circuitBreaker() {
+        return circuitBreakerRegistry.circuitBreaker(RUTA);
+    }
+
+    private Bulkhead bulkhead() {
+        return bulkheadRegistry.bulkhead(RUTA);
+    }
+
+    /**
+     * Tras un reintento el error llega desde el hilo del backoff y block() puede
+     * volver antes de que corra doFinally; se espera a que el bulkhead quede libre
+     */
+    private void assertBulkheadLibre() throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (bulkhead().getMetrics().getAvailableConcurrentCalls() == 0 && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, bulkhead().getMetrics().getAvailableConcurrentCalls());
+    }
+
+    // ==================== Circuit breaker Tests ====================
+
+    @Test
+    void filter_shouldRecordSuccess_when2xx() {
+        // Act
+        filtro(2).filter(get(), responde(HttpStatus.OK)).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(1, circuitBreaker().getMetrics().getNumberOfSuccessfulCalls());
+        assertEquals(0, circuitBreaker().getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void filter_shouldRecordFailure_when5xx() {
+        // Arrange
+        MockServerWebExchange exchange = get();
+
+        // Act
+        filtro(2).filter(exchange, responde(HttpStatus.BAD_GATEWAY)).block(Duration.ofSeconds(5));
+
+        // Assert: la respuesta llega al cliente, pero cuenta como fallo y no se reintenta
+        assertEquals(HttpStatus.BAD_GATEWAY, exchange.getResponse().getStatusCode());
+        assertEquals(1, llamadas.get());
+        assertEquals(1, circuitBreaker().getMetrics().getNumberOfFailedCalls());
+        assertEquals(0, circuitBreaker().getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    @Test
+    void filter_shouldRecordSuccess_when4xx() {
+        // Act
+        filtro(2).filter(get(), responde(HttpStatus.NOT_FOUND)).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(1, circuitBreaker().getMetrics().getNumberOfSuccessfulCalls());
+        assertEquals(0, circuitBreaker().getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void filter_shouldRespond503WithoutCallingChain_whenCircuitIsOpen() {
+        // Arrange
+        GatewayFilter filtro = filtro(2);
+        circuitBreaker().transitionToOpenState();
+        MockServerWebExchange exchange = get();
+
+        // Act
+        filtro.filter(exchange, responde(HttpStatus.OK)).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(0, llamadas.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+        assertEquals("10", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertTrue(exchange.getResponse().getBodyAsString().block().contains("\"route\":\"ms-results\""));
+    }
+
+    // ==================== Bulkhead Tests ====================
+
+    @Test
+    void filter_shouldRespond503AndReleaseCircuitPermission_whenBulkheadIsFull() {
+        // Arrange: la única llamada permitida en half-open queda libre si el bulkhead rechaza
+        GatewayFilter filtro = filtro(2);
+        circuitBreaker().transitionToOpenState();
+        circuitBreaker().transitionToHalfOpenState();
+        assertTrue(bulkhead().tryAcquirePermission());
+        MockServerWebExchange exchange = get();
+
+        // Act
+        filtro.filter(exchange, responde(HttpStatus.OK)).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(0, llamadas.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+        assertEquals("1", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertTrue(circuitBreaker().tryAcquirePermission());
+    }
+
+    @Test
+    void filter_shouldReleaseBulkhead_whenCompleted() {
+        // Act
+        filtro(2).filter(get(), responde(HttpStatus.INTERNAL_SERVER_ERROR)).block(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(1, bulkhead().getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    void filter_shouldReleasePermits_whenCancelled() {
+        // Arrange: en half-open sólo se permite una llamada
+        GatewayFilter filtro = filtro(2);
+        circuitBreaker().transitionToOpenState();
+        circuitBreaker().transitionToHalfOpenState();
+        GatewayFilterChain sinRespuesta = exchange -> {
+            llamadas.incrementAndGet();
+            return Mono.never();
+        };
+
+        // Act: el cliente cierra la conexión antes de la respuesta
+        Disposable suscripcion = filtro.filter(get(), sinRespuesta).subscribe();
+        assertEquals(0, bulkhead().getMetrics().getAvailableConcurrentCalls());
+        suscripcion.dispose();
+
+        // Assert: ni el bulkhead ni la llamada de prueba del circuito quedan tomados
+        assertEquals(1, llamadas.get());
+        assertEquals(1, bulkhead().getMetrics().getAvailableConcurrentCalls());
+        assertEquals(0, circuitBreaker().getMetrics().getNumberOfBufferedCalls());
+        assertTrue(circuitBreaker().tryAcquirePermission());
+    }
+
+    @Test
+    void apply_shouldThrowException_whenBulkheadWaits() {
+        // Arrange
+        bulkheadRegistry.bulkhead(RUTA, BulkheadConfig.custom().maxWaitDuration(Duration.ofMillis(10)).build());
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> filtro(2));
+        assertTrue(exception.getMessage().contains(RUTA));
+    }
+
+    // ==================== Reintentos Tests ====================
+
+    @Test
+    void filter_shouldRetryGet_whenConnectionRefused() {
+        // Arrange
+        MockServerWebExchange exchange = get();
+
+        // Act
+        filtro(2).filter(exchange, fallaYResponde(new ConnectException("Connection refused"), 2))
+                .block(Duration.ofSeconds(5));
+
+        // Assert: un solo registro en el circuito por solicitud, no por intento
+        assertEquals(3, llamadas.get());
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(1, circuitBreaker().getMetrics().getNumberOfSuccessfulCalls());
+        assertEquals(0, circuitBreaker().getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void filter_shouldRecordFailure_whenRetriesExhausted() throws InterruptedException {
+        // Arrange
+        ConnectException error = new ConnectException("Connection refused");
+
+        // Act
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> filtro(2)
+                .filter(get(), fallaYResponde(error, Integer.MAX_VALUE)).block(Duration.ofSeconds(5)));
+
+        // Assert: el error original llega al cliente, sin envolver en RetryExhaustedException
+        assertSame(error, exception.getCause());
+        assertEquals(3, llamadas.get());
+        assertEquals(1, circuitBreaker().getMetrics().getNumberOfFailedCalls());
+        assertBulkheadLibre();
+    }
+
+    @Test
+    void filter_shouldNotRetry_whenServiceMayHaveProcessedRequest() {
+        // Act
+        assertThrows(RuntimeException.class, () -> filtro(2)
+                .filter(get(), fallaYResponde(new TimeoutException("read timeout"), 1)).block(Duration.ofSeconds(5)));
+
+        // Assert
+        assertEquals(1, llamadas.get());
+        assertEquals(1, circuitBreaker().getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void filter_shouldNotRetryPost() {
+        // Act
+        assertThrows(RuntimeException.class, () -> filtro(2)
+                .filter(post(), fallaYResponde(new ConnectException("Connection refused"), 1))
+                .block(Duration.ofSeconds(5)));
+
+        // Assert
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    void filter_shouldNotRetry_whenRetriesIsZero() {
+        // Act
+        assertThrows(RuntimeException.class, () -> filtro(0)
+                .filter(get(), fallaYResponde(new ConnectException("Connection refused"), 1))
+                .block(Duration.ofSeconds(5)));
+
+        // Assert
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    void sinRespuesta_shouldAcceptOnlyErrorsBeforeResponse() {
+        // Act & Assert
+        assertTrue(ResilienciaGatewayFilterFactory.sinRespuesta(new ConnectException("Connection refused")));
+        assertTrue(ResilienciaGatewayFilterFactory.sinRespuesta(PrematureCloseException.TEST_EXCEPTION));
+        assertFalse(ResilienciaGatewayFilterFactory.sinRespuesta(new TimeoutException("read timeout")));
+        assertFalse(ResilienciaGatewayFilterFactory.sinRespuesta(new IllegalStateException("error")));
+    }
+}
@@ -0,0 +1,280 @@
+package com.sumativa.ms_gateway.filter;
+
+import com.sumativa.ms_gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ResponseCacheFilter con una cadena simulada
+ */
+class ResponseCacheFilterTest {
+
+    private static final String BODY = "[{\"id\":1,\"nombre\":\"Hemograma\"}]";
+
+    private ResponseCacheProperties properties;
+    private ResponseCacheFilter filter;
+    private AtomicInteger llamadas;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        properties.setPaths(List.of("/api/tipos-analisis/**"));
+        filter = new ResponseCacheFilter(properties);
+        llamadas = new AtomicInteger();
+    }
+
+    /**
+     * Cadena que responde 200 con el cuerpo dado, en bloques, como el microservicio
+     */
+    private GatewayFilterChain responde(String... bloques) {
+        return responde(exchange -> Mono.empty(), bloques);
+    }
+
+    private GatewayFilterChain responde(Function<ServerWebExchange, Mono<Void>> antes, String... bloques) {
+        return exchange -> {
+            llamadas.incrementAndGet();
+            return antes.apply(exchange).then(Mono.defer(() -> {
+                exchange.getResponse().setStatusCode(HttpStatus.OK);
+                exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                return exchange.getResponse().writeWith(Flux.fromArray(bloques).map(ResponseCacheFilterTest::buffer));
+            }));
+        };
+    }
+
+    private static DataBuffer buffer(String texto) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+
+    private MockServerWebExchange ejecutar(MockServerWebExchange exchange, GatewayFilterChain chain) {
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    // ==================== hit/miss Tests ====================
+
+    @Test
+    void filter_shouldServeSecondGetFromCache() {
+        // Arrange
+        GatewayFilterChain chain = responde("[{\"id\":1,", "\"nombre\":\"Hemograma\"}]");
+
+        // Act
+        MockServerWebExchange primero = ejecutar(get("/api/tipos-analisis"), chain);
+        MockServerWebExchange segundo = ejecutar(get("/api/tipos-analisis"), chain);
+
+        // Assert
+        assertEquals(1, llamadas.get());
+        assertEquals("MISS", primero.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", segundo.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(BODY, primero.getResponse().getBodyAsString().block());
+        assertEquals(BODY, segundo.getResponse().getBodyAsString().block());
+        assertEquals(primero.getResponse().getHeaders().getETag(), segundo.getResponse().getHeaders().getETag());
+        assertEquals(MediaType.APPLICATION_JSON, segundo.getResponse().getHeaders().getContentType());
+    }
+
+    @Test
+    void filter_shouldSeparateEntriesByQueryAndRoles() {
+        // Arrange
+        GatewayFilterChain chain = responde(BODY);
+        MockServerWebExchange admin = get("/api/tipos-analisis");
+        admin.getAttributes().put(JwtAuthenticationFilter.USER_ROLES_ATTRIBUTE, List.of("ADMIN"));
+
+        // Act
+        ejecutar(get("/api/tipos-analisis"), chain);
+        ejecutar(get("/api/tipos-analisis?activo=true"), chain);
+        ejecutar(admin, chain);
+
+        // Assert
+        assertEquals(3, llamadas.get());
+    }
+
+    @Test
+    void filter_shouldNotCachePathsOutsideConfiguredPatterns() {
+        // Arrange
+        GatewayFilterChain chain = responde(BODY);
+
+        // Act
+        ejecutar(get("/api/resultados"), chain);
+        MockServerWebExchange segundo = ejecutar(get("/api/resultados"), chain);
+
+        // Assert
+        assertEquals(2, llamadas.get());
+        assertNull(segundo.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void filter_shouldMissAgain_whenEntryExpired() {
+        // Arrange
+        properties.setTtl(Duration.ZERO);
+        GatewayFilterChain chain = responde(BODY);
+
+        // Act
+        ejecutar(get("/api/tipos-analisis"), chain);
+        ejecutar(get("/api/tipos-analisis"), chain);
+
+        // Assert
+        assertEquals(2, llamadas.get());
+    }
+
+    // ==================== If-None-Match Tests ====================
+
+    @Test
+    void filter_shouldAnswer304_whenIfNoneMatchMatchesCachedEtag() {
+        // Arrange
+        GatewayFilterChain chain = responde(BODY);
+        String etag = ejecutar(get("/api/tipos-analisis"), chain).getResponse().getHeaders().getETag();
+
+        // Act
+        MockServerWebExchange condicional = ejecutar(MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/tipos-analisis").header(HttpHeaders.IF_NONE_MATCH, etag)), chain);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, condicional.getResponse().getStatusCode());
+        assertEquals("", condicional.getResponse().getBodyAsString().defaultIfEmpty("").block());
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    void filter_shouldAnswer304OnMiss_whenIfNoneMatchMatchesFreshBody() {
+        // Arrange
+        String etag = ejecutar(get("/api/tipos-analisis"), responde(BODY)).getResponse().getHeaders().getETag();
+        filter = new ResponseCacheFilter(properties);
+
+        // Act
+        MockServerWebExchange condicional = ejecutar(MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/tipos-analisis").header(HttpHeaders.IF_NONE_MATCH, etag)),
+                responde(BODY));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, condicional.getResponse().getStatusCode());
+        assertEquals("MISS", condicional.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    // ==================== Invalidación Tests ====================
+
+    @Test
+    void filter_shouldInvalidatePattern_whenWriteArrives() {
+        // Arrange
+        GatewayFilterChain chain = responde(BODY);
+        ejecutar(get("/api/tipos-analisis/1"), chain);
+
+        // Act
+        ejecutar(MockServerWebExchange.from(MockServerHttpRequest.put("/api/tipos-analisis/2")),
+                exchange -> Mono.empty());
+        MockServerWebExchange despues = ejecutar(get("/api/tipos-analisis/1"), chain);
+
+        // Assert
+        assertEquals(2, llamadas.get());
+        assertEquals("MISS", despues.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void filter_shouldNotStoreResponse_whenWriteHappenedWhileFetching() {
+        // Arrange: la escritura llega mientras el GET espera al microservicio
+        GatewayFilterChain chain = responde(exchange -> filter.filter(
+                MockServerWebExchange.from(MockServerHttpRequest.delete("/api/tipos-analisis/1")),
+                ignorado -> Mono.empty()), BODY);
+
+        // Act
+        MockServerWebExchange primero = ejecutar(get("/api/tipos-analisis"), chain);
+        ejecutar(get("/api/tipos-analisis"), responde(BODY));
+
+        // Assert: el primero se entregó, pero no quedó en caché
+        assertEquals(BODY, primero.getResponse().getBodyAsString().block());
+        assertEquals(2, llamadas.get());
+    }
+
+    // ==================== Tamaño máximo Tests ====================
+
+    @Test
+    void filter_shouldStreamWithoutCaching_whenChunkedBodyExceedsMaxSize() {
+        // Arrange: sin Content-Length, 3 bloques de 40 bytes con un máximo de 100
+        properties.setMaxBodySize(DataSize.ofBytes(100));
+        String bloque = "x".repeat(40);
+        GatewayFilterChain chain = responde(bloque, bloque, bloque);
+
+        // Act
+        MockServerWebExchange primero = ejecutar(get("/api/tipos-analisis"), chain);
+        ejecutar(get("/api/tipos-analisis"), chain);
+
+        // Assert
+        assertEquals(bloque.repeat(3), primero.getResponse().getBodyAsString().block());
+        assertNull(primero.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(2, llamadas.get());
+    }
+
+    @Test
+    void filter_shouldCacheChunkedBody_whenItFitsMaxSize() {
+        // Arrange
+        properties.setMaxBodySize(DataSize.ofBytes(100));
+        String bloque = "x".repeat(50);
+        GatewayFilterChain chain = responde(bloque, bloque);
+
+        // Act
+        ejecutar(get("/api/tipos-analisis"), chain);
+        MockServerWebExchange segundo = ejecutar(get("/api/tipos-analisis"), chain);
+
+        // Assert
+        assertEquals(1, llamadas.get());
+        assertEquals(bloque.repeat(2), segundo.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void filter_shouldCacheEmptyBody() {
+        // Arrange
+        GatewayFilterChain chain = responde();
+
+        // Act
+        ejecutar(get("/api/tipos-analisis"), chain);
+        MockServerWebExchange segundo = ejecutar(get("/api/tipos-analisis"), chain);
+
+        // Assert
+        assertEquals(1, llamadas.get());
+        assertEquals("HIT", segundo.getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    // ==================== Métricas Tests ====================
+
+    @Test
+    void bindTo_shouldCountHitsMissesAndSavedBytes() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        GatewayFilterChain chain = responde(BODY);
+
+        // Act
+        ejecutar(get("/api/tipos-analisis"), chain);
+        ejecutar(get("/api/tipos-analisis"), chain);
+
+        // Assert
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(BODY.getBytes(StandardCharsets.UTF_8).length,
+                registry.get("cache.bytes.saved").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").gauge().value());
+    }
+}
@@ -0,0 +1,119 @@
+package com.sumativa.ms_gateway.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para InternalIdentitySigner
+ */
+class InternalIdentitySignerTest {
+
+    private static final String SECRET = "claveInternaGatewayMicroservicios2025abcdef";
+    private static final long TTL_MS = 30000;
+
+    private InternalIdentitySigner signer;
+
+    @BeforeEach
+    void setUp() {
+        signer = new InternalIdentitySigner(true, SECRET, TTL_MS);
+    }
+
+    /**
+     * Firma esperada por GatewayIdentityVerifier en los microservicios
+     */
+    private static String expectedSignature(String email, String roles, long expires, String secret) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] digest = mac.doFinal((email + "\n" + roles + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    // ==================== Constructor Tests ====================
+
+    @Test
+    void constructor_shouldNotRequireSecret_whenDisabled() {
+        // Act
+        InternalIdentitySigner disabled = new InternalIdentitySigner(false, "", TTL_MS);
+
+        // Assert
+        assertFalse(disabled.isEnabled());
+    }
+
+    @Test
+    void constructor_shouldThrowException_whenSecretIsTooShort() {
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                new InternalIdentitySigner(true, "corta", TTL_MS));
+        assertTrue(exception.getMessage().contains("32 bytes"));
+    }
+
+    // ==================== sign Tests ====================
+
+    @Test
+    void sign_shouldSetExpiresAndHmacOverEmailRolesAndExpires() throws Exception {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+        long antes = System.currentTimeMillis();
+
+        // Act
+        signer.sign(headers, "test@example.com", "ADMIN,USER");
+
+        // Assert
+        long expires = Long.parseLong(headers.getFirst(InternalIdentitySigner.HEADER_EXPIRES));
+        assertTrue(expires >= antes + TTL_MS && expires <= System.currentTimeMillis() + TTL_MS);
+        assertEquals(expectedSignature("test@example.com", "ADMIN,USER", expires, SECRET),
+                headers.getFirst(InternalIdentitySigner.HEADER_SIGNATURE));
+    }
+
+    @Test
+    void sign_shouldProduceDifferentSignature_whenRolesChange() {
+        // Arrange
+        HttpHeaders admin = new HttpHeaders();
+        HttpHeaders user = new HttpHeaders();
+
+        // Act
+        signer.sign(admin, "test@example.com", "ADMIN");
+        user.set(InternalIdentitySigner.HEADER_EXPIRES, admin.getFirst(InternalIdentitySigner.HEADER_EXPIRES));
+        signer.sign(user, "test@example.com", "USER");
+
+        // Assert
+        assertNotEquals(admin.getFirst(InternalIdentitySigner.HEADER_SIGNATURE),
+                user.getFirst(InternalIdentitySigner.HEADER_SIGNATURE));
+    }
+
+    @Test
+    void sign_shouldNotVerifyWithAnotherSecret() throws Exception {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+
+        // Act
+        signer.sign(headers, "test@example.com", "ADMIN");
+
+        // Assert
+        long expires = Long.parseLong(headers.getFirst(InternalIdentitySigner.HEADER_EXPIRES));
+        assertNotEquals(expectedSignature("test@example.com", "ADMIN", expires, SECRET + "x"),
+                headers.getFirst(InternalIdentitySigner.HEADER_SIGNATURE));
+    }
+
+    @Test
+    void sign_shouldUseUrlSafeBase64WithoutPadding() {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+
+        // Act
+        signer.sign(headers, "test@example.com", "ADMIN");
+
+        // Assert: HMAC-SHA256 = 32 bytes = 43 caracteres sin relleno
+        String signature = headers.getFirst(InternalIdentitySigner.HEADER_SIGNATURE);
+        assertEquals(43, signature.length());
+        assertTrue(signature.matches("[A-Za-z0-9_-]+"));
+    }
+}
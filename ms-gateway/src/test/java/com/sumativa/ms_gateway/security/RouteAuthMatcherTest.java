@@ -0,0 +1,123 @@
+package com.sumativa.ms_gateway.security;
+
+import com.sumativa.ms_gateway.config.RouteAuthProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RouteAuthMatcher
+ */
+class RouteAuthMatcherTest {
+
+    private static RouteAuthProperties.Rule rule(String pattern, RouteAccess access, List<String> methods,
+                                                 List<String> roles) {
+        RouteAuthProperties.Rule rule = new RouteAuthProperties.Rule();
+        rule.setPattern(pattern);
+        rule.setAccess(access);
+        rule.setMethods(methods);
+        rule.setRoles(roles);
+        return rule;
+    }
+
+    private static RouteAuthMatcher matcher(RouteAuthProperties.Rule... rules) {
+        RouteAuthProperties properties = new RouteAuthProperties();
+        properties.setRules(List.of(rules));
+        return new RouteAuthMatcher(properties);
+    }
+
+    private static RouteAuthMatcher.CompiledRule match(RouteAuthMatcher matcher, HttpMethod method, String path) {
+        return matcher.match(method, PathContainer.parsePath(path));
+    }
+
+    // ==================== match Tests ====================
+
+    @Test
+    void match_shouldReturnDefaultRule_whenNoRuleMatches() {
+        // Arrange
+        RouteAuthMatcher matcher = matcher(rule("/api/users/login", RouteAccess.PUBLIC, List.of(), List.of()));
+
+        // Act
+        RouteAuthMatcher.CompiledRule result = match(matcher, HttpMethod.GET, "/api/resultados");
+
+        // Assert
+        assertEquals(RouteAccess.AUTHENTICATED, result.access());
+        assertNull(result.pattern());
+    }
+
+    @Test
+    void match_shouldPreferMostSpecificPattern_regardlessOfDeclarationOrder() {
+        // Arrange
+        RouteAuthMatcher matcher = matcher(
+                rule("/api/users/**", RouteAccess.ROLE, List.of(), List.of("ADMIN")),
+                rule("/api/users/login", RouteAccess.PUBLIC, List.of(), List.of()));
+
+        // Act & Assert
+        assertEquals(RouteAccess.PUBLIC, match(matcher, HttpMethod.POST, "/api/users/login").access());
+        assertEquals(RouteAccess.ROLE, match(matcher, HttpMethod.GET, "/api/users/7").access());
+    }
+
+    @Test
+    void match_shouldPreferRuleWithMethods_overSamePatternForAllMethods() {
+        // Arrange
+        RouteAuthMatcher matcher = matcher(
+                rule("/api/tipos-analisis/**", RouteAccess.AUTHENTICATED, List.of(), List.of()),
+                rule("/api/tipos-analisis/**", RouteAccess.ROLE, List.of("post", "DELETE"), List.of("ADMIN")));
+
+        // Act & Assert
+        assertEquals(RouteAccess.ROLE, match(matcher, HttpMethod.POST, "/api/tipos-analisis").access());
+        assertEquals(RouteAccess.ROLE, match(matcher, HttpMethod.DELETE, "/api/tipos-analisis/3").access());
+        assertEquals(RouteAccess.AUTHENTICATED, match(matcher, HttpMethod.GET, "/api/tipos-analisis/3").access());
+    }
+
+    @Test
+    void match_shouldUseConfiguredDefaultAccess() {
+        // Arrange
+        RouteAuthProperties properties = new RouteAuthProperties();
+        properties.setDefaultAccess(RouteAccess.PUBLIC);
+
+        // Act
+        RouteAuthMatcher.CompiledRule result = match(new RouteAuthMatcher(properties), HttpMethod.GET, "/cualquiera");
+
+        // Assert
+        assertEquals(RouteAccess.PUBLIC, result.access());
+    }
+
+    // ==================== allows Tests ====================
+
+    @Test
+    void allows_shouldRequireOneOfTheRoles_onlyForRoleAccess() {
+        // Arrange
+        RouteAuthMatcher matcher = matcher(
+                rule("/api/admin/**", RouteAccess.ROLE, List.of(), List.of("ADMIN", "SUPERVISOR")));
+        RouteAuthMatcher.CompiledRule admin = match(matcher, HttpMethod.GET, "/api/admin/x");
+        RouteAuthMatcher.CompiledRule autenticada = match(matcher, HttpMethod.GET, "/api/otra");
+
+        // Act & Assert
+        assertTrue(admin.allows(List.of("USER", "SUPERVISOR")));
+        assertFalse(admin.allows(List.of("USER")));
+        assertFalse(admin.allows(List.of()));
+        assertTrue(autenticada.allows(List.of()));
+    }
+
+    // ==================== Validación Tests ====================
+
+    @Test
+    void constructor_shouldThrowException_whenRuleHasNoPattern() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () ->
+                matcher(rule(" ", RouteAccess.PUBLIC, List.of(), List.of())));
+    }
+
+    @Test
+    void constructor_shouldThrowException_whenRoleRuleHasNoRoles() {
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                matcher(rule("/api/admin/**", RouteAccess.ROLE, List.of(), List.of())));
+        assertTrue(exception.getMessage().contains("/api/admin/**"));
+    }
+}
@@ -0,0 +1,256 @@
+package com.sumativa.ms_gateway.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para TokenBucketStore con un reloj controlado
+ */
+class TokenBucketStoreTest {
+
+    private static final long SEGUNDO = Duration.ofSeconds(1).toNanos();
+
+    private AtomicLong reloj;
+
+    @BeforeEach
+    void setUp() {
+        // Negativo, como puede serlo System.nanoTime
+        reloj = new AtomicLong(-5 * SEGUNDO);
+    }
+
+    /**
+     * 10 tokens por segundo (uno cada 100 ms) con ráfagas de 5
+     */
+    private TokenBucketStore store(int maxKeys) {
+        return new TokenBucketStore(10, Duration.ofSeconds(1), 5, maxKeys, Duration.ofMinutes(10), reloj::get);
+    }
+
+    private void avanzar(Duration duracion) {
+        reloj.addAndGet(duracion.toNanos());
+    }
+
+    // ==================== tryAcquire Tests ====================
+
+    @Test
+    void tryAcquire_shouldAllowBurst_thenReturnWait() {
+        // Arrange
+        TokenBucketStore store = store(100);
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, store.tryAcquire("ana@lab.cl"), "Token " + i + " de la ráfaga");
+        }
+        assertEquals(Duration.ofMillis(100).toNanos(), store.tryAcquire("ana@lab.cl"));
+    }
+
+    @Test
+    void tryAcquire_shouldReturnRemainingWait() {
+        // Arrange
+        TokenBucketStore store = store(100);
+        for (int i = 0; i < 5; i++) {
+            store.tryAcquire("ana@lab.cl");
+        }
+
+        // Act
+        avanzar(Duration.ofMillis(30));
+        long espera = store.tryAcquire("ana@lab.cl");
+
+        // Assert: Retry-After se calcula con esta espera
+        assertEquals(Duration.ofMillis(70).toNanos(), espera);
+    }
+
+    @Test
+    void tryAcquire_shouldNotConsumeToken_whenRejected() {
+        // Arrange
+        TokenBucketStore store = store(100);
+        for (int i = 0; i < 5; i++) {
+            store.tryAcquire("ana@lab.cl");
+        }
+
+        // Act: los rechazos no alargan la espera
+        for (int i = 0; i < 10; i++) {
+            store.tryAcquire("ana@lab.cl");
+        }
+        avanzar(Duration.ofMillis(100));
+
+        // Assert
+        assertEquals(0, store.tryAcquire("ana@lab.cl"));
+    }
+
+    @Test
+    void tryAcquire_shouldRefillOneTokenPerInterval() {
+        // Arrange
+        TokenBucketStore store = store(100);
+        for (int i = 0; i < 5; i++) {
+            store.tryAcquire("ana@lab.cl");
+        }
+
+        // Act
+        avanzar(Duration.ofMillis(250));
+
+        // Assert: en 250 ms se recuperan dos tokens
+        assertEquals(0, store.tryAcquire("ana@lab.cl"));
+        assertEquals(0, store.tryAcquire("ana@lab.cl"));
+        assertEquals(Duration.ofMillis(50).toNanos(), store.tryAcquire("ana@lab.cl"));
+    }
+
+    @Test
+    void tryAcquire_shouldNotAccumulateMoreThanBurst() {
+        // Arrange
+        TokenBucketStore store = store(100);
+        store.tryAcquire("ana@lab.cl");
+
+        // Act: una hora inactivo no da más que la ráfaga
+        avanzar(Duration.ofHours(1));
+        int permitidas = 0;
+        while (store.tryAcquire("ana@lab.cl") == 0) {
+            permitidas++;
+        }
+
+        // Assert
+        assertEquals(5, permitidas);
+    }
+
+    @Test
+    void tryAcquire_shouldKeepSeparateBucketsPerKey() {
+        // Arrange
+        TokenBucketStore store = store(100);
+        for (int i = 0; i < 5; i++) {
+            store.tryAcquire("ana@lab.cl");
+        }
+
+        // Act & Assert
+        assertTrue(store.tryAcquire("ana@lab.cl") > 0);
+        assertEquals(0, store.tryAcquire("luis@lab.cl"));
+        assertEquals(2, store.size());
+    }
+
+    // ==================== evictIdle Tests ====================
+
+    @Test
+    void evictIdle_shouldDiscardFullIdleBuckets() {
+        // Arrange
+        TokenBucketStore store = store(100);
+        store.tryAcquire("ana@lab.cl");
+        store.tryAcquire("luis@lab.cl");
+
+        // Act
+        avanzar(Duration.ofMinutes(11));
+        store.tryAcquire("luis@lab.cl");
+        store.evictIdle();
+
+        // Assert
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void evictIdle_shouldKeepBuckets_beforeIdleTimeout() {
+        // Arrange
+        TokenBucketStore store = store(100);
+        store.tryAcquire("ana@lab.cl");
+
+        // Act
+        avanzar(Duration.ofMinutes(9));
+        store.evictIdle();
+
+        // Assert
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void evictIdle_shouldNotRaiseLimit() {
+        // Arrange: un balde vacío no se descarta aunque el timeout sea 0
+        TokenBucketStore store = new TokenBucketStore(1, Duration.ofMinutes(1), 1, 100, Duration.ZERO,
+                reloj::get);
+        store.tryAcquire("10.0.0.1");
+
+        // Act
+        avanzar(Duration.ofSeconds(30));
+        store.evictIdle();
+
+        // Assert
+        assertEquals(1, store.size());
+        assertEquals(Duration.ofSeconds(30).toNanos(), store.tryAcquire("10.0.0.1"));
+    }
+
+    // ==================== max-keys Tests ====================
+
+    @Test
+    void tryAcquire_shouldAllowAndCountOverflow_whenMaxKeysReached() {
+        // Arrange: dos claves con la ráfaga agotada
+        TokenBucketStore store = store(2);
+        for (int i = 0; i < 5; i++) {
+            store.tryAcquire("10.0.0.1");
+            store.tryAcquire("10.0.0.2");
+        }
+
+        // Act
+        long espera = store.tryAcquire("10.0.0.3");
+
+        // Assert: la clave nueva pasa sin límite y las existentes siguen limitadas
+        assertEquals(0, espera);
+        assertEquals(1, store.overflows());
+        assertEquals(2, store.size());
+        assertTrue(store.tryAcquire("10.0.0.1") > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldMakeRoom_byDiscardingFullBuckets_whenMaxKeysReached() {
+        // Arrange
+        TokenBucketStore store = store(2);
+        store.tryAcquire("10.0.0.1");
+        store.tryAcquire("10.0.0.2");
+        for (int i = 0; i < 5; i++) {
+            store.tryAcquire("10.0.0.2");
+        }
+
+        // Act: 10.0.0.1 vuelve a estar lleno mucho antes de idle-timeout
+        avanzar(Duration.ofMillis(150));
+        store.tryAcquire("10.0.0.3");
+
+        // Assert: 10.0.0.2 conserva su balde (un balde nuevo daría la ráfaga completa)
+        assertEquals(0, store.overflows());
+        assertEquals(2, store.size());
+        assertEquals(0, store.tryAcquire("10.0.0.2"));
+        assertTrue(store.tryAcquire("10.0.0.2") > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldScanAtMostOncePerSecond_whenMaxKeysReached() {
+        // Arrange
+        TokenBucketStore store = store(1);
+        store.tryAcquire("10.0.0.1");
+        store.tryAcquire("10.0.0.2");
+
+        // Act: 10.0.0.1 se llena, pero el último recorrido fue hace menos de un segundo
+        avanzar(Duration.ofMillis(150));
+        store.tryAcquire("10.0.0.3");
+        avanzar(Duration.ofSeconds(1));
+        store.tryAcquire("10.0.0.4");
+
+        // Assert: 10.0.0.3 desbordó sin recorrer el mapa; 10.0.0.4 ocupó el lugar de 10.0.0.1
+        assertEquals(2, store.overflows());
+        assertEquals(1, store.size());
+    }
+
+    // ==================== Constructor Tests ====================
+
+    @Test
+    void constructor_shouldThrowException_whenLimitIsNotPositive() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketStore(0, Duration.ofSeconds(1), 1,
+                100, Duration.ofMinutes(10), reloj::get));
+    }
+
+    @Test
+    void constructor_shouldThrowException_whenMaxKeysIsNotPositive() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketStore(1, Duration.ofSeconds(1), 1,
+                0, Duration.ofMinutes(10), reloj::get));
+    }
+}
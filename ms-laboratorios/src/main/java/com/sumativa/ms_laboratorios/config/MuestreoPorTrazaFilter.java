@@ -0,0 +1,46 @@
+package com.sumativa.ms_laboratorios.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Muestreo de los logs por solicitud (ver logback-spring.xml).
+ *
+ * Conserva los mensajes DEBUG/INFO sólo de una fracción de las trazas: la
+ * decisión depende del traceId del MDC, por lo que una solicitud muestreada
+ * conserva todos sus mensajes y una descartada no deja ninguno. WARN y ERROR
+ * se escriben siempre, igual que los mensajes sin traza (arranque, tareas
+ * programadas).
+ */
+public class MuestreoPorTrazaFilter extends Filter<ILoggingEvent> {
+
+    static final String TRACE_ID = "traceId";
+
+    private double tasa = 1.0;
+
+    /**
+     * @param tasa fracción de trazas cuyos mensajes se conservan, entre 0 y 1
+     */
+    public void setTasa(double tasa) {
+        this.tasa = tasa;
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (tasa >= 1.0 || event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        String traceId = event.getMDCPropertyMap().get(TRACE_ID);
+        if (traceId == null) {
+            return FilterReply.NEUTRAL;
+        }
+        return muestreada(traceId) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean muestreada(String traceId) {
+        double posicion = (traceId.hashCode() & Integer.MAX_VALUE) / (double) Integer.MAX_VALUE;
+        return posicion < tasa;
+    }
+}
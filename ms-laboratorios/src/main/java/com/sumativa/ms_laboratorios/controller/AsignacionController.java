@@ -1,5 +1,6 @@
 package com.sumativa.ms_laboratorios.controller;
 
+import com.sumativa.commons.http.Etags;
 import com.sumativa.ms_laboratorios.dto.AsignacionCreateDto;
 import com.sumativa.ms_laboratorios.dto.AsignacionResponseDto;
 import com.sumativa.ms_laboratorios.dto.AsignacionUpdateDto;
@@ -9,6 +10,7 @@ import com.sumativa.ms_laboratorios.mapper.AsignacionMapper;
 import com.sumativa.ms_laboratorios.service.AsignacionService;
 import com.sumativa.ms_laboratorios.service.LaboratorioService;
 import jakarta.validation.Valid;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +25,7 @@ import java.util.stream.Collectors;
  * Controlador REST para gestión de asignaciones
  */
 @RestController
+@Observed
 @RequestMapping("/api/asignaciones")
 @RequiredArgsConstructor
 public class AsignacionController {
@@ -32,26 +35,35 @@ public class AsignacionController {
 
     /**
      * GET /asignaciones - Listar todas las asignaciones
+     * ETag débil con los IDs y versiones de cada asignación y su laboratorio:
+     * If-None-Match responde 304
      * @return Lista de AsignacionResponseDto
      */
     @GetMapping
     public ResponseEntity<List<AsignacionResponseDto>> findAll() {
         List<Asignacion> asignaciones = asignacionService.findAll();
+        Etags.Coleccion etag = Etags.coleccion();
+        asignaciones.forEach(asignacion -> etag.agregar(asignacion.getId(), asignacion.getVersion(),
+                asignacion.getLaboratorio().getId(), asignacion.getLaboratorio().getVersion()));
         List<AsignacionResponseDto> responseDtos = asignaciones.stream()
             .map(AsignacionMapper::toResponseDto)
             .collect(Collectors.toList());
-        return ResponseEntity.ok(responseDtos);
+        return ResponseEntity.ok().eTag(etag.debil()).body(responseDtos);
     }
 
     /**
      * GET /asignaciones/{id} - Obtener asignación por ID
+     * ETag fuerte con las versiones de la asignación y de su laboratorio (incluido
+     * en la respuesta): If-None-Match responde 304
      * @return AsignacionResponseDto
      */
     @GetMapping("/{id}")
     public ResponseEntity<AsignacionResponseDto> findById(@PathVariable Long id) {
         Asignacion asignacion = asignacionService.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Asignación no encontrada con id: " + id));
-        return ResponseEntity.ok(AsignacionMapper.toResponseDto(asignacion));
+        return ResponseEntity.ok()
+                .eTag(Etags.fuerte(asignacion.getVersion(), asignacion.getLaboratorio().getVersion()))
+                .body(AsignacionMapper.toResponseDto(asignacion));
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.sumativa.ms_laboratorios.controller;
 
+import com.sumativa.commons.http.Etags;
 import com.sumativa.ms_laboratorios.dto.LaboratorioCreateDto;
 import com.sumativa.ms_laboratorios.dto.LaboratorioResponseDto;
 import com.sumativa.ms_laboratorios.dto.LaboratorioUpdateDto;
@@ -7,6 +8,7 @@ import com.sumativa.ms_laboratorios.entity.Laboratorio;
 import com.sumativa.ms_laboratorios.mapper.LaboratorioMapper;
 import com.sumativa.ms_laboratorios.service.LaboratorioService;
 import jakarta.validation.Valid;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +23,7 @@ import java.util.stream.Collectors;
  * Controlador REST para gestión de laboratorios
  */
 @RestController
+@Observed
 @RequestMapping("/api/laboratorios")
 @RequiredArgsConstructor
 public class LaboratorioController {
@@ -29,26 +32,32 @@ public class LaboratorioController {
 
     /**
      * GET /laboratorios - Listar todos los laboratorios
+     * ETag débil con los IDs y versiones de la lista: If-None-Match responde 304
      * @return Lista de LaboratorioResponseDto
      */
     @GetMapping
     public ResponseEntity<List<LaboratorioResponseDto>> findAll() {
         List<Laboratorio> laboratorios = laboratorioService.findAll();
+        Etags.Coleccion etag = Etags.coleccion();
+        laboratorios.forEach(laboratorio -> etag.agregar(laboratorio.getId(), laboratorio.getVersion()));
         List<LaboratorioResponseDto> responseDtos = laboratorios.stream()
             .map(LaboratorioMapper::toResponseDto)
             .collect(Collectors.toList());
-        return ResponseEntity.ok(responseDtos);
+        return ResponseEntity.ok().eTag(etag.debil()).body(responseDtos);
     }
 
     /**
      * GET /laboratorios/{id} - Obtener laboratorio por ID
+     * ETag fuerte con la versión de la fila: If-None-Match responde 304
      * @return LaboratorioResponseDto
      */
     @GetMapping("/{id}")
     public ResponseEntity<LaboratorioResponseDto> findById(@PathVariable Long id) {
         Laboratorio laboratorio = laboratorioService.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Laboratorio no encontrado con id: " + id));
-        return ResponseEntity.ok(LaboratorioMapper.toResponseDto(laboratorio));
+        return ResponseEntity.ok()
+                .eTag(Etags.fuerte(laboratorio.getVersion()))
+                .body(LaboratorioMapper.toResponseDto(laboratorio));
     }
 
     /**
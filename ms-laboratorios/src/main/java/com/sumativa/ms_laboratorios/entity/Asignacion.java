@@ -4,7 +4,6 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -18,11 +17,12 @@ import java.time.LocalDate;
 @Table(name = "asignaciones")
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Asignacion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con bloques de 50 IDs: permite agrupar los INSERT en lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asignaciones_seq")
+    @SequenceGenerator(name = "asignaciones_seq", sequenceName = "asignaciones_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre del paciente es obligatorio")
@@ -38,4 +38,16 @@ public class Asignacion {
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "laboratorio_id", nullable = false)
     private Laboratorio laboratorio;
+
+    // Se expone como ETag (ver AsignacionController) y detecta escrituras concurrentes
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public Asignacion(Long id, String paciente, LocalDate fecha, Laboratorio laboratorio) {
+        this.id = id;
+        this.paciente = paciente;
+        this.fecha = fecha;
+        this.laboratorio = laboratorio;
+    }
 }
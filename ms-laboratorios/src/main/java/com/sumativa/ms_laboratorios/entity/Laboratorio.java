@@ -3,9 +3,13 @@ package com.sumativa.ms_laboratorios.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * Entidad Laboratorio
@@ -15,11 +19,12 @@ import lombok.NoArgsConstructor;
 @Table(name = "laboratorios")
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Laboratorio {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con bloques de 50 IDs: permite agrupar los INSERT en lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "laboratorios_seq")
+    @SequenceGenerator(name = "laboratorios_seq", sequenceName = "laboratorios_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre del laboratorio es obligatorio")
@@ -27,6 +32,18 @@ public class Laboratorio {
     @Column(name = "nombre", nullable = false, length = 150)
     private String nombre;
 
+    /**
+     * LOWER(nombre), calculado por la base (columna generada, ver V4__laboratorios_nombre_normalizado).
+     * Sólo para las búsquedas de LaboratorioRepository: no se escribe ni se lee desde Java.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Column(name = "nombre_normalizado", length = 150, insertable = false, updatable = false,
+            columnDefinition = "varchar(150) generated always as (lower(nombre))")
+    private String nombreNormalizado;
+
     @Size(max = 250, message = "La dirección no puede exceder los 250 caracteres")
     @Column(name = "direccion", length = 250)
     private String direccion;
@@ -34,4 +51,16 @@ public class Laboratorio {
     @Size(max = 20, message = "El teléfono no puede exceder los 20 caracteres")
     @Column(name = "telefono", length = 20)
     private String telefono;
+
+    // Se expone como ETag (ver LaboratorioController) y detecta escrituras concurrentes
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public Laboratorio(Long id, String nombre, String direccion, String telefono) {
+        this.id = id;
+        this.nombre = nombre;
+        this.direccion = direccion;
+        this.telefono = telefono;
+    }
 }
@@ -2,6 +2,7 @@ package com.sumativa.ms_laboratorios.exception;
 
 import com.sumativa.ms_laboratorios.dto.ErrorResponseDto;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -97,6 +98,27 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    /**
+     * Maneja OptimisticLockingFailureException
+     * Otra operación modificó la fila (@Version) entre la lectura y la escritura
+     * Retorna 409 Conflict
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLocking(
+            OptimisticLockingFailureException ex,
+            HttpServletRequest request) {
+
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "Conflict",
+                "El recurso fue modificado por otra operación; vuelva a consultarlo e intente nuevamente",
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     /**
      * Maneja cualquier otra excepción no contemplada
      * Retorna 500 Internal Server Error
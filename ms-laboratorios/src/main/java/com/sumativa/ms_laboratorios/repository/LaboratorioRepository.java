@@ -2,6 +2,8 @@ package com.sumativa.ms_laboratorios.repository;
 
 import com.sumativa.ms_laboratorios.entity.Laboratorio;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -15,8 +17,10 @@ public interface LaboratorioRepository extends JpaRepository<Laboratorio, Long>
 
     /**
      * Busca un laboratorio por nombre (ignorando mayúsculas/minúsculas)
+     * Compara contra nombre_normalizado para usar su índice (idx_laboratorios_nombre_normalizado).
      * @param nombre Nombre del laboratorio
      * @return Optional con el laboratorio si existe
      */
-    Optional<Laboratorio> findByNombreIgnoreCase(String nombre);
+    @Query("select l from Laboratorio l where l.nombreNormalizado = lower(:nombre)")
+    Optional<Laboratorio> findByNombreIgnoreCase(@Param("nombre") String nombre);
 }
@@ -0,0 +1,123 @@
+package com.sumativa.ms_laboratorios.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Valida la identidad firmada que reenvía el Gateway (modo "trusted gateway")
+ *
+ * Con internal-auth.enabled=true el Gateway, que ya verificó el JWT, envía
+ * X-User-Email, X-User-Roles, X-Auth-Expires y X-Auth-Signature (HMAC-SHA256
+ * con una clave interna). Si la firma es válida y no expiró, la identidad se
+ * acepta sin volver a verificar el JWT. Una petición directa sin esos headers
+ * sigue necesitando un JWT válido.
+ */
+@Component
+@Slf4j
+public class GatewayIdentityVerifier {
+
+    static final String HEADER_EMAIL = "X-User-Email";
+    static final String HEADER_ROLES = "X-User-Roles";
+    static final String HEADER_EXPIRES = "X-Auth-Expires";
+    static final String HEADER_SIGNATURE = "X-Auth-Signature";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final boolean enabled;
+    private final SecretKeySpec key;
+
+    public GatewayIdentityVerifier(@Value("${internal-auth.enabled:false}") boolean enabled,
+                                   @Value("${internal-auth.secret:}") String secret) {
+        this.enabled = enabled;
+        if (enabled) {
+            byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (secretBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException(
+                        "internal-auth.secret debe tener al menos " + MIN_SECRET_BYTES + " bytes");
+            }
+            this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        } else {
+            this.key = null;
+        }
+    }
+
+    /**
+     * Obtiene la identidad firmada por el Gateway
+     *
+     * @param request HTTP request
+     * @return Identidad verificada, o vacío si el modo está deshabilitado o la firma no es válida
+     */
+    public Optional<JwtTokenProvider.VerifiedToken> verify(HttpServletRequest request) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String signature = request.getHeader(HEADER_SIGNATURE);
+        if (!StringUtils.hasText(signature)) {
+            return Optional.empty();
+        }
+
+        String email = request.getHeader(HEADER_EMAIL);
+        String roles = request.getHeader(HEADER_ROLES);
+        String expires = request.getHeader(HEADER_EXPIRES);
+        if (!StringUtils.hasText(email) || roles == null || !StringUtils.hasText(expires)) {
+            log.warn("Identidad del Gateway incompleta");
+            return Optional.empty();
+        }
+
+        Instant expiresAt;
+        try {
+            expiresAt = Instant.ofEpochMilli(Long.parseLong(expires));
+        } catch (NumberFormatException e) {
+            log.warn("Expiración de identidad del Gateway inválida: {}", expires);
+            return Optional.empty();
+        }
+        if (!expiresAt.isAfter(Instant.now())) {
+            log.warn("Identidad del Gateway expirada: {}", expiresAt);
+            return Optional.empty();
+        }
+
+        byte[] expected = sign(email + "\n" + roles + "\n" + expires);
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            log.warn("Firma de identidad del Gateway malformada");
+            return Optional.empty();
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            log.warn("Firma de identidad del Gateway inválida");
+            return Optional.empty();
+        }
+
+        List<String> roleList = Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .toList();
+        return Optional.of(new JwtTokenProvider.VerifiedToken(email, roleList, expiresAt));
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo validar la identidad interna", e);
+        }
+    }
+}
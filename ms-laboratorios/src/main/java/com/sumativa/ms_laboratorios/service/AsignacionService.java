@@ -4,6 +4,7 @@ import com.sumativa.ms_laboratorios.entity.Asignacion;
 import com.sumativa.ms_laboratorios.entity.Laboratorio;
 import com.sumativa.ms_laboratorios.repository.AsignacionRepository;
 import com.sumativa.ms_laboratorios.repository.LaboratorioRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +16,7 @@ import java.util.Optional;
  * Servicio para gestión de asignaciones
  */
 @Service
+@Observed
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class AsignacionService {
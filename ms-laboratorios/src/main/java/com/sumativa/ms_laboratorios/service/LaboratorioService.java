@@ -3,6 +3,7 @@ package com.sumativa.ms_laboratorios.service;
 import com.sumativa.ms_laboratorios.entity.Laboratorio;
 import com.sumativa.ms_laboratorios.repository.AsignacionRepository;
 import com.sumativa.ms_laboratorios.repository.LaboratorioRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,6 +17,7 @@ import java.util.Optional;
  */
 @Slf4j
 @Service
+@Observed
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class LaboratorioService {
@@ -42,7 +44,7 @@ public class LaboratorioService {
      */
     @Transactional
     public Laboratorio create(Laboratorio laboratorio) {
-        log.info("Creating laboratorio with nombre: {}", laboratorio.getNombre());
+        log.debug("Creating laboratorio with nombre: {}", laboratorio.getNombre());
 
         if (laboratorio.getId() != null) {
             log.warn("Attempt to create laboratorio with non-null ID");
@@ -58,7 +60,7 @@ public class LaboratorioService {
         }
 
         Laboratorio saved = laboratorioRepository.save(laboratorio);
-        log.info("Laboratorio created successfully with id: {}", saved.getId());
+        log.debug("Laboratorio created successfully with id: {}", saved.getId());
         return saved;
     }
 
@@ -67,7 +69,7 @@ public class LaboratorioService {
      */
     @Transactional
     public Laboratorio update(Long id, Laboratorio laboratorio) {
-        log.info("Updating laboratorio with id: {}", id);
+        log.debug("Updating laboratorio with id: {}", id);
 
         Laboratorio existing = laboratorioRepository.findById(id)
                 .orElseThrow(() -> {
@@ -90,7 +92,7 @@ public class LaboratorioService {
         existing.setTelefono(laboratorio.getTelefono());
 
         Laboratorio updated = laboratorioRepository.save(existing);
-        log.info("Laboratorio updated successfully with id: {}", updated.getId());
+        log.debug("Laboratorio updated successfully with id: {}", updated.getId());
         return updated;
     }
 
@@ -99,7 +101,7 @@ public class LaboratorioService {
      */
     @Transactional
     public void delete(Long id) {
-        log.info("Deleting laboratorio with id: {}", id);
+        log.debug("Deleting laboratorio with id: {}", id);
 
         Laboratorio laboratorio = laboratorioRepository.findById(id)
                 .orElseThrow(() -> {
@@ -116,7 +118,7 @@ public class LaboratorioService {
         }
 
         laboratorioRepository.deleteById(id);
-        log.info("Laboratorio deleted successfully with id: {}", id);
+        log.debug("Laboratorio deleted successfully with id: {}", id);
     }
 
     /**
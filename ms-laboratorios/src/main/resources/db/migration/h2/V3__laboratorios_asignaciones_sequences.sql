@@ -0,0 +1,8 @@
+-- V3__laboratorios_asignaciones_sequences.sql (H2 compatible)
+-- Secuencias de IDs (incremento = allocationSize) para que Hibernate agrupe los INSERT.
+CREATE SEQUENCE laboratorios_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE asignaciones_seq START WITH 1 INCREMENT BY 50;
+
+-- Continuar después del mayor ID existente
+ALTER SEQUENCE laboratorios_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM laboratorios);
+ALTER SEQUENCE asignaciones_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM asignaciones);
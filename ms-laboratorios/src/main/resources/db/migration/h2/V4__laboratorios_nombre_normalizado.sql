@@ -0,0 +1,9 @@
+-- V4__laboratorios_nombre_normalizado.sql (H2 compatible)
+-- Búsqueda por nombre sin distinguir mayúsculas con índice.
+-- idx_laboratorios_nombre no sirve a UPPER(nombre) = UPPER(?), que recorre la tabla
+-- al crear o actualizar un laboratorio. Se reemplaza por un índice sobre una
+-- columna generada con el nombre en minúsculas, mantenida por la base.
+ALTER TABLE laboratorios ADD COLUMN nombre_normalizado VARCHAR(150) GENERATED ALWAYS AS (LOWER(nombre));
+
+DROP INDEX idx_laboratorios_nombre;
+CREATE INDEX idx_laboratorios_nombre_normalizado ON laboratorios(nombre_normalizado);
@@ -0,0 +1,13 @@
+-- V3__laboratorios_asignaciones_sequences.sql
+-- Secuencias de IDs (incremento = allocationSize) para que Hibernate agrupe los INSERT.
+-- Las columnas son GENERATED BY DEFAULT ON NULL, por lo que aceptan los IDs asignados por Hibernate.
+DECLARE
+    v_inicio NUMBER;
+BEGIN
+    SELECT NVL(MAX(id), 0) + 1 INTO v_inicio FROM laboratorios;
+    EXECUTE IMMEDIATE 'CREATE SEQUENCE laboratorios_seq START WITH ' || v_inicio || ' INCREMENT BY 50';
+
+    SELECT NVL(MAX(id), 0) + 1 INTO v_inicio FROM asignaciones;
+    EXECUTE IMMEDIATE 'CREATE SEQUENCE asignaciones_seq START WITH ' || v_inicio || ' INCREMENT BY 50';
+END;
+/
@@ -0,0 +1,9 @@
+-- V4__laboratorios_nombre_normalizado.sql
+-- Búsqueda por nombre sin distinguir mayúsculas con índice.
+-- idx_laboratorios_nombre no sirve a UPPER(nombre) = UPPER(?), que recorre la tabla
+-- al crear o actualizar un laboratorio. Se reemplaza por un índice sobre una
+-- columna virtual con el nombre en minúsculas (equivale a un índice de función).
+ALTER TABLE laboratorios ADD (nombre_normalizado VARCHAR2(150) GENERATED ALWAYS AS (LOWER(nombre)) VIRTUAL);
+
+DROP INDEX idx_laboratorios_nombre;
+CREATE INDEX idx_laboratorios_nombre_normalizado ON laboratorios(nombre_normalizado);
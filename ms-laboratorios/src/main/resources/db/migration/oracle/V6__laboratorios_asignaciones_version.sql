@@ -0,0 +1,9 @@
+-- V6__laboratorios_asignaciones_version.sql
+-- Versión de fila (@Version) en laboratorios y asignaciones: los ETag se
+-- calculan con las versiones de las filas que lee cada solicitud (ver commons/Etags).
+ALTER TABLE laboratorios ADD (version NUMBER(19) DEFAULT 0 NOT NULL);
+ALTER TABLE asignaciones ADD (version NUMBER(19) DEFAULT 0 NOT NULL);
+
+-- Reemplaza a los contadores por tabla de V5: cada escritura los incrementaba
+-- fuera de su transacción y todas esperaban el bloqueo de la misma fila.
+DROP TABLE versiones_tabla;
@@ -0,0 +1,29 @@
+package com.sumativa.ms_laboratorios;
+
+import com.sumativa.ms_laboratorios.controller.AsignacionController;
+import com.sumativa.ms_laboratorios.controller.LaboratorioController;
+import com.sumativa.ms_laboratorios.service.AsignacionService;
+import com.sumativa.ms_laboratorios.service.LaboratorioService;
+import io.micrometer.observation.annotation.Observed;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que los controladores y servicios del módulo generan spans
+ * (@Observed). La propagación de la traza hasta JDBC se prueba de punta a
+ * punta en ms-results.
+ */
+class TracingWiringTest {
+
+    @Test
+    void controllersAndServices_shouldBeObserved() {
+        // Act & Assert
+        for (Class<?> clase : List.of(LaboratorioController.class, AsignacionController.class,
+                LaboratorioService.class, AsignacionService.class)) {
+            assertNotNull(clase.getAnnotation(Observed.class), clase.getSimpleName() + " no genera spans");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.sumativa.ms_laboratorios.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica cómo WebConfig conecta ConnectionPoolGuardFilter con HikariCP
+ * (el comportamiento del filtro se prueba en ms-results)
+ */
+class ConnectionPoolGuardFilterTest {
+
+    private MockFilterChain perform(ConnectionPoolGuardFilter filter) throws ServletException, IOException {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/laboratorios"), new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    @Test
+    void connectionPoolGuardFilter_shouldLetRequestsThrough_beforePoolStarts() throws Exception {
+        // Arrange: sin iniciar, Hikari todavía no publica el MXBean del pool
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            ConnectionPoolGuardFilter filter = new WebConfig().connectionPoolGuardFilter(
+                    dataSource, new ObjectMapper(), 0, 1);
+
+            // Act & Assert
+            assertNotNull(perform(filter).getRequest());
+        }
+    }
+
+    @Test
+    void connectionPoolGuardFilter_shouldReadWaitingThreadsFromPool() throws Exception {
+        // Arrange
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl("jdbc:h2:mem:pool-guard");
+            ConnectionPoolGuardFilter filter = new WebConfig().connectionPoolGuardFilter(
+                    dataSource, new ObjectMapper(), 0, 1);
+            try (Connection connection = dataSource.getConnection()) {
+                // Act & Assert: con el pool iniciado y nadie esperando, no se rechaza
+                assertNotNull(dataSource.getHikariPoolMXBean());
+                assertNotNull(perform(filter).getRequest());
+                assertEquals(0, filter.getRechazos());
+            }
+        }
+    }
+
+    @Test
+    void connectionPoolGuardFilter_shouldFail_whenDataSourceIsNotHikari() {
+        // Act & Assert
+        assertThrows(SQLException.class, () -> new WebConfig().connectionPoolGuardFilter(
+                new DriverManagerDataSource("jdbc:h2:mem:pool-guard"), new ObjectMapper(), 20, 1));
+    }
+}
@@ -0,0 +1,57 @@
+package com.sumativa.ms_laboratorios.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.ContextInitializer;
+import ch.qos.logback.core.AsyncAppenderBase;
+import ch.qos.logback.core.ConsoleAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que logback-spring.xml del módulo conecta su MuestreoPorTrazaFilter
+ * y la consola (el filtro y los formatos se prueban en ms-results)
+ */
+class LogbackSpringTest {
+
+    private final LoggingSystem loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+
+    @AfterEach
+    void tearDown() throws Exception {
+        // Vuelve a la configuración por defecto para los tests siguientes
+        loggingSystem.cleanUp();
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        contexto.reset();
+        new ContextInitializer(contexto).autoConfig();
+    }
+
+    @Test
+    void logbackSpring_shouldAttachModuleFilterAndConsole() {
+        // Arrange: un formato desconocido también debe dejar la consola
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("log-output.format", "xml")
+                .withProperty("spring.application.name", "ms-laboratorios");
+        loggingSystem.cleanUp();
+        loggingSystem.beforeInitialize();
+
+        // Act
+        loggingSystem.initialize(new LoggingInitializationContext(environment), "classpath:logback-spring.xml", null);
+
+        // Assert
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        AsyncAppenderBase<ILoggingEvent> async =
+                (AsyncAppenderBase<ILoggingEvent>) contexto.getLogger(Logger.ROOT_LOGGER_NAME).getAppender("ASYNC");
+        assertInstanceOf(MuestreoPorTrazaFilter.class, async.getCopyOfAttachedFiltersList().get(0));
+        ConsoleAppender<ILoggingEvent> consola = (ConsoleAppender<ILoggingEvent>) async.getAppender("CONSOLE");
+        assertNotNull(consola, "Sin appender de consola: los logs se pierden");
+        assertInstanceOf(PatternLayoutEncoder.class, consola.getEncoder());
+    }
+}
@@ -1,5 +1,6 @@
 package com.sumativa.ms_laboratorios.config;
 
+import com.sumativa.ms_laboratorios.security.GatewayIdentityVerifier;
 import com.sumativa.ms_laboratorios.security.JwtAuthenticationFilter;
 import com.sumativa.ms_laboratorios.security.JwtTokenProvider;
 import com.sumativa.ms_laboratorios.security.SecurityConfig;
@@ -18,9 +19,12 @@ class SecurityConfigTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private GatewayIdentityVerifier gatewayIdentityVerifier;
+
     @Test
     void securityConfig_shouldCreateInstance() {
-        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenProvider);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenProvider, gatewayIdentityVerifier);
         SecurityConfig config = new SecurityConfig(filter);
 
         assertNotNull(config);
@@ -28,7 +32,7 @@ class SecurityConfigTest {
 
     @Test
     void jwtAuthenticationFilter_shouldBeCreated() {
-        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenProvider);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokenProvider, gatewayIdentityVerifier);
 
         assertNotNull(filter);
     }
@@ -21,6 +21,8 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -89,6 +91,46 @@ class AsignacionControllerTest {
                 .andExpect(jsonPath("$.paciente").value("Paciente Test"));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void findAll_shouldReturnWeakEtag_thatChangesWithLaboratorio() throws Exception {
+        testAsignacion.setVersion(0L);
+        testLaboratorio.setVersion(0L);
+        when(asignacionService.findAll()).thenReturn(Arrays.asList(testAsignacion));
+        String antes = mockMvc.perform(get("/api/asignaciones"))
+                .andExpect(header().string("ETag", startsWith("W/\"")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        testLaboratorio.setVersion(1L);
+
+        mockMvc.perform(get("/api/asignaciones").header("If-None-Match", antes))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(antes)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void findById_shouldReturnStrongEtagWithVersions() throws Exception {
+        testAsignacion.setVersion(2L);
+        testLaboratorio.setVersion(5L);
+        when(asignacionService.findById(1L)).thenReturn(Optional.of(testAsignacion));
+
+        mockMvc.perform(get("/api/asignaciones/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2.5\""));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void findById_shouldReturn304_whenEtagMatches() throws Exception {
+        testAsignacion.setVersion(2L);
+        testLaboratorio.setVersion(5L);
+        when(asignacionService.findById(1L)).thenReturn(Optional.of(testAsignacion));
+
+        mockMvc.perform(get("/api/asignaciones/1").header("If-None-Match", "\"2.5\""))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void findById_shouldReturn404_whenNotExists() throws Exception {
@@ -0,0 +1,130 @@
+package com.sumativa.ms_laboratorios.controller;
+
+import com.sumativa.ms_laboratorios.entity.Asignacion;
+import com.sumativa.ms_laboratorios.entity.Laboratorio;
+import com.sumativa.ms_laboratorios.repository.AsignacionRepository;
+import com.sumativa.ms_laboratorios.repository.LaboratorioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * ETags con servicios y base reales (schema de Flyway): una escritura cambia
+ * el ETag de la siguiente lectura y el ETag vigente responde 304
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ConditionalGetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LaboratorioRepository laboratorioRepository;
+
+    @Autowired
+    private AsignacionRepository asignacionRepository;
+
+    private Laboratorio laboratorio;
+    private Asignacion asignacion;
+
+    @BeforeEach
+    void setUp() {
+        laboratorio = laboratorioRepository.save(
+                new Laboratorio(null, "Laboratorio ETag " + System.nanoTime(), "Calle 1", "912345678"));
+        asignacion = asignacionRepository.save(
+                new Asignacion(null, "Paciente ETag", LocalDate.of(2025, 3, 1), laboratorio));
+    }
+
+    @AfterEach
+    void tearDown() {
+        asignacionRepository.deleteById(asignacion.getId());
+        laboratorioRepository.deleteById(laboratorio.getId());
+    }
+
+    private String etagOf(String uri) throws Exception {
+        return mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    private void actualizarLaboratorio() throws Exception {
+        mockMvc.perform(put("/api/laboratorios/" + laboratorio.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"direccion\": \"Calle " + System.nanoTime() + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void get_shouldReturn304_whenEtagIsCurrent() throws Exception {
+        // Arrange
+        String detalle = etagOf("/api/laboratorios/" + laboratorio.getId());
+        String lista = etagOf("/api/laboratorios");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/laboratorios/" + laboratorio.getId()).header("If-None-Match", detalle))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/laboratorios").header("If-None-Match", lista))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void updateLaboratorio_shouldChangeEtagOfNextGet() throws Exception {
+        // Arrange
+        String detalle = etagOf("/api/laboratorios/" + laboratorio.getId());
+        String lista = etagOf("/api/laboratorios");
+
+        // Act
+        actualizarLaboratorio();
+
+        // Assert
+        assertNotEquals(detalle, etagOf("/api/laboratorios/" + laboratorio.getId()));
+        assertNotEquals(lista, etagOf("/api/laboratorios"));
+        mockMvc.perform(get("/api/laboratorios/" + laboratorio.getId()).header("If-None-Match", detalle))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updateLaboratorio_shouldChangeEtagOfItsAsignaciones() throws Exception {
+        // Arrange: la asignación incluye su laboratorio en la respuesta
+        String detalle = etagOf("/api/asignaciones/" + asignacion.getId());
+        String lista = etagOf("/api/asignaciones");
+
+        // Act
+        actualizarLaboratorio();
+
+        // Assert
+        assertNotEquals(detalle, etagOf("/api/asignaciones/" + asignacion.getId()));
+        assertNotEquals(lista, etagOf("/api/asignaciones"));
+    }
+
+    @Test
+    void updateAsignacion_shouldChangeEtagOfNextGet() throws Exception {
+        // Arrange
+        String detalle = etagOf("/api/asignaciones/" + asignacion.getId());
+        String laboratorios = etagOf("/api/laboratorios");
+
+        // Act
+        mockMvc.perform(put("/api/asignaciones/" + asignacion.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"paciente\": \"Paciente ETag Actualizado\"}"))
+                .andExpect(status().isOk());
+
+        // Assert
+        assertNotEquals(detalle, etagOf("/api/asignaciones/" + asignacion.getId()));
+        assertEquals(laboratorios, etagOf("/api/laboratorios"));
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.Arrays;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -74,6 +75,51 @@ class LaboratorioControllerTest {
                 .andExpect(jsonPath("$.nombre").value("Lab Test"));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void findAll_shouldReturnWeakEtag() throws Exception {
+        testLaboratorio.setVersion(0L);
+        when(laboratorioService.findAll()).thenReturn(Arrays.asList(testLaboratorio));
+
+        mockMvc.perform(get("/api/laboratorios"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"")));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void findAll_shouldReturn304_whenEtagMatches() throws Exception {
+        testLaboratorio.setVersion(0L);
+        when(laboratorioService.findAll()).thenReturn(Arrays.asList(testLaboratorio));
+        String etag = mockMvc.perform(get("/api/laboratorios"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/laboratorios").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void findById_shouldReturnStrongEtagWithVersion() throws Exception {
+        testLaboratorio.setVersion(3L);
+        when(laboratorioService.findById(1L)).thenReturn(Optional.of(testLaboratorio));
+
+        mockMvc.perform(get("/api/laboratorios/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void findById_shouldReturn304_whenEtagMatches() throws Exception {
+        testLaboratorio.setVersion(3L);
+        when(laboratorioService.findById(1L)).thenReturn(Optional.of(testLaboratorio));
+
+        mockMvc.perform(get("/api/laboratorios/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void findById_shouldReturn404_whenNotExists() throws Exception {
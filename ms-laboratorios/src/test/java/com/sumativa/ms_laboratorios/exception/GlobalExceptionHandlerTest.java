@@ -1,6 +1,7 @@
 package com.sumativa.ms_laboratorios.exception;
 
 import com.sumativa.ms_laboratorios.dto.ErrorResponseDto;
+import com.sumativa.ms_laboratorios.entity.Laboratorio;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -128,6 +130,16 @@ class GlobalExceptionHandlerTest {
         assertEquals("Recurso no encontrado", response.getBody().getMessage());
     }
 
+    @Test
+    void handleOptimisticLocking_shouldReturn409() {
+        ObjectOptimisticLockingFailureException ex = new ObjectOptimisticLockingFailureException(Laboratorio.class, 1L);
+
+        ResponseEntity<ErrorResponseDto> response = globalExceptionHandler.handleOptimisticLocking(ex, request);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(409, response.getBody().getStatus());
+    }
+
     @Test
     void handleGenericException_shouldReturn500() {
         Exception ex = new RuntimeException("Error inesperado");
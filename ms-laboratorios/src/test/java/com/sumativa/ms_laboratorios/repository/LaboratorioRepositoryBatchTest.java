@@ -0,0 +1,107 @@
+package com.sumativa.ms_laboratorios.repository;
+
+import com.sumativa.ms_laboratorios.entity.Laboratorio;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que los IDs de Laboratorio salen por bloques de laboratorios_seq
+ * (V3, pooled-lo) y que los INSERT viajan en lotes JDBC. Las propiedades de
+ * Hibernate son las de application.yml.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.locations=classpath:db/migration/h2",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=pooled-lo",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class LaboratorioRepositoryBatchTest {
+
+    private static final int FILAS = 120;
+    private static final int BLOQUE = 50;
+
+    @Autowired
+    private LaboratorioRepository laboratorioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Próximo valor que entregará la secuencia, sin consumirlo
+     */
+    private long proximoValor() {
+        return jdbcTemplate.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES "
+                + "WHERE SEQUENCE_NAME = 'LABORATORIOS_SEQ'", Long.class);
+    }
+
+    private List<Laboratorio> laboratorios() {
+        List<Laboratorio> laboratorios = new ArrayList<>();
+        for (int i = 0; i < FILAS; i++) {
+            laboratorios.add(new Laboratorio(null, "Laboratorio " + i, "Calle " + i, "9" + i));
+        }
+        return laboratorios;
+    }
+
+    @Test
+    void saveAll_shouldTakeIdsFromPooledSequence() {
+        // Arrange
+        long antes = proximoValor();
+
+        // Act
+        List<Laboratorio> guardados = laboratorioRepository.saveAll(laboratorios());
+        laboratorioRepository.flush();
+
+        // Assert: IDs consecutivos y la secuencia avanza de a bloques completos
+        long primero = guardados.get(0).getId();
+        for (int i = 0; i < FILAS; i++) {
+            assertEquals(primero + i, guardados.get(i).getId());
+        }
+        long despues = proximoValor();
+        assertEquals(0, (despues - antes) % BLOQUE);
+        assertTrue(despues - antes <= (long) lotes() * BLOQUE);
+        assertTrue(guardados.get(FILAS - 1).getId() < despues);
+    }
+
+    @Test
+    void saveAll_shouldBatchInserts() {
+        // Act
+        laboratorioRepository.saveAll(laboratorios());
+        laboratorioRepository.flush();
+
+        // Assert: a lo sumo un nextval y un INSERT preparado por lote, no uno por fila
+        assertEquals(FILAS, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 2L * lotes(),
+                "Sentencias preparadas: " + statistics.getPrepareStatementCount());
+        assertEquals(FILAS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM laboratorios WHERE nombre LIKE 'Laboratorio %'", Integer.class));
+    }
+
+    private static int lotes() {
+        return (FILAS + BLOQUE - 1) / BLOQUE;
+    }
+}
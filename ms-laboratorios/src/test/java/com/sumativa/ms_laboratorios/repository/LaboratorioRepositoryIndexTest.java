@@ -0,0 +1,158 @@
+package com.sumativa.ms_laboratorios.repository;
+
+import com.sumativa.ms_laboratorios.entity.Laboratorio;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica con EXPLAIN (H2, esquema de las migraciones Flyway) que la búsqueda
+ * por nombre sin distinguir mayúsculas usa idx_laboratorios_nombre_normalizado.
+ * Las sentencias se capturan tal como las genera Hibernate.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.locations=classpath:db/migration/h2",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class LaboratorioRepositoryIndexTest {
+
+    private static final Pattern CONDICION_INDICE = Pattern.compile("/\\* PUBLIC\\.(\\w+): ([^*]+) \\*/");
+
+    @TestConfiguration
+    static class CapturaSqlConfig {
+
+        @Bean
+        SentenciasSql sentenciasSql() {
+            return new SentenciasSql();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer capturarSentencias(SentenciasSql sentenciasSql) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sentenciasSql);
+        }
+    }
+
+    static class SentenciasSql implements StatementInspector {
+
+        private final List<String> sentencias = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            sentencias.add(sql);
+            return sql;
+        }
+
+        String ultimaSobre(String tabla) {
+            for (int i = sentencias.size() - 1; i >= 0; i--) {
+                if (sentencias.get(i).contains("from " + tabla)) {
+                    return sentencias.get(i);
+                }
+            }
+            throw new IllegalStateException("Sin sentencias sobre " + tabla + ": " + sentencias);
+        }
+    }
+
+    @Autowired
+    private LaboratorioRepository laboratorioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SentenciasSql sentenciasSql;
+
+    @BeforeEach
+    void setUp() {
+        laboratorioRepository.saveAndFlush(new Laboratorio(null, "Laboratorio Central", "Av. Principal 123", "912345678"));
+        laboratorioRepository.saveAndFlush(new Laboratorio(null, "Laboratorio Norte", "Calle Norte 45", "987654321"));
+        sentenciasSql.sentencias.clear();
+    }
+
+    private String plan(String sql, Object... parametros) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parametros);
+    }
+
+    /**
+     * Índice y condición con que H2 accede a la tabla; null si la recorre completa
+     */
+    private static String[] accesoPorIndice(String plan) {
+        Matcher matcher = CONDICION_INDICE.matcher(plan);
+        return matcher.find() ? new String[] {matcher.group(1), matcher.group(2)} : null;
+    }
+
+    // ==================== findByNombreIgnoreCase Tests ====================
+
+    @Test
+    void findByNombreIgnoreCase_shouldFindLaboratorio_regardlessOfCase() {
+        // Act
+        Optional<Laboratorio> result = laboratorioRepository.findByNombreIgnoreCase("LABORATORIO central");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("Laboratorio Central", result.get().getNombre());
+    }
+
+    @Test
+    void findByNombreIgnoreCase_shouldReturnEmpty_whenNotExists() {
+        // Act
+        Optional<Laboratorio> result = laboratorioRepository.findByNombreIgnoreCase("Laboratorio Sur");
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void findByNombreIgnoreCase_shouldUseNombreIndex() {
+        // Arrange
+        laboratorioRepository.findByNombreIgnoreCase("LABORATORIO central");
+        String sql = sentenciasSql.ultimaSobre("laboratorios");
+
+        // Act
+        String[] acceso = accesoPorIndice(plan(sql, "LABORATORIO central"));
+
+        // Assert
+        assertNotNull(acceso, "La consulta recorre la tabla: " + sql);
+        assertEquals("IDX_LABORATORIOS_NOMBRE_NORMALIZADO", acceso[0]);
+        assertTrue(acceso[1].startsWith("NOMBRE_NORMALIZADO = "));
+    }
+
+    @Test
+    void upperPredicate_shouldNotBeServedByAnyIndex() {
+        // Act: el predicado que generaba la consulta derivada ...IgnoreCase
+        String plan = plan("select l.id from laboratorios l where upper(l.nombre) = upper(?)", "LABORATORIO central");
+
+        // Assert
+        assertNull(accesoPorIndice(plan), plan);
+    }
+
+    @Test
+    void update_shouldRefreshNormalizedNombre_inDatabase() {
+        // Arrange
+        Laboratorio laboratorio = laboratorioRepository.findByNombreIgnoreCase("laboratorio norte").orElseThrow();
+        laboratorio.setNombre("Laboratorio NORTE Renovado");
+
+        // Act
+        laboratorioRepository.saveAndFlush(laboratorio);
+
+        // Assert
+        assertEquals("laboratorio norte renovado", jdbcTemplate.queryForObject(
+                "select nombre_normalizado from laboratorios where id = ?", String.class, laboratorio.getId()));
+        assertTrue(laboratorioRepository.findByNombreIgnoreCase("laboratorio norte").isEmpty());
+    }
+}
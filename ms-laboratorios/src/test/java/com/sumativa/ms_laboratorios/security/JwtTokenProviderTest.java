@@ -2,6 +2,7 @@ package com.sumativa.ms_laboratorios.security;
 
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,9 +11,13 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -140,4 +145,87 @@ class JwtTokenProviderTest {
 
         assertFalse(result);
     }
+
+    // ==================== verifyToken Tests ====================
+
+    @Test
+    void verifyToken_shouldReturnEmailAndRoles_whenTokenIsValid() {
+        // Arrange
+        String token = generateTestToken("test@example.com", Arrays.asList("ADMIN", "USER"));
+
+        // Act
+        Optional<JwtTokenProvider.VerifiedToken> verified = jwtTokenProvider.verifyToken(token);
+
+        // Assert
+        assertTrue(verified.isPresent());
+        assertEquals("test@example.com", verified.get().email());
+        assertEquals(Arrays.asList("ADMIN", "USER"), verified.get().roles());
+        assertNotNull(verified.get().expiresAt());
+    }
+
+    @Test
+    void verifyToken_shouldReturnCachedResult_whenSameTokenIsVerifiedAgain() {
+        // Arrange
+        String token = generateTestToken("test@example.com", Arrays.asList("ADMIN"));
+
+        // Act
+        JwtTokenProvider.VerifiedToken first = jwtTokenProvider.verifyToken(token).orElseThrow();
+        JwtTokenProvider.VerifiedToken second = jwtTokenProvider.verifyToken(token).orElseThrow();
+
+        // Assert
+        assertSame(first, second);
+    }
+
+    @Test
+    void verifyToken_shouldReturnEmpty_whenTokenIsInvalid() {
+        // Act & Assert
+        assertTrue(jwtTokenProvider.verifyToken("malformed.token.here").isEmpty());
+        assertTrue(jwtTokenProvider.verifyToken(null).isEmpty());
+        assertTrue(jwtTokenProvider.verifyToken(generateExpiredToken("test@example.com", Arrays.asList("ADMIN"))).isEmpty());
+    }
+
+    @Test
+    void verifyToken_shouldRejectCachedToken_onceItExpires() {
+        // Arrange
+        String token = generateTestToken("test@example.com", Arrays.asList("ADMIN"));
+        jwtTokenProvider.verifyToken(token);
+        ReflectionTestUtils.setField(jwtTokenProvider, "clock",
+                Clock.offset(Clock.systemUTC(), Duration.ofMillis(86400000L + 1000)));
+
+        // Act & Assert
+        assertTrue(jwtTokenProvider.verifyToken(token).isEmpty());
+    }
+
+    @Test
+    void verifyToken_shouldNotExceedMaxEntries() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtTokenProvider, "cacheMaxEntries", 2);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            jwtTokenProvider.verifyToken(generateTestToken("user" + i + "@example.com", Arrays.asList("USER")));
+        }
+
+        // Assert
+        Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(jwtTokenProvider, "verifiedTokens");
+        assertNotNull(cache);
+        assertTrue(cache.size() <= 2);
+    }
+
+    @Test
+    void verifyToken_shouldTimeOnlyUncachedVerifications() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        jwtTokenProvider.bindTo(registry);
+        String token = generateTestToken("test@example.com", Arrays.asList("ADMIN"));
+
+        // Act
+        jwtTokenProvider.verifyToken(token);
+        jwtTokenProvider.verifyToken(token);
+        jwtTokenProvider.verifyToken("malformed.token.here");
+
+        // Assert
+        assertEquals(1, registry.get("jwt.verification").tag("result", "valid").timer().count());
+        assertEquals(1, registry.get("jwt.verification").tag("result", "invalid").timer().count());
+    }
 }
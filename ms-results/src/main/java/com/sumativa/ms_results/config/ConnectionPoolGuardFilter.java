@@ -0,0 +1,109 @@
+package com.sumativa.ms_results.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sumativa.ms_results.dto.ErrorResponseDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Rechazo temprano cuando el pool de conexiones está saturado.
+ *
+ * Si la cantidad de hilos esperando una conexión supera el umbral, las
+ * solicitudes a /api/** se responden de inmediato con 503 y Retry-After en
+ * lugar de sumarse a la cola de getConnection, donde cada una retendría un
+ * hilo de Tomcat hasta connection-timeout. Se ejecuta antes de la cadena de
+ * seguridad, por lo que una solicitud rechazada no llega a verificar el JWT.
+ *
+ * Expone la métrica pool.guard.rejections.
+ */
+@Slf4j
+public class ConnectionPoolGuardFilter extends OncePerRequestFilter implements Ordered, MeterBinder {
+
+    private final IntSupplier pendientes;
+    private final int maxPendientes;
+    private final long retryAfterSegundos;
+    private final ObjectMapper objectMapper;
+    private final LongAdder rechazos = new LongAdder();
+
+    /**
+     * @param pendientes         hilos esperando una conexión del pool
+     * @param maxPendientes      cantidad de hilos en espera a partir de la cual se rechaza
+     * @param retryAfterSegundos valor del encabezado Retry-After
+     */
+    public ConnectionPoolGuardFilter(IntSupplier pendientes, int maxPendientes, long retryAfterSegundos,
+                                     ObjectMapper objectMapper) {
+        this.pendientes = pendientes;
+        this.maxPendientes = maxPendientes;
+        this.retryAfterSegundos = retryAfterSegundos;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        int enEspera = pendientes.getAsInt();
+        if (enEspera <= maxPendientes) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rechazos.increment();
+        log.debug("Pool de conexiones saturado ({} en espera): 503 para {}", enEspera, request.getRequestURI());
+
+        ErrorResponseDto error = ErrorResponseDto.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message("El servicio está saturado, intente nuevamente en unos segundos")
+                .path(request.getRequestURI())
+                .build();
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSegundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getWriter(), error);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pool.guard.rejections", rechazos, LongAdder::doubleValue)
+                .description("Solicitudes rechazadas con 503 por saturación del pool de conexiones")
+                .register(registry);
+    }
+
+    long getRechazos() {
+        return rechazos.sum();
+    }
+}
@@ -0,0 +1,84 @@
+package com.sumativa.ms_results.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara durante cada solicitud a /api/**.
+ *
+ * Se registra como StatementInspector de Hibernate: cada sentencia incrementa el
+ * contador del hilo de la solicitud en curso. Al terminar la solicitud el total
+ * se publica en la métrica hibernate.queries.per.request con los tags method y
+ * uri (patrón de la ruta), de modo que un N+1 aparece como un salto en la
+ * distribución de un endpoint concreto.
+ */
+public class ConsultasPorSolicitudFilter extends OncePerRequestFilter implements StatementInspector, MeterBinder {
+
+    static final String METRICA = "hibernate.queries.per.request";
+    // Límite superior de los buckets del histograma; más sentencias caen en +Inf
+    private static final double MAXIMO_ESPERADO = 200;
+
+    private final ThreadLocal<int[]> contador = new ThreadLocal<>();
+    private volatile MeterRegistry registry;
+
+    @Override
+    public String inspect(String sql) {
+        int[] actual = contador.get();
+        if (actual != null) {
+            actual[0]++;
+        }
+        return sql;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        int[] consultas = new int[1];
+        contador.set(consultas);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            contador.remove();
+            registrar(request, consultas[0]);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    private void registrar(HttpServletRequest request, int consultas) {
+        MeterRegistry actual = registry;
+        if (actual == null) {
+            return;
+        }
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(METRICA)
+                .description("Sentencias SQL preparadas por Hibernate en una solicitud")
+                .baseUnit("queries")
+                .maximumExpectedValue(MAXIMO_ESPERADO)
+                .tags("method", request.getMethod(), "uri", patron != null ? patron.toString() : "UNKNOWN")
+                .register(actual)
+                .record(consultas);
+    }
+}
@@ -1,8 +1,19 @@
 package com.sumativa.ms_results.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
 /**
  * Configuración Web para el microservicio de resultados.
  *
@@ -13,4 +24,38 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     // CORS manejado por el Gateway
+
+    /**
+     * Rechazo temprano (503) cuando hay demasiadas solicitudes esperando una conexión
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "pool-guard", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ConnectionPoolGuardFilter connectionPoolGuardFilter(
+            DataSource dataSource,
+            ObjectMapper objectMapper,
+            @Value("${pool-guard.max-pending:20}") int maxPendientes,
+            @Value("${pool-guard.retry-after-seconds:1}") long retryAfterSegundos) throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        return new ConnectionPoolGuardFilter(() -> {
+            // El MXBean existe recién cuando el pool se inicializa
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+        }, maxPendientes, retryAfterSegundos, objectMapper);
+    }
+
+    /**
+     * Sentencias SQL por solicitud (hibernate.queries.per.request)
+     */
+    @Bean
+    public ConsultasPorSolicitudFilter consultasPorSolicitudFilter() {
+        return new ConsultasPorSolicitudFilter();
+    }
+
+    /**
+     * Registra el filtro como StatementInspector para que Hibernate le informe cada sentencia
+     */
+    @Bean
+    public HibernatePropertiesCustomizer consultasPorSolicitudInspector(ConsultasPorSolicitudFilter filter) {
+        return propiedades -> propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, filter);
+    }
 }
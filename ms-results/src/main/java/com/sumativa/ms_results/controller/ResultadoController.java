@@ -1,22 +1,59 @@
 package com.sumativa.ms_results.controller;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sumativa.commons.http.Etags;
+import com.sumativa.ms_results.dto.ResultadoBusquedaDto;
 import com.sumativa.ms_results.dto.ResultadoCreateDto;
+import com.sumativa.ms_results.dto.ResultadoFila;
+import com.sumativa.ms_results.dto.ResultadoFiltroDto;
+import com.sumativa.ms_results.dto.ResultadoIngestaDto;
+import com.sumativa.ms_results.dto.ResultadoPageDto;
 import com.sumativa.ms_results.dto.ResultadoResponseDto;
 import com.sumativa.ms_results.dto.ResultadoUpdateDto;
+import com.sumativa.ms_results.dto.TipoAnalisisResponseDto;
 import com.sumativa.ms_results.entity.Resultado;
 import com.sumativa.ms_results.entity.TipoAnalisis;
+import com.sumativa.ms_results.exception.PreconditionFailedException;
 import com.sumativa.ms_results.mapper.ResultadoMapper;
+import com.sumativa.ms_results.service.ResultadoBusquedaService;
+import com.sumativa.ms_results.service.ResultadoCursor;
+import com.sumativa.ms_results.service.ResultadoIngestaService;
 import com.sumativa.ms_results.service.ResultadoService;
 import com.sumativa.ms_results.service.TipoAnalisisService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Window;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Controlador REST para gestión de Resultados de análisis.
@@ -24,6 +61,7 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @RestController
+@Observed
 @RequestMapping("/api/resultados")
 @RequiredArgsConstructor
 public class ResultadoController {
@@ -31,30 +69,160 @@ public class ResultadoController {
     private final ResultadoService resultadoService;
     private final TipoAnalisisService tipoAnalisisService;
     private final ResultadoMapper resultadoMapper;
+    private final ResultadoIngestaService resultadoIngestaService;
+    private final ResultadoBusquedaService resultadoBusquedaService;
+    private final ObjectMapper objectMapper;
+
+    // ETag de un resultado: su versión entre comillas
+    private static final Pattern ETAG_VERSION = Pattern.compile("\"(\\d{1,18})\"");
+
+    static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    static final String CSV_CONTENT_TYPE = "text/csv";
+    static final String CSV_HEADER = "id,paciente,fechaRealizacion,tipoAnalisisId,tipoAnalisisNombre,"
+            + "laboratorioId,valorNumerico,valorTexto,estado,observaciones,creadoEn,actualizadoEn";
 
     /**
      * GET /api/resultados - Lista todos los resultados
+     * ETag débil con los IDs y versiones de la lista: If-None-Match responde 304.
      */
     @GetMapping
     public ResponseEntity<List<ResultadoResponseDto>> getAll() {
-        log.info("GET /api/resultados - Obteniendo todos los resultados");
-        List<Resultado> resultados = resultadoService.findAll();
-        List<ResultadoResponseDto> dtos = resultados.stream()
-                .map(resultadoMapper::toDto)
-                .collect(Collectors.toList());
-        log.info("Retornando {} resultados", dtos.size());
-        return ResponseEntity.ok(dtos);
+        log.debug("GET /api/resultados - Obteniendo todos los resultados");
+        List<ResultadoFila> resultados = resultadoService.findAllFilas();
+        List<ResultadoResponseDto> dtos = resultadoMapper.filasToDto(resultados);
+        log.debug("Retornando {} resultados", dtos.size());
+        return ResponseEntity.ok().eTag(etagDe(dtos).debil()).body(dtos);
+    }
+
+    /**
+     * GET /api/resultados/pagina - Lista resultados paginados por cursor (keyset)
+     * Orden: fechaRealizacion DESC, id DESC. Todos los filtros son opcionales.
+     *
+     * Ejemplo: GET /api/resultados/pagina?laboratorioId=1&estado=COMPLETADO&size=20
+     * Para la página siguiente se envía el nextCursor recibido: ?cursor=...
+     * ETag débil como en GET /api/resultados, que además cambia con hasNext.
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<ResultadoPageDto> getPage(
+            @RequestParam(required = false) Long laboratorioId,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long tipoAnalisisId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ResultadoService.DEFAULT_PAGE_SIZE) int size) {
+
+        ResultadoFiltroDto filtro = ResultadoFiltroDto.builder()
+                .laboratorioId(laboratorioId)
+                .estado(estado)
+                .tipoAnalisisId(tipoAnalisisId)
+                .desde(desde)
+                .hasta(hasta)
+                .build();
+
+        Window<ResultadoFila> window = resultadoService.findPage(filtro, cursor, size);
+        List<ResultadoResponseDto> dtos = resultadoMapper.filasToDto(window.getContent());
+
+        ResultadoPageDto page = ResultadoPageDto.builder()
+                .items(dtos)
+                .size(dtos.size())
+                .hasNext(window.hasNext())
+                .nextCursor(ResultadoCursor.next(window))
+                .build();
+        String etag = etagDe(dtos).agregar(window.hasNext() ? 1L : 0L).debil();
+        return ResponseEntity.ok().eTag(etag).body(page);
+    }
+
+    /**
+     * GET /api/resultados/buscar - Búsqueda de texto completo en paciente,
+     * observaciones y valorTexto, ordenada por relevancia
+     * Sin distinguir mayúsculas ni tildes; cada palabra coincide también como
+     * prefijo o con un error de tipeo, y deben aparecer todas.
+     *
+     * Ejemplo: GET /api/resultados/buscar?q=munoz hemo&page=0&size=20
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<ResultadoBusquedaDto> buscar(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + ResultadoBusquedaService.DEFAULT_PAGE_SIZE) int size) {
+        log.debug("GET /api/resultados/buscar - q={}, page={}, size={}", q, page, size);
+        return ResponseEntity.ok(resultadoBusquedaService.buscar(q, page, size));
+    }
+
+    /**
+     * POST /api/resultados/buscar/reindexar - Reconstruye el índice de búsqueda
+     * desde la base de datos en segundo plano (sólo ADMIN). Responde 202 de
+     * inmediato; si ya hay una reconstrucción pendiente no se agrega otra.
+     */
+    @PostMapping("/buscar/reindexar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> reindexar() {
+        boolean programada = resultadoBusquedaService.reconstruir();
+        log.info("Reconstrucción del índice de búsqueda {}", programada ? "programada" : "ya pendiente");
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * GET /api/resultados/export - Exporta resultados en streaming (NDJSON o CSV)
+     * Las filas se escriben a medida que se leen de la base de datos, sin armar
+     * la lista completa en memoria. Filtros opcionales: laboratorioId y estado.
+     *
+     * Ejemplo: GET /api/resultados/export?formato=csv&laboratorioId=1
+     */
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(required = false) Long laboratorioId,
+            @RequestParam(required = false) String estado,
+            @RequestParam(defaultValue = "ndjson") String formato,
+            HttpServletResponse response) throws IOException {
+
+        log.debug("GET /api/resultados/export - formato={}, laboratorioId={}, estado={}", formato, laboratorioId, estado);
+
+        boolean csv = "csv".equalsIgnoreCase(formato);
+        if (!csv && !"ndjson".equalsIgnoreCase(formato)) {
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + formato);
+        }
+
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(csv ? CSV_CONTENT_TYPE : NDJSON_CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"resultados." + (csv ? "csv" : "ndjson") + "\"");
+
+        ObjectWriter jsonWriter = objectMapper.writerFor(ResultadoResponseDto.class);
+        Function<ResultadoFila, ResultadoResponseDto> converter = resultadoMapper.filaConverter();
+        Writer writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+        if (csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try {
+            resultadoService.exportar(laboratorioId, estado, fila -> {
+                ResultadoResponseDto dto = converter.apply(fila);
+                try {
+                    writer.write(csv ? toCsvRow(dto) : jsonWriter.writeValueAsString(dto));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
     }
 
     /**
      * GET /api/resultados/{id} - Obtiene un resultado por ID
+     * El ETag es la versión del resultado; se envía en If-Match al modificarlo.
      */
     @GetMapping("/{id}")
     public ResponseEntity<ResultadoResponseDto> getById(@PathVariable Long id) {
-        log.info("GET /api/resultados/{} - Obteniendo resultado", id);
+        log.debug("GET /api/resultados/{} - Obteniendo resultado", id);
         Resultado resultado = resultadoService.findById(id);
         ResultadoResponseDto dto = resultadoMapper.toDto(resultado);
-        return ResponseEntity.ok(dto);
+        return conVersion(ResponseEntity.ok(), resultado.getVersion()).body(dto);
     }
 
     /**
@@ -62,7 +230,7 @@ public class ResultadoController {
      */
     @PostMapping
     public ResponseEntity<ResultadoResponseDto> create(@Valid @RequestBody ResultadoCreateDto createDto) {
-        log.info("POST /api/resultados - Creando nuevo resultado para paciente: {}", createDto.getPaciente());
+        log.debug("POST /api/resultados - Creando nuevo resultado para paciente: {}", createDto.getPaciente());
 
         // Buscar el TipoAnalisis
         TipoAnalisis tipoAnalisis = tipoAnalisisService.findById(createDto.getTipoAnalisisId());
@@ -76,19 +244,85 @@ public class ResultadoController {
         // Convertir Entity a DTO de respuesta
         ResultadoResponseDto responseDto = resultadoMapper.toDto(created);
 
-        log.info("Resultado creado exitosamente con ID: {}", created.getId());
+        log.debug("Resultado creado exitosamente con ID: {}", created.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(responseDto);
     }
 
+    /**
+     * POST /api/resultados/lote - Ingesta masiva desde analizadores (arreglo JSON)
+     * Responde con el resultado de cada fila; las filas inválidas no abortan el lote.
+     * El arreglo se lee elemento por elemento: un lote de más de MAX_FILAS se
+     * rechaza al llegar a la fila siguiente, sin leer el resto del cuerpo.
+     */
+    @PostMapping(value = "/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoIngestaDto> ingestar(InputStream body) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(ResultadoCreateDto.class);
+        List<ResultadoCreateDto> filas = new ArrayList<>();
+
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("El lote debe ser un arreglo JSON de resultados");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (filas.size() == ResultadoIngestaService.MAX_FILAS) {
+                    throw new IllegalArgumentException(
+                            "El lote excede el máximo de " + ResultadoIngestaService.MAX_FILAS + " resultados");
+                }
+                filas.add(reader.readValue(parser));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("El lote no es un JSON válido (fila " + filas.size() + ")");
+        }
+
+        log.debug("POST /api/resultados/lote - Recibiendo {} resultados", filas.size());
+        return ResponseEntity.ok(resultadoIngestaService.ingestar(filas));
+    }
+
+    /**
+     * POST /api/resultados/lote - Ingesta masiva en formato NDJSON (un resultado por línea)
+     * Las líneas en blanco se ignoran; una línea mal formada rechaza la solicitud completa.
+     */
+    @PostMapping(value = "/lote", consumes = NDJSON_CONTENT_TYPE)
+    public ResponseEntity<ResultadoIngestaDto> ingestarNdjson(InputStream body) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(ResultadoCreateDto.class);
+        List<ResultadoCreateDto> filas = new ArrayList<>();
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            int numero = 0;
+            while ((line = lines.readLine()) != null) {
+                numero++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (filas.size() == ResultadoIngestaService.MAX_FILAS) {
+                    throw new IllegalArgumentException(
+                            "El lote excede el máximo de " + ResultadoIngestaService.MAX_FILAS + " resultados");
+                }
+                try {
+                    filas.add(reader.readValue(line));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Línea " + numero + " no es un JSON válido");
+                }
+            }
+        }
+
+        log.debug("POST /api/resultados/lote (NDJSON) - Recibiendo {} resultados", filas.size());
+        return ResponseEntity.ok(resultadoIngestaService.ingestar(filas));
+    }
+
     /**
      * PUT /api/resultados/{id} - Actualiza un resultado existente
+     * Con If-Match responde 412 si la versión no es la actual; si otra operación
+     * modifica el resultado durante la actualización responde 409.
      */
     @PutMapping("/{id}")
     public ResponseEntity<ResultadoResponseDto> update(
             @PathVariable Long id,
-            @Valid @RequestBody ResultadoUpdateDto updateDto) {
+            @Valid @RequestBody ResultadoUpdateDto updateDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        log.info("PUT /api/resultados/{} - Actualizando resultado", id);
+        log.debug("PUT /api/resultados/{} - Actualizando resultado", id);
 
         // Buscar el resultado existente
         Resultado resultado = resultadoService.findById(id);
@@ -103,23 +337,108 @@ public class ResultadoController {
         resultadoMapper.updateEntityFromDto(updateDto, resultado, tipoAnalisis);
 
         // Guardar
-        Resultado updated = resultadoService.update(id, resultado);
+        Resultado updated = resultadoService.update(id, resultado, versionEsperada(ifMatch));
 
         // Convertir a DTO de respuesta
         ResultadoResponseDto responseDto = resultadoMapper.toDto(updated);
 
-        log.info("Resultado {} actualizado exitosamente", id);
-        return ResponseEntity.ok(responseDto);
+        log.debug("Resultado {} actualizado exitosamente", id);
+        return conVersion(ResponseEntity.ok(), updated.getVersion()).body(responseDto);
+    }
+
+    /**
+     * PATCH /api/resultados/{id} - Actualización parcial
+     * Sólo se modifican los campos enviados, con un único UPDATE y sin leer el
+     * resultado. Con If-Match responde 412 si la versión no es la actual.
+     * Devuelve siempre el nuevo ETag.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patch(
+            @PathVariable Long id,
+            @Valid @RequestBody ResultadoUpdateDto cambios,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        log.debug("PATCH /api/resultados/{} - Actualizando resultado", id);
+        Long nuevaVersion = resultadoService.patch(id, cambios, versionEsperada(ifMatch));
+        return conVersion(ResponseEntity.status(HttpStatus.NO_CONTENT), nuevaVersion).build();
     }
 
     /**
      * DELETE /api/resultados/{id} - Elimina un resultado
+     * Con If-Match responde 412 si la versión no es la actual.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        log.info("DELETE /api/resultados/{} - Eliminando resultado", id);
-        resultadoService.delete(id);
-        log.info("Resultado {} eliminado exitosamente", id);
+    public ResponseEntity<Void> delete(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("DELETE /api/resultados/{} - Eliminando resultado", id);
+        resultadoService.delete(id, versionEsperada(ifMatch));
+        log.debug("Resultado {} eliminado exitosamente", id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Interpreta If-Match como versión esperada. Sin encabezado o con "*" no se
+     * verifica la versión. Un ETag débil nunca coincide (RFC 9110, comparación fuerte).
+     */
+    static Long versionEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            throw new PreconditionFailedException("If-Match requiere un ETag fuerte");
+        }
+        Matcher matcher = ETAG_VERSION.matcher(valor);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Encabezado If-Match inválido: " + ifMatch);
+        }
+        return Long.valueOf(matcher.group(1));
+    }
+
+    private static <B extends ResponseEntity.HeadersBuilder<B>> B conVersion(B builder, Long version) {
+        return builder.eTag(Etags.fuerte(version));
+    }
+
+    /**
+     * ETag de un listado: ID y versión de cada resultado y de su tipo de análisis
+     * (incluido en la respuesta), tal como se envían
+     */
+    private static Etags.Coleccion etagDe(List<ResultadoResponseDto> dtos) {
+        Etags.Coleccion etag = Etags.coleccion();
+        for (ResultadoResponseDto dto : dtos) {
+            TipoAnalisisResponseDto tipo = dto.getTipoAnalisis();
+            etag.agregar(dto.getId(), dto.getVersion(),
+                    tipo != null ? tipo.getId() : null, tipo != null ? tipo.getVersion() : null);
+        }
+        return etag;
+    }
+
+    static String toCsvRow(ResultadoResponseDto dto) {
+        return String.join(",",
+                escapeCsv(dto.getId()),
+                escapeCsv(dto.getPaciente()),
+                escapeCsv(dto.getFechaRealizacion()),
+                escapeCsv(dto.getTipoAnalisis() != null ? dto.getTipoAnalisis().getId() : null),
+                escapeCsv(dto.getTipoAnalisis() != null ? dto.getTipoAnalisis().getNombre() : null),
+                escapeCsv(dto.getLaboratorioId()),
+                escapeCsv(dto.getValorNumerico() != null ? dto.getValorNumerico().toPlainString() : null),
+                escapeCsv(dto.getValorTexto()),
+                escapeCsv(dto.getEstado()),
+                escapeCsv(dto.getObservaciones()),
+                escapeCsv(dto.getCreadoEn()),
+                escapeCsv(dto.getActualizadoEn()));
+    }
+
+    /**
+     * Escapa un valor según RFC 4180: se encierra entre comillas si contiene
+     * separador, comillas o saltos de línea.
+     */
+    private static String escapeCsv(Object value) {
+        String text = Objects.toString(value, "");
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
 }
@@ -1,5 +1,6 @@
 package com.sumativa.ms_results.controller;
 
+import com.sumativa.commons.http.Etags;
 import com.sumativa.ms_results.dto.TipoAnalisisCreateDto;
 import com.sumativa.ms_results.dto.TipoAnalisisResponseDto;
 import com.sumativa.ms_results.dto.TipoAnalisisUpdateDto;
@@ -7,6 +8,7 @@ import com.sumativa.ms_results.entity.TipoAnalisis;
 import com.sumativa.ms_results.mapper.TipoAnalisisMapper;
 import com.sumativa.ms_results.service.TipoAnalisisService;
 import jakarta.validation.Valid;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -22,6 +24,7 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @RestController
+@Observed
 @RequestMapping("/api/tipos-analisis")
 @RequiredArgsConstructor
 public class TipoAnalisisController {
@@ -31,27 +34,31 @@ public class TipoAnalisisController {
 
     /**
      * GET /api/tipos-analisis - Lista todos los tipos de análisis
+     * ETag débil con los IDs y versiones del catálogo: If-None-Match responde 304.
      */
     @GetMapping
     public ResponseEntity<List<TipoAnalisisResponseDto>> getAll() {
-        log.info("GET /api/tipos-analisis - Obteniendo todos los tipos de análisis");
+        log.debug("GET /api/tipos-analisis - Obteniendo todos los tipos de análisis");
         List<TipoAnalisis> tipos = tipoAnalisisService.findAll();
+        Etags.Coleccion etag = Etags.coleccion();
+        tipos.forEach(tipo -> etag.agregar(tipo.getId(), tipo.getVersion()));
         List<TipoAnalisisResponseDto> dtos = tipos.stream()
                 .map(tipoAnalisisMapper::toDto)
                 .collect(Collectors.toList());
-        log.info("Retornando {} tipos de análisis", dtos.size());
-        return ResponseEntity.ok(dtos);
+        log.debug("Retornando {} tipos de análisis", dtos.size());
+        return ResponseEntity.ok().eTag(etag.debil()).body(dtos);
     }
 
     /**
      * GET /api/tipos-analisis/{id} - Obtiene un tipo de análisis por ID
+     * ETag fuerte con la versión de la fila: If-None-Match responde 304.
      */
     @GetMapping("/{id}")
     public ResponseEntity<TipoAnalisisResponseDto> getById(@PathVariable Long id) {
-        log.info("GET /api/tipos-analisis/{} - Obteniendo tipo de análisis", id);
+        log.debug("GET /api/tipos-analisis/{} - Obteniendo tipo de análisis", id);
         TipoAnalisis tipoAnalisis = tipoAnalisisService.findById(id);
         TipoAnalisisResponseDto dto = tipoAnalisisMapper.toDto(tipoAnalisis);
-        return ResponseEntity.ok(dto);
+        return ResponseEntity.ok().eTag(Etags.fuerte(tipoAnalisis.getVersion())).body(dto);
     }
 
     /**
@@ -59,7 +66,7 @@ public class TipoAnalisisController {
      */
     @PostMapping
     public ResponseEntity<TipoAnalisisResponseDto> create(@Valid @RequestBody TipoAnalisisCreateDto createDto) {
-        log.info("POST /api/tipos-analisis - Creando nuevo tipo de análisis: {}", createDto.getNombre());
+        log.debug("POST /api/tipos-analisis - Creando nuevo tipo de análisis: {}", createDto.getNombre());
 
         // Convertir DTO a Entity
         TipoAnalisis tipoAnalisis = tipoAnalisisMapper.toEntity(createDto);
@@ -70,7 +77,7 @@ public class TipoAnalisisController {
         // Convertir Entity a DTO de respuesta
         TipoAnalisisResponseDto responseDto = tipoAnalisisMapper.toDto(created);
 
-        log.info("Tipo de análisis creado exitosamente con ID: {}", created.getId());
+        log.debug("Tipo de análisis creado exitosamente con ID: {}", created.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(responseDto);
     }
 
@@ -82,7 +89,7 @@ public class TipoAnalisisController {
             @PathVariable Long id,
             @Valid @RequestBody TipoAnalisisUpdateDto updateDto) {
 
-        log.info("PUT /api/tipos-analisis/{} - Actualizando tipo de análisis", id);
+        log.debug("PUT /api/tipos-analisis/{} - Actualizando tipo de análisis", id);
 
         // Buscar el tipo existente
         TipoAnalisis tipoAnalisis = tipoAnalisisService.findById(id);
@@ -96,7 +103,7 @@ public class TipoAnalisisController {
         // Convertir a DTO de respuesta
         TipoAnalisisResponseDto responseDto = tipoAnalisisMapper.toDto(updated);
 
-        log.info("Tipo de análisis {} actualizado exitosamente", id);
+        log.debug("Tipo de análisis {} actualizado exitosamente", id);
         return ResponseEntity.ok(responseDto);
     }
 
@@ -105,9 +112,9 @@ public class TipoAnalisisController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        log.info("DELETE /api/tipos-analisis/{} - Eliminando tipo de análisis", id);
+        log.debug("DELETE /api/tipos-analisis/{} - Eliminando tipo de análisis", id);
         tipoAnalisisService.delete(id);
-        log.info("Tipo de análisis {} eliminado exitosamente", id);
+        log.debug("Tipo de análisis {} eliminado exitosamente", id);
         return ResponseEntity.noContent().build();
     }
 }
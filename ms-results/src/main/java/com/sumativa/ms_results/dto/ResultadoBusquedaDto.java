@@ -0,0 +1,25 @@
+package com.sumativa.ms_results.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta para una página de la búsqueda de texto completo.
+ * Los items vienen ordenados por relevancia; total cuenta todas las coincidencias.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoBusquedaDto {
+
+    private List<ResultadoResponseDto> items;
+    private long total;
+    private Integer page;
+    private Integer size;
+    private boolean hasNext;
+}
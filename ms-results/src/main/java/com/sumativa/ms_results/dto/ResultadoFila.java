@@ -0,0 +1,31 @@
+package com.sumativa.ms_results.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Modelo de lectura de Resultado para listados y exportaciones.
+ * Se construye directamente desde JPQL (constructor expression), sin hidratar
+ * entidades administradas ni hacer join con tipos_analisis: el tipo de análisis
+ * se resuelve por ID desde el catálogo en memoria.
+ */
+@Value
+@AllArgsConstructor
+public class ResultadoFila {
+
+    Long id;
+    String paciente;
+    LocalDateTime fechaRealizacion;
+    Long tipoAnalisisId;
+    Long laboratorioId;
+    BigDecimal valorNumerico;
+    String valorTexto;
+    String estado;
+    String observaciones;
+    LocalDateTime creadoEn;
+    LocalDateTime actualizadoEn;
+    Long version;
+}
@@ -0,0 +1,29 @@
+package com.sumativa.ms_results.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con los filtros opcionales para listar Resultados.
+ * Los campos nulos no se aplican como criterio.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoFiltroDto {
+
+    private Long laboratorioId;
+    private String estado;
+    private Long tipoAnalisisId;
+
+    /** Fecha de realización mínima (inclusive) */
+    private LocalDateTime desde;
+
+    /** Fecha de realización máxima (inclusive) */
+    private LocalDateTime hasta;
+}
@@ -0,0 +1,24 @@
+package com.sumativa.ms_results.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta para la ingesta masiva de Resultados.
+ * Las filas válidas se insertan aunque otras sean rechazadas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoIngestaDto {
+
+    private int total;
+    private int creados;
+    private int rechazados;
+    private List<ResultadoIngestaItemDto> items;
+}
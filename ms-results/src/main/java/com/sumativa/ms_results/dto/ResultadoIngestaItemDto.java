@@ -0,0 +1,27 @@
+package com.sumativa.ms_results.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de la ingesta de una fila del lote.
+ * indice corresponde a la posición (base 0) de la fila en el cuerpo recibido.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoIngestaItemDto {
+
+    public static final String CREADO = "CREADO";
+    public static final String RECHAZADO = "RECHAZADO";
+
+    private int indice;
+    private String estado;
+    private Long id;
+    private List<String> errores;
+}
@@ -0,0 +1,24 @@
+package com.sumativa.ms_results.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO de respuesta para una página de Resultados paginada por cursor (keyset).
+ * nextCursor es null cuando no existen más páginas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResultadoPageDto {
+
+    private List<ResultadoResponseDto> items;
+    private Integer size;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -29,4 +29,5 @@ public class ResultadoResponseDto {
     private String observaciones;
     private LocalDateTime creadoEn;
     private LocalDateTime actualizadoEn;
+    private Long version;
 }
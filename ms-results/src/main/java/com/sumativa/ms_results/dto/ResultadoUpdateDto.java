@@ -1,5 +1,6 @@
 package com.sumativa.ms_results.dto;
 
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,7 +12,9 @@ import java.time.LocalDateTime;
 
 /**
  * DTO para actualizar un Resultado.
- * Todos los campos son opcionales (actualización parcial).
+ * Todos los campos son opcionales (actualización parcial). PATCH escribe con
+ * un UPDATE directo que no pasa por las validaciones de la entidad, por eso
+ * paciente y estado, si vienen, no pueden estar en blanco.
  */
 @Data
 @NoArgsConstructor
@@ -19,7 +22,11 @@ import java.time.LocalDateTime;
 @Builder
 public class ResultadoUpdateDto {
 
+    // Al menos un carácter que no sea espacio (null sigue siendo válido: campo no enviado)
+    private static final String NO_EN_BLANCO = "(?s).*\\S.*";
+
     @Size(min = 3, max = 200, message = "El nombre del paciente debe tener entre 3 y 200 caracteres")
+    @Pattern(regexp = NO_EN_BLANCO, message = "El nombre del paciente no puede estar en blanco")
     private String paciente;
 
     private LocalDateTime fechaRealizacion;
@@ -31,6 +38,7 @@ public class ResultadoUpdateDto {
     private String valorTexto;
 
     @Size(max = 20, message = "El estado no puede exceder 20 caracteres")
+    @Pattern(regexp = NO_EN_BLANCO, message = "El estado no puede estar en blanco")
     private String estado;
 
     @Size(max = 1000, message = "Las observaciones no pueden exceder 1000 caracteres")
@@ -24,4 +24,5 @@ public class TipoAnalisisResponseDto {
     private BigDecimal valorReferenciaMin;
     private BigDecimal valorReferenciaMax;
     private Boolean activo;
+    private Long version;
 }
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class Resultado {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "resultados_seq")
+    @SequenceGenerator(name = "resultados_seq", sequenceName = "resultados_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre del paciente es obligatorio")
@@ -30,7 +31,8 @@ public class Resultado {
     private LocalDateTime fechaRealizacion;
 
     @NotNull(message = "El tipo de análisis es obligatorio")
-    @ManyToOne(fetch = FetchType.EAGER)
+    // LAZY: las lecturas resuelven el tipo de análisis desde el catálogo en memoria
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "tipo_analisis_id", nullable = false)
     private TipoAnalisis tipoAnalisis;
 
@@ -57,10 +59,16 @@ public class Resultado {
     @Column(name = "actualizado_en")
     private LocalDateTime actualizadoEn;
 
+    // Bloqueo optimista: se expone como ETag y se compara con If-Match
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
-        creadoEn = LocalDateTime.now();
-        actualizadoEn = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now();
+        creadoEn = now;
+        actualizadoEn = now;
     }
 
     @PreUpdate
@@ -3,7 +3,6 @@ package com.sumativa.ms_results.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -13,7 +12,6 @@ import java.math.BigDecimal;
 @Table(name = "tipos_analisis")
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class TipoAnalisis {
 
     @Id
@@ -40,4 +38,20 @@ public class TipoAnalisis {
     @NotNull(message = "El estado activo es obligatorio")
     @Column(nullable = false)
     private Boolean activo = true;
+
+    // Se expone como ETag (ver TipoAnalisisController) y en los resultados que lo incluyen
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public TipoAnalisis(Long id, String nombre, String categoria, String unidadMedida,
+                        BigDecimal valorReferenciaMin, BigDecimal valorReferenciaMax, Boolean activo) {
+        this.id = id;
+        this.nombre = nombre;
+        this.categoria = categoria;
+        this.unidadMedida = unidadMedida;
+        this.valorReferenciaMin = valorReferenciaMin;
+        this.valorReferenciaMax = valorReferenciaMax;
+        this.activo = activo;
+    }
 }
@@ -3,8 +3,10 @@ package com.sumativa.ms_results.exception;
 import com.sumativa.ms_results.dto.ErrorResponseDto;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -31,7 +33,7 @@ public class GlobalExceptionHandler {
             IllegalArgumentException ex,
             HttpServletRequest request) {
 
-        log.error("IllegalArgumentException: {}", ex.getMessage());
+        log.warn("IllegalArgumentException: {}", ex.getMessage());
 
         // Determinar si es un error 404 o 400
         HttpStatus status = ex.getMessage().toLowerCase().contains("no encontrado")
@@ -49,6 +51,73 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(error);
     }
 
+    /**
+     * Maneja If-Match con una versión distinta de la actual.
+     * Status: 412 PRECONDITION FAILED.
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponseDto> handlePreconditionFailed(
+            PreconditionFailedException ex,
+            HttpServletRequest request) {
+
+        log.warn("PreconditionFailedException: {}", ex.getMessage());
+
+        ErrorResponseDto error = ErrorResponseDto.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.PRECONDITION_FAILED.value())
+                .error(HttpStatus.PRECONDITION_FAILED.getReasonPhrase())
+                .message(ex.getMessage())
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    /**
+     * Maneja conflictos de bloqueo optimista: otra operación modificó el
+     * registro entre la lectura y la escritura.
+     * Status: 409 CONFLICT.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLocking(
+            OptimisticLockingFailureException ex,
+            HttpServletRequest request) {
+
+        log.warn("Conflicto de concurrencia: {}", ex.getMessage());
+
+        ErrorResponseDto error = ErrorResponseDto.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .error(HttpStatus.CONFLICT.getReasonPhrase())
+                .message("El recurso fue modificado por otra operación; vuelva a consultarlo e intente nuevamente")
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * Maneja un rol insuficiente para un endpoint con @PreAuthorize.
+     * Status: 403 FORBIDDEN.
+     */
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorResponseDto> handleAccessDenied(
+            AccessDeniedException ex,
+            HttpServletRequest request) {
+
+        log.warn("Acceso denegado a {}: {}", request.getRequestURI(), ex.getMessage());
+
+        ErrorResponseDto error = ErrorResponseDto.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.FORBIDDEN.value())
+                .error(HttpStatus.FORBIDDEN.getReasonPhrase())
+                .message("No tiene permisos para esta operación")
+                .path(request.getRequestURI())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
+    }
+
     /**
      * Maneja errores de validación de Bean Validation.
      * Status: 400 BAD REQUEST.
@@ -58,7 +127,7 @@ public class GlobalExceptionHandler {
             MethodArgumentNotValidException ex,
             HttpServletRequest request) {
 
-        log.error("Validation error: {}", ex.getMessage());
+        log.warn("Validation error: {}", ex.getMessage());
 
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach(error -> {
@@ -0,0 +1,12 @@
+package com.sumativa.ms_results.exception;
+
+/**
+ * La versión enviada en If-Match no coincide con la versión actual del recurso.
+ * Se responde con 412 PRECONDITION FAILED.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
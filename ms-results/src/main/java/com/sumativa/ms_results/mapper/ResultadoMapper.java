@@ -1,13 +1,23 @@
 package com.sumativa.ms_results.mapper;
 
 import com.sumativa.ms_results.dto.ResultadoCreateDto;
+import com.sumativa.ms_results.dto.ResultadoFila;
 import com.sumativa.ms_results.dto.ResultadoResponseDto;
 import com.sumativa.ms_results.dto.ResultadoUpdateDto;
+import com.sumativa.ms_results.dto.TipoAnalisisResponseDto;
 import com.sumativa.ms_results.entity.Resultado;
 import com.sumativa.ms_results.entity.TipoAnalisis;
+import com.sumativa.ms_results.service.TipoAnalisisService;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Mapper para convertir entre Resultado Entity y DTOs.
  * Centraliza la lógica de conversión.
@@ -17,6 +27,7 @@ import org.springframework.stereotype.Component;
 public class ResultadoMapper {
 
     private final TipoAnalisisMapper tipoAnalisisMapper;
+    private final TipoAnalisisService tipoAnalisisService;
 
     /**
      * Convierte Entity a DTO de respuesta.
@@ -31,7 +42,7 @@ public class ResultadoMapper {
                 .id(entity.getId())
                 .paciente(entity.getPaciente())
                 .fechaRealizacion(entity.getFechaRealizacion())
-                .tipoAnalisis(tipoAnalisisMapper.toDto(entity.getTipoAnalisis()))
+                .tipoAnalisis(toTipoAnalisisDto(entity.getTipoAnalisis()))
                 .laboratorioId(entity.getLaboratorioId())
                 .valorNumerico(entity.getValorNumerico())
                 .valorTexto(entity.getValorTexto())
@@ -39,6 +50,44 @@ public class ResultadoMapper {
                 .observaciones(entity.getObservaciones())
                 .creadoEn(entity.getCreadoEn())
                 .actualizadoEn(entity.getActualizadoEn())
+                .version(entity.getVersion())
+                .build();
+    }
+
+    /**
+     * Convierte filas del modelo de lectura a DTOs de respuesta.
+     * El catálogo de tipos de análisis se consulta una sola vez para todo el listado.
+     */
+    public List<ResultadoResponseDto> filasToDto(List<ResultadoFila> filas) {
+        Function<ResultadoFila, ResultadoResponseDto> converter = filaConverter();
+        return filas.stream().map(converter).collect(Collectors.toList());
+    }
+
+    /**
+     * Devuelve un conversor de filas que reutiliza un snapshot del catálogo de
+     * tipos de análisis; las filas del mismo tipo comparten el mismo DTO embebido.
+     * No es thread-safe: pensado para un único listado o exportación.
+     */
+    public Function<ResultadoFila, ResultadoResponseDto> filaConverter() {
+        Map<Long, TipoAnalisisResponseDto> tipos = new HashMap<>();
+        for (TipoAnalisis tipo : tipoAnalisisService.findAll()) {
+            tipos.put(tipo.getId(), tipoAnalisisMapper.toDto(tipo));
+        }
+
+        return fila -> fila == null ? null : ResultadoResponseDto.builder()
+                .id(fila.getId())
+                .paciente(fila.getPaciente())
+                .fechaRealizacion(fila.getFechaRealizacion())
+                .tipoAnalisis(tipos.computeIfAbsent(fila.getTipoAnalisisId(),
+                        id -> tipoAnalisisMapper.toDto(tipoAnalisisService.lookup(id))))
+                .laboratorioId(fila.getLaboratorioId())
+                .valorNumerico(fila.getValorNumerico())
+                .valorTexto(fila.getValorTexto())
+                .estado(fila.getEstado())
+                .observaciones(fila.getObservaciones())
+                .creadoEn(fila.getCreadoEn())
+                .actualizadoEn(fila.getActualizadoEn())
+                .version(fila.getVersion())
                 .build();
     }
 
@@ -97,4 +146,15 @@ public class ResultadoMapper {
             entity.setObservaciones(dto.getObservaciones());
         }
     }
+
+    /**
+     * Si la relación LAZY no fue inicializada, se resuelve por ID desde el
+     * catálogo en lugar de disparar un SELECT por fila (o fallar fuera de sesión).
+     */
+    private TipoAnalisisResponseDto toTipoAnalisisDto(TipoAnalisis tipoAnalisis) {
+        if (tipoAnalisis != null && !Hibernate.isInitialized(tipoAnalisis)) {
+            tipoAnalisis = tipoAnalisisService.lookup(tipoAnalisis.getId());
+        }
+        return tipoAnalisisMapper.toDto(tipoAnalisis);
+    }
 }
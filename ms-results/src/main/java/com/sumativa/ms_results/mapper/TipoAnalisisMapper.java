@@ -29,6 +29,7 @@ public class TipoAnalisisMapper {
                 .valorReferenciaMin(entity.getValorReferenciaMin())
                 .valorReferenciaMax(entity.getValorReferenciaMax())
                 .activo(entity.getActivo())
+                .version(entity.getVersion())
                 .build();
     }
 
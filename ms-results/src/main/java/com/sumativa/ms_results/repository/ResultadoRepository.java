@@ -1,17 +1,80 @@
 package com.sumativa.ms_results.repository;
 
+import com.sumativa.ms_results.dto.ResultadoFila;
 import com.sumativa.ms_results.entity.Resultado;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ResultadoRepository extends JpaRepository<Resultado, Long> {
+public interface ResultadoRepository extends JpaRepository<Resultado, Long>, JpaSpecificationExecutor<Resultado>,
+        ResultadoRepositoryCustom {
 
-    List<Resultado> findByPacienteContaining(String paciente);
+    /** Filas por ida y vuelta a la base de datos durante la exportación. */
+    int EXPORT_FETCH_SIZE = 500;
+
+    /** Constructor expression de ResultadoFila; r.tipoAnalisis.id usa la FK sin join. */
+    String FILA = "new com.sumativa.ms_results.dto.ResultadoFila(r.id, r.paciente, r.fechaRealizacion, "
+            + "r.tipoAnalisis.id, r.laboratorioId, r.valorNumerico, r.valorTexto, r.estado, "
+            + "r.observaciones, r.creadoEn, r.actualizadoEn, r.version)";
+
+    /** Cantidad de resultados y actualizado_en más reciente de la tabla. */
+    interface Resumen {
+        long getCantidad();
+
+        LocalDateTime getUltimaActualizacion();
+    }
 
     List<Resultado> findByLaboratorioId(Long laboratorioId);
 
     List<Resultado> findByEstado(String estado);
+
+    /**
+     * Lista todos los resultados como modelo de lectura: una sola consulta,
+     * sin join con tipos_analisis y sin entidades administradas.
+     */
+    @Query("SELECT " + FILA + " FROM Resultado r ORDER BY r.id")
+    List<ResultadoFila> findAllFilas();
+
+    /**
+     * Filas de los IDs indicados, sin orden; los IDs inexistentes se omiten.
+     */
+    @Query("SELECT " + FILA + " FROM Resultado r WHERE r.id IN :ids")
+    List<ResultadoFila> findFilasByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Recorre los resultados con un cursor JDBC (fetch size acotado) en lugar de
+     * cargar la lista completa. Aplica los mismos filtros que findByLaboratorioId
+     * y findByEstado; un parámetro nulo no filtra.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT " + FILA + " FROM Resultado r "
+            + "WHERE (:laboratorioId IS NULL OR r.laboratorioId = :laboratorioId) "
+            + "AND (:estado IS NULL OR r.estado = :estado) "
+            + "ORDER BY r.id")
+    Stream<ResultadoFila> streamByFiltro(@Param("laboratorioId") Long laboratorioId, @Param("estado") String estado);
+
+    /**
+     * Resumen de la tabla con el que se compara el índice de búsqueda.
+     */
+    @Query("SELECT COUNT(r) AS cantidad, MAX(r.actualizadoEn) AS ultimaActualizacion FROM Resultado r")
+    Resumen resumen();
+
+    /**
+     * Versión actual de un resultado, sin cargar la entidad.
+     */
+    @Query("SELECT r.version FROM Resultado r WHERE r.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
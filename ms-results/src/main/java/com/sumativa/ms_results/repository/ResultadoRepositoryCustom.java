@@ -0,0 +1,36 @@
+package com.sumativa.ms_results.repository;
+
+import com.sumativa.ms_results.dto.ResultadoFila;
+import com.sumativa.ms_results.dto.ResultadoUpdateDto;
+import com.sumativa.ms_results.entity.Resultado;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Operaciones de Resultado que no se resuelven con consultas derivadas.
+ */
+public interface ResultadoRepositoryCustom {
+
+    /**
+     * Página keyset del modelo de lectura, ordenada por (fechaRealizacion, id)
+     * descendente: una sola consulta con la proyección {@link ResultadoRepository#FILA},
+     * sin entidades administradas. Spring Data no aplica keyset a proyecciones
+     * de constructor, por eso la condición "después de la posición" se arma aquí.
+     *
+     * @param filtro   condiciones adicionales (ResultadoSpecifications)
+     * @param position posición de la última fila entregada; inicial para la primera página
+     * @param limit    cantidad máxima de filas
+     */
+    Window<ResultadoFila> scrollFilas(Specification<Resultado> filtro, KeysetScrollPosition position, int limit);
+
+    /**
+     * Actualiza sólo los campos no nulos de {@code cambios} con un único UPDATE,
+     * sin cargar la entidad. Incrementa la versión y actualiza actualizado_en.
+     * El tipo de análisis se asigna por referencia: su existencia debe validarse antes.
+     *
+     * @param versionEsperada si no es null, sólo se actualiza cuando la versión coincide
+     * @return cantidad de filas actualizadas (0 si no existe o la versión no coincide)
+     */
+    int actualizarParcial(Long id, ResultadoUpdateDto cambios, Long versionEsperada);
+}
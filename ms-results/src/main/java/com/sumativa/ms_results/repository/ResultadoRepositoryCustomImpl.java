@@ -0,0 +1,112 @@
+package com.sumativa.ms_results.repository;
+
+import com.sumativa.ms_results.dto.ResultadoFila;
+import com.sumativa.ms_results.dto.ResultadoUpdateDto;
+import com.sumativa.ms_results.entity.Resultado;
+import com.sumativa.ms_results.entity.TipoAnalisis;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación de {@link ResultadoRepositoryCustom} con Criteria API: la
+ * sentencia incluye sólo las columnas que cambian o los filtros informados.
+ */
+class ResultadoRepositoryCustomImpl implements ResultadoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int actualizarParcial(Long id, ResultadoUpdateDto cambios, Long versionEsperada) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Resultado> update = cb.createCriteriaUpdate(Resultado.class);
+        Root<Resultado> root = update.from(Resultado.class);
+
+        asignar(update, root, "paciente", cambios.getPaciente());
+        asignar(update, root, "fechaRealizacion", cambios.getFechaRealizacion());
+        asignar(update, root, "laboratorioId", cambios.getLaboratorioId());
+        asignar(update, root, "valorNumerico", cambios.getValorNumerico());
+        asignar(update, root, "valorTexto", cambios.getValorTexto());
+        asignar(update, root, "estado", cambios.getEstado());
+        asignar(update, root, "observaciones", cambios.getObservaciones());
+        if (cambios.getTipoAnalisisId() != null) {
+            update.set(root.<TipoAnalisis>get("tipoAnalisis"),
+                    entityManager.getReference(TipoAnalisis.class, cambios.getTipoAnalisisId()));
+        }
+
+        // Un UPDATE masivo no dispara @PreUpdate ni incrementa @Version: se hace aquí
+        Path<Long> version = root.get("version");
+        update.set(root.<LocalDateTime>get("actualizadoEn"), LocalDateTime.now());
+        update.set(version, cb.sum(version, 1L));
+
+        Predicate condicion = cb.equal(root.get("id"), id);
+        if (versionEsperada != null) {
+            condicion = cb.and(condicion, cb.equal(version, versionEsperada));
+        }
+        update.where(condicion);
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Window<ResultadoFila> scrollFilas(Specification<Resultado> filtro, KeysetScrollPosition position, int limit) {
+        // Criteria a partir del mismo HQL que las demás consultas de filas, para agregarle los filtros
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        JpaCriteriaQuery<ResultadoFila> query =
+                cb.createQuery("SELECT " + ResultadoRepository.FILA + " FROM Resultado r", ResultadoFila.class);
+        Root<Resultado> root = (Root<Resultado>) query.getRoots().iterator().next();
+        Path<LocalDateTime> fecha = root.get("fechaRealizacion");
+        Path<Long> id = root.get("id");
+
+        Predicate condicion = filtro.toPredicate(root, query, cb);
+        if (!position.isInitial()) {
+            // Orden descendente: (fecha, id) < (fecha, id) de la última fila entregada
+            LocalDateTime ultimaFecha = (LocalDateTime) position.getKeys().get("fechaRealizacion");
+            Long ultimoId = (Long) position.getKeys().get("id");
+            condicion = cb.and(condicion, cb.or(
+                    cb.lessThan(fecha, ultimaFecha),
+                    cb.and(cb.equal(fecha, ultimaFecha), cb.lessThan(id, ultimoId))));
+        }
+        query.where(condicion);
+        query.orderBy(cb.desc(fecha), cb.desc(id));
+
+        // Una fila extra indica si hay página siguiente
+        List<ResultadoFila> filas = entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        boolean hasNext = filas.size() > limit;
+        List<ResultadoFila> contenido = hasNext ? filas.subList(0, limit) : filas;
+        return Window.from(contenido, i -> ScrollPosition.forward(clave(contenido.get(i))), hasNext);
+    }
+
+    private static Map<String, Object> clave(ResultadoFila fila) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("fechaRealizacion", fila.getFechaRealizacion());
+        keys.put("id", fila.getId());
+        return keys;
+    }
+
+    private static <T> void asignar(CriteriaUpdate<Resultado> update, Root<Resultado> root, String atributo, T valor) {
+        if (valor != null) {
+            update.set(root.<T>get(atributo), valor);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.sumativa.ms_results.repository;
+
+import com.sumativa.ms_results.dto.ResultadoFiltroDto;
+import com.sumativa.ms_results.entity.Resultado;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specifications JPA para consultas dinámicas sobre Resultado.
+ * Solo se agregan al WHERE los filtros informados, de modo que cada
+ * combinación genera un predicado simple que puede usar los índices
+ * idx_resultados_laboratorio / idx_resultados_estado / idx_resultados_fecha.
+ */
+public final class ResultadoSpecifications {
+
+    private ResultadoSpecifications() {
+        // Clase utilitaria
+    }
+
+    /**
+     * Construye la Specification a partir de los filtros opcionales.
+     */
+    public static Specification<Resultado> conFiltro(ResultadoFiltroDto filtro) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filtro == null) {
+                return cb.and();
+            }
+
+            if (filtro.getLaboratorioId() != null) {
+                predicates.add(cb.equal(root.get("laboratorioId"), filtro.getLaboratorioId()));
+            }
+            if (StringUtils.hasText(filtro.getEstado())) {
+                predicates.add(cb.equal(root.get("estado"), filtro.getEstado()));
+            }
+            if (filtro.getTipoAnalisisId() != null) {
+                // Se compara contra la FK, sin join a tipos_analisis
+                predicates.add(cb.equal(root.get("tipoAnalisis").get("id"), filtro.getTipoAnalisisId()));
+            }
+            if (filtro.getDesde() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("fechaRealizacion"), filtro.getDesde()));
+            }
+            if (filtro.getHasta() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("fechaRealizacion"), filtro.getHasta()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
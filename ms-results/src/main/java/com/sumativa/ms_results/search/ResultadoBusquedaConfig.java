@@ -0,0 +1,92 @@
+package com.sumativa.ms_results.search;
+
+import com.sumativa.ms_results.mapper.ResultadoMapper;
+import com.sumativa.ms_results.repository.ResultadoRepository;
+import com.sumativa.ms_results.service.ResultadoBusquedaService;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índice de texto completo de resultados: directorio en disco local, hilo de
+ * escritura, reconstrucción al iniciar y reconciliación periódica con la base.
+ *
+ * Sólo se admite una instancia de ms-results: el índice es local y sólo ve los
+ * cambios hechos por esta instancia (el directorio no se puede compartir,
+ * Lucene lo bloquea al abrirlo). Con el directorio vacío el índice vive en
+ * memoria y se reconstruye en cada arranque.
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+public class ResultadoBusquedaConfig {
+
+    @Bean(destroyMethod = "close")
+    public ResultadoIndice resultadoIndice(@Value("${resultados-busqueda.directorio:}") String directorio)
+            throws IOException {
+        if (!StringUtils.hasText(directorio)) {
+            log.warn("Sin resultados-busqueda.directorio: el índice de búsqueda se mantiene en memoria");
+            return new ResultadoIndice(new ByteBuffersDirectory());
+        }
+        Path ruta = Path.of(directorio).toAbsolutePath().normalize();
+        log.info("Índice de búsqueda de resultados en {}", ruta);
+        return new ResultadoIndice(FSDirectory.open(ruta));
+    }
+
+    /**
+     * Único hilo que escribe en el índice; la cola guarda las actualizaciones
+     * pendientes en orden de commit
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor resultadoIndiceExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "resultado-indice");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    public ResultadoBusquedaService resultadoBusquedaService(ResultadoIndice resultadoIndice,
+                                                             ResultadoRepository resultadoRepository,
+                                                             ResultadoMapper resultadoMapper,
+                                                             PlatformTransactionManager transactionManager,
+                                                             ThreadPoolExecutor resultadoIndiceExecutor) {
+        return new ResultadoBusquedaService(resultadoIndice, resultadoRepository, resultadoMapper,
+                transactionManager, resultadoIndiceExecutor);
+    }
+
+    /**
+     * Métricas executor.* del hilo del índice (executor.queued = actualizaciones pendientes)
+     */
+    @Bean
+    public ExecutorServiceMetrics resultadoIndiceExecutorMetrics(ThreadPoolExecutor resultadoIndiceExecutor) {
+        return new ExecutorServiceMetrics(resultadoIndiceExecutor, "resultadoIndice", Tags.empty());
+    }
+
+    /**
+     * Reconstruye el índice en segundo plano al iniciar si está vacío o si
+     * reconstruir-al-iniciar es true; si no, lo reconcilia con la base
+     */
+    @Bean
+    public ApplicationRunner reconstruirIndiceAlIniciar(
+            ResultadoBusquedaService resultadoBusquedaService,
+            @Value("${resultados-busqueda.reconstruir-al-iniciar:false}") boolean siempre) {
+        return args -> resultadoBusquedaService.reconstruirAlIniciar(siempre);
+    }
+}
@@ -0,0 +1,355 @@
+package com.sumativa.ms_results.search;
+
+import com.sumativa.ms_results.dto.ResultadoFila;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollectorManager;
+import org.apache.lucene.store.Directory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Índice de texto completo de Resultados (Lucene) sobre paciente,
+ * observaciones y valorTexto.
+ *
+ * El analizador separa palabras, pasa a minúsculas y quita tildes
+ * (ASCIIFoldingFilter): "Muñoz", "MUNOZ" y "munoz" son el mismo término, y lo
+ * mismo "Pérez" y "perez". Cada término buscado se compara exacto, como
+ * prefijo y con tolerancia a errores de tipeo; un resultado debe contener
+ * todos los términos, en cualquiera de los campos. Las coincidencias en
+ * paciente pesan el doble.
+ *
+ * Cada documento guarda sólo el ID del resultado; los datos se leen de la base.
+ * Cada commit guarda además el actualizado_en más reciente de las filas
+ * indexadas, con el que ResultadoBusquedaService compara el índice con la tabla.
+ * Las escrituras deben hacerse desde un único hilo (ResultadoBusquedaService);
+ * las búsquedas son concurrentes y ven el índice del último commit.
+ */
+public class ResultadoIndice implements Closeable {
+
+    /** Máximo de resultados alcanzable con paginación por página y tamaño. */
+    public static final int MAX_VENTANA = 10_000;
+
+    static final String ID = "id";
+    static final String PACIENTE = "paciente";
+    static final String OBSERVACIONES = "observaciones";
+    static final String VALOR_TEXTO = "valorTexto";
+
+    // Clave de los datos del commit con el actualizado_en más reciente indexado
+    static final String ULTIMA_ACTUALIZACION = "ultimaActualizacion";
+
+    // Peso de cada campo en el puntaje
+    private static final Map<String, Float> CAMPOS = campos();
+
+    // Términos considerados de la consulta; el resto se descarta
+    static final int MAX_TERMINOS = 8;
+    // Largo mínimo de un término para buscarlo también como prefijo
+    private static final int MIN_PREFIJO = 2;
+    // Un término exacto puntúa sobre su prefijo, y éste sobre una coincidencia aproximada
+    private static final float PESO_EXACTO = 4f;
+    private static final float PESO_PREFIJO = 2f;
+
+    /**
+     * Página de IDs ordenados por relevancia
+     * @param total cantidad de resultados que coinciden con la consulta
+     */
+    public record Pagina(long total, List<Long> ids) {
+    }
+
+    private final Directory directorio;
+    private final Analyzer analizador = analizador();
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private volatile LocalDateTime ultimaActualizacion;
+
+    public ResultadoIndice(Directory directorio) {
+        this.directorio = directorio;
+        try {
+            abrir();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el índice de resultados", e);
+        }
+    }
+
+    /**
+     * Busca los resultados que contienen todos los términos de {@code texto}.
+     *
+     * @param pagina página base 0
+     * @param size   resultados por página
+     * @throws IllegalArgumentException si el texto no contiene términos o la
+     *         página pedida supera MAX_VENTANA resultados
+     */
+    public Pagina buscar(String texto, int pagina, int size) {
+        Query consulta = consulta(texto);
+        long hasta = (long) (pagina + 1) * size;
+        if (pagina < 0 || size < 1 || hasta > MAX_VENTANA) {
+            throw new IllegalArgumentException("La búsqueda permite hasta " + MAX_VENTANA
+                    + " resultados; refine los términos");
+        }
+
+        SearcherManager manager = searcherManager;
+        try {
+            IndexSearcher searcher = manager.acquire();
+            try {
+                // Cuenta todas las coincidencias, no sólo las primeras 1000
+                TopDocs top = searcher.search(consulta, new TopScoreDocCollectorManager((int) hasta, Integer.MAX_VALUE));
+                StoredFields campos = searcher.storedFields();
+                List<Long> ids = new ArrayList<>(size);
+                for (int i = pagina * size; i < top.scoreDocs.length; i++) {
+                    ScoreDoc hit = top.scoreDocs[i];
+                    ids.add(Long.valueOf(campos.document(hit.doc).get(ID)));
+                }
+                return new Pagina(top.totalHits.value, ids);
+            } finally {
+                manager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al buscar en el índice de resultados", e);
+        }
+    }
+
+    /**
+     * Reemplaza los documentos de {@code filas}, borra los de {@code eliminados}
+     * y los deja visibles para las búsquedas
+     */
+    public void actualizar(Collection<ResultadoFila> filas, Collection<Long> eliminados) {
+        try {
+            for (ResultadoFila fila : filas) {
+                writer.updateDocument(new Term(ID, fila.getId().toString()), documento(fila));
+                registrarActualizacion(fila);
+            }
+            for (Long id : eliminados) {
+                writer.deleteDocuments(new Term(ID, id.toString()));
+            }
+            publicar();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al actualizar el índice de resultados", e);
+        }
+    }
+
+    /**
+     * Vuelve a crear el índice con las filas que entrega {@code fuente}. Las
+     * búsquedas siguen viendo el índice anterior hasta que termina; si falla,
+     * el índice anterior queda intacto.
+     */
+    public void reconstruir(Consumer<Consumer<ResultadoFila>> fuente) {
+        try {
+            writer.deleteAll();
+            ultimaActualizacion = null;
+            fuente.accept(fila -> {
+                try {
+                    writer.addDocument(documento(fila));
+                    registrarActualizacion(fila);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            publicar();
+        } catch (IOException | RuntimeException e) {
+            descartarCambios();
+            if (e instanceof IOException io) {
+                throw new UncheckedIOException("Error al reconstruir el índice de resultados", io);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Cantidad de resultados indexados
+     */
+    public int documentos() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * actualizado_en más reciente entre las filas indexadas (null si no hay ninguna con fecha)
+     */
+    public LocalDateTime ultimaActualizacion() {
+        return ultimaActualizacion;
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        analizador.close();
+        directorio.close();
+    }
+
+    private void abrir() throws IOException {
+        writer = new IndexWriter(directorio, new IndexWriterConfig(analizador)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        ultimaActualizacion = null;
+        Iterable<Map.Entry<String, String>> datos = writer.getLiveCommitData();
+        if (datos != null) {
+            for (Map.Entry<String, String> dato : datos) {
+                if (ULTIMA_ACTUALIZACION.equals(dato.getKey())) {
+                    ultimaActualizacion = LocalDateTime.parse(dato.getValue());
+                }
+            }
+        }
+    }
+
+    private void registrarActualizacion(ResultadoFila fila) {
+        LocalDateTime actualizadoEn = fila.getActualizadoEn();
+        if (actualizadoEn != null && (ultimaActualizacion == null || actualizadoEn.isAfter(ultimaActualizacion))) {
+            ultimaActualizacion = actualizadoEn;
+        }
+    }
+
+    private void publicar() throws IOException {
+        writer.setLiveCommitData(ultimaActualizacion != null
+                ? Map.of(ULTIMA_ACTUALIZACION, ultimaActualizacion.toString()).entrySet()
+                : Map.<String, String>of().entrySet());
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    /**
+     * Descarta lo escrito desde el último commit: rollback cierra el writer,
+     * por lo que se abre uno nuevo sobre el índice confirmado
+     */
+    private void descartarCambios() {
+        SearcherManager anterior = searcherManager;
+        try {
+            writer.rollback();
+            abrir();
+            anterior.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo reabrir el índice de resultados", e);
+        }
+    }
+
+    private static Document documento(ResultadoFila fila) {
+        Document documento = new Document();
+        documento.add(new StringField(ID, fila.getId().toString(), Field.Store.YES));
+        agregarTexto(documento, PACIENTE, fila.getPaciente());
+        agregarTexto(documento, OBSERVACIONES, fila.getObservaciones());
+        agregarTexto(documento, VALOR_TEXTO, fila.getValorTexto());
+        return documento;
+    }
+
+    private static void agregarTexto(Document documento, String campo, String valor) {
+        if (valor != null) {
+            documento.add(new TextField(campo, valor, Field.Store.NO));
+        }
+    }
+
+    /**
+     * Cada término es obligatorio y puede coincidir, en cualquier campo, de
+     * forma exacta, como prefijo o aproximada (1 edición hasta 5 letras, 2 desde 6)
+     */
+    Query consulta(String texto) {
+        List<String> terminos = terminos(texto);
+        if (terminos.isEmpty()) {
+            throw new IllegalArgumentException("La búsqueda debe contener al menos una palabra");
+        }
+
+        BooleanQuery.Builder todos = new BooleanQuery.Builder();
+        for (String termino : terminos) {
+            BooleanQuery.Builder alternativas = new BooleanQuery.Builder();
+            for (Map.Entry<String, Float> campo : CAMPOS.entrySet()) {
+                Term term = new Term(campo.getKey(), termino);
+                float peso = campo.getValue();
+                alternativas.add(new BoostQuery(new TermQuery(term), peso * PESO_EXACTO), BooleanClause.Occur.SHOULD);
+                if (termino.length() >= MIN_PREFIJO) {
+                    alternativas.add(new BoostQuery(new PrefixQuery(term), peso * PESO_PREFIJO),
+                            BooleanClause.Occur.SHOULD);
+                }
+                int ediciones = termino.length() <= 2 ? 0 : termino.length() <= 5 ? 1 : 2;
+                if (ediciones > 0) {
+                    // La primera letra debe coincidir: acota los términos que recorre el autómata
+                    alternativas.add(new BoostQuery(new FuzzyQuery(term, ediciones, 1), peso),
+                            BooleanClause.Occur.SHOULD);
+                }
+            }
+            todos.add(alternativas.build(), BooleanClause.Occur.MUST);
+        }
+        return todos.build();
+    }
+
+    /**
+     * Términos de la consulta con el mismo analizador del índice, sin repetir
+     */
+    List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null) {
+            return terminos;
+        }
+        try (TokenStream stream = analizador.tokenStream(PACIENTE, texto)) {
+            CharTermAttribute termino = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terminos.size() < MAX_TERMINOS) {
+                String valor = termino.toString();
+                if (!terminos.contains(valor)) {
+                    terminos.add(valor);
+                }
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terminos;
+    }
+
+    private static Map<String, Float> campos() {
+        Map<String, Float> campos = new LinkedHashMap<>();
+        campos.put(PACIENTE, 2f);
+        campos.put(OBSERVACIONES, 1f);
+        campos.put(VALOR_TEXTO, 1f);
+        return campos;
+    }
+
+    /**
+     * StandardTokenizer + minúsculas + sin tildes, para indexar y para consultar
+     */
+    static Analyzer analizador() {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String campo) {
+                Tokenizer tokenizer = new StandardTokenizer();
+                TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+                return new TokenStreamComponents(tokenizer, stream);
+            }
+
+            @Override
+            protected TokenStream normalize(String campo, TokenStream entrada) {
+                return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+            }
+        };
+    }
+}
@@ -2,21 +2,39 @@ package com.sumativa.ms_results.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Componente para la generación y validación de tokens JWT
+ *
+ * La clave HMAC y el parser se construyen una sola vez. Los tokens verificados
+ * se guardan en un caché acotado por tamaño y por la expiración de cada token,
+ * de modo que repetir el mismo bearer token cuesta una búsqueda en un mapa
+ * en lugar de un parseo y una verificación HS512.
+ *
+ * Expone la métrica jwt.verification (result=valid|invalid) con el tiempo de
+ * parseo y verificación de los tokens que no estaban en el caché.
  */
 @Component
 @Slf4j
-public class JwtTokenProvider {
+public class JwtTokenProvider implements MeterBinder {
 
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -24,28 +42,83 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration:86400000}") // 24 horas por defecto
     private long jwtExpirationMs;
 
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries = 10000;
+
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private Clock clock = Clock.systemUTC();
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+    private volatile Timer verificacionesValidas;
+    private volatile Timer verificacionesInvalidas;
+
     /**
-     * Valida si un token JWT es válido
+     * Datos de un token cuya firma ya fue verificada
+     */
+    public record VerifiedToken(String email, List<String> roles, Instant expiresAt) {
+    }
+
+    /**
+     * Construye la clave y el parser al iniciar la aplicación
+     */
+    @PostConstruct
+    void init() {
+        parser();
+    }
+
+    /**
+     * Verifica el token una sola vez y devuelve su email y roles.
+     * Si el token ya fue verificado y no expiró, se responde desde el caché.
      *
      * @param token Token JWT
-     * @return true si es válido, false en caso contrario
+     * @return Datos del token, o vacío si es inválido o expiró
      */
-    public boolean validateToken(String token) {
+    public Optional<VerifiedToken> verifyToken(String token) {
+        if (token != null) {
+            VerifiedToken cached = verifiedTokens.get(token);
+            if (cached != null) {
+                if (cached.expiresAt().isAfter(clock.instant())) {
+                    return Optional.of(cached);
+                }
+                verifiedTokens.remove(token);
+                log.debug("Token JWT expirado: {}", cached.expiresAt());
+                return Optional.empty();
+            }
+        }
+
+        long inicio = System.nanoTime();
         try {
-            getClaimsFromToken(token);
-            return true;
+            Claims claims = getClaimsFromToken(token);
+            VerifiedToken verified = new VerifiedToken(claims.getSubject(), getRoles(claims),
+                    claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+            registrarVerificacion(verificacionesValidas, inicio);
+            if (verified.expiresAt() != null) {
+                cache(token, verified);
+            }
+            return Optional.of(verified);
         } catch (MalformedJwtException e) {
-            log.error("Token JWT inválido: {}", e.getMessage());
+            log.warn("Token JWT inválido: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            log.error("Token JWT expirado: {}", e.getMessage());
+            log.debug("Token JWT expirado: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            log.error("Token JWT no soportado: {}", e.getMessage());
+            log.warn("Token JWT no soportado: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
-            log.error("Claims string vacío: {}", e.getMessage());
+            log.warn("Claims string vacío: {}", e.getMessage());
         } catch (SecurityException e) {
-            log.error("Error de seguridad JWT: {}", e.getMessage());
+            log.warn("Error de seguridad JWT: {}", e.getMessage());
         }
-        return false;
+        registrarVerificacion(verificacionesInvalidas, inicio);
+        return Optional.empty();
+    }
+
+    /**
+     * Valida si un token JWT es válido
+     *
+     * @param token Token JWT
+     * @return true si es válido, false en caso contrario
+     */
+    public boolean validateToken(String token) {
+        return verifyToken(token).isPresent();
     }
 
     /**
@@ -65,10 +138,15 @@ public class JwtTokenProvider {
      * @param token Token JWT
      * @return Lista de roles
      */
-    @SuppressWarnings("unchecked")
     public List<String> getRolesFromToken(String token) {
         Claims claims = getClaimsFromToken(token);
-        return (List<String>) claims.get("roles");
+        return getRoles(claims);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        verificacionesValidas = timerVerificacion(registry, "valid");
+        verificacionesInvalidas = timerVerificacion(registry, "invalid");
     }
 
     /**
@@ -78,12 +156,61 @@ public class JwtTokenProvider {
      * @return Claims del token
      */
     private Claims getClaimsFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
+        return parser()
                 .parseSignedClaims(token)
                 .getPayload();
     }
+
+    @SuppressWarnings("unchecked")
+    private List<String> getRoles(Claims claims) {
+        return (List<String>) claims.get("roles");
+    }
+
+    private static Timer timerVerificacion(MeterRegistry registry, String resultado) {
+        return Timer.builder("jwt.verification")
+                .tag("result", resultado)
+                .description("Parseo y verificación de la firma de tokens JWT que no estaban en caché")
+                .register(registry);
+    }
+
+    private static void registrarVerificacion(Timer timer, long inicio) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Guarda un token verificado. Si el caché está lleno se descartan primero
+     * los expirados y, si aún no hay espacio, se vacía completo.
+     */
+    private void cache(String token, VerifiedToken verified) {
+        if (verifiedTokens.size() >= cacheMaxEntries) {
+            Instant now = clock.instant();
+            verifiedTokens.values().removeIf(cached -> !cached.expiresAt().isAfter(now));
+            if (verifiedTokens.size() >= cacheMaxEntries) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(token, verified);
+    }
+
+    private SecretKey signingKey() {
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser()
+                    .verifyWith(signingKey())
+                    .build();
+            parser = current;
+        }
+        return current;
+    }
 }
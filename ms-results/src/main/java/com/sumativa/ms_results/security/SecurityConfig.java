@@ -1,6 +1,7 @@
 package com.sumativa.ms_results.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -10,6 +11,9 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 /**
  * Configuración de seguridad con JWT
@@ -23,7 +27,9 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(
+            HttpSecurity http,
+            @Value("${management.server.port:-1}") int puertoAdministracion) throws Exception {
         http
                 // Deshabilitar CORS y CSRF (CORS manejado por Gateway)
                 .cors(AbstractHttpConfigurer::disable)
@@ -33,7 +39,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Endpoints públicos (no requieren autenticación)
                         .requestMatchers("/h2-console/**").permitAll()
-                        .requestMatchers("/actuator/health").permitAll()
+                        // Healthcheck y scrape de Prometheus sin JWT, sólo en el puerto de administración
+                        .requestMatchers(actuatorInterno(puertoAdministracion)).permitAll()
 
                         // Todos los demás endpoints requieren autenticación
                         .anyRequest().authenticated()
@@ -54,4 +61,16 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    /**
+     * /actuator/health y /actuator/prometheus recibidos en el puerto de
+     * administración (management.server.port). Ese puerto no se publica fuera
+     * de la red interna; en el puerto de la API actuator no existe.
+     */
+    static RequestMatcher actuatorInterno(int puertoAdministracion) {
+        RequestMatcher rutas = new OrRequestMatcher(
+                AntPathRequestMatcher.antMatcher("/actuator/health"),
+                AntPathRequestMatcher.antMatcher("/actuator/prometheus"));
+        return request -> request.getLocalPort() == puertoAdministracion && rutas.matches(request);
+    }
 }
@@ -0,0 +1,314 @@
+package com.sumativa.ms_results.service;
+
+import com.sumativa.ms_results.dto.ResultadoBusquedaDto;
+import com.sumativa.ms_results.dto.ResultadoFila;
+import com.sumativa.ms_results.dto.ResultadoResponseDto;
+import com.sumativa.ms_results.mapper.ResultadoMapper;
+import com.sumativa.ms_results.repository.ResultadoRepository;
+import com.sumativa.ms_results.search.ResultadoIndice;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Búsqueda de texto completo de resultados y mantenimiento de su índice.
+ *
+ * El índice se actualiza de forma incremental: los métodos de escritura de
+ * ResultadoService y ResultadoIngestaService informan los IDs modificados y,
+ * al confirmarse la transacción, una tarea relee esas filas de la base y las
+ * reemplaza en el índice (las que ya no existen se borran). Un rollback no
+ * toca el índice y la escritura no espera a Lucene.
+ *
+ * Las tareas corren en orden en un único hilo, el único que escribe en el
+ * índice. Una reconstrucción lee la tabla completa en una transacción de
+ * lectura; los cambios confirmados mientras tanto quedan encolados detrás de
+ * ella y se aplican al terminar.
+ *
+ * Si una actualización falla o se pierde (la instancia se detuvo con tareas
+ * encoladas), el índice queda desfasado hasta la siguiente reconciliación: al
+ * iniciar y cada cierto tiempo se comparan la cantidad de resultados y el
+ * actualizado_en más reciente de la tabla con los del índice, y si no
+ * coinciden se reconstruye. Un cambio perdido que no altera ninguno de los
+ * dos (una fila modificada antes que otra ya indexada) sigue desfasado hasta
+ * que esa fila vuelva a cambiar.
+ *
+ * Sólo se admite una instancia de ms-results: los cambios hechos por otra
+ * instancia no llegan a este índice hasta la reconciliación. Expone las
+ * métricas busqueda.indice.documentos y busqueda.indice.errores.
+ */
+@Slf4j
+public class ResultadoBusquedaService implements MeterBinder, DisposableBean {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // IDs por consulta al releer las filas modificadas
+    static final int LOTE_RELECTURA = 500;
+
+    private final ResultadoIndice indice;
+    private final ResultadoRepository resultadoRepository;
+    private final ResultadoMapper resultadoMapper;
+    private final TransactionTemplate lectura;
+    private final ExecutorService executor;
+    private final AtomicBoolean reconstruccionPendiente = new AtomicBoolean();
+    private final LongAdder errores = new LongAdder();
+
+    public ResultadoBusquedaService(ResultadoIndice indice, ResultadoRepository resultadoRepository,
+                                    ResultadoMapper resultadoMapper, PlatformTransactionManager transactionManager,
+                                    ExecutorService executor) {
+        this.indice = indice;
+        this.resultadoRepository = resultadoRepository;
+        this.resultadoMapper = resultadoMapper;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.executor = executor;
+    }
+
+    /**
+     * Busca resultados por paciente, observaciones y valorTexto, ordenados por relevancia.
+     *
+     * @param texto palabras a buscar; sin distinguir mayúsculas ni tildes, como
+     *              prefijo y con tolerancia a errores de tipeo
+     * @param page  página base 0
+     * @param size  tamaño de página, acotado a [1, MAX_PAGE_SIZE]
+     */
+    public ResultadoBusquedaDto buscar(String texto, int page, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        log.debug("Buscando resultados: texto={}, page={}, size={}", texto, page, limit);
+
+        ResultadoIndice.Pagina pagina = indice.buscar(texto, page, limit);
+        List<ResultadoResponseDto> items = cargarEnOrden(pagina.ids());
+        long alcanzables = Math.min(pagina.total(), ResultadoIndice.MAX_VENTANA);
+
+        return ResultadoBusquedaDto.builder()
+                .items(items)
+                .total(pagina.total())
+                .page(page)
+                .size(items.size())
+                .hasNext((long) (page + 1) * limit < alcanzables)
+                .build();
+    }
+
+    /**
+     * Programa la actualización del índice para los resultados indicados. Con
+     * una transacción activa se aplica después del commit; sin ella, de inmediato.
+     */
+    public void registrarCambios(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> copia = List.copyOf(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    programar(copia);
+                }
+            });
+        } else {
+            programar(copia);
+        }
+    }
+
+    public void registrarCambio(Long id) {
+        registrarCambios(List.of(id));
+    }
+
+    /**
+     * Programa la reconstrucción completa del índice desde la base de datos.
+     *
+     * @return false si ya había una reconstrucción pendiente
+     */
+    public boolean reconstruir() {
+        if (!reconstruccionPendiente.compareAndSet(false, true)) {
+            log.debug("Reconstrucción del índice de búsqueda ya pendiente");
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    reconstruirAhora();
+                } finally {
+                    reconstruccionPendiente.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reconstruccionPendiente.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Al iniciar: reconstruye si el índice está vacío (primer arranque, índice
+     * en memoria o borrado) o si se pide siempre; si no, lo reconcilia con la base
+     */
+    public void reconstruirAlIniciar(boolean siempre) {
+        if (siempre || indice.documentos() == 0) {
+            reconstruir();
+        } else {
+            reconciliar();
+        }
+    }
+
+    /**
+     * Programa la comparación del índice con la tabla; si no coinciden, se
+     * reconstruye. Corre cada resultados-busqueda.reconciliar-cada.
+     */
+    @Scheduled(fixedDelayString = "${resultados-busqueda.reconciliar-cada:PT15M}",
+            initialDelayString = "${resultados-busqueda.reconciliar-cada:PT15M}")
+    public void reconciliar() {
+        programarReconciliacion(false);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("busqueda.indice.documentos", indice, ResultadoIndice::documentos)
+                .description("Resultados en el índice de búsqueda de texto completo")
+                .register(registry);
+        FunctionCounter.builder("busqueda.indice.errores", errores, LongAdder::doubleValue)
+                .description("Actualizaciones o reconstrucciones del índice de búsqueda que fallaron")
+                .register(registry);
+    }
+
+    /**
+     * Termina las actualizaciones encoladas antes de que se cierre el índice
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("El índice de búsqueda se cierra con actualizaciones pendientes; reconstruir si queda desfasado");
+            executor.shutdownNow();
+        }
+    }
+
+    long getErrores() {
+        return errores.sum();
+    }
+
+    private void programar(List<Long> ids) {
+        try {
+            executor.execute(() -> sincronizar(ids));
+        } catch (RejectedExecutionException e) {
+            errores.increment();
+            log.warn("Actualización del índice de búsqueda descartada para {} resultados", ids.size());
+        }
+    }
+
+    private void programarReconciliacion(boolean confirmacion) {
+        try {
+            executor.execute(() -> reconciliarAhora(confirmacion));
+        } catch (RejectedExecutionException e) {
+            log.warn("Reconciliación del índice de búsqueda descartada");
+        }
+    }
+
+    /**
+     * Corre en el hilo del índice, detrás de las actualizaciones ya encoladas.
+     * Una diferencia se confirma con una segunda comparación encolada detrás
+     * de las actualizaciones confirmadas mientras tanto, que aún no se veían
+     * en el índice, antes de reconstruir.
+     */
+    void reconciliarAhora(boolean confirmacion) {
+        try {
+            ResultadoRepository.Resumen tabla = lectura.execute(status -> resultadoRepository.resumen());
+            LocalDateTime ultimaIndexada = indice.ultimaActualizacion();
+            boolean alDia = tabla.getCantidad() == indice.documentos()
+                    && (tabla.getUltimaActualizacion() == null
+                    || (ultimaIndexada != null && !tabla.getUltimaActualizacion().isAfter(ultimaIndexada)));
+            if (alDia) {
+                log.debug("Índice de búsqueda al día: {} resultados", tabla.getCantidad());
+                return;
+            }
+            if (!confirmacion) {
+                programarReconciliacion(true);
+                return;
+            }
+            log.warn("Índice de búsqueda desfasado ({} resultados en la base, {} indexados; última modificación {} "
+                            + "en la base, {} indexada): se reconstruye", tabla.getCantidad(), indice.documentos(),
+                    tabla.getUltimaActualizacion(), ultimaIndexada);
+            reconstruir();
+        } catch (RuntimeException e) {
+            errores.increment();
+            log.error("No se pudo comparar el índice de búsqueda con la base", e);
+        }
+    }
+
+    void sincronizar(List<Long> ids) {
+        try {
+            for (int desde = 0; desde < ids.size(); desde += LOTE_RELECTURA) {
+                List<Long> lote = ids.subList(desde, Math.min(desde + LOTE_RELECTURA, ids.size()));
+                List<ResultadoFila> filas = resultadoRepository.findFilasByIdIn(lote);
+                Set<Long> eliminados = new HashSet<>(lote);
+                filas.forEach(fila -> eliminados.remove(fila.getId()));
+                indice.actualizar(filas, eliminados);
+            }
+            log.debug("Índice de búsqueda actualizado: {} resultados", ids.size());
+        } catch (RuntimeException e) {
+            errores.increment();
+            log.error("No se pudo actualizar el índice de búsqueda para {} resultados", ids.size(), e);
+        }
+    }
+
+    void reconstruirAhora() {
+        long inicio = System.nanoTime();
+        try {
+            lectura.executeWithoutResult(status -> indice.reconstruir(agregar -> {
+                try (Stream<ResultadoFila> filas = resultadoRepository.streamByFiltro(null, null)) {
+                    filas.forEach(agregar);
+                }
+            }));
+            log.info("Índice de búsqueda reconstruido: {} resultados en {} ms", indice.documentos(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        } catch (RuntimeException e) {
+            errores.increment();
+            log.error("No se pudo reconstruir el índice de búsqueda", e);
+        }
+    }
+
+    /**
+     * Carga las filas en una sola consulta y las devuelve en el orden del índice.
+     * Un ID borrado que el índice aún no reflejó se omite.
+     */
+    private List<ResultadoResponseDto> cargarEnOrden(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ResultadoFila> porId = resultadoRepository.findFilasByIdIn(ids).stream()
+                .collect(Collectors.toMap(ResultadoFila::getId, Function.identity()));
+        Function<ResultadoFila, ResultadoResponseDto> converter = resultadoMapper.filaConverter();
+        List<ResultadoResponseDto> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ResultadoFila fila = porId.get(id);
+            if (fila != null) {
+                items.add(converter.apply(fila));
+            }
+        }
+        return items;
+    }
+}
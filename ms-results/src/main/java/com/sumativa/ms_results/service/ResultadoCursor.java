@@ -0,0 +1,74 @@
+package com.sumativa.ms_results.service;
+
+import com.sumativa.ms_results.dto.ResultadoFila;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Codifica y decodifica el cursor opaco de la paginación keyset de Resultados.
+ * El cursor contiene la clave (fechaRealizacion, id) del último elemento
+ * entregado, en Base64 URL-safe.
+ */
+public final class ResultadoCursor {
+
+    private static final String SEPARADOR = "_";
+
+    private ResultadoCursor() {
+        // Clase utilitaria
+    }
+
+    /**
+     * Genera el cursor que apunta después de la fila indicada.
+     */
+    public static String encode(ResultadoFila fila) {
+        String raw = fila.getFechaRealizacion() + SEPARADOR + fila.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cursor de la siguiente página, o null si la ventana es la última.
+     */
+    public static String next(Window<ResultadoFila> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        return encode(window.getContent().get(window.size() - 1));
+    }
+
+    /**
+     * Convierte el cursor recibido en una posición keyset.
+     * Un cursor vacío corresponde a la primera página.
+     *
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static KeysetScrollPosition decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARADOR);
+            if (idx <= 0) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("fechaRealizacion", LocalDateTime.parse(raw.substring(0, idx)));
+            keys.put("id", Long.valueOf(raw.substring(idx + 1)));
+            return ScrollPosition.forward(keys);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException y errores de Base64 son IllegalArgumentException
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.sumativa.ms_results.service;
+
+import com.sumativa.ms_results.dto.ResultadoCreateDto;
+import com.sumativa.ms_results.dto.ResultadoIngestaDto;
+import com.sumativa.ms_results.dto.ResultadoIngestaItemDto;
+import com.sumativa.ms_results.entity.Resultado;
+import com.sumativa.ms_results.entity.TipoAnalisis;
+import com.sumativa.ms_results.mapper.ResultadoMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ingesta masiva de resultados enviados por los analizadores.
+ *
+ * Todas las filas se validan contra un único conjunto de TipoAnalisis obtenido
+ * en una sola consulta. Las filas válidas se insertan en lotes JDBC
+ * (hibernate.jdbc.batch_size) y el contexto de persistencia se vacía por bloque
+ * para no acumular entidades en memoria. Las filas inválidas se informan sin
+ * abortar el resto del lote.
+ */
+@Service
+@Observed
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ResultadoIngestaService {
+
+    public static final int MAX_FILAS = 5000;
+    static final int FLUSH_CADA = 50;
+
+    private final TipoAnalisisService tipoAnalisisService;
+    private final ResultadoMapper resultadoMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final ResultadoBusquedaService resultadoBusquedaService;
+
+    @Transactional
+    public ResultadoIngestaDto ingestar(List<ResultadoCreateDto> filas) {
+        if (filas == null || filas.isEmpty()) {
+            throw new IllegalArgumentException("El lote de resultados está vacío");
+        }
+        if (filas.size() > MAX_FILAS) {
+            throw new IllegalArgumentException("El lote excede el máximo de " + MAX_FILAS + " resultados");
+        }
+        log.debug("Ingestando lote de {} resultados", filas.size());
+
+        Map<Long, TipoAnalisis> tipos = tipoAnalisisService.findAllByIds(filas.stream()
+                .filter(Objects::nonNull)
+                .map(ResultadoCreateDto::getTipoAnalisisId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        List<ResultadoIngestaItemDto> items = new ArrayList<>(filas.size());
+        List<Resultado> pendientes = new ArrayList<>(FLUSH_CADA);
+        List<ResultadoIngestaItemDto> itemsPendientes = new ArrayList<>(FLUSH_CADA);
+        int creados = 0;
+
+        for (int i = 0; i < filas.size(); i++) {
+            ResultadoCreateDto fila = filas.get(i);
+            List<String> errores = validar(fila, tipos);
+            if (!errores.isEmpty()) {
+                items.add(ResultadoIngestaItemDto.builder()
+                        .indice(i)
+                        .estado(ResultadoIngestaItemDto.RECHAZADO)
+                        .errores(errores)
+                        .build());
+                continue;
+            }
+
+            Resultado resultado = resultadoMapper.toEntity(fila, tipos.get(fila.getTipoAnalisisId()));
+            entityManager.persist(resultado);
+            pendientes.add(resultado);
+
+            ResultadoIngestaItemDto item = ResultadoIngestaItemDto.builder()
+                    .indice(i)
+                    .estado(ResultadoIngestaItemDto.CREADO)
+                    .build();
+            items.add(item);
+            itemsPendientes.add(item);
+            creados++;
+
+            if (pendientes.size() == FLUSH_CADA) {
+                vaciar(pendientes, itemsPendientes);
+            }
+        }
+        vaciar(pendientes, itemsPendientes);
+        resultadoBusquedaService.registrarCambios(items.stream()
+                .map(ResultadoIngestaItemDto::getId)
+                .filter(Objects::nonNull)
+                .toList());
+
+        log.info("Lote ingestado: {} creados, {} rechazados", creados, filas.size() - creados);
+        return ResultadoIngestaDto.builder()
+                .total(filas.size())
+                .creados(creados)
+                .rechazados(filas.size() - creados)
+                .items(items)
+                .build();
+    }
+
+    /**
+     * Envía a la base de datos el bloque pendiente (un lote JDBC), registra los
+     * IDs asignados y libera las entidades del contexto de persistencia.
+     */
+    private void vaciar(List<Resultado> pendientes, List<ResultadoIngestaItemDto> itemsPendientes) {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        for (int i = 0; i < pendientes.size(); i++) {
+            itemsPendientes.get(i).setId(pendientes.get(i).getId());
+        }
+        entityManager.clear();
+        pendientes.clear();
+        itemsPendientes.clear();
+    }
+
+    private List<String> validar(ResultadoCreateDto fila, Map<Long, TipoAnalisis> tipos) {
+        if (fila == null) {
+            return List.of("La fila está vacía");
+        }
+
+        Set<ConstraintViolation<ResultadoCreateDto>> violaciones = validator.validate(fila);
+        List<String> errores = violaciones.stream()
+                .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        if (fila.getTipoAnalisisId() != null && !tipos.containsKey(fila.getTipoAnalisisId())) {
+            errores.add("tipoAnalisisId: Tipo de análisis no encontrado con ID: " + fila.getTipoAnalisisId());
+        }
+        return errores;
+    }
+}
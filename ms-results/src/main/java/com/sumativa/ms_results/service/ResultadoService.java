@@ -1,31 +1,102 @@
 package com.sumativa.ms_results.service;
 
+import com.sumativa.ms_results.dto.ResultadoFila;
+import com.sumativa.ms_results.dto.ResultadoFiltroDto;
+import com.sumativa.ms_results.dto.ResultadoUpdateDto;
 import com.sumativa.ms_results.entity.Resultado;
 import com.sumativa.ms_results.entity.TipoAnalisis;
+import com.sumativa.ms_results.exception.PreconditionFailedException;
 import com.sumativa.ms_results.repository.ResultadoRepository;
+import com.sumativa.ms_results.repository.ResultadoSpecifications;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Observed
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 @Slf4j
 public class ResultadoService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final ResultadoRepository resultadoRepository;
     private final TipoAnalisisService tipoAnalisisService;
+    private final ResultadoBusquedaService resultadoBusquedaService;
 
     public List<Resultado> findAll() {
-        log.info("Buscando todos los resultados");
+        log.debug("Buscando todos los resultados");
         return resultadoRepository.findAll();
     }
 
+    /**
+     * Obtiene una página de resultados usando paginación keyset sobre
+     * (fechaRealizacion, id). El costo de cada página es independiente de
+     * su posición, ya que no se usa OFFSET. Devuelve el modelo de lectura,
+     * como GET /api/resultados: sin entidades administradas ni join con tipos_analisis.
+     *
+     * @param filtro filtros opcionales
+     * @param cursor cursor opaco de la página anterior (null para la primera)
+     * @param size   tamaño de página, acotado a [1, MAX_PAGE_SIZE]
+     */
+    public Window<ResultadoFila> findPage(ResultadoFiltroDto filtro, String cursor, int size) {
+        validarRangoFechas(filtro);
+
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        KeysetScrollPosition position = ResultadoCursor.decode(cursor);
+        log.debug("Buscando página de resultados: filtro={}, size={}", filtro, limit);
+
+        return resultadoRepository.scrollFilas(ResultadoSpecifications.conFiltro(filtro), position, limit);
+    }
+
+    /**
+     * Lista todos los resultados como modelo de lectura (sin entidades administradas).
+     */
+    public List<ResultadoFila> findAllFilas() {
+        log.debug("Buscando todos los resultados (modelo de lectura)");
+        return resultadoRepository.findAllFilas();
+    }
+
+    /**
+     * Recorre todos los resultados que cumplen el filtro sin materializarlos en
+     * una lista. Cada fila es una proyección (no una entidad administrada), por
+     * lo que el contexto de persistencia no crece y la memoria usada no depende
+     * del tamaño de la tabla.
+     *
+     * @return cantidad de resultados procesados
+     */
+    public long exportar(Long laboratorioId, String estado, Consumer<ResultadoFila> consumidor) {
+        String estadoFiltro = StringUtils.hasText(estado) ? estado : null;
+        log.debug("Exportando resultados: laboratorioId={}, estado={}", laboratorioId, estadoFiltro);
+
+        long total = 0;
+        try (Stream<ResultadoFila> stream = resultadoRepository.streamByFiltro(laboratorioId, estadoFiltro)) {
+            Iterator<ResultadoFila> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                consumidor.accept(iterator.next());
+                total++;
+            }
+        }
+
+        log.info("Exportación finalizada: {} resultados", total);
+        return total;
+    }
+
     public Resultado findById(Long id) {
-        log.info("Buscando resultado con ID: {}", id);
+        log.debug("Buscando resultado con ID: {}", id);
         return resultadoRepository.findById(id)
                 .orElseThrow(() -> {
                     log.warn("Resultado con ID {} no encontrado", id);
@@ -35,7 +106,7 @@ public class ResultadoService {
 
     @Transactional
     public Resultado create(Resultado resultado) {
-        log.info("Creando nuevo resultado para paciente: {}", resultado.getPaciente());
+        log.debug("Creando nuevo resultado para paciente: {}", resultado.getPaciente());
 
         // Validar que el tipo de análisis existe
         if (resultado.getTipoAnalisis() != null && resultado.getTipoAnalisis().getId() != null) {
@@ -47,15 +118,33 @@ public class ResultadoService {
         }
 
         Resultado saved = resultadoRepository.save(resultado);
-        log.info("Resultado creado exitosamente con ID: {}", saved.getId());
+        resultadoBusquedaService.registrarCambio(saved.getId());
+        log.debug("Resultado creado exitosamente con ID: {}", saved.getId());
         return saved;
     }
 
     @Transactional
     public Resultado update(Long id, Resultado resultado) {
-        log.info("Actualizando resultado con ID: {}", id);
+        return update(id, resultado, null);
+    }
+
+    /**
+     * Actualiza un resultado con bloqueo optimista.
+     *
+     * @param versionEsperada versión enviada por el cliente (If-Match); null no la verifica
+     * @throws PreconditionFailedException si la versión actual es otra
+     * @throws ObjectOptimisticLockingFailureException si otra operación lo modificó
+     *         después de que se leyó {@code resultado}
+     */
+    @Transactional
+    public Resultado update(Long id, Resultado resultado, Long versionEsperada) {
+        log.debug("Actualizando resultado con ID: {}", id);
 
         Resultado existing = findById(id);
+        verificarVersion(existing, versionEsperada);
+        if (resultado.getVersion() != null && !resultado.getVersion().equals(existing.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Resultado.class, id);
+        }
 
         // Validar que el tipo de análisis existe si se está actualizando
         if (resultado.getTipoAnalisis() != null && resultado.getTipoAnalisis().getId() != null) {
@@ -72,17 +161,95 @@ public class ResultadoService {
         existing.setObservaciones(resultado.getObservaciones());
 
         Resultado updated = resultadoRepository.save(existing);
-        log.info("Resultado actualizado exitosamente con ID: {}", updated.getId());
+        resultadoBusquedaService.registrarCambio(id);
+        log.debug("Resultado actualizado exitosamente con ID: {}", updated.getId());
         return updated;
     }
 
+    /**
+     * Actualización parcial con un único UPDATE: sólo cambian los campos no nulos
+     * de {@code cambios} y no se carga la entidad.
+     *
+     * @param versionEsperada versión enviada por el cliente (If-Match); null no la verifica
+     * @return la nueva versión del resultado
+     */
+    @Transactional
+    public Long patch(Long id, ResultadoUpdateDto cambios, Long versionEsperada) {
+        log.debug("Actualización parcial del resultado con ID: {}", id);
+
+        if (sinCambios(cambios)) {
+            throw new IllegalArgumentException("Debe indicar al menos un campo a actualizar");
+        }
+        if (cambios.getTipoAnalisisId() != null) {
+            tipoAnalisisService.findById(cambios.getTipoAnalisisId());
+        }
+
+        if (resultadoRepository.actualizarParcial(id, cambios, versionEsperada) == 0) {
+            // No se actualizó: distinguir entre inexistente y versión desactualizada
+            Long actual = resultadoRepository.findVersionById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Resultado no encontrado con ID: " + id));
+            throw versionDesactualizada(id, actual, versionEsperada);
+        }
+
+        resultadoBusquedaService.registrarCambio(id);
+        log.debug("Resultado {} actualizado parcialmente", id);
+        if (versionEsperada != null) {
+            // El UPDATE sólo afectó la fila si tenía esa versión, y la incrementó en 1
+            return versionEsperada + 1;
+        }
+        // Sin If-Match otra escritura pudo preceder a ésta: se lee dentro de la
+        // misma transacción, que mantiene el bloqueo de fila del UPDATE
+        return resultadoRepository.findVersionById(id)
+                .orElseThrow(() -> new IllegalStateException("Resultado " + id + " actualizado pero no encontrado"));
+    }
+
     @Transactional
     public void delete(Long id) {
-        log.info("Eliminando resultado con ID: {}", id);
+        delete(id, null);
+    }
+
+    /**
+     * Elimina un resultado verificando la versión enviada por el cliente (If-Match).
+     */
+    @Transactional
+    public void delete(Long id, Long versionEsperada) {
+        log.debug("Eliminando resultado con ID: {}", id);
 
         Resultado resultado = findById(id);
+        verificarVersion(resultado, versionEsperada);
         resultadoRepository.delete(resultado);
+        resultadoBusquedaService.registrarCambio(id);
+
+        log.debug("Resultado eliminado exitosamente con ID: {}", id);
+    }
 
-        log.info("Resultado eliminado exitosamente con ID: {}", id);
+    private void verificarVersion(Resultado resultado, Long versionEsperada) {
+        if (versionEsperada != null && !versionEsperada.equals(resultado.getVersion())) {
+            throw versionDesactualizada(resultado.getId(), resultado.getVersion(), versionEsperada);
+        }
+    }
+
+    private PreconditionFailedException versionDesactualizada(Long id, Long actual, Long esperada) {
+        log.warn("Versión desactualizada para resultado {}: esperada={}, actual={}", id, esperada, actual);
+        return new PreconditionFailedException("El resultado " + id + " está en la versión " + actual
+                + " y no en la versión " + esperada);
+    }
+
+    private static boolean sinCambios(ResultadoUpdateDto cambios) {
+        return cambios.getPaciente() == null
+                && cambios.getFechaRealizacion() == null
+                && cambios.getTipoAnalisisId() == null
+                && cambios.getLaboratorioId() == null
+                && cambios.getValorNumerico() == null
+                && cambios.getValorTexto() == null
+                && cambios.getEstado() == null
+                && cambios.getObservaciones() == null;
+    }
+
+    private void validarRangoFechas(ResultadoFiltroDto filtro) {
+        if (filtro != null && filtro.getDesde() != null && filtro.getHasta() != null
+                && filtro.getDesde().isAfter(filtro.getHasta())) {
+            throw new IllegalArgumentException("El rango de fechas es inválido: 'desde' es posterior a 'hasta'");
+        }
     }
 }
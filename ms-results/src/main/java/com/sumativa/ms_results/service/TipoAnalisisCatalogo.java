@@ -0,0 +1,195 @@
+package com.sumativa.ms_results.service;
+
+import com.sumativa.ms_results.entity.TipoAnalisis;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria del catálogo de tipos de análisis (read-through).
+ *
+ * El estado es un snapshot inmutable indexado por ID y por nombre en minúsculas
+ * que se reemplaza completo en cada cambio (copy-on-write), por lo que las
+ * lecturas no requieren bloqueo. Las entradas se cargan desde la base de datos
+ * en el primer acceso y se descartan con {@link #invalidar()} desde los métodos
+ * de escritura de {@link TipoAnalisisService}.
+ *
+ * Las instancias cacheadas nunca se exponen: cada lectura devuelve una copia,
+ * así quien la modifique no altera el catálogo compartido.
+ *
+ * Expone las métricas cache.gets (result=hit|miss) y cache.size con el tag
+ * cache=tiposAnalisis.
+ */
+@Slf4j
+@Component
+public class TipoAnalisisCatalogo implements MeterBinder {
+
+    static final String NOMBRE_CACHE = "tiposAnalisis";
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.vacio(0));
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public Optional<TipoAnalisis> porId(Long id, Function<Long, Optional<TipoAnalisis>> cargador) {
+        Snapshot actual = snapshot.get();
+        TipoAnalisis cacheado = actual.porId.get(id);
+        if (cacheado != null) {
+            hits.increment();
+            return Optional.of(copiar(cacheado));
+        }
+        if (actual.completo) {
+            // El catálogo completo está cargado: el ID no existe
+            hits.increment();
+            return Optional.empty();
+        }
+
+        misses.increment();
+        Optional<TipoAnalisis> cargado = cargador.apply(id);
+        cargado.ifPresent(tipo -> publicar(actual.generacion, s -> s.con(tipo)));
+        return cargado.map(TipoAnalisisCatalogo::copiar);
+    }
+
+    public Optional<TipoAnalisis> porNombre(String nombre, Function<String, Optional<TipoAnalisis>> cargador) {
+        Snapshot actual = snapshot.get();
+        TipoAnalisis cacheado = actual.porNombre.get(clave(nombre));
+        if (cacheado != null) {
+            hits.increment();
+            return Optional.of(copiar(cacheado));
+        }
+        if (actual.completo) {
+            hits.increment();
+            return Optional.empty();
+        }
+
+        misses.increment();
+        Optional<TipoAnalisis> cargado = cargador.apply(nombre);
+        cargado.ifPresent(tipo -> publicar(actual.generacion, s -> s.con(tipo)));
+        return cargado.map(TipoAnalisisCatalogo::copiar);
+    }
+
+    public List<TipoAnalisis> todos(Supplier<List<TipoAnalisis>> cargador) {
+        Snapshot actual = snapshot.get();
+        if (actual.completo) {
+            hits.increment();
+            return actual.todos.stream().map(TipoAnalisisCatalogo::copiar).toList();
+        }
+
+        misses.increment();
+        List<TipoAnalisis> cargados = cargador.get();
+        publicar(actual.generacion, s -> Snapshot.completo(s.generacion, cargados));
+        return cargados.stream().map(TipoAnalisisCatalogo::copiar).toList();
+    }
+
+    /**
+     * Descarta el contenido del catálogo. Si hay una transacción activa también
+     * se descarta al terminar ésta, para que una lectura concurrente hecha antes
+     * del commit no deje datos anteriores en caché.
+     */
+    public void invalidar() {
+        descartar();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    descartar();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::doubleValue)
+                .tags("cache", NOMBRE_CACHE, "result", "hit")
+                .description("Lecturas del catálogo resueltas desde memoria")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::doubleValue)
+                .tags("cache", NOMBRE_CACHE, "result", "miss")
+                .description("Lecturas del catálogo que consultaron la base de datos")
+                .register(registry);
+        Gauge.builder("cache.size", snapshot, s -> s.get().porId.size())
+                .tag("cache", NOMBRE_CACHE)
+                .register(registry);
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    private void descartar() {
+        snapshot.updateAndGet(s -> Snapshot.vacio(s.generacion + 1));
+        log.debug("Catálogo de tipos de análisis invalidado");
+    }
+
+    /**
+     * Publica un nuevo snapshot sólo si no hubo una invalidación desde que se
+     * leyó el snapshot de partida; si la hubo, el dato cargado puede estar obsoleto.
+     */
+    private void publicar(long generacion, Function<Snapshot, Snapshot> cambio) {
+        snapshot.updateAndGet(s -> s.generacion == generacion ? cambio.apply(s) : s);
+    }
+
+    private static String clave(String nombre) {
+        return nombre == null ? "" : nombre.toLowerCase(Locale.ROOT);
+    }
+
+    private static TipoAnalisis copiar(TipoAnalisis tipo) {
+        TipoAnalisis copia = new TipoAnalisis();
+        copia.setId(tipo.getId());
+        copia.setNombre(tipo.getNombre());
+        copia.setCategoria(tipo.getCategoria());
+        copia.setUnidadMedida(tipo.getUnidadMedida());
+        copia.setValorReferenciaMin(tipo.getValorReferenciaMin());
+        copia.setValorReferenciaMax(tipo.getValorReferenciaMax());
+        copia.setActivo(tipo.getActivo());
+        copia.setVersion(tipo.getVersion());
+        return copia;
+    }
+
+    private record Snapshot(long generacion, boolean completo, List<TipoAnalisis> todos,
+                            Map<Long, TipoAnalisis> porId, Map<String, TipoAnalisis> porNombre) {
+
+        static Snapshot vacio(long generacion) {
+            return new Snapshot(generacion, false, List.of(), Map.of(), Map.of());
+        }
+
+        static Snapshot completo(long generacion, List<TipoAnalisis> tipos) {
+            List<TipoAnalisis> copias = tipos.stream().map(TipoAnalisisCatalogo::copiar).toList();
+            Map<Long, TipoAnalisis> porId = new HashMap<>();
+            Map<String, TipoAnalisis> porNombre = new HashMap<>();
+            for (TipoAnalisis tipo : copias) {
+                porId.put(tipo.getId(), tipo);
+                porNombre.put(clave(tipo.getNombre()), tipo);
+            }
+            return new Snapshot(generacion, true, copias, Map.copyOf(porId), Map.copyOf(porNombre));
+        }
+
+        Snapshot con(TipoAnalisis tipo) {
+            TipoAnalisis copia = copiar(tipo);
+            Map<Long, TipoAnalisis> nuevoPorId = new HashMap<>(porId);
+            Map<String, TipoAnalisis> nuevoPorNombre = new HashMap<>(porNombre);
+            nuevoPorId.put(copia.getId(), copia);
+            nuevoPorNombre.put(clave(copia.getNombre()), copia);
+            return new Snapshot(generacion, completo, todos, Map.copyOf(nuevoPorId), Map.copyOf(nuevoPorNombre));
+        }
+    }
+}
@@ -2,59 +2,98 @@ package com.sumativa.ms_results.service;
 
 import com.sumativa.ms_results.entity.TipoAnalisis;
 import com.sumativa.ms_results.repository.TipoAnalisisRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Observed
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 @Slf4j
 public class TipoAnalisisService {
 
     private final TipoAnalisisRepository tipoAnalisisRepository;
+    private final TipoAnalisisCatalogo catalogo;
 
     public List<TipoAnalisis> findAll() {
-        log.info("Buscando todos los tipos de análisis");
-        return tipoAnalisisRepository.findAll();
+        log.debug("Buscando todos los tipos de análisis");
+        return catalogo.todos(tipoAnalisisRepository::findAll);
+    }
+
+    public List<TipoAnalisis> findActivos() {
+        log.debug("Buscando tipos de análisis activos");
+        return findAll().stream()
+                .filter(tipo -> Boolean.TRUE.equals(tipo.getActivo()))
+                .collect(Collectors.toList());
     }
 
     public TipoAnalisis findById(Long id) {
-        log.info("Buscando tipo de análisis con ID: {}", id);
-        return tipoAnalisisRepository.findById(id)
+        log.debug("Buscando tipo de análisis con ID: {}", id);
+        return catalogo.porId(id, tipoAnalisisRepository::findById)
                 .orElseThrow(() -> {
                     log.warn("Tipo de análisis con ID {} no encontrado", id);
                     return new IllegalArgumentException("Tipo de análisis no encontrado con ID: " + id);
                 });
     }
 
+    /**
+     * Igual que findById pero sin log por invocación; se usa para resolver el
+     * tipo de análisis de cada fila en listados y exportaciones.
+     * SUPPORTS evita abrir una transacción por fila cuando el dato está en caché.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public TipoAnalisis lookup(Long id) {
+        return catalogo.porId(id, tipoAnalisisRepository::findById)
+                .orElseThrow(() -> new IllegalArgumentException("Tipo de análisis no encontrado con ID: " + id));
+    }
+
+    /**
+     * Obtiene los tipos de análisis con los IDs indicados, indexados por ID,
+     * a partir del catálogo completo (una sola consulta como máximo).
+     * Los IDs inexistentes simplemente no aparecen en el mapa.
+     */
+    public Map<Long, TipoAnalisis> findAllByIds(Collection<Long> ids) {
+        log.debug("Buscando {} tipos de análisis por ID", ids.size());
+        return findAll().stream()
+                .filter(tipo -> ids.contains(tipo.getId()))
+                .collect(Collectors.toMap(TipoAnalisis::getId, Function.identity()));
+    }
+
     @Transactional
     public TipoAnalisis create(TipoAnalisis tipoAnalisis) {
-        log.info("Creando nuevo tipo de análisis: {}", tipoAnalisis.getNombre());
+        log.debug("Creando nuevo tipo de análisis: {}", tipoAnalisis.getNombre());
 
         // Validar que no exista otro con el mismo nombre
-        tipoAnalisisRepository.findByNombreIgnoreCase(tipoAnalisis.getNombre())
+        catalogo.porNombre(tipoAnalisis.getNombre(), tipoAnalisisRepository::findByNombreIgnoreCase)
                 .ifPresent(existing -> {
                     log.warn("Ya existe un tipo de análisis con nombre: {}", tipoAnalisis.getNombre());
                     throw new IllegalArgumentException("Ya existe un tipo de análisis con el nombre: " + tipoAnalisis.getNombre());
                 });
 
         TipoAnalisis saved = tipoAnalisisRepository.save(tipoAnalisis);
-        log.info("Tipo de análisis creado exitosamente con ID: {}", saved.getId());
+        catalogo.invalidar();
+        log.debug("Tipo de análisis creado exitosamente con ID: {}", saved.getId());
         return saved;
     }
 
     @Transactional
     public TipoAnalisis update(Long id, TipoAnalisis tipoAnalisis) {
-        log.info("Actualizando tipo de análisis con ID: {}", id);
+        log.debug("Actualizando tipo de análisis con ID: {}", id);
 
-        TipoAnalisis existing = findById(id);
+        TipoAnalisis existing = findManagedById(id);
 
         // Validar que no exista otro con el mismo nombre (excepto el actual)
-        tipoAnalisisRepository.findByNombreIgnoreCase(tipoAnalisis.getNombre())
+        catalogo.porNombre(tipoAnalisis.getNombre(), tipoAnalisisRepository::findByNombreIgnoreCase)
                 .ifPresent(other -> {
                     if (!other.getId().equals(id)) {
                         log.warn("Ya existe otro tipo de análisis con nombre: {}", tipoAnalisis.getNombre());
@@ -70,17 +109,31 @@ public class TipoAnalisisService {
         existing.setActivo(tipoAnalisis.getActivo());
 
         TipoAnalisis updated = tipoAnalisisRepository.save(existing);
-        log.info("Tipo de análisis actualizado exitosamente con ID: {}", updated.getId());
+        catalogo.invalidar();
+        log.debug("Tipo de análisis actualizado exitosamente con ID: {}", updated.getId());
         return updated;
     }
 
     @Transactional
     public void delete(Long id) {
-        log.info("Eliminando tipo de análisis con ID: {}", id);
+        log.debug("Eliminando tipo de análisis con ID: {}", id);
 
-        TipoAnalisis tipoAnalisis = findById(id);
+        TipoAnalisis tipoAnalisis = findManagedById(id);
         tipoAnalisisRepository.delete(tipoAnalisis);
+        catalogo.invalidar();
 
-        log.info("Tipo de análisis eliminado exitosamente con ID: {}", id);
+        log.debug("Tipo de análisis eliminado exitosamente con ID: {}", id);
+    }
+
+    /**
+     * Las escrituras trabajan sobre la entidad administrada por JPA, no sobre
+     * la copia que entrega el catálogo.
+     */
+    private TipoAnalisis findManagedById(Long id) {
+        return tipoAnalisisRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Tipo de análisis con ID {} no encontrado", id);
+                    return new IllegalArgumentException("Tipo de análisis no encontrado con ID: " + id);
+                });
     }
 }
@@ -0,0 +1,8 @@
+-- Secuencia para los IDs de resultados.
+-- Con IDENTITY Hibernate debe ejecutar cada INSERT de inmediato para conocer el ID,
+-- lo que impide el batching JDBC. Con una secuencia (incremento = allocationSize
+-- de la entidad) los IDs se reservan por bloques y los INSERT se agrupan.
+CREATE SEQUENCE resultados_seq START WITH 1 INCREMENT BY 50;
+
+-- Continuar después del mayor ID existente
+ALTER SEQUENCE resultados_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM resultados);
@@ -0,0 +1,12 @@
+-- Secuencia para los IDs de resultados.
+-- Con IDENTITY Hibernate debe ejecutar cada INSERT de inmediato para conocer el ID,
+-- lo que impide el batching JDBC. Con una secuencia (incremento = allocationSize
+-- de la entidad) los IDs se reservan por bloques y los INSERT se agrupan.
+-- La columna es GENERATED BY DEFAULT, por lo que acepta los IDs asignados por Hibernate.
+DECLARE
+    v_inicio NUMBER;
+BEGIN
+    SELECT NVL(MAX(id), 0) + 1 INTO v_inicio FROM resultados;
+    EXECUTE IMMEDIATE 'CREATE SEQUENCE resultados_seq START WITH ' || v_inicio || ' INCREMENT BY 50';
+END;
+/
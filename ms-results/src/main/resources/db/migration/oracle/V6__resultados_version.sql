@@ -0,0 +1,2 @@
+-- Columna de versión para bloqueo optimista (@Version en Resultado)
+ALTER TABLE resultados ADD (version NUMBER(19) DEFAULT 0 NOT NULL);
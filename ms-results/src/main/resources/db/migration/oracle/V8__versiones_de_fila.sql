@@ -0,0 +1,7 @@
+-- Versión de fila (@Version) en tipos_analisis: los ETag se calculan con las
+-- versiones de las filas que lee cada solicitud (ver commons/Etags).
+ALTER TABLE tipos_analisis ADD (version NUMBER(19) DEFAULT 0 NOT NULL);
+
+-- Reemplaza a los contadores por tabla de V7: cada escritura los incrementaba
+-- fuera de su transacción y todas esperaban el bloqueo de la misma fila.
+DROP TABLE versiones_tabla;
@@ -0,0 +1,98 @@
+package com.sumativa.ms_results;
+
+import com.sumativa.ms_results.controller.ResultadoController;
+import com.sumativa.ms_results.service.ResultadoService;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica que una solicitud que llega con contexto de traza (traceparent)
+ * genera spans de servidor, controlador, servicio y JDBC en la misma traza.
+ * Los spans se exportan a memoria en lugar de OTLP.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+@ActiveProfiles("h2")
+class TracingIntegrationTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String TRACEPARENT = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+
+    @TestConfiguration
+    static class ExportadorEnMemoria {
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InMemorySpanExporter exporter;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @BeforeEach
+    void setUp() {
+        exporter.reset();
+    }
+
+    private List<SpanData> spansDeLaTraza() {
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        return exporter.getFinishedSpanItems().stream()
+                .filter(span -> TRACE_ID.equals(span.getTraceId()))
+                .toList();
+    }
+
+    private static boolean deClase(SpanData span, Class<?> clase) {
+        return clase.getName().equals(span.getAttributes().get(AttributeKey.stringKey("class")));
+    }
+
+    @Test
+    void request_shouldCreateServerControllerServiceAndJdbcSpansInIncomingTrace() throws Exception {
+        // Act
+        mockMvc.perform(get("/api/resultados")
+                        .header("traceparent", TRACEPARENT)
+                        .with(user("admin@example.com").roles("ADMIN")))
+                .andExpect(status().isOk());
+
+        // Assert
+        List<SpanData> spans = spansDeLaTraza();
+        assertTrue(spans.stream().anyMatch(span -> span.getKind() == SpanKind.SERVER),
+                "Falta el span del servidor HTTP");
+        assertTrue(spans.stream().anyMatch(span -> deClase(span, ResultadoController.class)),
+                "Falta el span del controlador");
+        assertTrue(spans.stream().anyMatch(span -> deClase(span, ResultadoService.class)),
+                "Falta el span del servicio");
+        assertTrue(spans.stream().anyMatch(span -> {
+                    String sql = span.getAttributes().get(AttributeKey.stringKey("jdbc.query[0]"));
+                    return sql != null && sql.contains("resultados");
+                }),
+                "Falta el span JDBC con la sentencia SQL");
+    }
+}
@@ -0,0 +1,109 @@
+package com.sumativa.ms_results.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ConnectionPoolGuardFilter
+ */
+class ConnectionPoolGuardFilterTest {
+
+    private static final int MAX_PENDIENTES = 5;
+
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private ConnectionPoolGuardFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        filter = new ConnectionPoolGuardFilter(pendientes::get, MAX_PENDIENTES, 2, objectMapper);
+    }
+
+    private MockHttpServletResponse perform(String uri, MockFilterChain chain) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", uri), response, chain);
+        return response;
+    }
+
+    // ==================== Pool disponible Tests ====================
+
+    @Test
+    void shouldContinue_whenPendingAtThreshold() throws ServletException, IOException {
+        // Arrange
+        pendientes.set(MAX_PENDIENTES);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        MockHttpServletResponse response = perform("/api/resultados", chain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(0, filter.getRechazos());
+    }
+
+    // ==================== Pool saturado Tests ====================
+
+    @Test
+    void shouldReturn503WithRetryAfter_whenPendingExceedsThreshold() throws ServletException, IOException {
+        // Arrange
+        pendientes.set(MAX_PENDIENTES + 1);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        MockHttpServletResponse response = perform("/api/resultados", chain);
+
+        // Assert
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentType().startsWith("application/json"));
+        assertTrue(response.getContentAsString().contains("\"status\":503"));
+        assertTrue(response.getContentAsString().contains("\"path\":\"/api/resultados\""));
+        assertNull(chain.getRequest());
+        assertEquals(1, filter.getRechazos());
+    }
+
+    @Test
+    void shouldNotGuardPathsOutsideApi() throws ServletException, IOException {
+        // Arrange
+        pendientes.set(MAX_PENDIENTES + 1);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        MockHttpServletResponse response = perform("/actuator/health", chain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+    }
+
+    // ==================== Métricas Tests ====================
+
+    @Test
+    void bindTo_shouldExposeRejectionCounter() throws ServletException, IOException {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        pendientes.set(MAX_PENDIENTES + 1);
+
+        // Act
+        perform("/api/resultados", new MockFilterChain());
+        perform("/api/resultados", new MockFilterChain());
+
+        // Assert
+        assertEquals(2.0, registry.get("pool.guard.rejections").functionCounter().count());
+    }
+}
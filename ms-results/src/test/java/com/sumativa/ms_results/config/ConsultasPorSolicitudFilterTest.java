@@ -0,0 +1,103 @@
+package com.sumativa.ms_results.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ConsultasPorSolicitudFilter
+ */
+class ConsultasPorSolicitudFilterTest {
+
+    private static final String URI = "/api/resultados/42";
+    private static final String PATRON = "/api/resultados/{id}";
+
+    private ConsultasPorSolicitudFilter filter;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ConsultasPorSolicitudFilter();
+        registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+    }
+
+    /**
+     * Simula un handler que ejecuta la cantidad indicada de sentencias
+     */
+    private MockFilterChain chainEjecutando(int sentencias) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request,
+                                   HttpServletResponse response) {
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, PATRON);
+                for (int i = 0; i < sentencias; i++) {
+                    filter.inspect("select 1");
+                }
+            }
+        });
+    }
+
+    // ==================== Conteo Tests ====================
+
+    @Test
+    void shouldRecordStatementsPerRequest_taggedByRoutePattern() throws ServletException, IOException {
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", URI), new MockHttpServletResponse(), chainEjecutando(3));
+        filter.doFilter(new MockHttpServletRequest("GET", URI), new MockHttpServletResponse(), chainEjecutando(1));
+
+        // Assert
+        DistributionSummary resumen = registry.get(ConsultasPorSolicitudFilter.METRICA)
+                .tags("method", "GET", "uri", PATRON)
+                .summary();
+        assertEquals(2, resumen.count());
+        assertEquals(4.0, resumen.totalAmount());
+        assertEquals(3.0, resumen.max());
+    }
+
+    @Test
+    void inspect_shouldReturnSqlUnchanged_andIgnoreStatementsOutsideRequests() {
+        // Act
+        String sql = filter.inspect("select 1");
+
+        // Assert
+        assertEquals("select 1", sql);
+        assertNull(registry.find(ConsultasPorSolicitudFilter.METRICA).summary());
+    }
+
+    @Test
+    void shouldNotRecord_whenNotApiRequest() throws ServletException, IOException {
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                chainEjecutando(2));
+
+        // Assert
+        assertNull(registry.find(ConsultasPorSolicitudFilter.METRICA).summary());
+    }
+
+    @Test
+    void shouldContinueChain_whenRegistryNotBound() throws ServletException, IOException {
+        // Arrange
+        ConsultasPorSolicitudFilter sinRegistro = new ConsultasPorSolicitudFilter();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        sinRegistro.doFilter(new MockHttpServletRequest("GET", URI), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,113 @@
+package com.sumativa.ms_results.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.ContextInitializer;
+import ch.qos.logback.core.AsyncAppenderBase;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Carga logback-spring.xml con el LoggingSystem de Spring Boot y verifica el
+ * appender de consola que resulta de log-output.format y el muestreo del
+ * appender asíncrono
+ */
+class LogbackSpringTest {
+
+    private final LoggingSystem loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+
+    @AfterEach
+    void tearDown() throws Exception {
+        // Vuelve a la configuración por defecto para los tests siguientes
+        loggingSystem.cleanUp();
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        contexto.reset();
+        new ContextInitializer(contexto).autoConfig();
+    }
+
+    private AsyncAppenderBase<ILoggingEvent> configurar(String formato, String tasa) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("log-output.format", formato)
+                .withProperty("log-output.sampling-rate", tasa)
+                .withProperty("spring.application.name", "ms-results");
+        loggingSystem.cleanUp();
+        loggingSystem.beforeInitialize();
+        loggingSystem.initialize(new LoggingInitializationContext(environment), "classpath:logback-spring.xml", null);
+
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        return (AsyncAppenderBase<ILoggingEvent>) contexto.getLogger(Logger.ROOT_LOGGER_NAME).getAppender("ASYNC");
+    }
+
+    private static ConsoleAppender<ILoggingEvent> consola(AsyncAppenderBase<ILoggingEvent> async) {
+        ConsoleAppender<ILoggingEvent> consola = (ConsoleAppender<ILoggingEvent>) async.getAppender("CONSOLE");
+        assertNotNull(consola, "Sin appender de consola: los logs se pierden");
+        assertTrue(consola.isStarted());
+        return consola;
+    }
+
+    // ==================== Formato Tests ====================
+
+    @Test
+    void formatoJson_shouldUseLogstashEncoder() {
+        // Act
+        AsyncAppenderBase<ILoggingEvent> async = configurar("json", "1.0");
+
+        // Assert
+        assertInstanceOf(LogstashEncoder.class, consola(async).getEncoder());
+    }
+
+    @Test
+    void formatoText_shouldUsePatternEncoder() {
+        // Act
+        AsyncAppenderBase<ILoggingEvent> async = configurar("text", "1.0");
+
+        // Assert
+        assertInstanceOf(PatternLayoutEncoder.class, consola(async).getEncoder());
+    }
+
+    @Test
+    void formatoDesconocido_shouldFallBackToText() {
+        // Act
+        AsyncAppenderBase<ILoggingEvent> async = configurar("xml", "1.0");
+
+        // Assert
+        assertInstanceOf(PatternLayoutEncoder.class, consola(async).getEncoder());
+    }
+
+    // ==================== Muestreo Tests ====================
+
+    @Test
+    void async_shouldSampleWithConfiguredRate() {
+        // Arrange
+        AsyncAppenderBase<ILoggingEvent> async = configurar("text", "0.0");
+        LoggingEvent evento = new LoggingEvent();
+        evento.setLevel(Level.INFO);
+        evento.setMessage("mensaje");
+        evento.setMDCPropertyMap(Map.of(MuestreoPorTrazaFilter.TRACE_ID, "4bf92f3577b34da6a3ce929d0e0e4736"));
+
+        // Act
+        List<Filter<ILoggingEvent>> filtros = async.getCopyOfAttachedFiltersList();
+
+        // Assert
+        assertEquals(1, filtros.size());
+        assertInstanceOf(MuestreoPorTrazaFilter.class, filtros.get(0));
+        assertEquals(FilterReply.DENY, filtros.get(0).decide(evento));
+    }
+}
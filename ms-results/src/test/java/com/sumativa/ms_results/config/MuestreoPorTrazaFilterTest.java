@@ -0,0 +1,95 @@
+package com.sumativa.ms_results.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para MuestreoPorTrazaFilter
+ */
+class MuestreoPorTrazaFilterTest {
+
+    private MuestreoPorTrazaFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new MuestreoPorTrazaFilter();
+    }
+
+    private static LoggingEvent evento(Level level, String traceId) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLevel(level);
+        event.setMessage("mensaje");
+        event.setMDCPropertyMap(traceId != null ? Map.of(MuestreoPorTrazaFilter.TRACE_ID, traceId) : Map.of());
+        return event;
+    }
+
+    private static String traceId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    // ==================== Decide Tests ====================
+
+    @Test
+    void decide_shouldKeepEverything_whenRateIsOne() {
+        // Act & Assert
+        assertEquals(FilterReply.NEUTRAL, filter.decide(evento(Level.DEBUG, traceId())));
+    }
+
+    @Test
+    void decide_shouldAlwaysKeepWarnAndError() {
+        // Arrange
+        filter.setTasa(0.0);
+
+        // Act & Assert
+        assertEquals(FilterReply.NEUTRAL, filter.decide(evento(Level.WARN, traceId())));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(evento(Level.ERROR, traceId())));
+    }
+
+    @Test
+    void decide_shouldKeepEventsWithoutTrace() {
+        // Arrange
+        filter.setTasa(0.0);
+
+        // Act & Assert
+        assertEquals(FilterReply.NEUTRAL, filter.decide(evento(Level.INFO, null)));
+    }
+
+    @Test
+    void decide_shouldTakeSameDecisionForAllEventsOfATrace() {
+        // Arrange
+        filter.setTasa(0.5);
+        String traceId = traceId();
+
+        // Act
+        FilterReply primera = filter.decide(evento(Level.INFO, traceId));
+
+        // Assert
+        assertEquals(primera, filter.decide(evento(Level.DEBUG, traceId)));
+        assertEquals(primera, filter.decide(evento(Level.INFO, traceId)));
+    }
+
+    @Test
+    void decide_shouldKeepApproximatelyTheRateOfTraces() {
+        // Arrange
+        filter.setTasa(0.1);
+
+        // Act
+        long conservadas = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.decide(evento(Level.INFO, traceId())) == FilterReply.NEUTRAL) {
+                conservadas++;
+            }
+        }
+
+        // Assert
+        assertTrue(conservadas > 800 && conservadas < 1200, "Trazas conservadas: " + conservadas);
+    }
+}
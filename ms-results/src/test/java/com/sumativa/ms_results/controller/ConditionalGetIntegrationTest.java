@@ -0,0 +1,127 @@
+package com.sumativa.ms_results.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * ETags con servicios y base reales (schema de Flyway): una escritura cambia
+ * el ETag de la siguiente lectura y el ETag vigente responde 304
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@WithMockUser(roles = "ADMIN")
+class ConditionalGetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long tipoId;
+    private long resultadoId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tipoId = crear("/api/tipos-analisis",
+                "{\"nombre\": \"Tipo ETag " + System.nanoTime() + "\", \"categoria\": \"Pruebas\", \"activo\": true}");
+        resultadoId = crear("/api/resultados",
+                "{\"paciente\": \"Paciente ETag\", \"fechaRealizacion\": \"2025-03-01T10:00:00\", "
+                        + "\"tipoAnalisisId\": " + tipoId + ", \"laboratorioId\": 1, \"estado\": \"PENDIENTE\"}");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mockMvc.perform(delete("/api/resultados/" + resultadoId));
+        mockMvc.perform(delete("/api/tipos-analisis/" + tipoId));
+    }
+
+    private long crear(String uri, String json) throws Exception {
+        String body = mockMvc.perform(post(uri).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode creado = objectMapper.readTree(body);
+        return creado.get("id").asLong();
+    }
+
+    private String etagOf(String uri) throws Exception {
+        return mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    private String pagina() {
+        return "/api/resultados/pagina?tipoAnalisisId=" + tipoId;
+    }
+
+    @Test
+    void get_shouldReturn304_whenEtagIsCurrent() throws Exception {
+        // Arrange
+        String tipo = etagOf("/api/tipos-analisis/" + tipoId);
+        String resultado = etagOf("/api/resultados/" + resultadoId);
+        String pagina = etagOf(pagina());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/tipos-analisis/" + tipoId).header("If-None-Match", tipo))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/resultados/" + resultadoId).header("If-None-Match", resultado))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(pagina()).header("If-None-Match", pagina))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void patchResultado_shouldChangeEtagOfNextGet() throws Exception {
+        // Arrange
+        String detalle = etagOf("/api/resultados/" + resultadoId);
+        String pagina = etagOf(pagina());
+        String lista = etagOf("/api/resultados");
+
+        // Act: sin If-Match
+        String nuevo = mockMvc.perform(patch("/api/resultados/" + resultadoId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"estado\": \"COMPLETADO\"}"))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Assert
+        assertNotEquals(detalle, nuevo);
+        assertEquals(nuevo, etagOf("/api/resultados/" + resultadoId));
+        assertNotEquals(pagina, etagOf(pagina()));
+        assertNotEquals(lista, etagOf("/api/resultados"));
+    }
+
+    @Test
+    void updateTipoAnalisis_shouldChangeEtagOfTipoAndOfResultadoListsThatIncludeIt() throws Exception {
+        // Arrange
+        String tipo = etagOf("/api/tipos-analisis/" + tipoId);
+        String tipos = etagOf("/api/tipos-analisis");
+        String pagina = etagOf(pagina());
+
+        // Act
+        mockMvc.perform(put("/api/tipos-analisis/" + tipoId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"unidadMedida\": \"mg/dL\"}"))
+                .andExpect(status().isOk());
+
+        // Assert
+        assertNotEquals(tipo, etagOf("/api/tipos-analisis/" + tipoId));
+        assertNotEquals(tipos, etagOf("/api/tipos-analisis"));
+        assertNotEquals(pagina, etagOf(pagina()));
+    }
+}
@@ -2,32 +2,52 @@ package com.sumativa.ms_results.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sumativa.ms_results.dto.ResultadoBusquedaDto;
 import com.sumativa.ms_results.dto.ResultadoCreateDto;
+import com.sumativa.ms_results.dto.ResultadoFila;
+import com.sumativa.ms_results.dto.ResultadoFiltroDto;
+import com.sumativa.ms_results.dto.ResultadoIngestaDto;
+import com.sumativa.ms_results.dto.ResultadoPageDto;
 import com.sumativa.ms_results.dto.ResultadoResponseDto;
 import com.sumativa.ms_results.dto.ResultadoUpdateDto;
 import com.sumativa.ms_results.dto.TipoAnalisisResponseDto;
 import com.sumativa.ms_results.entity.Resultado;
 import com.sumativa.ms_results.entity.TipoAnalisis;
+import com.sumativa.ms_results.exception.PreconditionFailedException;
 import com.sumativa.ms_results.mapper.ResultadoMapper;
+import com.sumativa.ms_results.service.ResultadoBusquedaService;
+import com.sumativa.ms_results.service.ResultadoIngestaService;
+import com.sumativa.ms_results.service.ResultadoCursor;
 import com.sumativa.ms_results.service.ResultadoService;
 import com.sumativa.ms_results.service.TipoAnalisisService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -45,6 +65,15 @@ class ResultadoControllerTest {
     @Mock
     private ResultadoMapper resultadoMapper;
 
+    @Mock
+    private ResultadoIngestaService resultadoIngestaService;
+
+    @Mock
+    private ResultadoBusquedaService resultadoBusquedaService;
+
+    @Spy
+    private ObjectMapper exportMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
     @InjectMocks
     private ResultadoController resultadoController;
 
@@ -97,18 +126,16 @@ class ResultadoControllerTest {
     @Test
     void getAll_shouldReturnListOfResultados() {
         // Arrange
-        Resultado resultado2 = new Resultado();
-        resultado2.setId(2L);
-        resultado2.setPaciente("María García");
+        ResultadoFila fila1 = new ResultadoFila(1L, "Juan Pérez", null, 1L, 100L, null, null, "COMPLETADO", null, null, null, null);
+        ResultadoFila fila2 = new ResultadoFila(2L, "María García", null, 1L, 100L, null, null, "PENDIENTE", null, null, null, null);
 
         ResultadoResponseDto dto2 = ResultadoResponseDto.builder()
                 .id(2L)
                 .paciente("María García")
                 .build();
 
-        when(resultadoService.findAll()).thenReturn(Arrays.asList(testResultado, resultado2));
-        when(resultadoMapper.toDto(testResultado)).thenReturn(testResponseDto);
-        when(resultadoMapper.toDto(resultado2)).thenReturn(dto2);
+        when(resultadoService.findAllFilas()).thenReturn(Arrays.asList(fila1, fila2));
+        when(resultadoMapper.filasToDto(Arrays.asList(fila1, fila2))).thenReturn(Arrays.asList(testResponseDto, dto2));
 
         // Act
         ResponseEntity<List<ResultadoResponseDto>> response = resultadoController.getAll();
@@ -117,13 +144,14 @@ class ResultadoControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(2, response.getBody().size());
-        verify(resultadoService).findAll();
+        verify(resultadoService).findAllFilas();
+        verify(resultadoService, never()).findAll();
     }
 
     @Test
     void getAll_shouldReturnEmptyList_whenNoResultadosExist() {
         // Arrange
-        when(resultadoService.findAll()).thenReturn(Arrays.asList());
+        when(resultadoService.findAllFilas()).thenReturn(Arrays.asList());
 
         // Act
         ResponseEntity<List<ResultadoResponseDto>> response = resultadoController.getAll();
@@ -134,6 +162,202 @@ class ResultadoControllerTest {
         assertTrue(response.getBody().isEmpty());
     }
 
+    @Test
+    void getAll_shouldReturnWeakETag_thatChangesWithResultadoAndTipoVersions() {
+        // Arrange
+        testResponseDto.setVersion(0L);
+        tipoAnalisisResponseDto.setVersion(0L);
+        when(resultadoService.findAllFilas()).thenReturn(List.of());
+        when(resultadoMapper.filasToDto(List.of())).thenReturn(List.of(testResponseDto));
+        String inicial = resultadoController.getAll().getHeaders().getETag();
+
+        // Act
+        testResponseDto.setVersion(1L);
+        String resultadoModificado = resultadoController.getAll().getHeaders().getETag();
+        tipoAnalisisResponseDto.setVersion(1L);
+        String tipoModificado = resultadoController.getAll().getHeaders().getETag();
+
+        // Assert
+        assertTrue(inicial.startsWith("W/\""));
+        assertNotEquals(inicial, resultadoModificado);
+        assertNotEquals(resultadoModificado, tipoModificado);
+    }
+
+    @Test
+    void getAll_shouldOmitETag_whenVersionIsMissing() {
+        // Arrange
+        when(resultadoService.findAllFilas()).thenReturn(List.of());
+        when(resultadoMapper.filasToDto(List.of())).thenReturn(List.of(testResponseDto));
+
+        // Act
+        ResponseEntity<List<ResultadoResponseDto>> response = resultadoController.getAll();
+
+        // Assert
+        assertNull(response.getHeaders().getETag());
+    }
+
+    // ==================== getPage Tests ====================
+
+    @Test
+    void getPage_shouldReturnItemsAndNextCursor_whenMorePagesExist() {
+        // Arrange
+        ResultadoFila fila = new ResultadoFila(1L, "Juan Pérez", LocalDateTime.of(2025, 1, 15, 10, 0),
+                1L, 100L, null, null, "COMPLETADO", null, null, null, 0L);
+        Window<ResultadoFila> window = Window.from(List.of(fila), i -> ScrollPosition.keyset(), true);
+        when(resultadoService.findPage(any(ResultadoFiltroDto.class), eq(null), eq(1))).thenReturn(window);
+        when(resultadoMapper.filasToDto(List.of(fila))).thenReturn(List.of(testResponseDto));
+
+        // Act
+        ResponseEntity<ResultadoPageDto> response = resultadoController.getPage(
+                100L, "COMPLETADO", null, null, null, null, 1);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().getSize());
+        assertTrue(response.getBody().isHasNext());
+        assertEquals(ResultadoCursor.encode(fila), response.getBody().getNextCursor());
+        verify(resultadoMapper, never()).toDto(any(Resultado.class));
+    }
+
+    @Test
+    void getPage_shouldReturnNullCursor_whenLastPage() {
+        // Arrange
+        Window<ResultadoFila> window = Window.from(List.of(), i -> ScrollPosition.keyset(), false);
+        when(resultadoService.findPage(any(ResultadoFiltroDto.class), any(), anyInt())).thenReturn(window);
+
+        // Act
+        ResponseEntity<ResultadoPageDto> response = resultadoController.getPage(
+                null, null, null, null, null, "cursor", 50);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertTrue(response.getBody().getItems().isEmpty());
+        assertFalse(response.getBody().isHasNext());
+        assertNull(response.getBody().getNextCursor());
+    }
+
+    @Test
+    void getPage_shouldReturnWeakETag_thatChangesWithHasNext() {
+        // Arrange
+        testResponseDto.setVersion(0L);
+        tipoAnalisisResponseDto.setVersion(0L);
+        ResultadoFila fila = new ResultadoFila(1L, "Juan Pérez", LocalDateTime.of(2025, 1, 15, 10, 0),
+                1L, 100L, null, null, "COMPLETADO", null, null, null, 0L);
+        when(resultadoMapper.filasToDto(List.of(fila))).thenReturn(List.of(testResponseDto));
+        when(resultadoService.findPage(any(ResultadoFiltroDto.class), any(), anyInt()))
+                .thenReturn(Window.from(List.of(fila), i -> ScrollPosition.keyset(), true))
+                .thenReturn(Window.from(List.of(fila), i -> ScrollPosition.keyset(), false));
+
+        // Act
+        String conSiguiente = resultadoController.getPage(null, null, null, null, null, null, 1)
+                .getHeaders().getETag();
+        String ultima = resultadoController.getPage(null, null, null, null, null, null, 1)
+                .getHeaders().getETag();
+
+        // Assert
+        assertTrue(conSiguiente.startsWith("W/\""));
+        assertNotEquals(conSiguiente, ultima);
+    }
+
+    // ==================== export Tests ====================
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void export_shouldWriteOneJsonLinePerResultado_whenNdjson() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResultadoFila fila = new ResultadoFila(1L, "Juan Pérez", null, 1L, 100L, null, null, "COMPLETADO", null, null, null, null);
+        when(resultadoMapper.filaConverter()).thenReturn(f -> testResponseDto);
+        when(resultadoService.exportar(eq(100L), eq(null), any())).thenAnswer(invocation -> {
+            Consumer<ResultadoFila> consumidor = invocation.getArgument(2);
+            consumidor.accept(fila);
+            consumidor.accept(fila);
+            return 2L;
+        });
+
+        // Act
+        resultadoController.export(100L, null, "ndjson", response);
+
+        // Assert
+        assertEquals(ResultadoController.NDJSON_CONTENT_TYPE, response.getContentType().split(";")[0]);
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        ResultadoResponseDto parsed = objectMapper.readValue(lines[0], ResultadoResponseDto.class);
+        assertEquals(testResponseDto.getId(), parsed.getId());
+        assertEquals(testResponseDto.getPaciente(), parsed.getPaciente());
+    }
+
+    @Test
+    void export_shouldWriteHeaderAndEscapedRows_whenCsv() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        testResponseDto.setObservaciones("Ayuno, \"12 horas\"");
+        ResultadoFila fila = new ResultadoFila(1L, "Juan Pérez", null, 1L, 100L, null, null, "COMPLETADO", null, null, null, null);
+        when(resultadoMapper.filaConverter()).thenReturn(f -> testResponseDto);
+        when(resultadoService.exportar(any(), eq("COMPLETADO"), any())).thenAnswer(invocation -> {
+            Consumer<ResultadoFila> consumidor = invocation.getArgument(2);
+            consumidor.accept(fila);
+            return 1L;
+        });
+
+        // Act
+        resultadoController.export(null, "COMPLETADO", "CSV", response);
+
+        // Assert
+        assertEquals(ResultadoController.CSV_CONTENT_TYPE, response.getContentType().split(";")[0]);
+        String[] lines = response.getContentAsString(java.nio.charset.StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(ResultadoController.CSV_HEADER, lines[0]);
+        assertTrue(lines[1].startsWith(testResponseDto.getId() + ",Juan Pérez,"));
+        assertTrue(lines[1].contains("\"Ayuno, \"\"12 horas\"\"\""));
+    }
+
+    @Test
+    void export_shouldThrowException_whenFormatIsUnsupported() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                resultadoController.export(null, null, "xml", new MockHttpServletResponse()));
+        verify(resultadoService, never()).exportar(any(), any(), any());
+    }
+
+    // ==================== buscar Tests ====================
+
+    @Test
+    void buscar_shouldReturnPageFromBusquedaService() {
+        // Arrange
+        ResultadoBusquedaDto pagina = ResultadoBusquedaDto.builder()
+                .items(List.of(testResponseDto))
+                .total(21)
+                .page(0)
+                .size(1)
+                .hasNext(true)
+                .build();
+        when(resultadoBusquedaService.buscar("perez", 0, 20)).thenReturn(pagina);
+
+        // Act
+        ResponseEntity<ResultadoBusquedaDto> response = resultadoController.buscar("perez", 0, 20);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(pagina, response.getBody());
+        verifyNoInteractions(resultadoService);
+    }
+
+    @Test
+    void reindexar_shouldReturnAccepted() {
+        // Arrange
+        when(resultadoBusquedaService.reconstruir()).thenReturn(false);
+
+        // Act
+        ResponseEntity<Void> response = resultadoController.reindexar();
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(resultadoBusquedaService).reconstruir();
+    }
+
     // ==================== getById Tests ====================
 
     @Test
@@ -153,6 +377,20 @@ class ResultadoControllerTest {
         verify(resultadoService).findById(1L);
     }
 
+    @Test
+    void getById_shouldReturnVersionAsETag() {
+        // Arrange
+        testResultado.setVersion(4L);
+        when(resultadoService.findById(1L)).thenReturn(testResultado);
+        when(resultadoMapper.toDto(testResultado)).thenReturn(testResponseDto);
+
+        // Act
+        ResponseEntity<ResultadoResponseDto> response = resultadoController.getById(1L);
+
+        // Assert
+        assertEquals("\"4\"", response.getHeaders().getETag());
+    }
+
     @Test
     void getById_shouldThrowException_whenNotFound() {
         // Arrange
@@ -228,6 +466,92 @@ class ResultadoControllerTest {
         });
     }
 
+    // ==================== ingestar Tests ====================
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingestar_shouldDelegateRowsToIngestaService() throws Exception {
+        // Arrange
+        String body = "[{\"paciente\":\"Juan Pérez\",\"tipoAnalisisId\":1}, null]";
+        ResultadoIngestaDto ingesta = ResultadoIngestaDto.builder().total(2).creados(1).items(List.of()).build();
+        when(resultadoIngestaService.ingestar(any())).thenReturn(ingesta);
+
+        // Act
+        ResponseEntity<ResultadoIngestaDto> response = resultadoController.ingestar(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(ingesta, response.getBody());
+        ArgumentCaptor<List<ResultadoCreateDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(resultadoIngestaService).ingestar(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals("Juan Pérez", captor.getValue().get(0).getPaciente());
+        assertNull(captor.getValue().get(1));
+    }
+
+    @Test
+    void ingestar_shouldRejectBatchAboveMaximumWithoutReadingTheRest() {
+        // Arrange: MAX_FILAS + 1 filas y luego JSON inválido que nunca se lee
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i <= ResultadoIngestaService.MAX_FILAS; i++) {
+            body.append("{\"paciente\":\"P\"},");
+        }
+        body.append("{no es json");
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                resultadoController.ingestar(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8))));
+        assertEquals("El lote excede el máximo de " + ResultadoIngestaService.MAX_FILAS + " resultados",
+                exception.getMessage());
+        verifyNoInteractions(resultadoIngestaService);
+    }
+
+    @Test
+    void ingestar_shouldThrowException_whenBodyIsNotAnArray() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> resultadoController.ingestar(
+                new ByteArrayInputStream("{\"paciente\":\"P\"}".getBytes(StandardCharsets.UTF_8))));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                resultadoController.ingestar(new ByteArrayInputStream("[{\"paciente\":\"P\"}, {no".getBytes(StandardCharsets.UTF_8))));
+        assertEquals("El lote no es un JSON válido (fila 1)", exception.getMessage());
+        verifyNoInteractions(resultadoIngestaService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingestarNdjson_shouldParseOneRowPerLineAndSkipBlankLines() throws Exception {
+        // Arrange
+        String body = "{\"paciente\":\"Juan Pérez\",\"tipoAnalisisId\":1}\n"
+                + "\n"
+                + "{\"paciente\":\"María López\",\"tipoAnalisisId\":2}\n";
+        when(resultadoIngestaService.ingestar(any())).thenReturn(new ResultadoIngestaDto());
+
+        // Act
+        ResponseEntity<ResultadoIngestaDto> response = resultadoController.ingestarNdjson(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ArgumentCaptor<List<ResultadoCreateDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(resultadoIngestaService).ingestar(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals("Juan Pérez", captor.getValue().get(0).getPaciente());
+        assertEquals(2L, captor.getValue().get(1).getTipoAnalisisId());
+    }
+
+    @Test
+    void ingestarNdjson_shouldThrowException_whenLineIsMalformed() {
+        // Arrange
+        String body = "{\"paciente\":\"Juan Pérez\"}\n{no es json\n";
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                resultadoController.ingestarNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+        assertEquals("Línea 2 no es un JSON válido", exception.getMessage());
+        verifyNoInteractions(resultadoIngestaService);
+    }
+
     // ==================== update Tests ====================
 
     @Test
@@ -250,17 +574,17 @@ class ResultadoControllerTest {
 
         when(resultadoService.findById(1L)).thenReturn(testResultado);
         doNothing().when(resultadoMapper).updateEntityFromDto(any(), any(), any());
-        when(resultadoService.update(anyLong(), any(Resultado.class))).thenReturn(updated);
+        when(resultadoService.update(anyLong(), any(Resultado.class), isNull())).thenReturn(updated);
         when(resultadoMapper.toDto(updated)).thenReturn(responseDto);
 
         // Act
-        ResponseEntity<ResultadoResponseDto> response = resultadoController.update(1L, updateDto);
+        ResponseEntity<ResultadoResponseDto> response = resultadoController.update(1L, updateDto, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals("Paciente Actualizado", response.getBody().getPaciente());
-        verify(resultadoService).update(anyLong(), any(Resultado.class));
+        verify(resultadoService).update(anyLong(), any(Resultado.class), isNull());
     }
 
     @Test
@@ -277,11 +601,11 @@ class ResultadoControllerTest {
         when(resultadoService.findById(1L)).thenReturn(testResultado);
         when(tipoAnalisisService.findById(2L)).thenReturn(newTipo);
         doNothing().when(resultadoMapper).updateEntityFromDto(any(), any(), any());
-        when(resultadoService.update(anyLong(), any(Resultado.class))).thenReturn(testResultado);
+        when(resultadoService.update(anyLong(), any(Resultado.class), isNull())).thenReturn(testResultado);
         when(resultadoMapper.toDto(any())).thenReturn(testResponseDto);
 
         // Act
-        ResponseEntity<ResultadoResponseDto> response = resultadoController.update(1L, updateDto);
+        ResponseEntity<ResultadoResponseDto> response = resultadoController.update(1L, updateDto, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -297,11 +621,11 @@ class ResultadoControllerTest {
 
         when(resultadoService.findById(1L)).thenReturn(testResultado);
         doNothing().when(resultadoMapper).updateEntityFromDto(any(), any(), any());
-        when(resultadoService.update(anyLong(), any(Resultado.class))).thenReturn(testResultado);
+        when(resultadoService.update(anyLong(), any(Resultado.class), isNull())).thenReturn(testResultado);
         when(resultadoMapper.toDto(any())).thenReturn(testResponseDto);
 
         // Act
-        ResponseEntity<ResultadoResponseDto> response = resultadoController.update(1L, updateDto);
+        ResponseEntity<ResultadoResponseDto> response = resultadoController.update(1L, updateDto, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -319,35 +643,142 @@ class ResultadoControllerTest {
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> {
-            resultadoController.update(999L, updateDto);
+            resultadoController.update(999L, updateDto, null);
         });
     }
 
+    @Test
+    void update_shouldPassIfMatchVersionAndReturnNewETag() {
+        // Arrange
+        ResultadoUpdateDto updateDto = new ResultadoUpdateDto();
+        updateDto.setEstado("REVISADO");
+
+        Resultado updated = new Resultado();
+        updated.setId(1L);
+        updated.setVersion(3L);
+
+        when(resultadoService.findById(1L)).thenReturn(testResultado);
+        when(resultadoService.update(1L, testResultado, 2L)).thenReturn(updated);
+        when(resultadoMapper.toDto(updated)).thenReturn(testResponseDto);
+
+        // Act
+        ResponseEntity<ResultadoResponseDto> response = resultadoController.update(1L, updateDto, "\"2\"");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void update_shouldPropagatePreconditionFailed_whenVersionIsStale() {
+        // Arrange
+        ResultadoUpdateDto updateDto = new ResultadoUpdateDto();
+        updateDto.setEstado("REVISADO");
+
+        when(resultadoService.findById(1L)).thenReturn(testResultado);
+        when(resultadoService.update(1L, testResultado, 1L))
+                .thenThrow(new PreconditionFailedException("El resultado 1 está en la versión 2 y no en la versión 1"));
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () ->
+                resultadoController.update(1L, updateDto, "\"1\""));
+    }
+
+    // ==================== patch Tests ====================
+
+    @Test
+    void patch_shouldReturnNoContentWithNewETag_whenIfMatchProvided() {
+        // Arrange
+        ResultadoUpdateDto cambios = ResultadoUpdateDto.builder().estado("REVISADO").build();
+        when(resultadoService.patch(1L, cambios, 5L)).thenReturn(6L);
+
+        // Act
+        ResponseEntity<Void> response = resultadoController.patch(1L, cambios, "\"5\"");
+
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals("\"6\"", response.getHeaders().getETag());
+        verify(resultadoService, never()).findById(anyLong());
+    }
+
+    @Test
+    void patch_shouldReturnNewETag_whenIfMatchNotProvided() {
+        // Arrange
+        ResultadoUpdateDto cambios = ResultadoUpdateDto.builder().observaciones("Revisado").build();
+        when(resultadoService.patch(1L, cambios, null)).thenReturn(8L);
+
+        // Act
+        ResponseEntity<Void> response = resultadoController.patch(1L, cambios, null);
+
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals("\"8\"", response.getHeaders().getETag());
+    }
+
+    // ==================== If-Match Tests ====================
+
+    @Test
+    void versionEsperada_shouldParseStrongETag() {
+        assertEquals(7L, ResultadoController.versionEsperada("\"7\""));
+        assertEquals(7L, ResultadoController.versionEsperada(" \"7\" "));
+    }
+
+    @Test
+    void versionEsperada_shouldSkipCheck_whenAbsentOrWildcard() {
+        assertNull(ResultadoController.versionEsperada(null));
+        assertNull(ResultadoController.versionEsperada("*"));
+    }
+
+    @Test
+    void versionEsperada_shouldRejectWeakETag() {
+        assertThrows(PreconditionFailedException.class, () -> ResultadoController.versionEsperada("W/\"7\""));
+    }
+
+    @Test
+    void versionEsperada_shouldRejectMalformedHeader() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                ResultadoController.versionEsperada("siete"));
+        assertTrue(exception.getMessage().contains("If-Match"));
+    }
+
     // ==================== delete Tests ====================
 
     @Test
     void delete_shouldReturnNoContent_whenSuccessful() {
         // Arrange
-        doNothing().when(resultadoService).delete(1L);
+        doNothing().when(resultadoService).delete(1L, null);
 
         // Act
-        ResponseEntity<Void> response = resultadoController.delete(1L);
+        ResponseEntity<Void> response = resultadoController.delete(1L, null);
 
         // Assert
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
         assertNull(response.getBody());
-        verify(resultadoService).delete(1L);
+        verify(resultadoService).delete(1L, null);
     }
 
     @Test
     void delete_shouldThrowException_whenNotFound() {
         // Arrange
         doThrow(new IllegalArgumentException("Resultado no encontrado con ID: 999"))
-                .when(resultadoService).delete(999L);
+                .when(resultadoService).delete(999L, null);
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> {
-            resultadoController.delete(999L);
+            resultadoController.delete(999L, null);
         });
     }
+
+    @Test
+    void delete_shouldPassIfMatchVersion() {
+        // Arrange
+        doNothing().when(resultadoService).delete(1L, 2L);
+
+        // Act
+        ResponseEntity<Void> response = resultadoController.delete(1L, "\"2\"");
+
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(resultadoService).delete(1L, 2L);
+    }
 }
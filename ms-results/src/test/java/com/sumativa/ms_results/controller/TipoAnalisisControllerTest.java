@@ -112,6 +112,23 @@ class TipoAnalisisControllerTest {
         assertTrue(response.getBody().isEmpty());
     }
 
+    @Test
+    void getAll_shouldReturnWeakETag_thatChangesWithVersion() {
+        // Arrange
+        testTipoAnalisis.setVersion(0L);
+        when(tipoAnalisisService.findAll()).thenReturn(List.of(testTipoAnalisis));
+        when(tipoAnalisisMapper.toDto(testTipoAnalisis)).thenReturn(testResponseDto);
+        String antes = tipoAnalisisController.getAll().getHeaders().getETag();
+
+        // Act
+        testTipoAnalisis.setVersion(1L);
+        String despues = tipoAnalisisController.getAll().getHeaders().getETag();
+
+        // Assert
+        assertTrue(antes.startsWith("W/\""));
+        assertNotEquals(antes, despues);
+    }
+
     // ==================== getById Tests ====================
 
     @Test
@@ -131,6 +148,20 @@ class TipoAnalisisControllerTest {
         verify(tipoAnalisisService).findById(1L);
     }
 
+    @Test
+    void getById_shouldReturnVersionAsStrongETag() {
+        // Arrange
+        testTipoAnalisis.setVersion(2L);
+        when(tipoAnalisisService.findById(1L)).thenReturn(testTipoAnalisis);
+        when(tipoAnalisisMapper.toDto(testTipoAnalisis)).thenReturn(testResponseDto);
+
+        // Act
+        ResponseEntity<TipoAnalisisResponseDto> response = tipoAnalisisController.getById(1L);
+
+        // Assert
+        assertEquals("\"2\"", response.getHeaders().getETag());
+    }
+
     @Test
     void getById_shouldThrowException_whenNotFound() {
         // Arrange
@@ -0,0 +1,54 @@
+package com.sumativa.ms_results.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de las validaciones de ResultadoUpdateDto (PUT y PATCH)
+ */
+class ResultadoUpdateDtoTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private Set<String> camposInvalidos(ResultadoUpdateDto dto) {
+        Set<ConstraintViolation<ResultadoUpdateDto>> violaciones = validator.validate(dto);
+        return violaciones.stream()
+                .map(v -> v.getPropertyPath().toString())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    void validate_shouldAcceptMissingFields() {
+        // Act & Assert
+        assertTrue(camposInvalidos(new ResultadoUpdateDto()).isEmpty());
+    }
+
+    @Test
+    void validate_shouldRejectBlankEstado() {
+        // Act & Assert
+        assertEquals(Set.of("estado"), camposInvalidos(ResultadoUpdateDto.builder().estado("").build()));
+        assertEquals(Set.of("estado"), camposInvalidos(ResultadoUpdateDto.builder().estado("   ").build()));
+    }
+
+    @Test
+    void validate_shouldRejectBlankPaciente() {
+        // Act & Assert
+        assertEquals(Set.of("paciente"), camposInvalidos(ResultadoUpdateDto.builder().paciente("    ").build()));
+    }
+
+    @Test
+    void validate_shouldAcceptTextWithSurroundingSpaces() {
+        // Arrange
+        ResultadoUpdateDto dto = ResultadoUpdateDto.builder().paciente(" Ana\nPérez ").estado(" REVISADO").build();
+
+        // Act & Assert
+        assertTrue(camposInvalidos(dto).isEmpty());
+    }
+}
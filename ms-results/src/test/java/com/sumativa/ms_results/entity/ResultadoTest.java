@@ -70,7 +70,8 @@ class ResultadoTest {
                 "COMPLETADO",
                 "Sin observaciones",
                 creadoEn,
-                actualizadoEn
+                actualizadoEn,
+                0L
         );
 
         // Assert
@@ -85,6 +86,7 @@ class ResultadoTest {
         assertEquals("Sin observaciones", resultado.getObservaciones());
         assertEquals(creadoEn, resultado.getCreadoEn());
         assertEquals(actualizadoEn, resultado.getActualizadoEn());
+        assertEquals(0L, resultado.getVersion());
     }
 
     @Test
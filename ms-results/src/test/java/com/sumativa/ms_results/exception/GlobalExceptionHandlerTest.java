@@ -1,6 +1,7 @@
 package com.sumativa.ms_results.exception;
 
 import com.sumativa.ms_results.dto.ErrorResponseDto;
+import com.sumativa.ms_results.entity.Resultado;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -85,6 +88,56 @@ class GlobalExceptionHandlerTest {
         assertEquals(400, response.getBody().getStatus());
     }
 
+    // ==================== Concurrencia Tests ====================
+
+    @Test
+    void handlePreconditionFailed_shouldReturn412() {
+        // Arrange
+        PreconditionFailedException ex = new PreconditionFailedException("El resultado 1 está en la versión 3 y no en la versión 2");
+
+        // Act
+        ResponseEntity<ErrorResponseDto> response = globalExceptionHandler.handlePreconditionFailed(ex, request);
+
+        // Assert
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(412, response.getBody().getStatus());
+        assertEquals(ex.getMessage(), response.getBody().getMessage());
+    }
+
+    @Test
+    void handleOptimisticLocking_shouldReturn409() {
+        // Arrange
+        ObjectOptimisticLockingFailureException ex = new ObjectOptimisticLockingFailureException(Resultado.class, 1L);
+
+        // Act
+        ResponseEntity<ErrorResponseDto> response = globalExceptionHandler.handleOptimisticLocking(ex, request);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(409, response.getBody().getStatus());
+        assertEquals("/api/resultados/1", response.getBody().getPath());
+    }
+
+    // ==================== handleAccessDenied Tests ====================
+
+    @Test
+    void handleAccessDenied_shouldReturn403() {
+        // Arrange
+        when(request.getRequestURI()).thenReturn("/api/resultados/buscar/reindexar");
+        AccessDeniedException ex = new AccessDeniedException("Access Denied");
+
+        // Act
+        ResponseEntity<ErrorResponseDto> response = globalExceptionHandler.handleAccessDenied(ex, request);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(403, response.getBody().getStatus());
+        assertEquals("/api/resultados/buscar/reindexar", response.getBody().getPath());
+    }
+
     // ==================== handleValidationErrors Tests ====================
 
     @Test
@@ -1,17 +1,22 @@
 package com.sumativa.ms_results.mapper;
 
 import com.sumativa.ms_results.dto.ResultadoCreateDto;
+import com.sumativa.ms_results.dto.ResultadoFila;
 import com.sumativa.ms_results.dto.ResultadoResponseDto;
 import com.sumativa.ms_results.dto.ResultadoUpdateDto;
 import com.sumativa.ms_results.entity.Resultado;
 import com.sumativa.ms_results.entity.TipoAnalisis;
+import com.sumativa.ms_results.service.TipoAnalisisService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
 
 /**
  * Tests unitarios para ResultadoMapper
@@ -20,11 +25,13 @@ class ResultadoMapperTest {
 
     private ResultadoMapper mapper;
     private TipoAnalisisMapper tipoAnalisisMapper;
+    private TipoAnalisisService tipoAnalisisService;
 
     @BeforeEach
     void setUp() {
         tipoAnalisisMapper = new TipoAnalisisMapper();
-        mapper = new ResultadoMapper(tipoAnalisisMapper);
+        tipoAnalisisService = mock(TipoAnalisisService.class);
+        mapper = new ResultadoMapper(tipoAnalisisMapper, tipoAnalisisService);
     }
 
     private TipoAnalisis createTestTipoAnalisis() {
@@ -84,6 +91,16 @@ class ResultadoMapperTest {
         assertEquals("Glucosa", dto.getTipoAnalisis().getNombre());
     }
 
+    @Test
+    void toDto_shouldUseLoadedTipoAnalisisWithoutCatalogLookup() {
+        // Act
+        ResultadoResponseDto dto = mapper.toDto(createTestResultado());
+
+        // Assert
+        assertEquals("Glucosa", dto.getTipoAnalisis().getNombre());
+        verifyNoInteractions(tipoAnalisisService);
+    }
+
     @Test
     void toDto_shouldReturnNull_whenEntityIsNull() {
         // Act
@@ -129,6 +146,70 @@ class ResultadoMapperTest {
         assertNull(dto.getObservaciones());
     }
 
+    // ==================== filasToDto Tests ====================
+
+    private ResultadoFila createTestFila(Long id, Long tipoAnalisisId) {
+        return new ResultadoFila(id, "Juan Pérez", LocalDateTime.of(2025, 1, 15, 10, 30), tipoAnalisisId, 100L,
+                new BigDecimal("85.50"), "Normal", "COMPLETADO", "Sin observaciones",
+                LocalDateTime.of(2025, 1, 15, 10, 0), LocalDateTime.of(2025, 1, 15, 10, 30), 3L);
+    }
+
+    @Test
+    void filasToDto_shouldMapAllFieldsAndResolveTipoAnalisisFromCatalog() {
+        // Arrange
+        when(tipoAnalisisService.findAll()).thenReturn(List.of(createTestTipoAnalisis()));
+
+        // Act
+        List<ResultadoResponseDto> dtos = mapper.filasToDto(List.of(createTestFila(1L, 1L)));
+
+        // Assert
+        ResultadoResponseDto dto = dtos.get(0);
+        assertEquals(1L, dto.getId());
+        assertEquals("Juan Pérez", dto.getPaciente());
+        assertEquals(LocalDateTime.of(2025, 1, 15, 10, 30), dto.getFechaRealizacion());
+        assertEquals(100L, dto.getLaboratorioId());
+        assertEquals(new BigDecimal("85.50"), dto.getValorNumerico());
+        assertEquals("Normal", dto.getValorTexto());
+        assertEquals("COMPLETADO", dto.getEstado());
+        assertEquals("Sin observaciones", dto.getObservaciones());
+        assertEquals(LocalDateTime.of(2025, 1, 15, 10, 0), dto.getCreadoEn());
+        assertEquals(LocalDateTime.of(2025, 1, 15, 10, 30), dto.getActualizadoEn());
+        assertEquals(3L, dto.getVersion());
+        assertEquals("Glucosa", dto.getTipoAnalisis().getNombre());
+    }
+
+    @Test
+    void filasToDto_shouldQueryCatalogOnceAndShareTipoAnalisisDto() {
+        // Arrange
+        when(tipoAnalisisService.findAll()).thenReturn(List.of(createTestTipoAnalisis()));
+
+        // Act
+        List<ResultadoResponseDto> dtos = mapper.filasToDto(List.of(createTestFila(1L, 1L), createTestFila(2L, 1L)));
+
+        // Assert
+        assertEquals(2, dtos.size());
+        assertSame(dtos.get(0).getTipoAnalisis(), dtos.get(1).getTipoAnalisis());
+        verify(tipoAnalisisService, times(1)).findAll();
+        verify(tipoAnalisisService, never()).lookup(anyLong());
+    }
+
+    @Test
+    void filaConverter_shouldLookUpTiposMissingFromSnapshot() {
+        // Arrange
+        TipoAnalisis nuevo = createTestTipoAnalisis();
+        nuevo.setId(2L);
+        nuevo.setNombre("Colesterol");
+        when(tipoAnalisisService.findAll()).thenReturn(List.of(createTestTipoAnalisis()));
+        when(tipoAnalisisService.lookup(2L)).thenReturn(nuevo);
+
+        // Act
+        ResultadoResponseDto dto = mapper.filaConverter().apply(createTestFila(1L, 2L));
+
+        // Assert
+        assertEquals("Colesterol", dto.getTipoAnalisis().getNombre());
+        verify(tipoAnalisisService, times(1)).lookup(2L);
+    }
+
     // ==================== toEntity Tests ====================
 
     @Test
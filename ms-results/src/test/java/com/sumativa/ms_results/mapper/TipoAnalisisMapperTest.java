@@ -36,6 +36,7 @@ class TipoAnalisisMapperTest {
         entity.setValorReferenciaMin(new BigDecimal("70.00"));
         entity.setValorReferenciaMax(new BigDecimal("100.00"));
         entity.setActivo(true);
+        entity.setVersion(3L);
 
         // Act
         TipoAnalisisResponseDto dto = mapper.toDto(entity);
@@ -49,6 +50,7 @@ class TipoAnalisisMapperTest {
         assertEquals(new BigDecimal("70.00"), dto.getValorReferenciaMin());
         assertEquals(new BigDecimal("100.00"), dto.getValorReferenciaMax());
         assertTrue(dto.getActivo());
+        assertEquals(3L, dto.getVersion());
     }
 
     @Test
@@ -0,0 +1,122 @@
+package com.sumativa.ms_results.repository;
+
+import com.sumativa.ms_results.dto.ResultadoUpdateDto;
+import com.sumativa.ms_results.entity.Resultado;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica la actualización parcial de Resultado: un único UPDATE con sólo las
+ * columnas enviadas, incremento de versión y condición sobre la versión esperada.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:resultados-actualizar-parcial;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class ResultadoRepositoryActualizarParcialTest {
+
+    private static final long ID = 20_000L;
+
+    @Autowired
+    private ResultadoRepository resultadoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO resultados (id, paciente, fecha_realizacion, tipo_analisis_id, laboratorio_id, "
+                + "estado, observaciones, creado_en) VALUES (?, 'Paciente Original', CURRENT_TIMESTAMP, 1, 10, "
+                + "'PENDIENTE', 'Original', CURRENT_TIMESTAMP)", ID);
+
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private Map<String, Object> fila() {
+        return jdbcTemplate.queryForMap(
+                "SELECT paciente, estado, observaciones, tipo_analisis_id, version FROM resultados WHERE id = ?", ID);
+    }
+
+    @Test
+    void actualizarParcial_shouldUpdateOnlyGivenFieldsWithSingleStatement() {
+        // Arrange
+        ResultadoUpdateDto cambios = ResultadoUpdateDto.builder().estado("REVISADO").tipoAnalisisId(2L).build();
+
+        // Act
+        int filas = resultadoRepository.actualizarParcial(ID, cambios, null);
+
+        // Assert
+        assertEquals(1, filas);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        Map<String, Object> fila = fila();
+        assertEquals("REVISADO", fila.get("ESTADO"));
+        assertEquals(2L, ((Number) fila.get("TIPO_ANALISIS_ID")).longValue());
+        assertEquals("Paciente Original", fila.get("PACIENTE"));
+        assertEquals("Original", fila.get("OBSERVACIONES"));
+        assertEquals(1L, ((Number) fila.get("VERSION")).longValue());
+    }
+
+    @Test
+    void actualizarParcial_shouldUpdate_whenExpectedVersionMatches() {
+        // Act
+        int filas = resultadoRepository.actualizarParcial(ID,
+                ResultadoUpdateDto.builder().observaciones("Revisado").build(), 0L);
+
+        // Assert
+        assertEquals(1, filas);
+        assertEquals(1L, resultadoRepository.findVersionById(ID).orElseThrow());
+    }
+
+    @Test
+    void actualizarParcial_shouldNotUpdate_whenExpectedVersionIsStale() {
+        // Arrange
+        resultadoRepository.actualizarParcial(ID, ResultadoUpdateDto.builder().estado("REVISADO").build(), 0L);
+
+        // Act
+        int filas = resultadoRepository.actualizarParcial(ID,
+                ResultadoUpdateDto.builder().estado("COMPLETADO").build(), 0L);
+
+        // Assert
+        assertEquals(0, filas);
+        assertEquals("REVISADO", fila().get("ESTADO"));
+    }
+
+    @Test
+    void save_shouldFailWithOptimisticLock_whenRowChangedAfterRead() {
+        // Arrange
+        Resultado leido = resultadoRepository.findById(ID).orElseThrow();
+        entityManager.detach(leido);
+        resultadoRepository.actualizarParcial(ID, ResultadoUpdateDto.builder().estado("REVISADO").build(), null);
+
+        // Act & Assert
+        leido.setObservaciones("Escritura concurrente");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> {
+            resultadoRepository.save(leido);
+            entityManager.flush();
+        });
+    }
+}
@@ -0,0 +1,166 @@
+package com.sumativa.ms_results.repository;
+
+import com.sumativa.ms_results.dto.ResultadoFila;
+import com.sumativa.ms_results.dto.ResultadoFiltroDto;
+import com.sumativa.ms_results.entity.Resultado;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica la cantidad de consultas de las rutas de lectura de Resultado:
+ * el listado no debe hidratar entidades ni consultar tipos_analisis por fila.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:resultados-read-model;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class ResultadoRepositoryReadModelTest {
+
+    private static final int FILAS = 2_000;
+
+    @Autowired
+    private ResultadoRepository resultadoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> filas = new ArrayList<>(FILAS);
+        for (int i = 0; i < FILAS; i++) {
+            filas.add(new Object[]{10_000L + i, "Paciente " + i, (long) (i % 5) + 1, (long) (i % 10)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO resultados (id, paciente, fecha_realizacion, tipo_analisis_id, "
+                + "laboratorio_id, estado, creado_en) VALUES (?, ?, CURRENT_TIMESTAMP, ?, ?, 'COMPLETADO', CURRENT_TIMESTAMP)", filas);
+
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllFilas_shouldUseSingleQueryWithoutManagedEntities() {
+        // Act
+        List<ResultadoFila> filas = resultadoRepository.findAllFilas();
+
+        // Assert
+        assertTrue(filas.size() >= FILAS);
+        assertNotNull(filas.get(0).getTipoAnalisisId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void streamByFiltro_shouldApplyFiltersWithSingleQuery() {
+        // Act
+        long total;
+        try (var stream = resultadoRepository.streamByFiltro(3L, "COMPLETADO")) {
+            total = stream.peek(fila -> assertEquals(3L, fila.getLaboratorioId())).count();
+        }
+
+        // Assert
+        assertEquals(FILAS / 10, total);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findFilasByIdIn_shouldReturnExistingIdsWithSingleQuery() {
+        // Act
+        List<ResultadoFila> filas = resultadoRepository.findFilasByIdIn(List.of(10_005L, 10_001L, 999_999L));
+
+        // Assert
+        assertEquals(Set.of(10_001L, 10_005L), filas.stream().map(ResultadoFila::getId).collect(Collectors.toSet()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void scrollFilas_shouldReturnPageWithSingleQueryWithoutManagedEntities() {
+        // Act
+        Window<ResultadoFila> window = resultadoRepository.scrollFilas(
+                ResultadoSpecifications.conFiltro(new ResultadoFiltroDto()), ScrollPosition.keyset(), 100);
+
+        // Assert
+        assertEquals(100, window.size());
+        assertTrue(window.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void scrollFilas_shouldMatchFilaProjection() {
+        // Act
+        List<ResultadoFila> pagina = resultadoRepository.scrollFilas(
+                ResultadoSpecifications.conFiltro(new ResultadoFiltroDto()), ScrollPosition.keyset(), 5).getContent();
+
+        // Assert: las mismas filas que la constructor expression FILA
+        List<Long> ids = pagina.stream().map(ResultadoFila::getId).toList();
+        Set<ResultadoFila> esperadas = Set.copyOf(resultadoRepository.findFilasByIdIn(ids));
+        assertEquals(esperadas, Set.copyOf(pagina));
+    }
+
+    @Test
+    void scrollFilas_shouldWalkAllFilteredRowsByKeysetInOrder() {
+        // Arrange: todas las filas comparten fecha, el id desempata
+        Specification<Resultado> filtro = ResultadoSpecifications.conFiltro(
+                ResultadoFiltroDto.builder().laboratorioId(3L).build());
+        List<Long> ids = new ArrayList<>();
+
+        // Act
+        Window<ResultadoFila> window = resultadoRepository.scrollFilas(filtro, ScrollPosition.keyset(), 70);
+        ids.addAll(window.getContent().stream().map(ResultadoFila::getId).toList());
+        while (window.hasNext()) {
+            KeysetScrollPosition siguiente = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            window = resultadoRepository.scrollFilas(filtro, siguiente, 70);
+            ids.addAll(window.getContent().stream().map(ResultadoFila::getId).toList());
+        }
+
+        // Assert
+        assertEquals(FILAS / 10, ids.size());
+        assertEquals(ids.stream().sorted(Comparator.reverseOrder()).toList(), ids);
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void resumen_shouldCountRowsAndReturnLatestUpdate() {
+        // Arrange
+        jdbcTemplate.update("UPDATE resultados SET actualizado_en = TIMESTAMP '2031-05-04 10:15:30.123' WHERE id = 10001");
+
+        // Act
+        ResultadoRepository.Resumen resumen = resultadoRepository.resumen();
+
+        // Assert
+        assertEquals(resultadoRepository.count(), resumen.getCantidad());
+        assertTrue(resumen.getCantidad() >= FILAS);
+        assertEquals(LocalDateTime.of(2031, 5, 4, 10, 15, 30, 123_000_000), resumen.getUltimaActualizacion());
+    }
+}
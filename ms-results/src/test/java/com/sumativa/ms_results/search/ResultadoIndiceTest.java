@@ -0,0 +1,284 @@
+package com.sumativa.ms_results.search;
+
+import com.sumativa.ms_results.dto.ResultadoFila;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del índice de texto completo sobre un directorio temporal en disco
+ */
+class ResultadoIndiceTest {
+
+    @TempDir
+    Path directorio;
+
+    private ResultadoIndice indice;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        indice = new ResultadoIndice(FSDirectory.open(directorio));
+        indice.actualizar(List.of(
+                fila(1L, "José Muñoz Tapia", "Muestra hemolizada", null),
+                fila(2L, "María Pérez", null, "Negativo"),
+                fila(3L, "Pedro Pereira", "Paciente en ayunas", "Positivo débil"),
+                fila(4L, "Ana Soto", "Control post operatorio de Muñoz", null)), List.of());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        indice.close();
+    }
+
+    private static ResultadoFila fila(Long id, String paciente, String observaciones, String valorTexto) {
+        return new ResultadoFila(id, paciente, LocalDateTime.of(2025, 1, 15, 10, 0), 1L, 100L,
+                null, valorTexto, "COMPLETADO", observaciones, LocalDateTime.of(2025, 1, 15, 10, 0), null, 0L);
+    }
+
+    private static ResultadoFila fila(Long id, String paciente, LocalDateTime actualizadoEn) {
+        return new ResultadoFila(id, paciente, LocalDateTime.of(2025, 1, 15, 10, 0), 1L, 100L,
+                null, null, "COMPLETADO", null, LocalDateTime.of(2025, 1, 15, 10, 0), actualizadoEn, 0L);
+    }
+
+    private List<Long> ids(String texto) {
+        return indice.buscar(texto, 0, 20).ids();
+    }
+
+    // ==================== Acentos y mayúsculas Tests ====================
+
+    @Test
+    void buscar_shouldIgnoreAccentsAndCase() {
+        // Act & Assert
+        assertEquals(List.of(2L), ids("perez"));
+        assertEquals(List.of(2L), ids("PÉREZ"));
+        assertEquals(List.of(2L), ids("Perez"));
+        assertTrue(ids("munoz").contains(1L));
+        assertTrue(ids("MUÑOZ").contains(1L));
+    }
+
+    @Test
+    void buscar_shouldRankPacienteAboveObservaciones() {
+        // Act
+        List<Long> result = ids("muñoz");
+
+        // Assert: 1 lo tiene en paciente, 4 en observaciones
+        assertEquals(List.of(1L, 4L), result);
+    }
+
+    @Test
+    void buscar_shouldSearchObservacionesAndValorTexto() {
+        // Act & Assert
+        assertEquals(List.of(1L), ids("hemolizada"));
+        assertEquals(List.of(3L), ids("debil"));
+    }
+
+    // ==================== Prefijo y aproximada Tests ====================
+
+    @Test
+    void buscar_shouldMatchPrefix() {
+        // Act
+        List<Long> result = ids("pere");
+
+        // Assert
+        assertTrue(result.containsAll(List.of(2L, 3L)));
+        assertEquals(List.of(1L), ids("hemol"));
+    }
+
+    @Test
+    void buscar_shouldTolerateTypos() {
+        // Act & Assert: "pereira" queda a más de una edición de "peres"
+        assertEquals(List.of(2L), ids("peres"));
+        assertTrue(ids("munos").contains(1L));
+        assertEquals(List.of(1L), ids("hemolisada"));
+    }
+
+    @Test
+    void buscar_shouldRankExactMatchAbovePrefix() {
+        // Arrange
+        indice.actualizar(List.of(fila(5L, "Pere Soler", null, null)), List.of());
+
+        // Act
+        List<Long> result = ids("pere");
+
+        // Assert: 5 coincide exacto; Pérez y Pereira, como prefijo
+        assertEquals(5L, result.get(0));
+        assertEquals(3, result.size());
+    }
+
+    @Test
+    void buscar_shouldRequireAllTerms() {
+        // Act & Assert
+        assertEquals(List.of(1L), ids("munoz jose"));
+        assertEquals(List.of(4L), ids("munoz control"));
+        assertTrue(ids("perez hemolizada").isEmpty());
+    }
+
+    @Test
+    void buscar_shouldRejectTextWithoutTerms() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar("  ¿? ", 0, 20));
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar(null, 0, 20));
+    }
+
+    // ==================== Paginación Tests ====================
+
+    @Test
+    void buscar_shouldPageAndCountAllMatches() {
+        // Arrange
+        List<ResultadoFila> filas = new ArrayList<>();
+        for (long id = 100; id < 125; id++) {
+            filas.add(fila(id, "Paciente Rojas " + id, null, null));
+        }
+        indice.actualizar(filas, List.of());
+
+        // Act
+        ResultadoIndice.Pagina primera = indice.buscar("rojas", 0, 10);
+        ResultadoIndice.Pagina tercera = indice.buscar("rojas", 2, 10);
+
+        // Assert
+        assertEquals(25, primera.total());
+        assertEquals(10, primera.ids().size());
+        assertEquals(5, tercera.ids().size());
+        assertTrue(tercera.ids().stream().noneMatch(primera.ids()::contains));
+    }
+
+    @Test
+    void buscar_shouldRejectPagesBeyondWindow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                indice.buscar("perez", ResultadoIndice.MAX_VENTANA / 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> indice.buscar("perez", -1, 10));
+    }
+
+    // ==================== actualizar Tests ====================
+
+    @Test
+    void actualizar_shouldReplaceAndDeleteDocuments() {
+        // Act
+        indice.actualizar(List.of(fila(2L, "María González", null, "Negativo")), List.of(1L));
+
+        // Assert
+        assertTrue(ids("perez").isEmpty());
+        assertEquals(List.of(2L), ids("gonzalez"));
+        assertEquals(List.of(4L), ids("munoz"));
+        assertEquals(3, indice.documentos());
+    }
+
+    @Test
+    void indice_shouldPersistOnDisk() throws IOException {
+        // Arrange
+        indice.close();
+
+        // Act
+        indice = new ResultadoIndice(FSDirectory.open(directorio));
+
+        // Assert
+        assertEquals(4, indice.documentos());
+        assertEquals(List.of(2L), ids("perez"));
+    }
+
+    // ==================== reconstruir Tests ====================
+
+    @Test
+    void reconstruir_shouldReplaceWholeIndex() {
+        // Act
+        indice.reconstruir(agregar -> {
+            agregar.accept(fila(10L, "Luis Núñez", null, null));
+            agregar.accept(fila(11L, "Carla Ibáñez", null, null));
+        });
+
+        // Assert
+        assertEquals(2, indice.documentos());
+        assertTrue(ids("perez").isEmpty());
+        assertEquals(List.of(10L), ids("nunez"));
+        assertEquals(List.of(11L), ids("ibanez"));
+    }
+
+    @Test
+    void reconstruir_shouldKeepPreviousIndex_whenSourceFails() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> indice.reconstruir(agregar -> {
+            agregar.accept(fila(10L, "Luis Núñez", null, null));
+            throw new IllegalStateException("Conexión perdida");
+        }));
+
+        // Assert
+        assertEquals(4, indice.documentos());
+        assertEquals(List.of(2L), ids("perez"));
+        assertTrue(ids("nunez").isEmpty());
+
+        indice.actualizar(List.of(fila(10L, "Luis Núñez", null, null)), List.of());
+        assertEquals(List.of(10L), ids("nunez"));
+    }
+
+    // ==================== ultimaActualizacion Tests ====================
+
+    @Test
+    void ultimaActualizacion_shouldKeepMostRecentIndexed() {
+        // Act
+        indice.actualizar(List.of(
+                fila(5L, "Luis Núñez", LocalDateTime.of(2025, 3, 1, 9, 30)),
+                fila(6L, "Carla Ibáñez", LocalDateTime.of(2025, 2, 1, 9, 30))), List.of());
+        indice.actualizar(List.of(fila(7L, "Rosa Díaz", LocalDateTime.of(2025, 1, 1, 9, 30))), List.of());
+
+        // Assert
+        assertEquals(LocalDateTime.of(2025, 3, 1, 9, 30), indice.ultimaActualizacion());
+    }
+
+    @Test
+    void ultimaActualizacion_shouldPersistOnDisk() throws IOException {
+        // Arrange
+        indice.actualizar(List.of(fila(5L, "Luis Núñez", LocalDateTime.of(2025, 3, 1, 9, 30, 15, 123_000_000))),
+                List.of());
+        indice.close();
+
+        // Act
+        indice = new ResultadoIndice(FSDirectory.open(directorio));
+
+        // Assert
+        assertEquals(LocalDateTime.of(2025, 3, 1, 9, 30, 15, 123_000_000), indice.ultimaActualizacion());
+    }
+
+    @Test
+    void ultimaActualizacion_shouldBeNull_whenNoRowHasDate() {
+        // Assert
+        assertNull(indice.ultimaActualizacion());
+    }
+
+    @Test
+    void reconstruir_shouldRecomputeUltimaActualizacion() {
+        // Arrange
+        indice.actualizar(List.of(fila(5L, "Luis Núñez", LocalDateTime.of(2025, 3, 1, 9, 30))), List.of());
+
+        // Act: la fila más reciente ya no existe
+        indice.reconstruir(agregar -> agregar.accept(fila(6L, "Carla Ibáñez", LocalDateTime.of(2025, 2, 1, 9, 30))));
+
+        // Assert
+        assertEquals(LocalDateTime.of(2025, 2, 1, 9, 30), indice.ultimaActualizacion());
+    }
+
+    @Test
+    void reconstruir_shouldKeepUltimaActualizacion_whenSourceFails() {
+        // Arrange
+        indice.actualizar(List.of(fila(5L, "Luis Núñez", LocalDateTime.of(2025, 3, 1, 9, 30))), List.of());
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> indice.reconstruir(agregar -> {
+            agregar.accept(fila(6L, "Carla Ibáñez", LocalDateTime.of(2025, 4, 1, 9, 30)));
+            throw new IllegalStateException("Conexión perdida");
+        }));
+
+        // Assert
+        assertEquals(LocalDateTime.of(2025, 3, 1, 9, 30), indice.ultimaActualizacion());
+    }
+}
@@ -0,0 +1,146 @@
+package com.sumativa.ms_results.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para GatewayIdentityVerifier
+ */
+class GatewayIdentityVerifierTest {
+
+    private static final String SECRET = "claveInternaGatewayMicroservicios2025abcdef";
+
+    private GatewayIdentityVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        verifier = new GatewayIdentityVerifier(true, SECRET);
+    }
+
+    private MockHttpServletRequest signedRequest(String email, String roles, long expires, String secret) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] digest = mac.doFinal((email + "\n" + roles + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-User-Email", email);
+        request.addHeader("X-User-Roles", roles);
+        request.addHeader("X-Auth-Expires", Long.toString(expires));
+        request.addHeader("X-Auth-Signature", Base64.getUrlEncoder().withoutPadding().encodeToString(digest));
+        return request;
+    }
+
+    private long inOneMinute() {
+        return System.currentTimeMillis() + 60000;
+    }
+
+    // ==================== verify Tests ====================
+
+    @Test
+    void verify_shouldReturnIdentity_whenSignatureIsValid() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = signedRequest("test@example.com", "ADMIN,USER", inOneMinute(), SECRET);
+
+        // Act
+        Optional<JwtTokenProvider.VerifiedToken> result = verifier.verify(request);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("test@example.com", result.get().email());
+        assertEquals(List.of("ADMIN", "USER"), result.get().roles());
+    }
+
+    @Test
+    void verify_shouldReturnEmpty_whenDisabled() throws Exception {
+        // Arrange
+        GatewayIdentityVerifier disabled = new GatewayIdentityVerifier(false, "");
+        MockHttpServletRequest request = signedRequest("test@example.com", "ADMIN", inOneMinute(), SECRET);
+
+        // Act & Assert
+        assertTrue(disabled.verify(request).isEmpty());
+    }
+
+    @Test
+    void verify_shouldReturnEmpty_whenNoSignature() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-User-Email", "test@example.com");
+        request.addHeader("X-User-Roles", "ADMIN");
+
+        // Act & Assert
+        assertTrue(verifier.verify(request).isEmpty());
+    }
+
+    @Test
+    void verify_shouldReturnEmpty_whenRolesAreTampered() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = signedRequest("test@example.com", "USER", inOneMinute(), SECRET);
+        request.removeHeader("X-User-Roles");
+        request.addHeader("X-User-Roles", "ADMIN");
+
+        // Act & Assert
+        assertTrue(verifier.verify(request).isEmpty());
+    }
+
+    @Test
+    void verify_shouldReturnEmpty_whenSignedWithAnotherKey() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = signedRequest("test@example.com", "ADMIN", inOneMinute(),
+                "otraClaveInternaQueNoCoincideConLaConfigurada");
+
+        // Act & Assert
+        assertTrue(verifier.verify(request).isEmpty());
+    }
+
+    @Test
+    void verify_shouldReturnEmpty_whenExpired() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = signedRequest("test@example.com", "ADMIN",
+                System.currentTimeMillis() - 1000, SECRET);
+
+        // Act & Assert
+        assertTrue(verifier.verify(request).isEmpty());
+    }
+
+    @Test
+    void verify_shouldReturnEmpty_whenSignatureIsMalformed() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = signedRequest("test@example.com", "ADMIN", inOneMinute(), SECRET);
+        request.removeHeader("X-Auth-Signature");
+        request.addHeader("X-Auth-Signature", "no es base64!");
+
+        // Act & Assert
+        assertTrue(verifier.verify(request).isEmpty());
+    }
+
+    @Test
+    void verify_shouldReturnEmpty_whenExpiresIsNotANumber() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-User-Email", "test@example.com");
+        request.addHeader("X-User-Roles", "ADMIN");
+        request.addHeader("X-Auth-Expires", "mañana");
+        request.addHeader("X-Auth-Signature", "abc");
+
+        // Act & Assert
+        assertTrue(verifier.verify(request).isEmpty());
+    }
+
+    // ==================== Constructor Tests ====================
+
+    @Test
+    void constructor_shouldFail_whenEnabledWithShortSecret() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new GatewayIdentityVerifier(true, "corta"));
+    }
+}
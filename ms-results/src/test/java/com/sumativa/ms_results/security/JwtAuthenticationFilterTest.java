@@ -14,8 +14,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,6 +31,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private GatewayIdentityVerifier gatewayIdentityVerifier;
+
     @Mock
     private HttpServletRequest request;
 
@@ -46,6 +51,10 @@ class JwtAuthenticationFilterTest {
         SecurityContextHolder.clearContext();
     }
 
+    private Optional<JwtTokenProvider.VerifiedToken> verified(String email, List<String> roles) {
+        return Optional.of(new JwtTokenProvider.VerifiedToken(email, roles, Instant.now().plusSeconds(3600)));
+    }
+
     // ==================== doFilterInternal Tests ====================
 
     @Test
@@ -56,9 +65,7 @@ class JwtAuthenticationFilterTest {
         List<String> roles = Arrays.asList("ADMIN", "USER");
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(true);
-        when(jwtTokenProvider.getEmailFromToken(token)).thenReturn(email);
-        when(jwtTokenProvider.getRolesFromToken(token)).thenReturn(roles);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified(email, roles));
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -102,7 +109,7 @@ class JwtAuthenticationFilterTest {
         // Arrange
         String token = "invalid.jwt.token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(false);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(Optional.empty());
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -131,7 +138,7 @@ class JwtAuthenticationFilterTest {
         // Arrange
         String token = "problematic.jwt.token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenThrow(new RuntimeException("JWT parsing error"));
+        when(jwtTokenProvider.verifyToken(token)).thenThrow(new RuntimeException("JWT parsing error"));
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -149,9 +156,7 @@ class JwtAuthenticationFilterTest {
         List<String> roles = Arrays.asList("ADMIN");
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(true);
-        when(jwtTokenProvider.getEmailFromToken(token)).thenReturn(email);
-        when(jwtTokenProvider.getRolesFromToken(token)).thenReturn(roles);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified(email, roles));
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -172,9 +177,7 @@ class JwtAuthenticationFilterTest {
         List<String> roles = Arrays.asList();
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(true);
-        when(jwtTokenProvider.getEmailFromToken(token)).thenReturn(email);
-        when(jwtTokenProvider.getRolesFromToken(token)).thenReturn(roles);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified(email, roles));
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -206,9 +209,7 @@ class JwtAuthenticationFilterTest {
         List<String> roles = Arrays.asList("USER");
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(true);
-        when(jwtTokenProvider.getEmailFromToken(token)).thenReturn(email);
-        when(jwtTokenProvider.getRolesFromToken(token)).thenReturn(roles);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified(email, roles));
         when(request.getRemoteAddr()).thenReturn("127.0.0.1");
 
         // Act
@@ -219,4 +220,56 @@ class JwtAuthenticationFilterTest {
         assertNotNull(authentication);
         assertNotNull(authentication.getDetails());
     }
+
+    @Test
+    void doFilterInternal_shouldVerifyTokenOnlyOnce() throws ServletException, IOException {
+        // Arrange
+        String token = "valid.jwt.token";
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified("test@example.com", List.of("USER")));
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(jwtTokenProvider, times(1)).verifyToken(token);
+        verify(jwtTokenProvider, never()).validateToken(anyString());
+        verify(jwtTokenProvider, never()).getEmailFromToken(anyString());
+        verify(jwtTokenProvider, never()).getRolesFromToken(anyString());
+    }
+
+    // ==================== Trusted Gateway Tests ====================
+
+    @Test
+    void doFilterInternal_shouldUseGatewayIdentity_withoutVerifyingJwt() throws ServletException, IOException {
+        // Arrange
+        when(gatewayIdentityVerifier.verify(request)).thenReturn(verified("test@example.com", List.of("ADMIN")));
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("test@example.com", authentication.getPrincipal());
+        verifyNoInteractions(jwtTokenProvider);
+    }
+
+    @Test
+    void doFilterInternal_shouldFallBackToJwt_whenNoGatewayIdentity() throws ServletException, IOException {
+        // Arrange
+        String token = "valid.jwt.token";
+        when(gatewayIdentityVerifier.verify(request)).thenReturn(Optional.empty());
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified("test@example.com", List.of("USER")));
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(jwtTokenProvider).verifyToken(token);
+    }
 }
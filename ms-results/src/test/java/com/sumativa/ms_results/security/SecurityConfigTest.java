@@ -5,8 +5,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,4 +36,33 @@ class SecurityConfigTest {
         // Assert
         assertNotNull(jwtAuthenticationFilter);
     }
+
+    // ==================== actuatorInterno Tests ====================
+
+    @Test
+    void actuatorInterno_shouldMatchHealthAndPrometheusOnManagementPortOnly() {
+        // Arrange
+        RequestMatcher matcher = SecurityConfig.actuatorInterno(9083);
+
+        // Act & Assert
+        assertTrue(matcher.matches(request("/actuator/prometheus", 9083)));
+        assertTrue(matcher.matches(request("/actuator/health", 9083)));
+        assertFalse(matcher.matches(request("/actuator/prometheus", 8083)));
+        assertFalse(matcher.matches(request("/actuator/health", 8083)));
+        assertFalse(matcher.matches(request("/actuator/metrics", 9083)));
+        assertFalse(matcher.matches(request("/api/resultados", 9083)));
+    }
+
+    @Test
+    void actuatorInterno_shouldMatchNothing_whenManagementPortIsNotSet() {
+        // Act & Assert
+        assertFalse(SecurityConfig.actuatorInterno(-1).matches(request("/actuator/prometheus", 8083)));
+    }
+
+    private static MockHttpServletRequest request(String path, int puerto) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setLocalPort(puerto);
+        return request;
+    }
 }
@@ -0,0 +1,433 @@
+package com.sumativa.ms_results.service;
+
+import com.sumativa.ms_results.dto.ResultadoBusquedaDto;
+import com.sumativa.ms_results.dto.ResultadoFila;
+import com.sumativa.ms_results.dto.ResultadoResponseDto;
+import com.sumativa.ms_results.mapper.ResultadoMapper;
+import com.sumativa.ms_results.mapper.TipoAnalisisMapper;
+import com.sumativa.ms_results.repository.ResultadoRepository;
+import com.sumativa.ms_results.search.ResultadoIndice;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ResultadoBusquedaService con un índice en memoria
+ */
+@ExtendWith(MockitoExtension.class)
+class ResultadoBusquedaServiceTest {
+
+    @Mock
+    private ResultadoRepository resultadoRepository;
+
+    @Mock
+    private TipoAnalisisService tipoAnalisisService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ResultadoIndice indice;
+    private ThreadPoolExecutor executor;
+    private ResultadoBusquedaService busquedaService;
+
+    @BeforeEach
+    void setUp() {
+        indice = new ResultadoIndice(new ByteBuffersDirectory());
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        ResultadoMapper resultadoMapper = new ResultadoMapper(new TipoAnalisisMapper(), tipoAnalisisService);
+        busquedaService = new ResultadoBusquedaService(indice, resultadoRepository, resultadoMapper,
+                transactionManager, executor);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        busquedaService.destroy();
+        indice.close();
+    }
+
+    private static ResultadoFila fila(Long id, String paciente) {
+        return new ResultadoFila(id, paciente, LocalDateTime.of(2025, 1, 15, 10, 0), null, 100L,
+                null, null, "COMPLETADO", null, LocalDateTime.of(2025, 1, 15, 10, 0), null, 0L);
+    }
+
+    /**
+     * Espera a que el hilo del índice procese lo encolado hasta ahora
+     */
+    private void esperarIndice() throws Exception {
+        executor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+
+    private static ResultadoFila fila(Long id, String paciente, LocalDateTime actualizadoEn) {
+        return new ResultadoFila(id, paciente, LocalDateTime.of(2025, 1, 15, 10, 0), null, 100L,
+                null, null, "COMPLETADO", null, LocalDateTime.of(2025, 1, 15, 10, 0), actualizadoEn, 0L);
+    }
+
+    private static ResultadoRepository.Resumen resumen(long cantidad, LocalDateTime ultimaActualizacion) {
+        return new ResultadoRepository.Resumen() {
+            @Override
+            public long getCantidad() {
+                return cantidad;
+            }
+
+            @Override
+            public LocalDateTime getUltimaActualizacion() {
+                return ultimaActualizacion;
+            }
+        };
+    }
+
+    /**
+     * Espera la comparación, su confirmación y la reconstrucción, cada una
+     * encolada por la anterior
+     */
+    private void esperarReconciliacion() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            esperarIndice();
+        }
+    }
+
+    private void indexar(ResultadoFila... filas) {
+        indice.actualizar(List.of(filas), List.of());
+    }
+
+    // ==================== buscar Tests ====================
+
+    @Test
+    void buscar_shouldReturnDtosInRelevanceOrder() {
+        // Arrange
+        indexar(fila(1L, "Ana Muñoz"), fila(2L, "Luis Muñoz Muñoz"), fila(3L, "Pedro Soto"));
+        when(resultadoRepository.findFilasByIdIn(anyCollection()))
+                .thenReturn(List.of(fila(1L, "Ana Muñoz"), fila(2L, "Luis Muñoz Muñoz")));
+
+        // Act
+        ResultadoBusquedaDto result = busquedaService.buscar("munoz", 0, 20);
+
+        // Assert
+        assertEquals(2, result.getTotal());
+        assertEquals(2, result.getSize());
+        assertFalse(result.isHasNext());
+        assertEquals(List.of(2L, 1L), result.getItems().stream().map(ResultadoResponseDto::getId).toList());
+        verify(resultadoRepository, times(1)).findFilasByIdIn(List.of(2L, 1L));
+    }
+
+    @Test
+    void buscar_shouldSkipIdsAlreadyDeletedFromDatabase() {
+        // Arrange
+        indexar(fila(1L, "Ana Pérez"), fila(2L, "Luis Pérez"));
+        when(resultadoRepository.findFilasByIdIn(anyCollection())).thenReturn(List.of(fila(2L, "Luis Pérez")));
+
+        // Act
+        ResultadoBusquedaDto result = busquedaService.buscar("perez", 0, 20);
+
+        // Assert
+        assertEquals(List.of(2L), result.getItems().stream().map(ResultadoResponseDto::getId).toList());
+    }
+
+    @Test
+    void buscar_shouldClampSizeAndReportNextPage() {
+        // Arrange
+        List<ResultadoFila> filas = new ArrayList<>();
+        for (long id = 1; id <= ResultadoBusquedaService.MAX_PAGE_SIZE + 5; id++) {
+            filas.add(fila(id, "Paciente Rojas"));
+        }
+        indice.actualizar(filas, List.of());
+        when(resultadoRepository.findFilasByIdIn(anyCollection())).thenReturn(List.of());
+
+        // Act
+        ResultadoBusquedaDto result = busquedaService.buscar("rojas", 0, 1000);
+
+        // Assert
+        assertEquals(ResultadoBusquedaService.MAX_PAGE_SIZE + 5, result.getTotal());
+        assertTrue(result.isHasNext());
+        verify(resultadoRepository).findFilasByIdIn(
+                argThat(ids -> ids.size() == ResultadoBusquedaService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void buscar_shouldNotQueryDatabase_whenNoMatches() {
+        // Act
+        ResultadoBusquedaDto result = busquedaService.buscar("gonzalez", 0, 20);
+
+        // Assert
+        assertEquals(0, result.getTotal());
+        assertTrue(result.getItems().isEmpty());
+        verifyNoInteractions(resultadoRepository);
+    }
+
+    // ==================== registrarCambios Tests ====================
+
+    @Test
+    void registrarCambios_shouldIndexAfterCommit() throws Exception {
+        // Arrange
+        when(resultadoRepository.findFilasByIdIn(List.of(7L))).thenReturn(List.of(fila(7L, "Carla Ibáñez")));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            busquedaService.registrarCambio(7L);
+            esperarIndice();
+
+            // Assert: nada se indexa antes del commit
+            verifyNoInteractions(resultadoRepository);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        esperarIndice();
+
+        // Assert
+        assertEquals(List.of(7L), indice.buscar("ibanez", 0, 20).ids());
+    }
+
+    @Test
+    void registrarCambios_shouldNotTouchIndex_whenRolledBack() throws Exception {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            busquedaService.registrarCambio(7L);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        esperarIndice();
+
+        // Assert
+        verifyNoInteractions(resultadoRepository);
+        assertEquals(0, indice.documentos());
+    }
+
+    @Test
+    void registrarCambios_shouldDeleteIdsMissingFromDatabase() throws Exception {
+        // Arrange
+        indexar(fila(1L, "Ana Pérez"), fila(2L, "Luis Pérez"));
+        when(resultadoRepository.findFilasByIdIn(List.of(1L, 2L))).thenReturn(List.of(fila(2L, "Luis Pérez Rojas")));
+
+        // Act
+        busquedaService.registrarCambios(List.of(1L, 2L));
+        esperarIndice();
+
+        // Assert
+        assertEquals(1, indice.documentos());
+        assertEquals(List.of(2L), indice.buscar("rojas", 0, 20).ids());
+    }
+
+    @Test
+    void registrarCambios_shouldRereadInChunks() throws Exception {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= ResultadoBusquedaService.LOTE_RELECTURA + 1; id++) {
+            ids.add(id);
+        }
+        when(resultadoRepository.findFilasByIdIn(anyCollection())).thenReturn(List.of());
+
+        // Act
+        busquedaService.registrarCambios(ids);
+        esperarIndice();
+
+        // Assert
+        verify(resultadoRepository, times(2)).findFilasByIdIn(anyCollection());
+    }
+
+    @Test
+    void registrarCambios_shouldCountError_whenDatabaseFails() throws Exception {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        busquedaService.bindTo(registry);
+        when(resultadoRepository.findFilasByIdIn(anyCollection())).thenThrow(new IllegalStateException("Sin conexión"));
+
+        // Act
+        busquedaService.registrarCambio(1L);
+        esperarIndice();
+
+        // Assert
+        assertEquals(1, busquedaService.getErrores());
+        assertEquals(1.0, registry.get("busqueda.indice.errores").functionCounter().count());
+    }
+
+    // ==================== reconstruir Tests ====================
+
+    @Test
+    void reconstruir_shouldRebuildFromDatabase() throws Exception {
+        // Arrange
+        indexar(fila(99L, "Obsoleto Vidal"));
+        when(resultadoRepository.streamByFiltro(null, null))
+                .thenReturn(Stream.of(fila(1L, "Ana Núñez"), fila(2L, "Luis Pérez")));
+
+        // Act
+        assertTrue(busquedaService.reconstruir());
+        esperarIndice();
+
+        // Assert
+        assertEquals(2, indice.documentos());
+        assertEquals(List.of(1L), indice.buscar("nunez", 0, 20).ids());
+        assertTrue(indice.buscar("vidal", 0, 20).ids().isEmpty());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void reconstruir_shouldNotQueueTwice() throws Exception {
+        // Arrange: el hilo del índice ocupado
+        CountDownLatch liberar = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        when(resultadoRepository.streamByFiltro(null, null)).thenAnswer(invocation -> Stream.empty());
+
+        // Act
+        boolean primera = busquedaService.reconstruir();
+        boolean segunda = busquedaService.reconstruir();
+        liberar.countDown();
+        esperarIndice();
+
+        // Assert
+        assertTrue(primera);
+        assertFalse(segunda);
+        verify(resultadoRepository, times(1)).streamByFiltro(null, null);
+
+        // Terminada, se puede volver a programar
+        assertTrue(busquedaService.reconstruir());
+        esperarIndice();
+        verify(resultadoRepository, times(2)).streamByFiltro(null, null);
+    }
+
+    @Test
+    void reconstruirAlIniciar_shouldSkip_whenIndexMatchesTable() throws Exception {
+        // Arrange
+        LocalDateTime actualizadoEn = LocalDateTime.of(2025, 2, 1, 8, 0);
+        indexar(fila(1L, "Ana Pérez", actualizadoEn));
+        when(resultadoRepository.resumen()).thenReturn(resumen(1, actualizadoEn));
+
+        // Act
+        busquedaService.reconstruirAlIniciar(false);
+        esperarReconciliacion();
+
+        // Assert
+        verify(resultadoRepository).resumen();
+        verify(resultadoRepository, never()).streamByFiltro(any(), any());
+    }
+
+    @Test
+    void reconstruirAlIniciar_shouldRebuild_whenIndexIsBehindTable() throws Exception {
+        // Arrange: el índice en disco perdió una actualización antes de reiniciar
+        indexar(fila(1L, "Ana Pérez", LocalDateTime.of(2025, 2, 1, 8, 0)));
+        when(resultadoRepository.resumen()).thenReturn(resumen(2, LocalDateTime.of(2025, 2, 1, 9, 0)));
+        when(resultadoRepository.streamByFiltro(null, null)).thenReturn(Stream.of(
+                fila(1L, "Ana Pérez", LocalDateTime.of(2025, 2, 1, 8, 0)),
+                fila(2L, "Luis Núñez", LocalDateTime.of(2025, 2, 1, 9, 0))));
+
+        // Act
+        busquedaService.reconstruirAlIniciar(false);
+        esperarReconciliacion();
+
+        // Assert
+        assertEquals(2, indice.documentos());
+        assertEquals(List.of(2L), indice.buscar("nunez", 0, 20).ids());
+    }
+
+    @Test
+    void reconstruirAlIniciar_shouldRebuild_whenIndexIsEmpty() throws Exception {
+        // Arrange
+        when(resultadoRepository.streamByFiltro(null, null)).thenReturn(Stream.of(fila(1L, "Ana Pérez")));
+
+        // Act
+        busquedaService.reconstruirAlIniciar(false);
+        esperarIndice();
+
+        // Assert
+        assertEquals(1, indice.documentos());
+    }
+
+    // ==================== reconciliar Tests ====================
+
+    @Test
+    void reconciliar_shouldRebuild_whenTableHasNewerChanges() throws Exception {
+        // Arrange: misma cantidad, pero una modificación que no llegó al índice
+        indexar(fila(1L, "Ana Pérez", LocalDateTime.of(2025, 2, 1, 8, 0)));
+        when(resultadoRepository.resumen()).thenReturn(resumen(1, LocalDateTime.of(2025, 2, 1, 9, 0)));
+        when(resultadoRepository.streamByFiltro(null, null)).thenReturn(Stream.of(
+                fila(1L, "Ana Muñoz", LocalDateTime.of(2025, 2, 1, 9, 0))));
+
+        // Act
+        busquedaService.reconciliar();
+        esperarReconciliacion();
+
+        // Assert
+        assertEquals(List.of(1L), indice.buscar("munoz", 0, 20).ids());
+        assertEquals(LocalDateTime.of(2025, 2, 1, 9, 0), indice.ultimaActualizacion());
+    }
+
+    @Test
+    void reconciliar_shouldNotRebuild_whenDifferenceWasPendingUpdate() throws Exception {
+        // Arrange: la primera lectura ve un commit cuya actualización se encola detrás
+        indexar(fila(1L, "Ana Pérez", LocalDateTime.of(2025, 2, 1, 8, 0)));
+        when(resultadoRepository.findFilasByIdIn(List.of(2L)))
+                .thenReturn(List.of(fila(2L, "Luis Núñez", LocalDateTime.of(2025, 2, 1, 9, 0))));
+        when(resultadoRepository.resumen()).thenAnswer(invocation -> {
+            busquedaService.registrarCambio(2L);
+            return resumen(2, LocalDateTime.of(2025, 2, 1, 9, 0));
+        }).thenReturn(resumen(2, LocalDateTime.of(2025, 2, 1, 9, 0)));
+
+        // Act
+        busquedaService.reconciliar();
+        esperarReconciliacion();
+
+        // Assert
+        verify(resultadoRepository, times(2)).resumen();
+        verify(resultadoRepository, never()).streamByFiltro(any(), any());
+        assertEquals(2, indice.documentos());
+    }
+
+    @Test
+    void reconciliar_shouldCountError_whenTableCannotBeRead() throws Exception {
+        // Arrange
+        when(resultadoRepository.resumen()).thenThrow(new IllegalStateException("Conexión perdida"));
+
+        // Act
+        busquedaService.reconciliar();
+        esperarReconciliacion();
+
+        // Assert
+        assertEquals(1, busquedaService.getErrores());
+        verify(resultadoRepository, never()).streamByFiltro(any(), any());
+    }
+
+    @Test
+    void bindTo_shouldExposeIndexSize() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        indexar(fila(1L, "Ana Pérez"), fila(2L, "Luis Pérez"));
+
+        // Act
+        busquedaService.bindTo(registry);
+
+        // Assert
+        assertEquals(2.0, registry.get("busqueda.indice.documentos").gauge().value());
+    }
+}
@@ -0,0 +1,71 @@
+package com.sumativa.ms_results.service;
+
+import com.sumativa.ms_results.dto.ResultadoFila;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ResultadoCursor
+ */
+class ResultadoCursorTest {
+
+    private ResultadoFila fila(Long id, LocalDateTime fecha) {
+        return new ResultadoFila(id, "Paciente", fecha, 1L, 100L, null, null, "COMPLETADO", null, null, null, 0L);
+    }
+
+    @Test
+    void encodeDecode_shouldRoundTripKeys() {
+        // Arrange
+        LocalDateTime fecha = LocalDateTime.of(2025, 1, 15, 10, 30, 5);
+        String cursor = ResultadoCursor.encode(fila(42L, fecha));
+
+        // Act
+        KeysetScrollPosition position = ResultadoCursor.decode(cursor);
+
+        // Assert
+        assertEquals(fecha, position.getKeys().get("fechaRealizacion"));
+        assertEquals(42L, position.getKeys().get("id"));
+    }
+
+    @Test
+    void decode_shouldReturnInitialPosition_whenCursorIsEmpty() {
+        assertTrue(ResultadoCursor.decode(null).isInitial());
+        assertTrue(ResultadoCursor.decode("").isInitial());
+    }
+
+    @Test
+    void decode_shouldThrowException_whenCursorIsMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> ResultadoCursor.decode("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> ResultadoCursor.decode("c2luLXNlcGFyYWRvcg"));
+    }
+
+    @Test
+    void next_shouldUseLastElement_whenWindowHasNext() {
+        // Arrange
+        LocalDateTime fecha = LocalDateTime.of(2025, 1, 15, 10, 0);
+        Window<ResultadoFila> window = Window.from(
+                List.of(fila(2L, fecha.plusDays(1)), fila(1L, fecha)),
+                i -> ScrollPosition.keyset(), true);
+
+        // Act
+        String cursor = ResultadoCursor.next(window);
+
+        // Assert
+        assertEquals(ResultadoCursor.encode(fila(1L, fecha)), cursor);
+    }
+
+    @Test
+    void next_shouldReturnNull_whenWindowIsLast() {
+        Window<ResultadoFila> window = Window.from(
+                List.of(fila(1L, LocalDateTime.now())), i -> ScrollPosition.keyset(), false);
+
+        assertNull(ResultadoCursor.next(window));
+    }
+}
@@ -0,0 +1,180 @@
+package com.sumativa.ms_results.service;
+
+import com.sumativa.ms_results.dto.ResultadoCreateDto;
+import com.sumativa.ms_results.dto.ResultadoIngestaDto;
+import com.sumativa.ms_results.dto.ResultadoIngestaItemDto;
+import com.sumativa.ms_results.entity.Resultado;
+import com.sumativa.ms_results.entity.TipoAnalisis;
+import com.sumativa.ms_results.mapper.ResultadoMapper;
+import com.sumativa.ms_results.mapper.TipoAnalisisMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ResultadoIngestaService
+ */
+@ExtendWith(MockitoExtension.class)
+class ResultadoIngestaServiceTest {
+
+    @Mock
+    private TipoAnalisisService tipoAnalisisService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ResultadoBusquedaService resultadoBusquedaService;
+
+    private ResultadoIngestaService ingestaService;
+    private TipoAnalisis testTipoAnalisis;
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        ResultadoMapper resultadoMapper = new ResultadoMapper(new TipoAnalisisMapper(), tipoAnalisisService);
+        ingestaService = new ResultadoIngestaService(tipoAnalisisService, resultadoMapper, validator, entityManager,
+                resultadoBusquedaService);
+
+        testTipoAnalisis = new TipoAnalisis();
+        testTipoAnalisis.setId(1L);
+        testTipoAnalisis.setNombre("Glucosa");
+        testTipoAnalisis.setCategoria("Bioquímica");
+        testTipoAnalisis.setActivo(true);
+    }
+
+    private ResultadoCreateDto fila(String paciente, Long tipoAnalisisId) {
+        return ResultadoCreateDto.builder()
+                .paciente(paciente)
+                .fechaRealizacion(LocalDateTime.of(2025, 1, 15, 10, 0))
+                .tipoAnalisisId(tipoAnalisisId)
+                .laboratorioId(100L)
+                .estado("COMPLETADO")
+                .build();
+    }
+
+    private void asignarIdsAlPersistir() {
+        AtomicLong secuencia = new AtomicLong(1);
+        doAnswer(invocation -> {
+            Resultado resultado = invocation.getArgument(0);
+            resultado.setId(secuencia.getAndIncrement());
+            return null;
+        }).when(entityManager).persist(any(Resultado.class));
+    }
+
+    // ==================== ingestar Tests ====================
+
+    @Test
+    void ingestar_shouldCreateAllRows_whenAllValid() {
+        // Arrange
+        asignarIdsAlPersistir();
+        when(tipoAnalisisService.findAllByIds(anyCollection())).thenReturn(Map.of(1L, testTipoAnalisis));
+
+        // Act
+        ResultadoIngestaDto result = ingestaService.ingestar(
+                List.of(fila("Juan Pérez", 1L), fila("María López", 1L)));
+
+        // Assert
+        assertEquals(2, result.getTotal());
+        assertEquals(2, result.getCreados());
+        assertEquals(0, result.getRechazados());
+        assertEquals(ResultadoIngestaItemDto.CREADO, result.getItems().get(0).getEstado());
+        assertEquals(1L, result.getItems().get(0).getId());
+        assertEquals(2L, result.getItems().get(1).getId());
+        verify(tipoAnalisisService, times(1)).findAllByIds(anyCollection());
+        verify(entityManager, times(2)).persist(any(Resultado.class));
+        verify(entityManager, times(1)).flush();
+        verify(resultadoBusquedaService).registrarCambios(List.of(1L, 2L));
+    }
+
+    @Test
+    void ingestar_shouldReportInvalidRowsAndKeepValidOnes() {
+        // Arrange
+        asignarIdsAlPersistir();
+        when(tipoAnalisisService.findAllByIds(anyCollection())).thenReturn(Map.of(1L, testTipoAnalisis));
+        List<ResultadoCreateDto> filas = Arrays.asList(
+                fila("Juan Pérez", 1L),
+                fila("", 1L),
+                fila("Pedro Soto", 99L),
+                null);
+
+        // Act
+        ResultadoIngestaDto result = ingestaService.ingestar(filas);
+
+        // Assert
+        assertEquals(4, result.getTotal());
+        assertEquals(1, result.getCreados());
+        assertEquals(3, result.getRechazados());
+
+        ResultadoIngestaItemDto sinPaciente = result.getItems().get(1);
+        assertEquals(1, sinPaciente.getIndice());
+        assertEquals(ResultadoIngestaItemDto.RECHAZADO, sinPaciente.getEstado());
+        assertNull(sinPaciente.getId());
+        assertTrue(sinPaciente.getErrores().stream().allMatch(e -> e.startsWith("paciente:")));
+
+        ResultadoIngestaItemDto tipoInexistente = result.getItems().get(2);
+        assertEquals(List.of("tipoAnalisisId: Tipo de análisis no encontrado con ID: 99"),
+                tipoInexistente.getErrores());
+
+        assertEquals(List.of("La fila está vacía"), result.getItems().get(3).getErrores());
+        verify(entityManager, times(1)).persist(any(Resultado.class));
+        verify(resultadoBusquedaService).registrarCambios(List.of(1L));
+    }
+
+    @Test
+    void ingestar_shouldFlushAndClearInBlocks() {
+        // Arrange
+        asignarIdsAlPersistir();
+        when(tipoAnalisisService.findAllByIds(anyCollection())).thenReturn(Map.of(1L, testTipoAnalisis));
+        List<ResultadoCreateDto> filas = new ArrayList<>();
+        for (int i = 0; i < ResultadoIngestaService.FLUSH_CADA * 2 + 1; i++) {
+            filas.add(fila("Paciente " + i, 1L));
+        }
+
+        // Act
+        ResultadoIngestaDto result = ingestaService.ingestar(filas);
+
+        // Assert
+        assertEquals(filas.size(), result.getCreados());
+        assertTrue(result.getItems().stream().allMatch(item -> item.getId() != null));
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void ingestar_shouldThrowException_whenBatchIsEmpty() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                ingestaService.ingestar(Collections.emptyList()));
+        assertEquals("El lote de resultados está vacío", exception.getMessage());
+        verifyNoInteractions(tipoAnalisisService, entityManager);
+    }
+
+    @Test
+    void ingestar_shouldThrowException_whenBatchExceedsMaximum() {
+        // Arrange
+        List<ResultadoCreateDto> filas = Collections.nCopies(ResultadoIngestaService.MAX_FILAS + 1, fila("Juan Pérez", 1L));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> ingestaService.ingestar(filas));
+        verifyNoInteractions(tipoAnalisisService, entityManager);
+    }
+}
@@ -1,24 +1,39 @@
 package com.sumativa.ms_results.service;
 
+import com.sumativa.ms_results.dto.ResultadoFila;
+import com.sumativa.ms_results.dto.ResultadoFiltroDto;
+import com.sumativa.ms_results.dto.ResultadoUpdateDto;
 import com.sumativa.ms_results.entity.Resultado;
 import com.sumativa.ms_results.entity.TipoAnalisis;
+import com.sumativa.ms_results.exception.PreconditionFailedException;
 import com.sumativa.ms_results.repository.ResultadoRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,6 +48,9 @@ class ResultadoServiceTest {
     @Mock
     private TipoAnalisisService tipoAnalisisService;
 
+    @Mock
+    private ResultadoBusquedaService resultadoBusquedaService;
+
     @InjectMocks
     private ResultadoService resultadoService;
 
@@ -57,6 +75,11 @@ class ResultadoServiceTest {
         testResultado.setEstado("COMPLETADO");
     }
 
+    private ResultadoFila fila(Long id) {
+        return new ResultadoFila(id, "Juan Pérez", LocalDateTime.of(2025, 1, 15, 10, 0), 1L, 100L,
+                new BigDecimal("85.00"), null, "COMPLETADO", null, null, null, null);
+    }
+
     // ==================== findAll Tests ====================
 
     @Test
@@ -91,6 +114,134 @@ class ResultadoServiceTest {
         verify(resultadoRepository).findAll();
     }
 
+    // ==================== findAllFilas Tests ====================
+
+    @Test
+    void findAllFilas_shouldReturnReadModelFromRepository() {
+        // Arrange
+        when(resultadoRepository.findAllFilas()).thenReturn(List.of(fila(1L), fila(2L)));
+
+        // Act
+        List<ResultadoFila> result = resultadoService.findAllFilas();
+
+        // Assert
+        assertEquals(2, result.size());
+        verify(resultadoRepository, times(1)).findAllFilas();
+        verify(resultadoRepository, never()).findAll();
+    }
+
+    // ==================== findPage Tests ====================
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findPage_shouldScrollFilasFromRepository() {
+        // Arrange
+        ResultadoFila fila = new ResultadoFila(1L, "Juan Pérez", LocalDateTime.of(2025, 1, 15, 10, 0),
+                1L, 100L, null, null, "COMPLETADO", null, null, null, 0L);
+        Window<ResultadoFila> window = Window.from(List.of(fila), i -> ScrollPosition.keyset(), false);
+        when(resultadoRepository.scrollFilas(any(Specification.class), any(), eq(20))).thenReturn(window);
+
+        // Act
+        Window<ResultadoFila> result = resultadoService.findPage(
+                ResultadoFiltroDto.builder().laboratorioId(100L).build(), null, 20);
+
+        // Assert
+        assertSame(window, result);
+        verify(resultadoRepository).scrollFilas(any(Specification.class), argThat(KeysetScrollPosition::isInitial), eq(20));
+        verify(resultadoRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findPage_shouldPassCursorPositionAndClampSize() {
+        // Arrange
+        LocalDateTime fecha = LocalDateTime.of(2025, 1, 15, 10, 0);
+        String cursor = ResultadoCursor.encode(new ResultadoFila(42L, null, fecha, null, null, null, null, null, null, null, null, null));
+        when(resultadoRepository.scrollFilas(any(Specification.class), any(), anyInt()))
+                .thenReturn(Window.from(List.of(), i -> ScrollPosition.keyset(), false));
+
+        // Act
+        resultadoService.findPage(new ResultadoFiltroDto(), cursor, 10_000);
+
+        // Assert
+        verify(resultadoRepository).scrollFilas(any(Specification.class),
+                argThat(p -> fecha.equals(p.getKeys().get("fechaRealizacion")) && Long.valueOf(42L).equals(p.getKeys().get("id"))),
+                eq(ResultadoService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void findPage_shouldThrowException_whenCursorIsInvalid() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            resultadoService.findPage(new ResultadoFiltroDto(), "no-es-un-cursor", 20);
+        });
+
+        assertTrue(exception.getMessage().contains("Cursor"));
+        verifyNoInteractions(resultadoRepository);
+    }
+
+    @Test
+    void findPage_shouldThrowException_whenDateRangeIsInverted() {
+        // Arrange
+        ResultadoFiltroDto filtro = ResultadoFiltroDto.builder()
+                .desde(LocalDateTime.of(2025, 2, 1, 0, 0))
+                .hasta(LocalDateTime.of(2025, 1, 1, 0, 0))
+                .build();
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            resultadoService.findPage(filtro, null, 20);
+        });
+
+        assertTrue(exception.getMessage().contains("rango de fechas"));
+        verifyNoInteractions(resultadoRepository);
+    }
+
+    // ==================== exportar Tests ====================
+
+    @Test
+    void exportar_shouldPassEachFilaToConsumer() {
+        // Arrange
+        ResultadoFila fila1 = fila(1L);
+        ResultadoFila fila2 = fila(2L);
+        when(resultadoRepository.streamByFiltro(100L, "COMPLETADO"))
+                .thenReturn(Stream.of(fila1, fila2));
+        List<ResultadoFila> recibidos = new ArrayList<>();
+
+        // Act
+        long total = resultadoService.exportar(100L, "COMPLETADO", recibidos::add);
+
+        // Assert
+        assertEquals(2, total);
+        assertEquals(List.of(fila1, fila2), recibidos);
+    }
+
+    @Test
+    void exportar_shouldTreatBlankEstadoAsNoFilter() {
+        // Arrange
+        when(resultadoRepository.streamByFiltro(null, null)).thenReturn(Stream.empty());
+
+        // Act
+        long total = resultadoService.exportar(null, "  ", r -> { });
+
+        // Assert
+        assertEquals(0, total);
+        verify(resultadoRepository).streamByFiltro(null, null);
+    }
+
+    @Test
+    void exportar_shouldCloseStream_whenConsumerFails() {
+        // Arrange
+        boolean[] cerrado = {false};
+        when(resultadoRepository.streamByFiltro(null, null))
+                .thenReturn(Stream.of(fila(1L)).onClose(() -> cerrado[0] = true));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () ->
+                resultadoService.exportar(null, null, r -> { throw new IllegalStateException("fallo"); }));
+        assertTrue(cerrado[0]);
+    }
+
     // ==================== findById Tests ====================
 
     @Test
@@ -146,6 +297,7 @@ class ResultadoServiceTest {
         assertEquals("Nuevo Paciente", result.getPaciente());
         verify(tipoAnalisisService).findById(1L);
         verify(resultadoRepository).save(newResultado);
+        verify(resultadoBusquedaService).registrarCambio(newResultado.getId());
     }
 
     @Test
@@ -233,6 +385,7 @@ class ResultadoServiceTest {
         assertEquals(200L, testResultado.getLaboratorioId());
         verify(resultadoRepository).findById(1L);
         verify(resultadoRepository).save(any(Resultado.class));
+        verify(resultadoBusquedaService).registrarCambio(1L);
     }
 
     @Test
@@ -299,6 +452,138 @@ class ResultadoServiceTest {
         verify(tipoAnalisisService, never()).findById(anyLong());
     }
 
+    @Test
+    void update_shouldThrowPreconditionFailed_whenExpectedVersionDiffers() {
+        // Arrange
+        testResultado.setVersion(3L);
+        Resultado updateData = new Resultado();
+        updateData.setPaciente("Test");
+
+        when(resultadoRepository.findById(1L)).thenReturn(Optional.of(testResultado));
+
+        // Act & Assert
+        PreconditionFailedException exception = assertThrows(PreconditionFailedException.class, () ->
+                resultadoService.update(1L, updateData, 2L));
+
+        assertTrue(exception.getMessage().contains("versión 3"));
+        verify(resultadoRepository, never()).save(any());
+    }
+
+    @Test
+    void update_shouldSave_whenExpectedVersionMatches() {
+        // Arrange
+        testResultado.setVersion(3L);
+        Resultado updateData = new Resultado();
+        updateData.setPaciente("Test");
+
+        when(resultadoRepository.findById(1L)).thenReturn(Optional.of(testResultado));
+        when(resultadoRepository.save(testResultado)).thenReturn(testResultado);
+
+        // Act
+        Resultado result = resultadoService.update(1L, updateData, 3L);
+
+        // Assert
+        assertEquals("Test", result.getPaciente());
+    }
+
+    @Test
+    void update_shouldThrowConflict_whenModifiedAfterBeingRead() {
+        // Arrange
+        testResultado.setVersion(4L);
+        Resultado leido = new Resultado();
+        leido.setPaciente("Test");
+        leido.setVersion(3L);
+
+        when(resultadoRepository.findById(1L)).thenReturn(Optional.of(testResultado));
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> resultadoService.update(1L, leido));
+        verify(resultadoRepository, never()).save(any());
+    }
+
+    // ==================== patch Tests ====================
+
+    @Test
+    void patch_shouldIssueSingleUpdateAndReturnNextVersion() {
+        // Arrange
+        ResultadoUpdateDto cambios = ResultadoUpdateDto.builder().estado("REVISADO").build();
+        when(resultadoRepository.actualizarParcial(1L, cambios, 2L)).thenReturn(1);
+
+        // Act
+        Long version = resultadoService.patch(1L, cambios, 2L);
+
+        // Assert
+        assertEquals(3L, version);
+        verify(resultadoRepository, never()).findById(anyLong());
+        verify(resultadoRepository, never()).findVersionById(anyLong());
+        verify(resultadoBusquedaService).registrarCambio(1L);
+    }
+
+    @Test
+    void patch_shouldReturnVersionReadAfterUpdate_whenNoVersionExpected() {
+        // Arrange: sin If-Match la versión previa es desconocida
+        ResultadoUpdateDto cambios = ResultadoUpdateDto.builder().estado("REVISADO").build();
+        when(resultadoRepository.actualizarParcial(1L, cambios, null)).thenReturn(1);
+        when(resultadoRepository.findVersionById(1L)).thenReturn(Optional.of(7L));
+
+        // Act
+        Long version = resultadoService.patch(1L, cambios, null);
+
+        // Assert
+        assertEquals(7L, version);
+        InOrder inOrder = inOrder(resultadoRepository);
+        inOrder.verify(resultadoRepository).actualizarParcial(1L, cambios, null);
+        inOrder.verify(resultadoRepository).findVersionById(1L);
+    }
+
+    @Test
+    void patch_shouldValidateTipoAnalisis_whenProvided() {
+        // Arrange
+        ResultadoUpdateDto cambios = ResultadoUpdateDto.builder().tipoAnalisisId(99L).build();
+        when(tipoAnalisisService.findById(99L))
+                .thenThrow(new IllegalArgumentException("Tipo de análisis no encontrado con ID: 99"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> resultadoService.patch(1L, cambios, null));
+        verify(resultadoRepository, never()).actualizarParcial(any(), any(), any());
+    }
+
+    @Test
+    void patch_shouldThrowException_whenNoFieldsProvided() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                resultadoService.patch(1L, new ResultadoUpdateDto(), null));
+
+        assertTrue(exception.getMessage().contains("al menos un campo"));
+        verifyNoInteractions(resultadoRepository);
+    }
+
+    @Test
+    void patch_shouldThrowNotFound_whenNoRowUpdatedAndResultadoMissing() {
+        // Arrange
+        ResultadoUpdateDto cambios = ResultadoUpdateDto.builder().estado("REVISADO").build();
+        when(resultadoRepository.actualizarParcial(999L, cambios, null)).thenReturn(0);
+        when(resultadoRepository.findVersionById(999L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                resultadoService.patch(999L, cambios, null));
+
+        assertTrue(exception.getMessage().contains("Resultado no encontrado"));
+    }
+
+    @Test
+    void patch_shouldThrowPreconditionFailed_whenNoRowUpdatedAndVersionChanged() {
+        // Arrange
+        ResultadoUpdateDto cambios = ResultadoUpdateDto.builder().estado("REVISADO").build();
+        when(resultadoRepository.actualizarParcial(1L, cambios, 2L)).thenReturn(0);
+        when(resultadoRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> resultadoService.patch(1L, cambios, 2L));
+        verifyNoInteractions(resultadoBusquedaService);
+    }
+
     // ==================== delete Tests ====================
 
     @Test
@@ -313,6 +598,7 @@ class ResultadoServiceTest {
         // Assert
         verify(resultadoRepository).findById(1L);
         verify(resultadoRepository).delete(testResultado);
+        verify(resultadoBusquedaService).registrarCambio(1L);
     }
 
     @Test
@@ -327,6 +613,17 @@ class ResultadoServiceTest {
 
         assertTrue(exception.getMessage().contains("Resultado no encontrado"));
         verify(resultadoRepository).findById(999L);
-        verify(resultadoRepository, never()).delete(any());
+        verify(resultadoRepository, never()).delete(any(Resultado.class));
+    }
+
+    @Test
+    void delete_shouldThrowPreconditionFailed_whenExpectedVersionDiffers() {
+        // Arrange
+        testResultado.setVersion(1L);
+        when(resultadoRepository.findById(1L)).thenReturn(Optional.of(testResultado));
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> resultadoService.delete(1L, 0L));
+        verify(resultadoRepository, never()).delete(any(Resultado.class));
     }
 }
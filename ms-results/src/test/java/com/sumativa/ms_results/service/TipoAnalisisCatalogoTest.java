@@ -0,0 +1,210 @@
+package com.sumativa.ms_results.service;
+
+import com.sumativa.ms_results.entity.TipoAnalisis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para TipoAnalisisCatalogo
+ */
+class TipoAnalisisCatalogoTest {
+
+    private TipoAnalisisCatalogo catalogo;
+    private TipoAnalisis glucosa;
+    private TipoAnalisis hemograma;
+    private AtomicInteger consultas;
+
+    @BeforeEach
+    void setUp() {
+        catalogo = new TipoAnalisisCatalogo();
+        consultas = new AtomicInteger();
+
+        glucosa = new TipoAnalisis();
+        glucosa.setId(1L);
+        glucosa.setNombre("Glucosa");
+        glucosa.setCategoria("Bioquímica");
+        glucosa.setActivo(true);
+
+        hemograma = new TipoAnalisis();
+        hemograma.setId(2L);
+        hemograma.setNombre("Hemograma");
+        hemograma.setCategoria("Hematología");
+        hemograma.setActivo(false);
+    }
+
+    private Optional<TipoAnalisis> cargarPorId(Long id) {
+        consultas.incrementAndGet();
+        return id.equals(1L) ? Optional.of(glucosa) : Optional.empty();
+    }
+
+    private List<TipoAnalisis> cargarTodos() {
+        consultas.incrementAndGet();
+        return List.of(glucosa, hemograma);
+    }
+
+    // ==================== porId Tests ====================
+
+    @Test
+    void porId_shouldLoadOnceAndServeFromMemoryAfterwards() {
+        // Act
+        Optional<TipoAnalisis> primero = catalogo.porId(1L, this::cargarPorId);
+        Optional<TipoAnalisis> segundo = catalogo.porId(1L, this::cargarPorId);
+
+        // Assert
+        assertEquals("Glucosa", primero.orElseThrow().getNombre());
+        assertEquals("Glucosa", segundo.orElseThrow().getNombre());
+        assertEquals(1, consultas.get());
+        assertEquals(1, catalogo.getHits());
+        assertEquals(1, catalogo.getMisses());
+    }
+
+    @Test
+    void porId_shouldReturnCopies_soCallersCannotAlterCache() {
+        // Arrange
+        catalogo.porId(1L, this::cargarPorId).orElseThrow().setNombre("Modificado");
+        glucosa.setNombre("También modificado");
+
+        // Act
+        TipoAnalisis result = catalogo.porId(1L, this::cargarPorId).orElseThrow();
+
+        // Assert
+        assertEquals("Glucosa", result.getNombre());
+    }
+
+    @Test
+    void porId_shouldKeepVersion_forETags() {
+        // Arrange
+        glucosa.setVersion(4L);
+        catalogo.porId(1L, this::cargarPorId);
+
+        // Act
+        TipoAnalisis result = catalogo.porId(1L, this::cargarPorId).orElseThrow();
+
+        // Assert
+        assertEquals(4L, result.getVersion());
+    }
+
+    @Test
+    void porId_shouldNotCacheMissingIds_untilFullCatalogIsLoaded() {
+        // Act
+        catalogo.porId(99L, this::cargarPorId);
+        catalogo.porId(99L, this::cargarPorId);
+        catalogo.todos(this::cargarTodos);
+        Optional<TipoAnalisis> result = catalogo.porId(99L, this::cargarPorId);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        assertEquals(3, consultas.get());
+    }
+
+    // ==================== porNombre Tests ====================
+
+    @Test
+    void porNombre_shouldMatchIgnoringCase_afterLoadingById() {
+        // Arrange
+        catalogo.porId(1L, this::cargarPorId);
+
+        // Act
+        Optional<TipoAnalisis> result = catalogo.porNombre("GLUCOSA", nombre -> {
+            consultas.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // Assert
+        assertEquals(1L, result.orElseThrow().getId());
+        assertEquals(1, consultas.get());
+    }
+
+    // ==================== todos Tests ====================
+
+    @Test
+    void todos_shouldLoadFullCatalogOnceAndIndexIt() {
+        // Act
+        List<TipoAnalisis> primero = catalogo.todos(this::cargarTodos);
+        List<TipoAnalisis> segundo = catalogo.todos(this::cargarTodos);
+        Optional<TipoAnalisis> porId = catalogo.porId(2L, this::cargarPorId);
+
+        // Assert
+        assertEquals(2, primero.size());
+        assertEquals(primero, segundo);
+        assertEquals("Hemograma", porId.orElseThrow().getNombre());
+        assertEquals(1, consultas.get());
+    }
+
+    // ==================== invalidar Tests ====================
+
+    @Test
+    void invalidar_shouldForceReload() {
+        // Arrange
+        catalogo.todos(this::cargarTodos);
+
+        // Act
+        catalogo.invalidar();
+        catalogo.todos(this::cargarTodos);
+
+        // Assert
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    void invalidar_shouldDiscardLoadsThatStartedBeforeInvalidation() {
+        // Act: la invalidación ocurre mientras se está cargando
+        catalogo.todos(() -> {
+            catalogo.invalidar();
+            return cargarTodos();
+        });
+        catalogo.todos(this::cargarTodos);
+
+        // Assert
+        assertEquals(2, consultas.get());
+    }
+
+    @Test
+    void invalidar_shouldDiscardAgainAfterTransactionCompletes() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            catalogo.invalidar();
+            catalogo.todos(this::cargarTodos);
+
+            // Act
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        catalogo.todos(this::cargarTodos);
+
+        // Assert
+        assertEquals(2, consultas.get());
+    }
+
+    // ==================== Metrics Tests ====================
+
+    @Test
+    void bindTo_shouldExposeHitAndMissCounters() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        catalogo.bindTo(registry);
+
+        // Act
+        catalogo.todos(this::cargarTodos);
+        catalogo.porId(1L, this::cargarPorId);
+        catalogo.porId(2L, this::cargarPorId);
+
+        // Assert
+        assertEquals(2.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(2.0, registry.get("cache.size").gauge().value());
+    }
+}
@@ -7,12 +7,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +32,9 @@ class TipoAnalisisServiceTest {
     @Mock
     private TipoAnalisisRepository tipoAnalisisRepository;
 
+    @Spy
+    private TipoAnalisisCatalogo catalogo = new TipoAnalisisCatalogo();
+
     @InjectMocks
     private TipoAnalisisService tipoAnalisisService;
 
@@ -113,6 +119,60 @@ class TipoAnalisisServiceTest {
         verify(tipoAnalisisRepository).findById(999L);
     }
 
+    @Test
+    void findById_shouldQueryRepositoryOnlyOnce_whenCalledRepeatedly() {
+        // Arrange
+        when(tipoAnalisisRepository.findById(1L)).thenReturn(Optional.of(testTipoAnalisis));
+
+        // Act
+        tipoAnalisisService.findById(1L);
+        TipoAnalisis result = tipoAnalisisService.findById(1L);
+
+        // Assert
+        assertEquals("Glucosa", result.getNombre());
+        verify(tipoAnalisisRepository, times(1)).findById(1L);
+    }
+
+    // ==================== findActivos Tests ====================
+
+    @Test
+    void findActivos_shouldReturnOnlyActiveTipos() {
+        // Arrange
+        TipoAnalisis inactivo = new TipoAnalisis();
+        inactivo.setId(2L);
+        inactivo.setNombre("Hemoglobina");
+        inactivo.setActivo(false);
+        when(tipoAnalisisRepository.findAll()).thenReturn(List.of(testTipoAnalisis, inactivo));
+
+        // Act
+        List<TipoAnalisis> result = tipoAnalisisService.findActivos();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).getId());
+    }
+
+    // ==================== findAllByIds Tests ====================
+
+    @Test
+    void findAllByIds_shouldReturnMapIndexedById() {
+        // Arrange
+        TipoAnalisis tipo2 = new TipoAnalisis();
+        tipo2.setId(2L);
+        tipo2.setNombre("Hemoglobina");
+        Set<Long> ids = Set.of(1L, 99L);
+        when(tipoAnalisisRepository.findAll()).thenReturn(List.of(testTipoAnalisis, tipo2));
+
+        // Act
+        Map<Long, TipoAnalisis> result = tipoAnalisisService.findAllByIds(ids);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("Glucosa", result.get(1L).getNombre());
+        assertFalse(result.containsKey(99L));
+        verify(tipoAnalisisRepository, times(1)).findAll();
+    }
+
     // ==================== create Tests ====================
 
     @Test
@@ -156,6 +216,24 @@ class TipoAnalisisServiceTest {
         verify(tipoAnalisisRepository, never()).save(any());
     }
 
+    @Test
+    void create_shouldInvalidateCatalog() {
+        // Arrange
+        TipoAnalisis newTipo = new TipoAnalisis();
+        newTipo.setNombre("Colesterol");
+        when(tipoAnalisisRepository.findAll()).thenReturn(List.of(testTipoAnalisis));
+        when(tipoAnalisisRepository.save(any(TipoAnalisis.class))).thenReturn(newTipo);
+        tipoAnalisisService.findAll();
+
+        // Act
+        tipoAnalisisService.create(newTipo);
+        tipoAnalisisService.findAll();
+
+        // Assert
+        verify(catalogo, times(1)).invalidar();
+        verify(tipoAnalisisRepository, times(2)).findAll();
+    }
+
     // ==================== update Tests ====================
 
     @Test
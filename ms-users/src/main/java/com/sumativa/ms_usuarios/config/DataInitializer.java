@@ -4,6 +4,7 @@ import com.sumativa.ms_usuarios.entity.Role;
 import com.sumativa.ms_usuarios.entity.User;
 import com.sumativa.ms_usuarios.repository.RoleRepository;
 import com.sumativa.ms_usuarios.repository.UserRepository;
+import com.sumativa.ms_usuarios.security.PasswordHasher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -23,7 +24,8 @@ import java.util.Set;
 public class DataInitializer {
 
     @Bean
-    CommandLineRunner initDatabase(RoleRepository roleRepository, UserRepository userRepository) {
+    CommandLineRunner initDatabase(RoleRepository roleRepository, UserRepository userRepository,
+                                   PasswordHasher passwordHasher) {
         return args -> {
             log.info("========================================");
             log.info("Inicializando datos de prueba (modo dev)");
@@ -40,7 +42,7 @@ public class DataInitializer {
             User admin = new User();
             admin.setFullName("Administrador Sistema");
             admin.setEmail("admin@hospital.cl");
-            admin.setPasswordHash("admin123");
+            admin.setPasswordHash(passwordHasher.hash("admin123"));
             admin.setEnabled(true);
             admin.setRoles(Set.of(roleAdmin));
             userRepository.save(admin);
@@ -48,7 +50,7 @@ public class DataInitializer {
             User doctor = new User();
             doctor.setFullName("Dr. Juan Pérez");
             doctor.setEmail("juan.perez@hospital.cl");
-            doctor.setPasswordHash("doctor123");
+            doctor.setPasswordHash(passwordHasher.hash("doctor123"));
             doctor.setEnabled(true);
             doctor.setRoles(Set.of(roleDoctor));
             userRepository.save(doctor);
@@ -56,7 +58,7 @@ public class DataInitializer {
             User labTech = new User();
             labTech.setFullName("María González");
             labTech.setEmail("maria.gonzalez@hospital.cl");
-            labTech.setPasswordHash("lab123");
+            labTech.setPasswordHash(passwordHasher.hash("lab123"));
             labTech.setEnabled(true);
             labTech.setRoles(Set.of(roleLabTech));
             userRepository.save(labTech);
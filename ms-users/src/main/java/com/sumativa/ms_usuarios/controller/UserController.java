@@ -1,10 +1,12 @@
 package com.sumativa.ms_usuarios.controller;
 
+import com.sumativa.commons.http.Etags;
 import com.sumativa.ms_usuarios.dto.*;
 import com.sumativa.ms_usuarios.entity.User;
 import com.sumativa.ms_usuarios.mapper.UserMapper;
 import com.sumativa.ms_usuarios.service.UserService;
 import jakarta.validation.Valid;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -22,6 +24,7 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @RestController
+@Observed
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
@@ -31,45 +34,58 @@ public class UserController {
     /**
      * GET /api/users
      * Obtiene todos los usuarios
+     * ETag débil con los IDs y versiones de la lista: If-None-Match responde 304
      * @return Lista de UserResponseDto (sin passwordHash)
      */
     @GetMapping
     public ResponseEntity<List<UserResponseDto>> getAllUsers() {
         log.debug("GET /api/users - Fetching all users");
         List<User> users = userService.findAll();
+        Etags.Coleccion etag = Etags.coleccion();
+        users.forEach(user -> etag.agregar(user.getId(), user.getVersion()));
         List<UserResponseDto> responseDtos = users.stream()
             .map(UserMapper::toResponseDto)
             .collect(Collectors.toList());
         log.debug("Returning {} users", responseDtos.size());
-        return ResponseEntity.ok(responseDtos);
+        return ResponseEntity.ok().eTag(etag.debil()).body(responseDtos);
     }
 
     /**
      * GET /api/users/{id}
      * Obtiene un usuario por ID
+     * ETag fuerte con la versión de la fila: If-None-Match responde 304
      * @return UserResponseDto (sin passwordHash)
      */
     @GetMapping("/{id}")
     public ResponseEntity<UserResponseDto> getUserById(@PathVariable Long id) {
         return userService.findById(id)
-            .map(UserMapper::toResponseDto)
-            .map(ResponseEntity::ok)
+            .map(UserController::conVersion)
             .orElse(ResponseEntity.notFound().build());
     }
 
     /**
      * GET /api/users/email/{email}
      * Obtiene un usuario por email
+     * ETag fuerte con la versión de la fila: If-None-Match responde 304
      * @return UserResponseDto (sin passwordHash)
      */
     @GetMapping("/email/{email}")
     public ResponseEntity<UserResponseDto> getUserByEmail(@PathVariable String email) {
         return userService.findByEmail(email)
-            .map(UserMapper::toResponseDto)
-            .map(ResponseEntity::ok)
+            .map(UserController::conVersion)
             .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * 200 con el usuario y su versión como ETag (cambia con cada escritura,
+     * también al asignar o quitar roles)
+     */
+    private static ResponseEntity<UserResponseDto> conVersion(User user) {
+        return ResponseEntity.ok()
+            .eTag(Etags.fuerte(user.getVersion()))
+            .body(UserMapper.toResponseDto(user));
+    }
+
     /**
      * POST /api/users
      * Crea un nuevo usuario
@@ -196,7 +212,7 @@ public class UserController {
      */
     @PostMapping("/register")
     public ResponseEntity<UserResponseDto> registerUser(@Valid @RequestBody UserCreateDto createDto) {
-        log.info("POST /api/users/register - Public registration for email: {}", createDto.getEmail());
+        log.debug("POST /api/users/register - Public registration for email: {}", createDto.getEmail());
         User user = UserMapper.toEntity(createDto);
         User registeredUser = userService.registerUser(user);
         UserResponseDto responseDto = UserMapper.toResponseDto(registeredUser);
@@ -4,9 +4,13 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -20,7 +24,6 @@ import java.util.Set;
 @Table(name = "users")
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class User {
 
     @Id
@@ -37,6 +40,18 @@ public class User {
     @Column(name = "email", unique = true, nullable = false, length = 150)
     private String email;
 
+    /**
+     * LOWER(email), calculado por la base (columna generada, ver V5__users_email_normalizado).
+     * Sólo para las búsquedas de UserRepository: no se escribe ni se lee desde Java.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @Column(name = "email_normalizado", length = 150, insertable = false, updatable = false,
+            columnDefinition = "varchar(150) generated always as (lower(email))")
+    private String emailNormalizado;
+
     @NotBlank(message = "El password es obligatorio")
     @Size(max = 200, message = "El password hash no puede exceder 200 caracteres")
     @Column(name = "password_hash", nullable = false, length = 200)
@@ -56,4 +71,21 @@ public class User {
         inverseJoinColumns = @JoinColumn(name = "role_id")
     )
     private Set<Role> roles = new HashSet<>();
+
+    // Se expone como ETag (ver UserController) y detecta escrituras concurrentes;
+    // también cambia al asignar o quitar roles
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public User(Long id, String fullName, String email, String passwordHash, Boolean enabled,
+                LocalDateTime createdAt, Set<Role> roles) {
+        this.id = id;
+        this.fullName = fullName;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.enabled = enabled;
+        this.createdAt = createdAt;
+        this.roles = roles;
+    }
 }
@@ -2,6 +2,8 @@ package com.sumativa.ms_usuarios.exception;
 
 import com.sumativa.ms_usuarios.dto.ErrorResponseDto;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -13,6 +15,7 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Manejador global de excepciones para ms-users
@@ -97,6 +100,49 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    /**
+     * Maneja OptimisticLockingFailureException
+     * Otra operación modificó el usuario (@Version) entre la lectura y la escritura
+     * Retorna 409 Conflict
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLocking(
+            OptimisticLockingFailureException ex,
+            HttpServletRequest request) {
+
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                "El usuario fue modificado por otra operación; vuelva a consultarlo e intente nuevamente",
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    /**
+     * Maneja RejectedExecutionException (executor de hash de contraseñas saturado)
+     * Retorna 503 Service Unavailable con Retry-After
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponseDto> handleRejectedExecutionException(
+            RejectedExecutionException ex,
+            HttpServletRequest request) {
+
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                "El servicio está saturado, intente nuevamente en unos segundos",
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     /**
      * Maneja cualquier otra excepción no contemplada
      * Retorna 500 Internal Server Error
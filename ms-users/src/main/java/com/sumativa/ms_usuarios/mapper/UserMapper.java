@@ -53,7 +53,7 @@ public class UserMapper {
 
     /**
      * Convierte un UserCreateDto a entidad User
-     * Nota: El password se mapea directamente a passwordHash según requerimientos académicos
+     * Nota: El password se mapea a passwordHash; UserService lo reemplaza por su hash al guardar
      */
     public static User toEntity(UserCreateDto createDto) {
         if (createDto == null) {
@@ -2,7 +2,11 @@ package com.sumativa.ms_usuarios.repository;
 
 import com.sumativa.ms_usuarios.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -14,15 +18,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
      * Busca un usuario por email (ignorando mayúsculas/minúsculas)
+     * Compara contra email_normalizado para usar su índice (idx_users_email_normalizado).
+     * Con transacción propia: llamado fuera de una transacción (login), la
+     * conexión vuelve al pool al terminar la consulta y no al final del método
      * @param email Email del usuario
      * @return Optional con el usuario si existe
      */
-    Optional<User> findByEmailIgnoreCase(String email);
+    @Transactional(readOnly = true)
+    @Query("select u from User u where u.emailNormalizado = lower(:email)")
+    Optional<User> findByEmailIgnoreCase(@Param("email") String email);
 
     /**
      * Verifica si existe un usuario con el email dado (ignorando mayúsculas/minúsculas)
+     * Compara contra email_normalizado para usar su índice (idx_users_email_normalizado).
      * @param email Email a verificar
      * @return true si existe, false en caso contrario
      */
-    boolean existsByEmailIgnoreCase(String email);
+    @Query("select count(u) > 0 from User u where u.emailNormalizado = lower(:email)")
+    boolean existsByEmailIgnoreCase(@Param("email") String email);
+
+    /**
+     * Reemplaza el hash de la contraseña sólo si no cambió desde que se leyó
+     * @param id ID del usuario
+     * @param anterior Valor leído al verificar la contraseña
+     * @param nuevo Nuevo hash
+     * @return Filas actualizadas (0 si la contraseña cambió entretanto)
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.passwordHash = :nuevo where u.id = :id and u.passwordHash = :anterior")
+    int actualizarPasswordHash(@Param("id") Long id, @Param("anterior") String anterior, @Param("nuevo") String nuevo);
 }
@@ -17,6 +17,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +30,7 @@ import java.util.stream.Collectors;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final GatewayIdentityVerifier gatewayIdentityVerifier;
 
     @Override
     protected void doFilterInternal(
@@ -37,11 +39,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
         try {
-            String jwt = getJwtFromRequest(request);
+            // Identidad firmada por el Gateway (modo "trusted gateway"); si no viene, se verifica el JWT
+            Optional<JwtTokenProvider.VerifiedToken> identity = gatewayIdentityVerifier.verify(request);
+            if (identity.isEmpty()) {
+                String jwt = getJwtFromRequest(request);
+                if (StringUtils.hasText(jwt)) {
+                    // Una sola verificación por request (o una búsqueda en caché si el token ya se verificó)
+                    identity = jwtTokenProvider.verifyToken(jwt);
+                }
+            }
 
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String email = jwtTokenProvider.getEmailFromToken(jwt);
-                List<String> roles = jwtTokenProvider.getRolesFromToken(jwt);
+            identity.ifPresent(token -> {
+                String email = token.email();
+                List<String> roles = token.roles();
 
                 // Convertir roles a authorities de Spring Security
                 List<SimpleGrantedAuthority> authorities = roles.stream()
@@ -58,7 +68,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
                 log.debug("Usuario autenticado: {} con roles: {}", email, roles);
-            }
+            });
         } catch (Exception e) {
             log.error("No se pudo establecer la autenticación del usuario en el contexto de seguridad", e);
         }
@@ -0,0 +1,95 @@
+package com.sumativa.ms_usuarios.security;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hash de contraseñas: bcrypt con costo configurable en un executor acotado.
+ *
+ * Los hashes se guardan con el prefijo del algoritmo ({bcrypt}...). Los valores
+ * sin prefijo son contraseñas en texto plano de antes del hash: se comparan tal
+ * cual y, al primer login correcto, UserService los reemplaza por su hash. Lo
+ * mismo pasa con un hash bcrypt de costo menor al configurado.
+ */
+@Configuration
+public class PasswordHashConfig {
+
+    static final String BCRYPT = "bcrypt";
+
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${password-hash.bcrypt-strength:10}") int bcryptStrength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT,
+                Map.of(BCRYPT, new BCryptPasswordEncoder(bcryptStrength)));
+        encoder.setDefaultPasswordEncoderForMatches(new TextoPlanoLegado());
+        return encoder;
+    }
+
+    /**
+     * Executor de hash: hilos fijos (threads, 0 = núcleos disponibles) y cola de
+     * queue-capacity; con la cola llena rechaza en vez de esperar
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashExecutor(
+            @Value("${password-hash.threads:0}") int hilos,
+            @Value("${password-hash.queue-capacity:16}") int capacidadCola) {
+        int total = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger numero = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(total, total, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Bean
+    public PasswordHasher passwordHasher(PasswordEncoder passwordEncoder, ThreadPoolExecutor passwordHashExecutor) {
+        return new PasswordHasher(passwordEncoder, passwordHashExecutor);
+    }
+
+    /**
+     * Métricas executor.* del executor de hash (hilos activos, cola, tareas completadas)
+     */
+    @Bean
+    public ExecutorServiceMetrics passwordHashExecutorMetrics(ThreadPoolExecutor passwordHashExecutor) {
+        return new ExecutorServiceMetrics(passwordHashExecutor, "passwordHash", Tags.empty());
+    }
+
+    /**
+     * Contraseñas guardadas antes del hash: comparación en tiempo constante, nunca se generan
+     */
+    static final class TextoPlanoLegado implements PasswordEncoder {
+
+        /**
+         * Nunca se llama: DelegatingPasswordEncoder codifica siempre con bcrypt y
+         * este codificador sólo se usa para comparar
+         */
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new IllegalStateException("Las contraseñas nuevas se guardan con " + BCRYPT);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword != null && MessageDigest.isEqual(
+                    rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                    encodedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.sumativa.ms_usuarios.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hash y verificación de contraseñas fuera de los hilos de Tomcat.
+ *
+ * bcrypt consume decenas de milisegundos de CPU por operación a propósito.
+ * Cada hash o verificación se ejecuta en un executor propio, acotado en hilos
+ * y en cola: a lo sumo tantos cálculos simultáneos como hilos tenga, y si la
+ * cola está llena se lanza RejectedExecutionException de inmediato (503 en
+ * GlobalExceptionHandler) en lugar de acumular solicitudes de login.
+ *
+ * Expone la métrica password.hash.rejections.
+ */
+public class PasswordHasher implements MeterBinder {
+
+    /**
+     * Resultado de verificar una contraseña
+     * @param valida si la contraseña coincide
+     * @param nuevoHash hash con el algoritmo y costo actuales si el almacenado
+     *                  quedó obsoleto (texto plano o costo menor); null si no
+     */
+    public record Verificacion(boolean valida, String nuevoHash) {
+    }
+
+    private final PasswordEncoder encoder;
+    private final Executor executor;
+    private final LongAdder rechazos = new LongAdder();
+
+    /**
+     * Hash de una contraseña al azar con el algoritmo y costo actuales
+     */
+    private final String hashFicticio;
+
+    public PasswordHasher(PasswordEncoder encoder, Executor executor) {
+        this.encoder = encoder;
+        this.executor = executor;
+        this.hashFicticio = encoder.encode(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Calcula el hash de una contraseña nueva
+     */
+    public String hash(String password) {
+        return ejecutar(() -> encoder.encode(password));
+    }
+
+    /**
+     * Verifica una contraseña contra el valor almacenado y, si coincide y el
+     * almacenado está obsoleto, calcula su reemplazo en la misma tarea
+     */
+    public Verificacion verificar(String password, String almacenado) {
+        return ejecutar(() -> {
+            if (!encoder.matches(password, almacenado)) {
+                return new Verificacion(false, null);
+            }
+            String nuevoHash = encoder.upgradeEncoding(almacenado) ? encoder.encode(password) : null;
+            return new Verificacion(true, nuevoHash);
+        });
+    }
+
+    /**
+     * Verifica la contraseña contra un hash ficticio y descarta el resultado:
+     * un login con un email inexistente tarda lo mismo que uno con contraseña
+     * incorrecta, así el tiempo de respuesta no revela qué emails existen
+     */
+    public void verificarSinUsuario(String password) {
+        ejecutar(() -> encoder.matches(password, hashFicticio));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("password.hash.rejections", rechazos, LongAdder::doubleValue)
+                .description("Hash o verificación de contraseñas rechazados con 503 por executor saturado")
+                .register(registry);
+    }
+
+    long getRechazos() {
+        return rechazos.sum();
+    }
+
+    private <T> T ejecutar(Supplier<T> tarea) {
+        CompletableFuture<T> resultado;
+        try {
+            resultado = CompletableFuture.supplyAsync(tarea, executor);
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw e;
+        }
+        try {
+            return resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
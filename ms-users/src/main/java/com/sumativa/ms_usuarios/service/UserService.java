@@ -7,28 +7,48 @@ import com.sumativa.ms_usuarios.entity.User;
 import com.sumativa.ms_usuarios.repository.RoleRepository;
 import com.sumativa.ms_usuarios.repository.UserRepository;
 import com.sumativa.ms_usuarios.security.JwtTokenProvider;
+import com.sumativa.ms_usuarios.security.PasswordHasher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
  * Servicio para gestión de usuarios
+ *
+ * Las contraseñas se guardan con hash (PasswordHasher): al crear o actualizar
+ * un usuario, passwordHash llega con la contraseña y se reemplaza por su hash.
+ * El hash toma decenas de milisegundos: se calcula antes de abrir la transacción
+ * (TransactionTemplate) para no retener una conexión del pool mientras tanto.
+ *
+ * Expone la métrica auth.login (result=success|failure) con los inicios de sesión.
  */
 @Slf4j
 @Service
+@Observed
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
-public class UserService {
+public class UserService implements MeterBinder {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final JwtTokenProvider jwtTokenProvider;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final LongAdder loginsExitosos = new LongAdder();
+    private final LongAdder loginsFallidos = new LongAdder();
 
     /**
      * Obtiene todos los usuarios
@@ -60,11 +80,19 @@ public class UserService {
 
     /**
      * Crea un nuevo usuario
-     * NOTA: El password se almacena en texto plano según requerimientos de la pauta
+     * El password recibido en passwordHash se guarda como hash
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User createUser(User user) {
-        log.info("Creating user with email: {}", user.getEmail());
+        hashearPassword(user);
+        return transactionTemplate.execute(status -> crear(user));
+    }
+
+    /**
+     * Valida y guarda un usuario nuevo cuyo passwordHash ya es un hash
+     */
+    private User crear(User user) {
+        log.debug("Creating user with email: {}", user.getEmail());
 
         // Verificar que el email no esté en uso
         if (existsByEmail(user.getEmail())) {
@@ -93,16 +121,34 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
-        log.info("User created successfully with id: {} and email: {}", savedUser.getId(), savedUser.getEmail());
+        log.debug("User created successfully with id: {} and email: {}", savedUser.getId(), savedUser.getEmail());
         return savedUser;
     }
 
     /**
      * Actualiza un usuario existente
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User updateUser(Long id, User userDetails) {
-        log.info("Updating user with id: {}", id);
+        // El controlador parte del usuario guardado: passwordHash sólo cambia si llegó un password
+        String nuevoHash = null;
+        if (userDetails.getPasswordHash() != null) {
+            String almacenado = userRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado con id: " + id))
+                .getPasswordHash();
+            if (!userDetails.getPasswordHash().equals(almacenado)) {
+                nuevoHash = passwordHasher.hash(userDetails.getPasswordHash());
+            }
+        }
+        String passwordHash = nuevoHash;
+        return transactionTemplate.execute(status -> actualizar(id, userDetails, passwordHash));
+    }
+
+    /**
+     * Aplica los cambios de userDetails; passwordHash es el nuevo hash, o null si no cambia
+     */
+    private User actualizar(Long id, User userDetails, String passwordHash) {
+        log.debug("Updating user with id: {}", id);
 
         User user = userRepository.findById(id)
             .orElseThrow(() -> {
@@ -124,8 +170,8 @@ public class UserService {
             user.setEmail(userDetails.getEmail());
         }
 
-        if (userDetails.getPasswordHash() != null) {
-            user.setPasswordHash(userDetails.getPasswordHash());
+        if (passwordHash != null) {
+            user.setPasswordHash(passwordHash);
         }
 
         if (userDetails.getEnabled() != null) {
@@ -143,7 +189,7 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
-        log.info("User updated successfully with id: {}", updatedUser.getId());
+        log.debug("User updated successfully with id: {}", updatedUser.getId());
         return updatedUser;
     }
 
@@ -152,7 +198,7 @@ public class UserService {
      */
     @Transactional
     public void deleteUser(Long id) {
-        log.info("Deleting user with id: {}", id);
+        log.debug("Deleting user with id: {}", id);
 
         User user = userRepository.findById(id)
             .orElseThrow(() -> {
@@ -170,7 +216,7 @@ public class UserService {
         }
 
         userRepository.deleteById(id);
-        log.info("User deleted successfully with id: {}", id);
+        log.debug("User deleted successfully with id: {}", id);
     }
 
     /**
@@ -196,7 +242,7 @@ public class UserService {
      */
     @Transactional
     public User assignRole(Long userId, String roleName) {
-        log.info("Assigning role {} to user with id: {}", roleName, userId);
+        log.debug("Assigning role {} to user with id: {}", roleName, userId);
 
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado con id: " + userId));
@@ -206,7 +252,7 @@ public class UserService {
 
         user.getRoles().add(role);
         User updatedUser = userRepository.save(user);
-        log.info("Role {} assigned successfully to user with id: {}", roleName, userId);
+        log.debug("Role {} assigned successfully to user with id: {}", roleName, userId);
         return updatedUser;
     }
 
@@ -227,29 +273,45 @@ public class UserService {
 
     /**
      * Inicio de sesión con generación de JWT
-     * Valida email y password en texto plano (según pauta) y genera token JWT
+     * Valida email y password contra el hash y genera token JWT. Si el valor
+     * guardado está obsoleto (texto plano o costo menor) lo reemplaza por un hash
+     * nuevo. Sin transacción: la verificación toma decenas de milisegundos y no
+     * debe retener una conexión del pool.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public LoginResponse login(String email, String password) {
-        log.info("Login attempt for email: {}", email);
+        log.debug("Login attempt for email: {}", email);
 
         User user = userRepository.findByEmailIgnoreCase(email)
             .orElseThrow(() -> {
+                // Mismo costo que una contraseña incorrecta: no revelar qué emails existen
+                passwordHasher.verificarSinUsuario(password);
                 log.warn("Login failed for email: {} (user not found)", email);
+                loginsFallidos.increment();
                 return new IllegalArgumentException("Credenciales inválidas o usuario deshabilitado");
             });
 
-        // Validar password en texto plano (NO loggear contraseña)
-        if (!user.getPasswordHash().equals(password)) {
+        // Validar password contra el hash (NO loggear contraseña)
+        PasswordHasher.Verificacion verificacion = passwordHasher.verificar(password, user.getPasswordHash());
+        if (!verificacion.valida()) {
             log.warn("Login failed for email: {} (invalid password)", email);
+            loginsFallidos.increment();
             throw new IllegalArgumentException("Credenciales inválidas o usuario deshabilitado");
         }
 
         if (!user.getEnabled()) {
             log.warn("Login failed for email: {} (user disabled)", email);
+            loginsFallidos.increment();
             throw new IllegalArgumentException("Credenciales inválidas o usuario deshabilitado");
         }
 
-        log.info("Login successful for user: {}", email);
+        log.debug("Login successful for user: {}", email);
+        loginsExitosos.increment();
+
+        if (verificacion.nuevoHash() != null) {
+            userRepository.actualizarPasswordHash(user.getId(), user.getPasswordHash(), verificacion.nuevoHash());
+            log.debug("Password hash updated for user: {}", email);
+        }
 
         // Generar token JWT
         List<String> roleNames = user.getRoles().stream()
@@ -278,12 +340,17 @@ public class UserService {
      * Registro público de usuarios
      * Crea un nuevo usuario con rol USER por defecto
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(User user) {
-        log.info("Registering new user with email: {}", user.getEmail());
+        hashearPassword(user);
+        return transactionTemplate.execute(status -> registrar(user));
+    }
+
+    private User registrar(User user) {
+        log.debug("Registering new user with email: {}", user.getEmail());
 
-        // Crear el usuario usando el método existente
-        User createdUser = createUser(user);
+        // Crear el usuario con la misma validación que createUser
+        User createdUser = crear(user);
 
         // Asignar rol USER por defecto
         Role userRole = roleRepository.findByName("USER")
@@ -296,10 +363,40 @@ public class UserService {
         createdUser.getRoles().add(userRole);
         User savedUser = userRepository.save(createdUser);
 
-        log.info("User registered successfully with id: {} and default role", savedUser.getId());
+        log.debug("User registered successfully with id: {} and default role", savedUser.getId());
         return savedUser;
     }
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.login", loginsExitosos, LongAdder::doubleValue)
+            .tags("result", "success")
+            .description("Inicios de sesión exitosos")
+            .register(registry);
+        FunctionCounter.builder("auth.login", loginsFallidos, LongAdder::doubleValue)
+            .tags("result", "failure")
+            .description("Inicios de sesión rechazados por credenciales inválidas o usuario deshabilitado")
+            .register(registry);
+    }
+
+    long getLoginsExitosos() {
+        return loginsExitosos.sum();
+    }
+
+    long getLoginsFallidos() {
+        return loginsFallidos.sum();
+    }
+
+    /**
+     * Reemplaza el password recibido en passwordHash por su hash.
+     * Sin password se mantiene null: lo rechaza la validación de la entidad, como antes
+     */
+    private void hashearPassword(User user) {
+        if (user.getPasswordHash() != null) {
+            user.setPasswordHash(passwordHasher.hash(user.getPasswordHash()));
+        }
+    }
+
     /**
      * Valida que el email pertenezca a un dominio autorizado
      * Dominios permitidos: duocuc.cl, example.com
@@ -0,0 +1,9 @@
+-- V5__users_email_normalizado.sql (H2 compatible)
+-- Búsquedas por email sin distinguir mayúsculas con índice.
+-- Un predicado UPPER(email) = UPPER(?) no puede usar el índice único de email y
+-- recorre toda la tabla en cada login y registro. La columna generada guarda el
+-- email en minúsculas (la mantiene la base, no la aplicación) y su índice único
+-- impide además dos cuentas que sólo difieren en mayúsculas.
+ALTER TABLE users ADD COLUMN email_normalizado VARCHAR(150) GENERATED ALWAYS AS (LOWER(email));
+
+CREATE UNIQUE INDEX idx_users_email_normalizado ON users(email_normalizado);
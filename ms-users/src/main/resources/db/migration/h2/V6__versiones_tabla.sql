@@ -0,0 +1,8 @@
+-- Contador de cambios por tabla para los ETag del GET condicional (ConditionalGetFilter).
+-- Parte de los milisegundos de creación de la base: una base recreada no repite ETags.
+CREATE TABLE versiones_tabla (
+    tabla VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO versiones_tabla (tabla, version) VALUES ('users', DATEDIFF('MILLISECOND', TIMESTAMP '1970-01-01 00:00:00', CURRENT_TIMESTAMP));
@@ -0,0 +1,9 @@
+-- V5__users_email_normalizado.sql
+-- Búsquedas por email sin distinguir mayúsculas con índice.
+-- Un predicado UPPER(email) = UPPER(?) no puede usar el índice único de email y
+-- recorre toda la tabla en cada login y registro. La columna virtual no ocupa
+-- espacio en la tabla: su índice equivale a un índice de función sobre LOWER(email)
+-- e impide además dos cuentas que sólo difieren en mayúsculas.
+ALTER TABLE users ADD (email_normalizado VARCHAR2(150) GENERATED ALWAYS AS (LOWER(email)) VIRTUAL);
+
+CREATE UNIQUE INDEX idx_users_email_normalizado ON users(email_normalizado);
@@ -0,0 +1,8 @@
+-- Contador de cambios por tabla para los ETag del GET condicional (ConditionalGetFilter).
+-- Parte de los milisegundos de creación de la base: una base recreada no repite ETags.
+CREATE TABLE versiones_tabla (
+    tabla VARCHAR2(64) PRIMARY KEY,
+    version NUMBER(19) NOT NULL
+);
+
+INSERT INTO versiones_tabla (tabla, version) VALUES ('users', ROUND((CAST(SYS_EXTRACT_UTC(SYSTIMESTAMP) AS DATE) - DATE '1970-01-01') * 86400000));
@@ -0,0 +1,9 @@
+-- V7__users_version.sql
+-- Versión de fila (@Version) en users: los ETag se calculan con las versiones
+-- de las filas que lee cada solicitud (ver commons/Etags). Cambiar los roles
+-- de un usuario también incrementa su versión.
+ALTER TABLE users ADD (version NUMBER(19) DEFAULT 0 NOT NULL);
+
+-- Reemplaza al contador por tabla de V6: cada escritura lo incrementaba fuera
+-- de su transacción y todas esperaban el bloqueo de la misma fila.
+DROP TABLE versiones_tabla;
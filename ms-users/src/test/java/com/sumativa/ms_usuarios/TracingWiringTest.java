@@ -0,0 +1,26 @@
+package com.sumativa.ms_usuarios;
+
+import com.sumativa.ms_usuarios.controller.UserController;
+import com.sumativa.ms_usuarios.service.UserService;
+import io.micrometer.observation.annotation.Observed;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que los controladores y servicios del módulo generan spans
+ * (@Observed). La propagación de la traza hasta JDBC se prueba de punta a
+ * punta en ms-results.
+ */
+class TracingWiringTest {
+
+    @Test
+    void controllersAndServices_shouldBeObserved() {
+        // Act & Assert
+        for (Class<?> clase : List.of(UserController.class, UserService.class)) {
+            assertNotNull(clase.getAnnotation(Observed.class), clase.getSimpleName() + " no genera spans");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.sumativa.ms_usuarios.config;
+
+import com.sumativa.ms_usuarios.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que WebConfig registra ConsultasPorSolicitudFilter como
+ * StatementInspector de Hibernate: las consultas de UserRepository se cuentan
+ * en la solicitud (el comportamiento del filtro se prueba en ms-results)
+ */
+@DataJpaTest
+class ConsultasPorSolicitudFilterTest {
+
+    @TestConfiguration
+    static class InspectorConfig {
+
+        private final WebConfig webConfig = new WebConfig();
+
+        @Bean
+        ConsultasPorSolicitudFilter consultasPorSolicitudFilter() {
+            return webConfig.consultasPorSolicitudFilter();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer consultasPorSolicitudInspector(ConsultasPorSolicitudFilter filter) {
+            return webConfig.consultasPorSolicitudInspector(filter);
+        }
+    }
+
+    @Autowired
+    private ConsultasPorSolicitudFilter filter;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Test
+    void consultasPorSolicitudInspector_shouldCountRepositoryQueries() throws ServletException, IOException {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/users/{id}");
+                repository.count();
+                repository.findById(1L);
+            }
+        });
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/1"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        DistributionSummary resumen = registry.get(ConsultasPorSolicitudFilter.METRICA)
+                .tags("uri", "/api/users/{id}")
+                .summary();
+        assertEquals(1, resumen.count());
+        assertEquals(2.0, resumen.totalAmount());
+    }
+}
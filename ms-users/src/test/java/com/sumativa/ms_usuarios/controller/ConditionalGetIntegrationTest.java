@@ -0,0 +1,104 @@
+package com.sumativa.ms_usuarios.controller;
+
+import com.sumativa.ms_usuarios.entity.User;
+import com.sumativa.ms_usuarios.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * ETags con servicio y base reales (schema de Flyway): una escritura cambia
+ * el ETag de la siguiente lectura y el ETag vigente responde 304
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ConditionalGetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User(null, "Usuario ETag", "etag" + System.nanoTime() + "@example.com",
+                "hash", true, null, new HashSet<>()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    private String etagOf(String uri) throws Exception {
+        return mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    @Test
+    void get_shouldReturn304_whenEtagIsCurrent() throws Exception {
+        // Arrange
+        String detalle = etagOf("/api/users/" + user.getId());
+        String lista = etagOf("/api/users");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/users/" + user.getId()).header("If-None-Match", detalle))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/users/email/" + user.getEmail()).header("If-None-Match", detalle))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/users").header("If-None-Match", lista))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void updateUser_shouldChangeEtagOfNextGet() throws Exception {
+        // Arrange
+        String detalle = etagOf("/api/users/" + user.getId());
+        String lista = etagOf("/api/users");
+
+        // Act
+        mockMvc.perform(put("/api/users/" + user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fullName\": \"Usuario ETag Actualizado\"}"))
+                .andExpect(status().isOk());
+
+        // Assert
+        assertNotEquals(detalle, etagOf("/api/users/" + user.getId()));
+        assertNotEquals(lista, etagOf("/api/users"));
+        mockMvc.perform(get("/api/users/" + user.getId()).header("If-None-Match", detalle))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void assignAndRemoveRole_shouldChangeEtagOfNextGet() throws Exception {
+        // Arrange: los roles van en la respuesta y sólo cambia la tabla user_roles
+        String inicial = etagOf("/api/users/" + user.getId());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/users/" + user.getId() + "/roles/DOCTOR"))
+                .andExpect(status().isOk());
+        String conRol = etagOf("/api/users/" + user.getId());
+        assertNotEquals(inicial, conRol);
+
+        mockMvc.perform(delete("/api/users/" + user.getId() + "/roles/DOCTOR"))
+                .andExpect(status().isOk());
+        assertNotEquals(conRol, etagOf("/api/users/" + user.getId()));
+    }
+}
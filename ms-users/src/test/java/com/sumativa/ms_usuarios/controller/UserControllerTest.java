@@ -82,6 +82,29 @@ class UserControllerTest {
         assertEquals("test@example.com", response.getBody().getEmail());
     }
 
+    @Test
+    void getAllUsers_shouldReturnWeakEtag_thatChangesWithVersion() {
+        testUser.setVersion(0L);
+        when(userService.findAll()).thenReturn(List.of(testUser));
+        String antes = userController.getAllUsers().getHeaders().getETag();
+
+        testUser.setVersion(1L);
+        String despues = userController.getAllUsers().getHeaders().getETag();
+
+        assertTrue(antes.startsWith("W/\""));
+        assertNotEquals(antes, despues);
+    }
+
+    @Test
+    void getUserById_shouldReturnStrongEtagWithVersion() {
+        testUser.setVersion(4L);
+        when(userService.findById(1L)).thenReturn(Optional.of(testUser));
+
+        ResponseEntity<UserResponseDto> response = userController.getUserById(1L);
+
+        assertEquals("\"4\"", response.getHeaders().getETag());
+    }
+
     @Test
     void getUserById_shouldReturn404_whenNotExists() {
         when(userService.findById(999L)).thenReturn(Optional.empty());
@@ -102,6 +125,16 @@ class UserControllerTest {
         assertEquals("Test User", response.getBody().getFullName());
     }
 
+    @Test
+    void getUserByEmail_shouldReturnStrongEtagWithVersion() {
+        testUser.setVersion(4L);
+        when(userService.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+
+        ResponseEntity<UserResponseDto> response = userController.getUserByEmail("test@example.com");
+
+        assertEquals("\"4\"", response.getHeaders().getETag());
+    }
+
     @Test
     void getUserByEmail_shouldReturn404_whenNotExists() {
         when(userService.findByEmail("notfound@example.com")).thenReturn(Optional.empty());
@@ -1,6 +1,7 @@
 package com.sumativa.ms_usuarios.exception;
 
 import com.sumativa.ms_usuarios.dto.ErrorResponseDto;
+import com.sumativa.ms_usuarios.entity.User;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,12 +11,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
 import java.util.Arrays;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -141,6 +144,28 @@ class GlobalExceptionHandlerTest {
         assertEquals("Recurso no encontrado", response.getBody().getMessage());
     }
 
+    @Test
+    void handleOptimisticLocking_shouldReturn409() {
+        ObjectOptimisticLockingFailureException ex = new ObjectOptimisticLockingFailureException(User.class, 1L);
+
+        ResponseEntity<ErrorResponseDto> response = globalExceptionHandler.handleOptimisticLocking(ex, request);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(409, response.getBody().getStatus());
+    }
+
+    @Test
+    void handleRejectedExecutionException_shouldReturn503WithRetryAfter() {
+        RejectedExecutionException ex = new RejectedExecutionException("cola llena");
+
+        ResponseEntity<ErrorResponseDto> response = globalExceptionHandler.handleRejectedExecutionException(ex, request);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(503, response.getBody().getStatus());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+        assertFalse(response.getBody().getMessage().contains("cola llena"));
+    }
+
     @Test
     void handleGenericException_shouldReturn500() {
         Exception ex = new RuntimeException("Error inesperado");
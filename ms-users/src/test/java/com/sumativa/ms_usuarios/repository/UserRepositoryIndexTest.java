@@ -0,0 +1,177 @@
+package com.sumativa.ms_usuarios.repository;
+
+import com.sumativa.ms_usuarios.entity.User;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica con EXPLAIN (H2, esquema de las migraciones Flyway) que las búsquedas
+ * por email sin distinguir mayúsculas usan idx_users_email_normalizado.
+ * Las sentencias se capturan tal como las genera Hibernate.
+ */
+@DataJpaTest
+class UserRepositoryIndexTest {
+
+    private static final Pattern CONDICION_INDICE = Pattern.compile("/\\* PUBLIC\\.(\\w+): ([^*]+) \\*/");
+
+    @TestConfiguration
+    static class CapturaSqlConfig {
+
+        @Bean
+        SentenciasSql sentenciasSql() {
+            return new SentenciasSql();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer capturarSentencias(SentenciasSql sentenciasSql) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sentenciasSql);
+        }
+    }
+
+    static class SentenciasSql implements StatementInspector {
+
+        private final List<String> sentencias = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            sentencias.add(sql);
+            return sql;
+        }
+
+        String ultimaSobre(String tabla) {
+            for (int i = sentencias.size() - 1; i >= 0; i--) {
+                if (sentencias.get(i).contains("from " + tabla)) {
+                    return sentencias.get(i);
+                }
+            }
+            throw new IllegalStateException("Sin sentencias sobre " + tabla + ": " + sentencias);
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SentenciasSql sentenciasSql;
+
+    @BeforeEach
+    void setUp() {
+        sentenciasSql.sentencias.clear();
+    }
+
+    private String plan(String sql, Object... parametros) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parametros);
+    }
+
+    /**
+     * Índice y condición con que H2 accede a la tabla; null si la recorre completa
+     */
+    private static String[] accesoPorIndice(String plan) {
+        Matcher matcher = CONDICION_INDICE.matcher(plan);
+        return matcher.find() ? new String[] {matcher.group(1), matcher.group(2)} : null;
+    }
+
+    // ==================== findByEmailIgnoreCase Tests ====================
+
+    @Test
+    void findByEmailIgnoreCase_shouldFindUser_regardlessOfCase() {
+        // Act
+        Optional<User> result = userRepository.findByEmailIgnoreCase("ADMIN@Hospital.CL");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("admin@hospital.cl", result.get().getEmail());
+    }
+
+    @Test
+    void findByEmailIgnoreCase_shouldUseEmailIndex() {
+        // Arrange
+        userRepository.findByEmailIgnoreCase("ADMIN@Hospital.CL");
+        String sql = sentenciasSql.ultimaSobre("users");
+
+        // Act
+        String[] acceso = accesoPorIndice(plan(sql, "ADMIN@Hospital.CL"));
+
+        // Assert
+        assertNotNull(acceso, "La consulta recorre la tabla: " + sql);
+        assertEquals("IDX_USERS_EMAIL_NORMALIZADO", acceso[0]);
+        assertTrue(acceso[1].startsWith("EMAIL_NORMALIZADO = "));
+    }
+
+    // ==================== existsByEmailIgnoreCase Tests ====================
+
+    @Test
+    void existsByEmailIgnoreCase_shouldUseEmailIndex() {
+        // Arrange
+        assertTrue(userRepository.existsByEmailIgnoreCase("Juan.Perez@Hospital.cl"));
+        assertFalse(userRepository.existsByEmailIgnoreCase("nadie@hospital.cl"));
+        String sql = sentenciasSql.ultimaSobre("users");
+
+        // Act
+        String[] acceso = accesoPorIndice(plan(sql, "nadie@hospital.cl"));
+
+        // Assert
+        assertNotNull(acceso, "La consulta recorre la tabla: " + sql);
+        assertEquals("IDX_USERS_EMAIL_NORMALIZADO", acceso[0]);
+    }
+
+    @Test
+    void upperPredicate_shouldNotBeServedByAnyIndex() {
+        // Act: el predicado que generaba la consulta derivada ...IgnoreCase
+        String plan = plan("select u.id from users u where upper(u.email) = upper(?)", "ADMIN@Hospital.CL");
+
+        // Assert
+        assertNull(accesoPorIndice(plan), plan);
+    }
+
+    // ==================== email_normalizado Tests ====================
+
+    @Test
+    void save_shouldFillNormalizedEmail_inDatabase() {
+        // Arrange
+        User user = new User();
+        user.setFullName("Nuevo Usuario");
+        user.setEmail("Nuevo.Usuario@Hospital.CL");
+        user.setPasswordHash("{bcrypt}hash");
+
+        // Act
+        userRepository.saveAndFlush(user);
+
+        // Assert
+        assertEquals("nuevo.usuario@hospital.cl", jdbcTemplate.queryForObject(
+                "select email_normalizado from users where id = ?", String.class, user.getId()));
+        assertTrue(userRepository.findByEmailIgnoreCase("nuevo.usuario@hospital.cl").isPresent());
+    }
+
+    @Test
+    void save_shouldRejectEmail_differingOnlyInCase() {
+        // Arrange
+        User user = new User();
+        user.setFullName("Duplicado");
+        user.setEmail("Admin@Hospital.cl");
+        user.setPasswordHash("{bcrypt}hash");
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.saveAndFlush(user));
+    }
+}
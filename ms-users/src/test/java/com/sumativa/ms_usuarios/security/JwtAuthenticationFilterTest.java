@@ -14,8 +14,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,6 +28,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private GatewayIdentityVerifier gatewayIdentityVerifier;
+
     @Mock
     private HttpServletRequest request;
 
@@ -43,6 +48,10 @@ class JwtAuthenticationFilterTest {
         SecurityContextHolder.clearContext();
     }
 
+    private Optional<JwtTokenProvider.VerifiedToken> verified(String email, List<String> roles) {
+        return Optional.of(new JwtTokenProvider.VerifiedToken(email, roles, Instant.now().plusSeconds(3600)));
+    }
+
     @Test
     void doFilterInternal_shouldSetAuthentication_whenValidToken() throws ServletException, IOException {
         String token = "valid.jwt.token";
@@ -50,9 +59,7 @@ class JwtAuthenticationFilterTest {
         List<String> roles = Arrays.asList("ADMIN", "USER");
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(true);
-        when(jwtTokenProvider.getEmailFromToken(token)).thenReturn(email);
-        when(jwtTokenProvider.getRolesFromToken(token)).thenReturn(roles);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified(email, roles));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -87,7 +94,7 @@ class JwtAuthenticationFilterTest {
     void doFilterInternal_shouldNotSetAuthentication_whenInvalidToken() throws ServletException, IOException {
         String token = "invalid.jwt.token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(false);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(Optional.empty());
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -110,7 +117,7 @@ class JwtAuthenticationFilterTest {
     void doFilterInternal_shouldContinueFilterChain_whenExceptionOccurs() throws ServletException, IOException {
         String token = "problematic.jwt.token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenThrow(new RuntimeException("JWT error"));
+        when(jwtTokenProvider.verifyToken(token)).thenThrow(new RuntimeException("JWT error"));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -125,9 +132,7 @@ class JwtAuthenticationFilterTest {
         List<String> roles = Arrays.asList("ADMIN");
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(true);
-        when(jwtTokenProvider.getEmailFromToken(token)).thenReturn(email);
-        when(jwtTokenProvider.getRolesFromToken(token)).thenReturn(roles);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified(email, roles));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -145,9 +150,7 @@ class JwtAuthenticationFilterTest {
         List<String> roles = Arrays.asList();
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(true);
-        when(jwtTokenProvider.getEmailFromToken(token)).thenReturn(email);
-        when(jwtTokenProvider.getRolesFromToken(token)).thenReturn(roles);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified(email, roles));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -163,9 +166,7 @@ class JwtAuthenticationFilterTest {
         List<String> roles = Arrays.asList("USER");
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(true);
-        when(jwtTokenProvider.getEmailFromToken(token)).thenReturn(email);
-        when(jwtTokenProvider.getRolesFromToken(token)).thenReturn(roles);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified(email, roles));
         when(request.getRemoteAddr()).thenReturn("127.0.0.1");
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -183,4 +184,56 @@ class JwtAuthenticationFilterTest {
 
         verify(filterChain).doFilter(request, response);
     }
+
+    @Test
+    void doFilterInternal_shouldVerifyTokenOnlyOnce() throws ServletException, IOException {
+        // Arrange
+        String token = "valid.jwt.token";
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified("test@example.com", List.of("USER")));
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(jwtTokenProvider, times(1)).verifyToken(token);
+        verify(jwtTokenProvider, never()).validateToken(anyString());
+        verify(jwtTokenProvider, never()).getEmailFromToken(anyString());
+        verify(jwtTokenProvider, never()).getRolesFromToken(anyString());
+    }
+
+    // ==================== Trusted Gateway Tests ====================
+
+    @Test
+    void doFilterInternal_shouldUseGatewayIdentity_withoutVerifyingJwt() throws ServletException, IOException {
+        // Arrange
+        when(gatewayIdentityVerifier.verify(request)).thenReturn(verified("test@example.com", List.of("ADMIN")));
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("test@example.com", authentication.getPrincipal());
+        verifyNoInteractions(jwtTokenProvider);
+    }
+
+    @Test
+    void doFilterInternal_shouldFallBackToJwt_whenNoGatewayIdentity() throws ServletException, IOException {
+        // Arrange
+        String token = "valid.jwt.token";
+        when(gatewayIdentityVerifier.verify(request)).thenReturn(Optional.empty());
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtTokenProvider.verifyToken(token)).thenReturn(verified("test@example.com", List.of("USER")));
+
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(jwtTokenProvider).verifyToken(token);
+    }
 }
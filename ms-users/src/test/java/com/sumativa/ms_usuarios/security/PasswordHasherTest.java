@@ -0,0 +1,181 @@
+package com.sumativa.ms_usuarios.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para PasswordHasher y el codificador de PasswordHashConfig
+ */
+class PasswordHasherTest {
+
+    private PasswordHashConfig config;
+    private PasswordHasher hasher;
+
+    @BeforeEach
+    void setUp() {
+        config = new PasswordHashConfig();
+        hasher = new PasswordHasher(config.passwordEncoder(4), Runnable::run);
+    }
+
+    // ==================== hash Tests ====================
+
+    @Test
+    void hash_shouldUseBcryptWithConfiguredCost() {
+        // Act
+        String hash = hasher.hash("password123");
+
+        // Assert
+        assertTrue(hash.startsWith("{bcrypt}$2a$04$"));
+        assertNotEquals(hasher.hash("password123"), hash);
+    }
+
+    // ==================== verificar Tests ====================
+
+    @Test
+    void verificar_shouldAcceptHash_withoutRehash() {
+        // Arrange
+        String hash = hasher.hash("password123");
+
+        // Act
+        PasswordHasher.Verificacion result = hasher.verificar("password123", hash);
+
+        // Assert
+        assertTrue(result.valida());
+        assertNull(result.nuevoHash());
+    }
+
+    @Test
+    void verificar_shouldRejectWrongPassword() {
+        // Arrange
+        String hash = hasher.hash("password123");
+
+        // Act
+        PasswordHasher.Verificacion result = hasher.verificar("otra", hash);
+
+        // Assert
+        assertFalse(result.valida());
+        assertNull(result.nuevoHash());
+    }
+
+    @Test
+    void verificar_shouldAcceptLegacyPlaintext_andReturnHash() {
+        // Act
+        PasswordHasher.Verificacion result = hasher.verificar("admin123", "admin123");
+
+        // Assert
+        assertTrue(result.valida());
+        assertNotNull(result.nuevoHash());
+        assertTrue(hasher.verificar("admin123", result.nuevoHash()).valida());
+    }
+
+    @Test
+    void verificar_shouldRejectWrongLegacyPlaintext_withoutHash() {
+        // Act
+        PasswordHasher.Verificacion result = hasher.verificar("admin124", "admin123");
+
+        // Assert
+        assertFalse(result.valida());
+        assertNull(result.nuevoHash());
+    }
+
+    @Test
+    void verificar_shouldRehash_whenStoredCostIsLower() {
+        // Arrange
+        String hashCosto4 = hasher.hash("password123");
+        PasswordHasher costoMayor = new PasswordHasher(config.passwordEncoder(5), Runnable::run);
+
+        // Act
+        PasswordHasher.Verificacion result = costoMayor.verificar("password123", hashCosto4);
+
+        // Assert
+        assertTrue(result.valida());
+        assertTrue(result.nuevoHash().startsWith("{bcrypt}$2a$05$"));
+    }
+
+    // ==================== verificarSinUsuario Tests ====================
+
+    @Test
+    void verificarSinUsuario_shouldRunBcryptOnExecutor() {
+        // Arrange
+        AtomicInteger tareas = new AtomicInteger();
+        PasswordHasher contado = new PasswordHasher(config.passwordEncoder(4), tarea -> {
+            tareas.incrementAndGet();
+            tarea.run();
+        });
+
+        // Act
+        contado.verificarSinUsuario("password123");
+
+        // Assert: pasa por el executor (y su cota) igual que una verificación real
+        assertEquals(1, tareas.get());
+    }
+
+    @Test
+    void textoPlanoLegado_shouldNotEncode() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> new PasswordHashConfig.TextoPlanoLegado().encode("password123"));
+    }
+
+    // ==================== Executor Tests ====================
+
+    @Test
+    void hash_shouldRejectImmediately_whenExecutorIsSaturated() throws Exception {
+        // Arrange: un hilo ocupado y la única posición de la cola tomada
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        CountDownLatch liberar = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.execute(() -> { });
+            PasswordHasher saturado = new PasswordHasher(config.passwordEncoder(4), executor);
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            saturado.bindTo(registry);
+
+            // Act & Assert
+            assertThrows(RejectedExecutionException.class, () -> saturado.hash("password123"));
+            assertEquals(1, saturado.getRechazos());
+            assertEquals(1.0, registry.get("password.hash.rejections").functionCounter().count());
+        } finally {
+            liberar.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void hash_shouldCompleteOnExecutor() throws Exception {
+        // Arrange
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        try {
+            PasswordHasher enExecutor = new PasswordHasher(config.passwordEncoder(4), executor);
+
+            // Act
+            String hash = enExecutor.hash("password123");
+
+            // Assert
+            assertTrue(enExecutor.verificar("password123", hash).valida());
+            assertEquals(0, enExecutor.getRechazos());
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+}
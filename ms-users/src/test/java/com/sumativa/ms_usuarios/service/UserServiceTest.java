@@ -6,12 +6,20 @@ import com.sumativa.ms_usuarios.entity.User;
 import com.sumativa.ms_usuarios.repository.RoleRepository;
 import com.sumativa.ms_usuarios.repository.UserRepository;
 import com.sumativa.ms_usuarios.security.JwtTokenProvider;
+import com.sumativa.ms_usuarios.security.PasswordHashConfig;
+import com.sumativa.ms_usuarios.security.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -20,6 +28,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +44,13 @@ class UserServiceTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    // bcrypt de costo mínimo y sin executor: los tests no esperan el costo real
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(new PasswordHashConfig().passwordEncoder(4), Runnable::run);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private UserService userService;
 
@@ -124,6 +141,43 @@ class UserServiceTest {
         verify(userRepository).save(any(User.class));
     }
 
+    @Test
+    void createUser_shouldStorePasswordHash() {
+        User newUser = new User();
+        newUser.setFullName("New User");
+        newUser.setEmail("new@example.com");
+        newUser.setPasswordHash("password");
+
+        when(userRepository.existsByEmailIgnoreCase("new@example.com")).thenReturn(false);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.createUser(newUser);
+
+        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(captor.capture());
+        String guardado = captor.getValue().getPasswordHash();
+        assertTrue(guardado.startsWith("{bcrypt}"));
+        assertTrue(passwordHasher.verificar("password", guardado).valida());
+    }
+
+    @Test
+    void createUser_shouldHashBeforeOpeningTransaction() {
+        User newUser = new User();
+        newUser.setFullName("New User");
+        newUser.setEmail("new@example.com");
+        newUser.setPasswordHash("password");
+
+        when(userRepository.existsByEmailIgnoreCase("new@example.com")).thenReturn(false);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userService.createUser(newUser);
+
+        InOrder inOrder = inOrder(passwordHasher, transactionTemplate, userRepository);
+        inOrder.verify(passwordHasher).hash("password");
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(userRepository).save(newUser);
+    }
+
     @Test
     void createUser_shouldThrowException_whenEmailExists() {
         when(userRepository.existsByEmailIgnoreCase("test@example.com")).thenReturn(true);
@@ -233,6 +287,50 @@ class UserServiceTest {
         userService.updateUser(1L, updatedDetails);
 
         verify(userRepository).save(any(User.class));
+        assertTrue(passwordHasher.verificar("newpassword", testUser.getPasswordHash()).valida());
+    }
+
+    @Test
+    void updateUser_shouldHashBeforeOpeningTransaction() {
+        User updatedDetails = new User();
+        updatedDetails.setPasswordHash("newpassword");
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        userService.updateUser(1L, updatedDetails);
+
+        InOrder inOrder = inOrder(passwordHasher, transactionTemplate, userRepository);
+        inOrder.verify(passwordHasher).hash("newpassword");
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(userRepository).save(testUser);
+    }
+
+    @Test
+    void updateUser_shouldNotHash_whenUserNotFound() {
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () ->
+            userService.updateUser(999L, testUser));
+
+        verify(passwordHasher, never()).hash(anyString());
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void updateUser_shouldKeepHash_whenPasswordUnchanged() {
+        String hash = passwordHasher.hash("password123");
+        testUser.setPasswordHash(hash);
+        User updatedDetails = new User();
+        updatedDetails.setPasswordHash(hash);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        userService.updateUser(1L, updatedDetails);
+
+        assertEquals(hash, testUser.getPasswordHash());
+        verify(passwordHasher, times(1)).hash(anyString());
     }
 
     @Test
@@ -262,6 +360,31 @@ class UserServiceTest {
         verify(roleRepository).findByName("DOCTOR");
     }
 
+    @Test
+    void registerUser_shouldHashBeforeOpeningTransactionAndAssignDefaultRole() {
+        Role userRole = new Role();
+        userRole.setId(3L);
+        userRole.setName("USER");
+        User newUser = new User();
+        newUser.setFullName("New User");
+        newUser.setEmail("new@example.com");
+        newUser.setPasswordHash("password");
+        newUser.setRoles(new HashSet<>());
+
+        when(userRepository.existsByEmailIgnoreCase("new@example.com")).thenReturn(false);
+        when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        User result = userService.registerUser(newUser);
+
+        assertTrue(result.getRoles().contains(userRole));
+        assertTrue(passwordHasher.verificar("password", result.getPasswordHash()).valida());
+        InOrder inOrder = inOrder(passwordHasher, transactionTemplate);
+        inOrder.verify(passwordHasher).hash("password");
+        inOrder.verify(transactionTemplate).execute(any());
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
     @Test
     void deleteUser_shouldDeleteUser() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
@@ -387,6 +510,8 @@ class UserServiceTest {
         assertNotNull(result);
         assertEquals("jwt.token.here", result.getToken());
         assertEquals("test@example.com", result.getEmail());
+        assertEquals(1, userService.getLoginsExitosos());
+        assertEquals(0, userService.getLoginsFallidos());
     }
 
     @Test
@@ -395,6 +520,8 @@ class UserServiceTest {
 
         assertThrows(IllegalArgumentException.class, () ->
             userService.login("notfound@example.com", "password"));
+        assertEquals(1, userService.getLoginsFallidos());
+        verify(passwordHasher).verificarSinUsuario("password");
     }
 
     @Test
@@ -403,6 +530,8 @@ class UserServiceTest {
 
         assertThrows(IllegalArgumentException.class, () ->
             userService.login("test@example.com", "wrongpassword"));
+        assertEquals(1, userService.getLoginsFallidos());
+        assertEquals(0, userService.getLoginsExitosos());
     }
 
     @Test
@@ -412,6 +541,51 @@ class UserServiceTest {
 
         assertThrows(IllegalArgumentException.class, () ->
             userService.login("test@example.com", "password123"));
+        assertEquals(1, userService.getLoginsFallidos());
+    }
+
+    @Test
+    void login_shouldRehashPlaintextPassword() {
+        when(userRepository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(testUser));
+        when(jwtTokenProvider.generateToken(anyString(), anyList())).thenReturn("jwt.token.here");
+
+        userService.login("test@example.com", "password123");
+
+        verify(userRepository).actualizarPasswordHash(eq(1L), eq("password123"), startsWith("{bcrypt}"));
+    }
+
+    @Test
+    void login_shouldNotRehash_whenPasswordAlreadyHashed() {
+        testUser.setPasswordHash(passwordHasher.hash("password123"));
+        when(userRepository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(testUser));
+        when(jwtTokenProvider.generateToken(anyString(), anyList())).thenReturn("jwt.token.here");
+
+        LoginResponse result = userService.login("test@example.com", "password123");
+
+        assertNotNull(result);
+        verify(userRepository, never()).actualizarPasswordHash(any(), any(), any());
+    }
+
+    @Test
+    void login_shouldNotRehash_whenInvalidPassword() {
+        when(userRepository.findByEmailIgnoreCase("test@example.com")).thenReturn(Optional.of(testUser));
+
+        assertThrows(IllegalArgumentException.class, () ->
+            userService.login("test@example.com", "wrongpassword"));
+        verify(userRepository, never()).actualizarPasswordHash(any(), any(), any());
+    }
+
+    @Test
+    void bindTo_shouldRegisterLoginCounters() {
+        when(userRepository.findByEmailIgnoreCase("notfound@example.com")).thenReturn(Optional.empty());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        userService.bindTo(registry);
+
+        assertThrows(IllegalArgumentException.class, () ->
+            userService.login("notfound@example.com", "password"));
+
+        assertEquals(1.0, registry.get("auth.login").tag("result", "failure").functionCounter().count());
+        assertEquals(0.0, registry.get("auth.login").tag("result", "success").functionCounter().count());
     }
 
     @Test
@@ -4,12 +4,17 @@ import com.sumativa.ms_usuarios.entity.Role;
 import com.sumativa.ms_usuarios.entity.User;
 import com.sumativa.ms_usuarios.repository.RoleRepository;
 import com.sumativa.ms_usuarios.repository.UserRepository;
+import com.sumativa.ms_usuarios.security.PasswordHashConfig;
+import com.sumativa.ms_usuarios.security.PasswordHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 import java.util.Set;
@@ -30,6 +35,13 @@ class UserServiceValidationTest {
     @Mock
     private RoleRepository roleRepository;
 
+    // bcrypt de costo mínimo y sin executor: los tests no esperan el costo real
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(new PasswordHashConfig().passwordEncoder(4), Runnable::run);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private UserService userService;
 